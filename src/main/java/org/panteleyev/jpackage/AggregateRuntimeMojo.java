@@ -0,0 +1,389 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.toolchain.Toolchain;
+import org.apache.maven.toolchain.ToolchainManager;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.panteleyev.jpackage.JPackageMojo.ALL_DEFAULT;
+import static org.panteleyev.jpackage.JPackageMojo.SHARED_RUNTIME_IMAGE_PROPERTY;
+import static org.panteleyev.jpackage.Tools.findTool;
+import static org.panteleyev.jpackage.Tools.newCommandline;
+import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+import static org.panteleyev.jpackage.util.StringUtil.isNotEmpty;
+
+/**
+ * <p>Links one runtime image shared by all applications of the reactor.</p>
+ *
+ * <p>Goal collects <code>addModules</code>, <code>module</code>, <code>jLink</code> and <code>jLinkOptions</code>
+ * settings of all <code>jpackage</code> executions in the reactor and links a runtime image containing the union of
+ * the required modules. This image is then used as <code>--runtime-image</code> by every participating
+ * <code>jpackage:jpackage</code> execution of the same build. Executions that define <code>runtimeImage</code> or
+ * <code>appImage</code> do not participate.</p>
+ *
+ * <p>The goal must be executed before <code>jpackage:jpackage</code>. Packaging of the modules can then run in
+ * parallel:</p>
+ * <pre>
+ * mvn -T 4 clean verify jpackage:aggregate-runtime jpackage:jpackage
+ * </pre>
+ */
+@Mojo(name = "aggregate-runtime", aggregator = true, defaultPhase = LifecyclePhase.NONE)
+public class AggregateRuntimeMojo extends AbstractMojo {
+    private static final Logger logger = LoggerFactory.getLogger(AggregateRuntimeMojo.class);
+
+    private static final String TOOLCHAIN = "jdk";
+    private static final String JLINK = "jlink";
+    private static final String JDEPS = "jdeps";
+    private static final String JPACKAGE_GOAL = "jpackage";
+    private static final String DRY_RUN_PROPERTY = "jpackage.dryRun";
+
+    // Boolean properties of JLink in constructor order
+    private static final List<String> JLINK_FLAGS = Arrays.asList(
+            "bindServices", "noHeaderFiles", "noManPages", "stripDebug", "stripNativeCommands", "generateCdsArchive"
+    );
+
+    private final ToolchainManager toolchainManager;
+
+    @Parameter(defaultValue = "${session}", required = true, readonly = true)
+    private MavenSession session;
+
+    @Parameter(defaultValue = "${plugin}", required = true, readonly = true)
+    private PluginDescriptor pluginDescriptor;
+
+    /**
+     * Skips plugin execution.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * <p>Location of the shared runtime image.</p>
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jpackage-runtime")
+    private File runtimeImage;
+
+    /**
+     * <p>Modules added to the shared runtime image in addition to modules required by applications.</p>
+     */
+    @Parameter
+    private List<String> additionalModules;
+
+    /**
+     * <p>Maximum number of concurrent executions.</p>
+     * <p>Limits number of <code>jpackage</code> and <code>jlink</code> processes running at once when modules are
+     * built in parallel, for example with <code>mvn -T 8</code>. Executions over the limit wait in order of arrival.
+     * If not specified, one execution per 2 processor cores and per 2 GB of physical memory is allowed.</p>
+     * <p>The limit and <code>executionLockDirectory</code> are shared by all executions of the Maven session and
+     * are defined by the first one.</p>
+     */
+    @Parameter(property = "jpackage.maxConcurrentExecutions")
+    private int maxConcurrentExecutions;
+
+    /**
+     * <p>Execution lock directory.</p>
+     * <p>If specified, executions also take one of <code>maxConcurrentExecutions</code> file lock slots in this
+     * directory. This extends the limit to all Maven processes on the host that use the same directory.</p>
+     */
+    @Parameter(property = "jpackage.executionLockDirectory")
+    private File executionLockDirectory;
+
+    /**
+     * <p>Options of the JVM that runs <code>jlink</code>.</p>
+     * <p>JVM options are passed to the tool with <code>-J</code>. If <code>classDataSharing</code> is
+     * <code>true</code>, the first execution creates AppCDS archive of the tool classes in
+     * <code>archiveDirectory</code>, subsequent executions with the same JDK start faster using this archive.</p>
+     * <p>Example:
+     * <pre>
+     * &lt;toolJvm>
+     *     &lt;options>
+     *         &lt;option>-Xmx512m&lt;/option>
+     *         &lt;option>-XX:TieredStopAtLevel=1&lt;/option>
+     *     &lt;/options>
+     *     &lt;classDataSharing>true&lt;/classDataSharing>
+     * &lt;/toolJvm>
+     * </pre>
+     * </p>
+     */
+    @Parameter
+    private ToolJvm toolJvm;
+
+    @Inject
+    public AggregateRuntimeMojo(ToolchainManager toolchainManager) {
+        this.toolchainManager = toolchainManager;
+    }
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            logger.info("Skipping plugin execution");
+            return;
+        }
+
+        List<MavenProject> participants = new ArrayList<>();
+        Set<String> modules = new TreeSet<>();
+        Set<String> modulePaths = new LinkedHashSet<>();
+        Map<String, List<String>> jLinkOptions = new LinkedHashMap<>();
+        Map<String, String> jLinkOptionOwners = new HashMap<>();
+        boolean[] jLinkFlags = new boolean[JLINK_FLAGS.size()];
+        boolean explicitJLinkOptions = false;
+
+        Toolchain tc = toolchainManager.getToolchainFromBuildContext(TOOLCHAIN, session);
+
+        for (MavenProject project : session.getProjects()) {
+            for (Xpp3Dom configuration : getJPackageConfigurations(project)) {
+                if (isTrue(configuration, "skip") || hasChild(configuration, "runtimeImage")
+                        || hasChild(configuration, "appImage"))
+                {
+                    continue;
+                }
+
+                if (!participants.contains(project)) {
+                    participants.add(project);
+                }
+
+                List<String> projectModulePaths = getValues(configuration, "modulePaths").stream()
+                        .map(path -> resolve(project, path))
+                        .collect(Collectors.toList());
+                modulePaths.addAll(projectModulePaths);
+
+                List<String> projectModules = getValues(configuration, "addModules");
+                modules.addAll(projectModules);
+
+                String mainModule = getValue(configuration, "module");
+                if (isNotEmpty(mainModule)) {
+                    modules.addAll(getModuleDependencies(tc, mainModule.split("/")[0], projectModulePaths));
+                } else if (projectModules.isEmpty()) {
+                    // Same default module set as jpackage uses for a non-modular application
+                    logger.warn("{} defines no modules, adding {}", project.getArtifactId(), ALL_DEFAULT);
+                    modules.add(ALL_DEFAULT);
+                }
+
+                List<String> projectJLinkOptions = getValues(configuration, "jLinkOptions");
+                if (!projectJLinkOptions.isEmpty()) {
+                    explicitJLinkOptions = true;
+                    mergeJLinkOptions(jLinkOptions, jLinkOptionOwners, project.getArtifactId(),
+                            parseJLinkOptions(projectJLinkOptions));
+                }
+
+                Xpp3Dom jLink = configuration.getChild("jLink");
+                if (jLink != null) {
+                    explicitJLinkOptions = true;
+                    for (int i = 0; i < JLINK_FLAGS.size(); i++) {
+                        jLinkFlags[i] |= isTrue(jLink, JLINK_FLAGS.get(i));
+                    }
+                }
+            }
+        }
+
+        if (participants.isEmpty()) {
+            logger.warn("No {} executions found in the reactor", JPACKAGE_GOAL);
+            return;
+        }
+
+        if (additionalModules != null) {
+            additionalModules.stream().filter(Objects::nonNull).forEach(modules::add);
+        }
+
+        String jLinkFlagOptions = new JLink(jLinkFlags[0], jLinkFlags[1], jLinkFlags[2], jLinkFlags[3],
+                jLinkFlags[4], jLinkFlags[5]).build();
+        if (!jLinkFlagOptions.isEmpty()) {
+            parseJLinkOptions(Arrays.asList(jLinkFlagOptions.split(" "))).forEach(jLinkOptions::putIfAbsent);
+        }
+        if (!explicitJLinkOptions) {
+            parseJLinkOptions(JPackageMojo.DEFAULT_JLINK_OPTIONS).forEach(jLinkOptions::putIfAbsent);
+        }
+        List<String> jLinkArguments = toArguments(jLinkOptions);
+
+        String executable = findTool(tc, JLINK)
+                .orElseThrow(() -> new MojoExecutionException("Failed to find " + JLINK));
+
+        Commandline commandline = newCommandline(executable);
+        commandline.createArg().setValue("--output");
+        commandline.createArg().setValue(runtimeImage.getAbsolutePath());
+        if (!modulePaths.isEmpty()) {
+            commandline.createArg().setValue("--module-path");
+            commandline.createArg().setValue(String.join(File.pathSeparator, modulePaths));
+        }
+        commandline.createArg().setValue("--add-modules");
+        commandline.createArg().setValue(String.join(",", modules));
+        for (String argument : jLinkArguments) {
+            commandline.createArg().setValue(argument);
+        }
+
+        logger.info("Linking shared runtime image for {}",
+                participants.stream().map(MavenProject::getArtifactId).collect(Collectors.joining(", ")));
+        logger.info("  modules: {}", String.join(",", modules));
+        logger.info("  options: {}", String.join(" ", jLinkArguments));
+
+        boolean dryRun = "true".equalsIgnoreCase(System.getProperty(DRY_RUN_PROPERTY, "false"));
+        if (dryRun) {
+            logger.warn("Dry-run mode, not executing {}", JLINK);
+            return;
+        }
+
+        removeDirectory(runtimeImage.toPath());
+        ToolScheduler scheduler = ToolScheduler.getShared(session, maxConcurrentExecutions, executionLockDirectory);
+        try (ToolScheduler.Permit ignored = scheduler.acquire(JLINK)) {
+            Tools.execute(commandline, JLINK, executable, toolJvm);
+        }
+
+        for (MavenProject project : participants) {
+            project.getProperties().setProperty(SHARED_RUNTIME_IMAGE_PROPERTY, runtimeImage.getAbsolutePath());
+        }
+    }
+
+    // Groups whitespace separated options by name. Option value is either the part after '=' or the following
+    // argument that is not an option itself. Options without value have empty value list.
+    static Map<String, List<String>> parseJLinkOptions(List<String> options) {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        List<String> values = null;
+        for (String option : options) {
+            for (String argument : option.trim().split("\\s+")) {
+                if (argument.isEmpty()) continue;
+                if (values == null || argument.startsWith("-")) {
+                    int index = argument.indexOf('=');
+                    String name = index > 0 ? argument.substring(0, index) : argument;
+                    values = result.computeIfAbsent(name, k -> new ArrayList<>());
+                    if (index > 0) {
+                        values.add(argument.substring(index + 1));
+                    }
+                } else {
+                    values.add(argument);
+                }
+            }
+        }
+        return result;
+    }
+
+    // Adds project options to the merged ones. The same option defined by several projects must have the same values.
+    static void mergeJLinkOptions(Map<String, List<String>> merged, Map<String, String> owners, String project,
+            Map<String, List<String>> options) throws MojoFailureException
+    {
+        for (Map.Entry<String, List<String>> option : options.entrySet()) {
+            List<String> existing = merged.putIfAbsent(option.getKey(), option.getValue());
+            if (existing == null) {
+                owners.put(option.getKey(), project);
+            } else if (!existing.equals(option.getValue())) {
+                throw new MojoFailureException("Projects " + owners.get(option.getKey()) + " and " + project
+                        + " define different values of " + option.getKey() + ": "
+                        + String.join(" ", existing) + ", " + String.join(" ", option.getValue()));
+            }
+        }
+    }
+
+    static List<String> toArguments(Map<String, List<String>> options) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, List<String>> option : options.entrySet()) {
+            if (option.getValue().isEmpty()) {
+                result.add(option.getKey());
+            }
+            for (String value : option.getValue()) {
+                result.add(option.getKey());
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private List<Xpp3Dom> getJPackageConfigurations(MavenProject project) {
+        Plugin plugin = project.getPlugin(pluginDescriptor.getPluginLookupKey());
+        if (plugin == null) {
+            return new ArrayList<>();
+        }
+
+        Xpp3Dom pluginConfiguration = (Xpp3Dom) plugin.getConfiguration();
+        List<Xpp3Dom> result = new ArrayList<>();
+        for (PluginExecution execution : plugin.getExecutions()) {
+            if (execution.getGoals().contains(JPACKAGE_GOAL)) {
+                result.add(Xpp3Dom.mergeXpp3Dom((Xpp3Dom) execution.getConfiguration(), pluginConfiguration));
+            }
+        }
+        // Goal invoked from the command line uses plugin level configuration
+        if (result.isEmpty() && pluginConfiguration != null) {
+            result.add(pluginConfiguration);
+        }
+        return result;
+    }
+
+    private List<String> getModuleDependencies(Toolchain tc, String module, List<String> modulePaths)
+            throws MojoExecutionException
+    {
+        String executable = findTool(tc, JDEPS)
+                .orElseThrow(() -> new MojoExecutionException("Failed to find " + JDEPS));
+
+        Commandline commandline = newCommandline(executable);
+        if (!modulePaths.isEmpty()) {
+            commandline.createArg().setValue("--module-path");
+            commandline.createArg().setValue(String.join(File.pathSeparator, modulePaths));
+        }
+        commandline.createArg().setValue("--print-module-deps");
+        commandline.createArg().setValue("--ignore-missing-deps");
+        commandline.createArg().setValue("--module");
+        commandline.createArg().setValue(module);
+
+        String output = Tools.execute(commandline, JDEPS);
+        return Arrays.stream(output.trim().split(","))
+                .map(String::trim)
+                .filter(m -> !m.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static String resolve(MavenProject project, String path) {
+        File file = new File(path);
+        return (file.isAbsolute() ? file : new File(project.getBasedir(), path)).getAbsolutePath();
+    }
+
+    private static boolean hasChild(Xpp3Dom configuration, String name) {
+        return isNotEmpty(getValue(configuration, name));
+    }
+
+    private static boolean isTrue(Xpp3Dom configuration, String name) {
+        return "true".equalsIgnoreCase(getValue(configuration, name));
+    }
+
+    private static String getValue(Xpp3Dom configuration, String name) {
+        if (configuration == null) return null;
+        Xpp3Dom child = configuration.getChild(name);
+        return child == null || child.getValue() == null ? null : child.getValue().trim();
+    }
+
+    private static List<String> getValues(Xpp3Dom configuration, String name) {
+        List<String> values = new ArrayList<>();
+        Xpp3Dom list = configuration == null ? null : configuration.getChild(name);
+        if (list == null) return values;
+        for (Xpp3Dom child : list.getChildren()) {
+            if (isNotEmpty(child.getValue())) {
+                values.add(child.getValue().trim());
+            }
+        }
+        return values;
+    }
+}
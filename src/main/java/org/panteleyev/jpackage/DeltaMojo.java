@@ -0,0 +1,151 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.panteleyev.jpackage.util.DeltaPackage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.panteleyev.jpackage.util.DirectoryUtil.copyDirectory;
+import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+
+/**
+ * <p>Generates delta archive between two application images.</p>
+ *
+ * <p>Delta archive contains added and changed files, binary patches for large changed files, list of deleted files
+ * and content manifest of the resulting image. Delta can be applied on the target machine without Maven:</p>
+ * <pre>
+ * java -cp jpackage-maven-plugin.jar org.panteleyev.jpackage.util.DeltaPackage &lt;image> &lt;delta>
+ * </pre>
+ * <p>Applier verifies the resulting image against the manifest and exits with non-zero code on mismatch.</p>
+ */
+@Mojo(name = "delta", defaultPhase = LifecyclePhase.NONE)
+public class DeltaMojo extends AbstractMojo {
+    private static final Logger logger = LoggerFactory.getLogger(DeltaMojo.class);
+
+    /**
+     * Skips plugin execution.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * <p>Current application image.</p>
+     */
+    @Parameter(required = true)
+    private File appImage;
+
+    /**
+     * <p>Previous application image.</p>
+     * <p>Either a directory or an archive: <code>.tar</code>, <code>.tar.gz</code>, <code>.tgz</code> or
+     * <code>.zip</code>.</p>
+     * <p>Archive created from the parent directory contains the image directory as its single top-level entry, in
+     * this case that directory is used as the previous image.</p>
+     */
+    @Parameter(required = true)
+    private File previousAppImage;
+
+    /**
+     * <p>Generated delta archive.</p>
+     */
+    @Parameter(defaultValue = "${project.build.directory}/${project.build.finalName}-delta.tar.gz")
+    private File deltaFile;
+
+    /**
+     * <p>Changed files of this size and above are stored as binary patches when it makes the delta smaller.</p>
+     */
+    @Parameter(defaultValue = "1048576")
+    private long diffThreshold;
+
+    /**
+     * <p>Verify delta.</p>
+     * <p>If <code>true</code> plugin applies generated delta to a copy of the previous image and verifies the result
+     * against the manifest.</p>
+     */
+    @Parameter(defaultValue = "true")
+    private boolean verifyDelta;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            logger.info("Skipping plugin execution");
+            return;
+        }
+
+        if (!appImage.isDirectory()) {
+            throw new MojoFailureException("Application image " + appImage.getAbsolutePath() + " does not exist");
+        }
+        if (!previousAppImage.exists()) {
+            throw new MojoFailureException("File or directory " + previousAppImage.getAbsolutePath()
+                    + " does not exist");
+        }
+
+        Path tempDirectory = null;
+        try {
+            tempDirectory = Files.createTempDirectory("jpackage-delta");
+            Path previous = previousAppImage.toPath().toAbsolutePath();
+            if (!previousAppImage.isDirectory()) {
+                logger.info("Extracting {}", previous);
+                Path extracted = tempDirectory.resolve("previous");
+                DeltaPackage.extract(previous, extracted);
+                previous = imageRoot(extracted, appImage.toPath().toAbsolutePath());
+            }
+
+            Path delta = deltaFile.toPath().toAbsolutePath();
+            Files.createDirectories(delta.getParent());
+            logger.info("Generating delta {}", delta);
+            DeltaPackage.Statistics statistics = DeltaPackage.create(previous, appImage.toPath().toAbsolutePath(),
+                    delta, diffThreshold);
+            logger.info("  {}", statistics);
+            logger.info("  Delta size: {} bytes", statistics.getSize());
+
+            if (verifyDelta) {
+                Path copy = tempDirectory.resolve("verify");
+                copyDirectory(previous, copy);
+                DeltaPackage.apply(copy, delta);
+                logger.info("Delta verified");
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to generate delta: " + ex.getMessage(), ex);
+        } finally {
+            if (tempDirectory != null) {
+                removeDirectory(tempDirectory);
+            }
+        }
+    }
+
+    // Archive of the image directory itself holds a single top-level directory, unless the image has a directory of
+    // the same name at its root it is the image
+    static Path imageRoot(Path extracted, Path image) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(extracted)) {
+            stream.forEach(entries::add);
+        }
+        if (entries.size() != 1) {
+            return extracted;
+        }
+        Path single = entries.get(0);
+        if (!Files.isDirectory(single, LinkOption.NOFOLLOW_LINKS)
+                || Files.exists(image.resolve(single.getFileName().toString()), LinkOption.NOFOLLOW_LINKS))
+        {
+            return extracted;
+        }
+        logger.info("Using top-level directory {} of the archive", single.getFileName());
+        return single;
+    }
+}
@@ -2,6 +2,8 @@
 // SPDX-License-Identifier: BSD-2-Clause
 package org.panteleyev.jpackage;
 
+import static org.panteleyev.jpackage.util.StringUtil.isNotEmpty;
+
 /**
  * Convenience class to define {@code jlink} options.
  */
@@ -12,6 +14,8 @@ public class JLink {
     private boolean stripDebug;
     private boolean stripNativeCommands;
     private boolean generateCdsArchive;
+    private String orderResources;
+    private String generateJliClasses;
 
     /**
      * Creates new instance of the class.
@@ -84,6 +88,26 @@ public class JLink {
         this.generateCdsArchive = generateCdsArchive;
     }
 
+    /**
+     * <p>Defines value of {@code --order-resources} option: comma separated list of resource path patterns or
+     * {@code @filename} of the file with one resource path per line.</p>
+     *
+     * @param orderResources --order-resources
+     */
+    public void setOrderResources(String orderResources) {
+        this.orderResources = orderResources;
+    }
+
+    /**
+     * <p>Defines value of {@code --generate-jli-classes} option: {@code @filename} of the file with
+     * {@code java.lang.invoke} species to pregenerate.</p>
+     *
+     * @param generateJliClasses --generate-jli-classes
+     */
+    public void setGenerateJliClasses(String generateJliClasses) {
+        this.generateJliClasses = generateJliClasses;
+    }
+
     String build() {
         return (
                 (bindServices ? "--bind-services " : "")
@@ -92,6 +116,8 @@ public class JLink {
                         + (stripDebug ? "--strip-debug " : "")
                         + (stripNativeCommands ? "--strip-native-commands " : "")
                         + (generateCdsArchive ? "--generate-cds-archive " : "")
+                        + (isNotEmpty(orderResources) ? "--order-resources=" + orderResources + " " : "")
+                        + (isNotEmpty(generateJliClasses) ? "--generate-jli-classes=" + generateJliClasses + " " : "")
         ).trim();
     }
 }
@@ -4,27 +4,52 @@ package org.panteleyev.jpackage;
 
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecution;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.apache.maven.shared.utils.cli.CommandLineException;
-import org.apache.maven.shared.utils.cli.CommandLineUtils;
+import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.utils.cli.Commandline;
 import org.apache.maven.toolchain.Toolchain;
 import org.apache.maven.toolchain.ToolchainManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import org.panteleyev.jpackage.util.AppImage;
+import org.panteleyev.jpackage.util.ContentManifest;
+import org.panteleyev.jpackage.util.Deduplicator;
+import org.panteleyev.jpackage.util.ImageLayers;
+import org.panteleyev.jpackage.util.InputStaging;
+import org.panteleyev.jpackage.util.JarMerger;
+import org.panteleyev.jpackage.util.NativeLibraries;
+import org.panteleyev.jpackage.util.OciLayout;
+import org.panteleyev.jpackage.util.Tracer;
+
 import javax.inject.Inject;
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.panteleyev.jpackage.CommandLineParameter.ABOUT_URL;
 import static org.panteleyev.jpackage.CommandLineParameter.ADD_LAUNCHER;
 import static org.panteleyev.jpackage.CommandLineParameter.ADD_MODULES;
@@ -82,13 +107,17 @@ import static org.panteleyev.jpackage.CommandLineParameter.WIN_SHORTCUT;
 import static org.panteleyev.jpackage.CommandLineParameter.WIN_SHORTCUT_PROMPT;
 import static org.panteleyev.jpackage.CommandLineParameter.WIN_UPDATE_URL;
 import static org.panteleyev.jpackage.CommandLineParameter.WIN_UPGRADE_UUID;
+import static org.panteleyev.jpackage.Tools.findTool;
+import static org.panteleyev.jpackage.Tools.newCommandline;
+import static org.panteleyev.jpackage.util.ChecksumUtil.CHECKSUM_EXTENSION;
+import static org.panteleyev.jpackage.util.ChecksumUtil.writeChecksumFile;
 import static org.panteleyev.jpackage.util.DirectoryUtil.isNestedDirectory;
 import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+import static org.panteleyev.jpackage.util.LauncherConfig.APPDIR;
 import static org.panteleyev.jpackage.util.OsUtil.isLinux;
 import static org.panteleyev.jpackage.util.OsUtil.isMac;
 import static org.panteleyev.jpackage.util.OsUtil.isWindows;
 import static org.panteleyev.jpackage.util.StringUtil.escape;
-import static org.panteleyev.jpackage.util.StringUtil.isEmpty;
 import static org.panteleyev.jpackage.util.StringUtil.isNotEmpty;
 
 /**
@@ -99,7 +128,7 @@ import static org.panteleyev.jpackage.util.StringUtil.isNotEmpty;
  * <a href="https://docs.oracle.com/en/java/javase/25/jpackage/packaging-tool-user-guide.pdf">Packaging Tool User's
  * Guide</a></p>
  */
-@Mojo(name = "jpackage", defaultPhase = LifecyclePhase.NONE)
+@Mojo(name = "jpackage", defaultPhase = LifecyclePhase.NONE, threadSafe = true)
 public class JPackageMojo extends AbstractMojo {
     private static final Logger logger = LoggerFactory.getLogger(JPackageMojo.class);
 
@@ -108,14 +137,57 @@ public class JPackageMojo extends AbstractMojo {
 
     private static final String DRY_RUN_PROPERTY = "jpackage.dryRun";
 
+    static final String SHARED_RUNTIME_IMAGE_PROPERTY = "jpackage.sharedRuntimeImage";
+
+    static final String MANIFEST_FILE_NAME = "jpackage-manifest.txt";
+
+    // Default jpackage jlink options
+    static final List<String> DEFAULT_JLINK_OPTIONS = Arrays.asList(
+            "--strip-native-commands", "--strip-debug", "--no-man-pages", "--no-header-files"
+    );
+
+    private static final String TRAINING_DIRECTORY = "jpackage-training";
+    private static final String INPUT_STAGING_DIRECTORY = "jpackage-input";
+    private static final String PROFILE_DIRECTORY = "jpackage-profile";
+    private static final String MODULE_CONVERSION_DIRECTORY = "jpackage-modules";
+    private static final String JAR_MERGE_DIRECTORY = "jpackage-merge";
+    private static final String JAR_MERGE_REPORT = "report.txt";
+    private static final String OCI_DIRECTORY = "jpackage-oci";
+    // Directory of the application directory with native libraries extracted from jars
+    private static final String NATIVE_DIRECTORY = "native";
+    private static final String LIBRARY_PATH_OPTION = "-Djava.library.path=";
+    // Measurements of jar opening time, the best one is reported
+    private static final int JAR_OPEN_MEASUREMENTS = 3;
+    // Image layers, runtime layer contains files outside of the application directory including launchers
+    private static final String RUNTIME_LAYER = "runtime";
+    private static final String DEPENDENCY_LAYER = "dependencies";
+    private static final String APPLICATION_LAYER = "app";
+    static final String LAYERS_FILE_NAME = "layers.properties";
+    private static final String LAYER_EXTENSION = ".tar.gz";
+    // Length of the checksum prefix in the dependency layer file name
+    private static final int LAYER_HASH_LENGTH = 12;
+    // jpackage adds default modules of non-modular application to the explicitly specified ones
+    static final String ALL_DEFAULT = "ALL-DEFAULT";
+    // Prefix of execution ids assigned by Maven
+    private static final String DEFAULT_EXECUTION_ID = "default";
+
+    private static final String TRACE_SERVICE_NAME = "jpackage-maven-plugin";
+    private static final int TRACE_EXPORT_TIMEOUT = 5000;
+
     private final ToolchainManager toolchainManager;
 
     @Parameter(defaultValue = "${session}", required = true, readonly = true)
     private MavenSession session;
 
+    @Parameter(defaultValue = "${project}", required = true, readonly = true)
+    private MavenProject project;
+
     @Parameter(defaultValue = "${project.build.directory}", readonly = true)
     private String projectBuildDirectory;
 
+    @Parameter(defaultValue = "${mojoExecution}", readonly = true)
+    private MojoExecution mojoExecution;
+
     /**
      * Skips plugin execution.
      */
@@ -197,6 +269,10 @@ public class JPackageMojo extends AbstractMojo {
      * <p><b>For application package:</b> Path of the predefined runtime image to install.<br>
      * Option is required when creating a runtime installer.</p>
      *
+     * <p>If neither <code>runtimeImage</code> nor <code>appImage</code> is specified and
+     * <a href="aggregate-runtime-mojo.html">jpackage:aggregate-runtime</a> was executed earlier in the same build,
+     * the shared runtime image is used.</p>
+     *
      * @since 14
      */
     @Parameter
@@ -212,6 +288,36 @@ public class JPackageMojo extends AbstractMojo {
     @Parameter
     private File input;
 
+    /**
+     * <p>Input include patterns.</p>
+     * <p>Glob patterns of <code>input</code> files passed to <code>jpackage</code>, relative to <code>input</code>
+     * with <code>/</code> as separator. If include or exclude patterns are specified, plugin builds staging directory
+     * <code>jpackage-input</code> of hard links to the matching files in the project build directory and passes it
+     * as <code>--input</code>. If no include patterns are specified, all files are included.</p>
+     * <pre>
+     * &lt;inputIncludes>
+     *     &lt;inputInclude>*.jar&lt;/inputInclude>
+     *     &lt;inputInclude>native/**&lt;/inputInclude>
+     * &lt;/inputIncludes>
+     * </pre>
+     */
+    @Parameter
+    private List<String> inputIncludes;
+
+    /**
+     * <p>Input exclude patterns.</p>
+     * <p>Glob patterns of <code>input</code> files that are not passed to <code>jpackage</code>. Exclude patterns
+     * take precedence over include patterns.</p>
+     * <pre>
+     * &lt;inputExcludes>
+     *     &lt;inputExclude>**&#47;*-sources.jar&lt;/inputExclude>
+     *     &lt;inputExclude>**&#47;*-tests.jar&lt;/inputExclude>
+     * &lt;/inputExcludes>
+     * </pre>
+     */
+    @Parameter
+    private List<String> inputExcludes;
+
     /**
      * <p>--install-dir <i>path</i></p>
      * <p>Absolute path of the installation directory of the application (on macOS or linux), or relative sub-path of
@@ -418,6 +524,51 @@ public class JPackageMojo extends AbstractMojo {
     @Parameter
     private List<String> addModules;
 
+    /**
+     * <p>Convert automatic modules.</p>
+     * <p>If <code>true</code> non-modular jars of the input directory are converted into explicit modules and linked
+     * into the runtime image instead of being copied to the application directory. Module descriptors are generated
+     * by <code>jdeps</code> of the toolchain. The main jar and jars that cannot be converted, for example because of
+     * split packages, stay on the classpath. Conversion report is written to
+     * <code>${project.build.directory}/jpackage-modules/report.txt</code>.</p>
+     */
+    @Parameter
+    private boolean convertAutomaticModules;
+
+    /**
+     * <p>Jar merging.</p>
+     * <p>If specified, dependency jars of the input directory are merged into at most <code>jars</code> combined jars
+     * before packaging, so the application opens fewer files at startup. Service files are concatenated, license
+     * files are kept under <code>META-INF/licenses/&lt;jar></code>. Main jar, jars matching <code>excludes</code>
+     * and jars that are signed, modular, multi-release, define manifest <code>Class-Path</code> or contain a
+     * resource that differs from the same resource of another classpath jar are not merged. Launcher classpath lists
+     * the merged jars instead of the original ones. Merge report is written to
+     * <code>${project.build.directory}/jpackage-merge/report.txt</code>.</p>
+     * <p>Example:
+     * <pre>
+     * &lt;jarMerge>
+     *     &lt;jars>2&lt;/jars>
+     *     &lt;excludes>
+     *         &lt;exclude>plugins/**&lt;/exclude>
+     *     &lt;/excludes>
+     * &lt;/jarMerge>
+     * </pre>
+     * </p>
+     */
+    @Parameter
+    private JarMerge jarMerge;
+
+    /**
+     * <p>Extract native libraries.</p>
+     * <p>If <code>true</code> native libraries of the current platform bundled into jars of the input directory and
+     * <code>modulePaths</code> are extracted into <code>native</code> directory of the application, and launcher
+     * Java options point libraries to them, so libraries like JNA, sqlite-jdbc or netty do not extract them into
+     * the temporary directory on every start. Options include <code>java.library.path</code> unless it is set by
+     * <code>javaOptions</code>, and library specific properties of JNA and sqlite-jdbc.</p>
+     */
+    @Parameter
+    private boolean extractNativeLibraries;
+
     /**
      * <p>--app-image <i>directory</i></p>
      * <p>Location of the predefined application image that is used to build an installable package (on all platforms)
@@ -476,6 +627,8 @@ public class JPackageMojo extends AbstractMojo {
      *        <tr><td>stripDebug</td><td>boolean</td><td>--strip-debug</td></tr>
      *        <tr><td>stripNativeCommands</td><td>boolean</td><td>--strip-native-commands</td></tr>
      *        <tr><td>generateCdsArchive</td><td>boolean</td><td>--generate-cds-archive</td></tr>
+     *        <tr><td>orderResources</td><td>String</td><td>--order-resources</td></tr>
+     *        <tr><td>generateJliClasses</td><td>String</td><td>--generate-jli-classes</td></tr>
      *    </table>
      * </p>
      * <p>Example:
@@ -496,6 +649,83 @@ public class JPackageMojo extends AbstractMojo {
     @Parameter
     private JLink jLink;
 
+    /**
+     * <p>Training run.</p>
+     * <p>If specified, plugin links a preliminary runtime image and runs the application once with class loading
+     * logged. Classes loaded from the runtime image and <code>java.lang.invoke</code> species resolved by the
+     * application are written to <code>${project.build.directory}/jpackage-training</code> and passed to
+     * <code>jlink</code> as <code>--order-resources</code> and <code>--generate-jli-classes</code>, so classes used at
+     * startup are stored contiguously in <code>lib/modules</code>.</p>
+     * <p>Training run is performed only when <code>jpackage</code> links the runtime image. Applications that do not
+     * exit by themselves are stopped after <code>timeout</code> seconds.</p>
+     * <p>Example:
+     * <pre>
+     * &lt;trainingRun>
+     *     &lt;arguments>
+     *         &lt;argument>--exit-after-startup&lt;/argument>
+     *     &lt;/arguments>
+     *     &lt;timeout>30&lt;/timeout>
+     * &lt;/trainingRun>
+     * </pre>
+     * </p>
+     */
+    @Parameter
+    private TrainingRun trainingRun;
+
+    /**
+     * <p>Order classpath by first use.</p>
+     * <p>If <code>true</code> jars of the launcher classpath are listed in the order in which the training run first
+     * loaded classes from them, so class lookups at startup do not scan jars that are not used yet. Jars not used by
+     * the training run follow in their original order. Requires <code>trainingRun</code> and <code>mainJar</code>,
+     * launcher configuration is rewritten for <code>app-image</code> type only.</p>
+     */
+    @Parameter
+    private boolean orderClasspath;
+
+    /**
+     * <p>Toolchain matrix.</p>
+     * <p>If specified, package is built with each of the listed JDK toolchains instead of the toolchain of the build
+     * context. Toolchains are resolved by version and vendor from <code>toolchains.xml</code>. Packages are built
+     * concurrently into <code>destination</code> and <code>temp</code> subdirectories named after toolchain
+     * <code>id</code>. Summary of statuses, durations and sizes is printed when all packages are built.</p>
+     * <p>Example:
+     * <pre>
+     * &lt;toolchains>
+     *     &lt;toolchain>
+     *         &lt;version>21&lt;/version>
+     *     &lt;/toolchain>
+     *     &lt;toolchain>
+     *         &lt;id>jdk25&lt;/id>
+     *         &lt;version>25&lt;/version>
+     *         &lt;vendor>temurin&lt;/vendor>
+     *     &lt;/toolchain>
+     * &lt;/toolchains>
+     * </pre>
+     * </p>
+     */
+    @Parameter
+    private List<ToolchainRequirement> toolchains;
+
+    /**
+     * <p>Options of the JVM that runs <code>jpackage</code> and <code>jlink</code>.</p>
+     * <p>JVM options are passed to the tool with <code>-J</code>. If <code>classDataSharing</code> is
+     * <code>true</code>, the first execution creates AppCDS archive of the tool classes in
+     * <code>archiveDirectory</code>, subsequent executions with the same JDK start faster using this archive.</p>
+     * <p>Example:
+     * <pre>
+     * &lt;toolJvm>
+     *     &lt;options>
+     *         &lt;option>-Xmx512m&lt;/option>
+     *         &lt;option>-XX:TieredStopAtLevel=1&lt;/option>
+     *     &lt;/options>
+     *     &lt;classDataSharing>true&lt;/classDataSharing>
+     * &lt;/toolJvm>
+     * </pre>
+     * </p>
+     */
+    @Parameter
+    private ToolJvm toolJvm;
+
     /**
      * <p>--about-url <i>url</i></p>
      * <p>URL of the application's home page.</p>
@@ -532,6 +762,26 @@ public class JPackageMojo extends AbstractMojo {
     @Parameter
     private boolean launcherAsService;
 
+    /**
+     * <p>Service unit settings.</p>
+     * <p>systemd resource control settings of the launchers registered with <code>launcherAsService</code> on Linux.
+     * Plugin generates service units in staging resource directory <code>jpackage-resources</code> in the project
+     * build directory, merging them with units and other files of <code>resourceDir</code>, and verifies the unit of
+     * the main launcher is present in the generated package.</p>
+     * <pre>
+     * &lt;serviceUnit>
+     *     &lt;memoryMax>1G&lt;/memoryMax>
+     *     &lt;cpuQuota>150%&lt;/cpuQuota>
+     *     &lt;limitNoFile>65536&lt;/limitNoFile>
+     *     &lt;nice>5&lt;/nice>
+     *     &lt;ioSchedulingClass>best-effort&lt;/ioSchedulingClass>
+     *     &lt;ioSchedulingPriority>6&lt;/ioSchedulingPriority>
+     * &lt;/serviceUnit>
+     * </pre>
+     */
+    @Parameter
+    private ServiceUnit serviceUnit;
+
     /**
      * <p>Remove destination directory.</p>
      * <p>Request to remove <code>destination</code> directory before executing <code>jpackage</code>.</p>
@@ -546,6 +796,168 @@ public class JPackageMojo extends AbstractMojo {
     @Parameter
     private boolean removeDestination;
 
+    /**
+     * <p>Deduplicate application image.</p>
+     * <p>If <code>true</code> and <code>type</code> is <code>APP_IMAGE</code>, identical files of the generated image
+     * are replaced with hard links to a single copy. Files are compared by size, permissions and SHA-256
+     * checksum.</p>
+     */
+    @Parameter
+    private boolean deduplicate;
+
+    /**
+     * <p>Startup profile.</p>
+     * <p>If specified and <code>type</code> is <code>APP_IMAGE</code>, plugin launches the generated image with JFR
+     * recording of its first <code>duration</code> seconds and writes recording
+     * <code>&lt;launcher>-startup.jfr</code> and its summary <code>&lt;launcher>-startup.txt</code> to
+     * <code>destination</code>. Summary contains class loading, GC pauses, JIT compilation and hot methods. Runtime
+     * image must contain <code>jdk.jfr</code> module.</p>
+     * <pre>
+     * &lt;startupProfile>
+     *     &lt;duration>10&lt;/duration>
+     *     &lt;arguments>
+     *         &lt;argument>--benchmark&lt;/argument>
+     *     &lt;/arguments>
+     * &lt;/startupProfile>
+     * </pre>
+     */
+    @Parameter
+    private StartupProfile startupProfile;
+
+    /**
+     * <p>Generate content manifest.</p>
+     * <p>If <code>true</code> plugin hashes every file in <code>destination</code> after <code>jpackage</code>
+     * completes and writes sorted manifest <code>jpackage-manifest.txt</code>. Each line of the manifest contains
+     * tab-separated relative path, size and SHA-256 checksum of the file.</p>
+     * <p>For each generated installer a sidecar checksum file <code>&lt;installer>.sha256</code> is written in the
+     * format accepted by <code>sha256sum -c</code>.</p>
+     */
+    @Parameter
+    private boolean generateManifest;
+
+    /**
+     * <p>Layered image.</p>
+     * <p>If specified, plugin splits application image into two <code>.tar.gz</code> layers in
+     * <code>destination</code>:</p>
+     * <ul>
+     *     <li><code>&lt;name>-dependencies-&lt;hash>.tar.gz</code> with the runtime, launchers, dependency jars and
+     *     extracted native libraries. Hash is a prefix of SHA-256 checksum of the layer content, so the layer file
+     *     changes only when runtime or dependencies change.</li>
+     *     <li><code>&lt;name>-&lt;appVersion>-app.tar.gz</code> with the rest of the application directory: jars
+     *     of the project, launcher configuration and other input files. Layer contains
+     *     <code>layers.properties</code> naming the dependency layer it requires.</li>
+     * </ul>
+     * <p>Extracting both layers into the same directory restores the image. Project artifact file,
+     * <code>mainJar</code> and jars matching <code>applicationJars</code> patterns are application jars. Layers are
+     * created for <code>app-image</code> type only.</p>
+     * <pre>
+     * &lt;layers>
+     *     &lt;applicationJars>
+     *         &lt;applicationJar>my-app-*.jar&lt;/applicationJar>
+     *     &lt;/applicationJars>
+     * &lt;/layers>
+     * </pre>
+     */
+    @Parameter
+    private Layers layers;
+
+    /**
+     * <p>OCI image.</p>
+     * <p>If specified, plugin writes application image as OCI image layout without a container engine. Image
+     * contains three layers: runtime with launchers, dependency jars and native libraries, and the rest of the
+     * application directory. Layers are reproducible, so unchanged layers keep their digests, and layers with
+     * unchanged content are reused from the previous layout in the same directory or <code>previous</code> instead
+     * of being compressed again. Layers are compressed by all available processors.</p>
+     * <p>Application image is placed into <code>installDirectory</code>, its launcher is the entry point. Layers of
+     * the <code>base</code> image layout, for example one created by <code>skopeo copy</code>, precede application
+     * image layers. Application jars are defined as for <code>layers</code>. Created for <code>app-image</code> type
+     * on Linux only.</p>
+     * <pre>
+     * &lt;ociImage>
+     *     &lt;directory>${project.build.directory}/oci&lt;/directory>
+     *     &lt;base>${project.basedir}/base-image&lt;/base>
+     *     &lt;installDirectory>/opt&lt;/installDirectory>
+     *     &lt;tag>${project.version}&lt;/tag>
+     * &lt;/ociImage>
+     * </pre>
+     */
+    @Parameter
+    private OciImage ociImage;
+
+    /**
+     * <p>Trace file.</p>
+     * <p>If specified, plugin writes spans of the packaging pipeline to this file in OTLP/JSON format. Spans cover
+     * toolchain resolution, parameter processing, destination removal, <code>jpackage</code> execution and
+     * post-processing.</p>
+     * <p>If environment variable <code>TRACEPARENT</code> is set, spans become children of the specified
+     * span.</p>
+     */
+    @Parameter
+    private File traceFile;
+
+    /**
+     * <p>Trace endpoint.</p>
+     * <p>OTLP/HTTP endpoint spans are posted to in JSON format, for example
+     * <code>http://localhost:4318/v1/traces</code>. Export errors are logged and do not fail the build.</p>
+     */
+    @Parameter
+    private String traceEndpoint;
+
+    /**
+     * <p>Resource report.</p>
+     * <p>On Linux plugin samples memory, CPU time and I/O of the <code>jpackage</code> process tree and logs them when
+     * execution completes. If <code>true</code>, the same values are written to
+     * <code>jpackage-resources.properties</code> in <code>destination</code>.</p>
+     */
+    @Parameter
+    private boolean resourceReport;
+
+    /**
+     * <p>Remote cache.</p>
+     * <p>Outputs of <code>jpackage</code> are restored from a plain HTTP store instead of executing
+     * <code>jpackage</code> if the store contains an entry with the same arguments, JDK and contents of input files.
+     * Otherwise outputs are uploaded after execution. Cache errors and timeouts are logged and treated as a cache
+     * miss.</p>
+     * <pre>
+     * &lt;remoteCache>
+     *     &lt;url>https://cache.example.com/jpackage/&lt;/url>
+     *     &lt;readOnly>false&lt;/readOnly>
+     *     &lt;connectTimeout>2000&lt;/connectTimeout>
+     *     &lt;readTimeout>10000&lt;/readTimeout>
+     *     &lt;transferTimeout>120&lt;/transferTimeout>
+     * &lt;/remoteCache>
+     * </pre>
+     */
+    @Parameter
+    private RemoteCache remoteCache;
+
+    /**
+     * <p>Remote cache read-only mode.</p>
+     * <p>If <code>true</code>, outputs are restored from <code>remoteCache</code> but never uploaded, for example in
+     * pull request builds.</p>
+     */
+    @Parameter(property = "jpackage.remoteCache.readOnly")
+    private boolean remoteCacheReadOnly;
+
+    /**
+     * <p>Maximum number of concurrent executions.</p>
+     * <p>Limits number of <code>jpackage</code> and <code>jlink</code> processes running at once when modules are
+     * built in parallel, for example with <code>mvn -T 8</code>. Executions over the limit wait in order of arrival.
+     * If not specified, one execution per 2 processor cores and per 2 GB of physical memory is allowed.</p>
+     * <p>The limit and <code>executionLockDirectory</code> are shared by all executions of the Maven session and
+     * are defined by the first one.</p>
+     */
+    @Parameter(property = "jpackage.maxConcurrentExecutions")
+    private int maxConcurrentExecutions;
+
+    /**
+     * <p>Execution lock directory.</p>
+     * <p>If specified, executions also take one of <code>maxConcurrentExecutions</code> file lock slots in this
+     * directory. This extends the limit to all Maven processes on the host that use the same directory.</p>
+     */
+    @Parameter(property = "jpackage.executionLockDirectory")
+    private File executionLockDirectory;
+
     // Windows specific parameters
 
     /**
@@ -822,6 +1234,20 @@ public class JPackageMojo extends AbstractMojo {
     @Parameter
     private boolean linuxShortcut;
 
+    // jlink options produced by the training run
+    private List<String> trainingJLinkOptions = Collections.emptyList();
+    // Java options of extracted native libraries
+    private List<String> nativeLibraryOptions = Collections.emptyList();
+    // Input jars in order of first use during the last training run
+    private List<Path> trainingJarOrder = Collections.emptyList();
+    // Filtered input directory, null if input is passed as is
+    private File stagedInput;
+    // Module path and names of jars converted into explicit modules
+    private File convertedModulePath;
+    private List<String> convertedModules = Collections.emptyList();
+    // Resource directory with generated service units, null if resource directory is passed as is
+    private File stagedResourceDir;
+
     @Inject
     public JPackageMojo(ToolchainManager toolchainManager) {
         this.toolchainManager = toolchainManager;
@@ -833,26 +1259,546 @@ public class JPackageMojo extends AbstractMojo {
             return;
         }
 
-        Toolchain tc = toolchainManager.getToolchainFromBuildContext(TOOLCHAIN, session);
-        if (tc != null) {
-            logger.info("Toolchain in jpackage-maven-plugin: {}", tc);
+        Tracer tracer = new Tracer(TRACE_SERVICE_NAME);
+        try (Tracer.Span span = tracer.start("jpackage")) {
+            span.setAttribute("jpackage.name", name)
+                    .setAttribute("jpackage.type", getType() == null ? null : getType().getValue())
+                    .setAttribute("jpackage.appVersion", appVersion)
+                    .setAttribute("jpackage.destination", destination == null ? null : destination.getAbsolutePath());
+            try {
+                execute(tracer);
+            } catch (MojoExecutionException | MojoFailureException | RuntimeException ex) {
+                span.setError(ex);
+                throw ex;
+            }
+        } finally {
+            exportTrace(tracer);
         }
+    }
 
-        String executable = getJPackageExecutable(tc)
-                .orElseThrow(() -> new MojoExecutionException("Failed to find " + EXECUTABLE));
-        logger.info("Using: {}", executable);
+    private void execute(Tracer tracer) throws MojoExecutionException, MojoFailureException {
+        boolean dryRun = "true".equalsIgnoreCase(System.getProperty(DRY_RUN_PROPERTY, "false"));
+        // Input is passed to jpackage with launcher parameters only, other goals prepare it themselves
+        boolean prepareInput = includeLauncherParameters();
+        if (prepareInput) {
+            resetInput();
+        }
+        if (!dryRun) {
+            if (prepareInput) {
+                stageInput(tracer);
+            }
+            stageServiceUnits(tracer);
+        }
+        if (toolchains != null && !toolchains.isEmpty()) {
+            executeMatrix(tracer, dryRun);
+            return;
+        }
 
-        Commandline commandLine = buildParameters();
-        commandLine.setExecutable(executable.contains(" ") ? ("\"" + executable + "\"") : executable);
+        String executable;
+        Toolchain tc;
+        try (Tracer.Span span = tracer.start("toolchain")) {
+            tc = toolchainManager.getToolchainFromBuildContext(TOOLCHAIN, session);
+            if (tc != null) {
+                logger.info("Toolchain in jpackage-maven-plugin: {}", tc);
+                span.setAttribute("toolchain", tc.toString());
+            }
+
+            executable = findTool(tc, EXECUTABLE)
+                    .orElseThrow(() -> new MojoExecutionException("Failed to find " + EXECUTABLE));
+            logger.info("Using: {}", executable);
+            span.setAttribute("jpackage.executable", executable);
+        }
+
+        if (!dryRun && prepareInput) {
+            convertAutomaticModules(tracer, tc);
+            mergeJars(tracer);
+            extractNativeLibraries(tracer);
+            trainingJLinkOptions = train(tracer, tc, getWorkDirectory(TRAINING_DIRECTORY));
+        }
+
+        Commandline commandLine;
+        try (Tracer.Span span = tracer.start("buildParameters")) {
+            commandLine = buildParameters(executable);
+            span.setAttribute("jpackage.arguments", commandLine.getArguments().length);
+        }
+
+        if (dryRun) {
+            logger.warn("Dry-run mode, not executing {}", EXECUTABLE);
+            return;
+        }
+
+        removeDestination(tracer);
+
+        OutputCache cache = getOutputCache();
+        String cacheKey = null;
+        boolean restored = false;
+        if (cache != null) {
+            try (Tracer.Span span = tracer.start("cacheRestore")) {
+                cacheKey = getCacheKey(executable, commandLine);
+                restored = cache.restore(cacheKey, destination.toPath().toAbsolutePath(),
+                        getWorkDirectory(OutputCache.STAGING_DIRECTORY).toPath().toAbsolutePath());
+                span.setAttribute("jpackage.cache.key", cacheKey)
+                        .setAttribute("jpackage.cache.hit", restored);
+            }
+        }
+
+        if (!restored) {
+            Map<String, FileTime> before = cache == null ?
+                    Collections.emptyMap() : OutputCache.snapshot(destination.toPath());
+            try (Tracer.Span span = tracer.start("execute")) {
+                span.setAttribute("jpackage.commandLine", commandLine.toString());
+                try {
+                    execute(executable, commandLine);
+                } catch (Exception ex) {
+                    span.setError(ex);
+                    throw new MojoExecutionException(ex.getMessage(), ex);
+                }
+            }
+            if (cache != null && !cache.isReadOnly()) {
+                try (Tracer.Span ignored = tracer.start("cacheStore")) {
+                    cache.store(cacheKey, destination.toPath().toAbsolutePath(), before,
+                            JPackageMojo::isManifestFile);
+                }
+            }
+        }
+
+        try (Tracer.Span ignored = tracer.start("postProcess")) {
+            verifyServiceUnit(destination);
+            orderClasspath(tracer, destination, trainingJarOrder);
+            deduplicate(tracer, destination);
+            profileStartup(tracer, tc);
+            writeLayers(tracer, destination);
+            writeOciImage(tracer, destination);
+            if (generateManifest) {
+                try (Tracer.Span span = tracer.start("manifest")) {
+                    int files = writeManifest(destination.toPath().toAbsolutePath());
+                    span.setAttribute("jpackage.manifest.files", files);
+                }
+            }
+        }
+    }
+
+    private void executeMatrix(Tracer tracer, boolean dryRun) throws MojoExecutionException, MojoFailureException {
+        ToolchainMatrix matrix = new ToolchainMatrix(getScheduler(), toolJvm, resourceReport);
+        if (convertAutomaticModules) {
+            logger.warn("Module conversion is not used with toolchains");
+        }
+        if (ociImage != null) {
+            logger.warn("OCI image is not created with toolchains");
+        }
+        if (remoteCache != null) {
+            logger.warn("Remote cache is not used with toolchains");
+        }
+        if (startupProfile != null) {
+            logger.warn("Startup profile is not recorded with toolchains");
+        }
+        boolean prepareInput = includeLauncherParameters();
+        if (!dryRun && prepareInput) {
+            mergeJars(tracer);
+            extractNativeLibraries(tracer);
+        }
+        Set<String> ids = new HashSet<>();
+        for (ToolchainRequirement requirement : toolchains) {
+            if (requirement == null) continue;
+            requirement.validate();
+            String id = requirement.getId();
+            if (!ids.add(id)) {
+                throw new MojoFailureException("Duplicate toolchain id " + id);
+            }
+
+            String executable;
+            Toolchain tc;
+            try (Tracer.Span span = tracer.start("toolchain")) {
+                span.setAttribute("jpackage.toolchain.id", id);
+                List<Toolchain> found = toolchainManager.getToolchains(session, TOOLCHAIN,
+                        requirement.getRequirements());
+                if (found == null || found.isEmpty()) {
+                    throw new MojoFailureException("No toolchain matches " + requirement);
+                }
+                tc = found.get(0);
+                logger.info("Toolchain {}: {}", id, tc);
+                span.setAttribute("toolchain", tc.toString());
+
+                executable = findTool(tc, EXECUTABLE)
+                        .orElseThrow(() -> new MojoExecutionException("Failed to find " + EXECUTABLE + " in " + tc));
+                logger.info("Using: {}", executable);
+                span.setAttribute("jpackage.executable", executable);
+            }
+
+            List<String> training = dryRun || !prepareInput ? Collections.emptyList() :
+                    train(tracer, tc, new File(getWorkDirectory(TRAINING_DIRECTORY), id));
+
+            File targetDestination = new File(destination, id);
+            try (Tracer.Span span = tracer.start("buildParameters")) {
+                Commandline commandLine = buildParameters(executable, targetDestination,
+                        temp == null ? null : new File(temp, id), training);
+                span.setAttribute("jpackage.arguments", commandLine.getArguments().length);
+                matrix.add(id, executable, commandLine, targetDestination, trainingJarOrder);
+            }
+        }
 
-        boolean dryRun = "true".equalsIgnoreCase(System.getProperty(DRY_RUN_PROPERTY, "false"));
         if (dryRun) {
             logger.warn("Dry-run mode, not executing {}", EXECUTABLE);
             return;
         }
 
-        if (removeDestination && destination != null) {
+        removeDestination(tracer);
+
+        try (Tracer.Span span = tracer.start("matrix")) {
+            span.setAttribute("jpackage.toolchains", matrix.getTargets().size());
+            matrix.execute(tracer, span);
+        }
+
+        try (Tracer.Span ignored = tracer.start("postProcess")) {
+            for (ToolchainMatrix.Target target : matrix.getTargets()) {
+                verifyServiceUnit(target.getDestination());
+                orderClasspath(tracer, target.getDestination(), target.getJarOrder());
+                deduplicate(tracer, target.getDestination());
+                writeLayers(tracer, target.getDestination());
+            }
+            if (generateManifest) {
+                for (ToolchainMatrix.Target target : matrix.getTargets()) {
+                    try (Tracer.Span span = tracer.start("manifest")) {
+                        int files = writeManifest(target.getDestination().toPath().toAbsolutePath());
+                        span.setAttribute("jpackage.manifest.files", files);
+                    }
+                }
+            }
+        }
+    }
+
+    // Staging of a previous execution of the same instance is discarded
+    private void resetInput() {
+        stagedInput = null;
+        nativeLibraryOptions = Collections.emptyList();
+        convertedModulePath = null;
+        convertedModules = Collections.emptyList();
+    }
+
+    // Prepares input of an existing application image the same way as for a new one, so the application directory
+    // can be brought in sync with it. Steps that change the runtime image are not performed.
+    File prepareInput() throws MojoExecutionException, MojoFailureException {
+        resetInput();
+        Tracer tracer = new Tracer(TRACE_SERVICE_NAME);
+        stageInput(tracer);
+        mergeJars(tracer);
+        extractNativeLibraries(tracer);
+        return getEffectiveInput();
+    }
+
+    private void stageInput(Tracer tracer) throws MojoExecutionException, MojoFailureException {
+        boolean filtered = (inputIncludes != null && !inputIncludes.isEmpty())
+                || (inputExcludes != null && !inputExcludes.isEmpty());
+        if (input == null || !filtered) {
+            return;
+        }
+        if (!input.isDirectory()) {
+            throw new MojoFailureException("Input directory " + input.getAbsolutePath() + " does not exist");
+        }
+
+        Path staging = getWorkDirectory(INPUT_STAGING_DIRECTORY).toPath().toAbsolutePath();
+        try (Tracer.Span span = tracer.start("stageInput")) {
+            logger.info("Staging input {} in {}", input, staging);
+            InputStaging.Result result = stage(input.toPath().toAbsolutePath(), staging,
+                    InputStaging.filter(inputIncludes, inputExcludes));
+            logger.info("  {}", result);
+            span.setAttribute("jpackage.input.files", result.getFiles())
+                    .setAttribute("jpackage.input.excluded", result.getExcluded())
+                    .setAttribute("jpackage.input.skipped", result.getSkipped().size());
+        } catch (UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to stage input: " + ex.getMessage(), ex);
+        }
+        stagedInput = staging.toFile();
+    }
+
+    private static InputStaging.Result stage(Path input, Path staging, Predicate<String> filter) {
+        InputStaging.Result result = InputStaging.stage(input, staging, filter);
+        for (String path : result.getSkipped()) {
+            logger.warn("Input entry {} is not a file or a directory, skipping", path);
+        }
+        return result;
+    }
+
+    private void convertAutomaticModules(Tracer tracer, Toolchain tc) throws MojoExecutionException {
+        if (!convertAutomaticModules) {
+            return;
+        }
+        if (!isLinkRuntime() || getEffectiveInput() == null) {
+            logger.warn("Runtime image is not linked by {} from input, skipping module conversion", EXECUTABLE);
+            return;
+        }
+
+        Path input = getEffectiveInput().toPath().toAbsolutePath();
+        try (Tracer.Span span = tracer.start("convertModules")) {
+            Set<String> excluded = new HashSet<>();
+            if (mainJar != null) {
+                excluded.add(mainJar.replace(File.separatorChar, '/'));
+            }
+            ModuleConverter.Result result = new ModuleConverter(tc,
+                    getWorkDirectory(MODULE_CONVERSION_DIRECTORY).toPath()).convert(input, excluded);
+            for (String line : result.getReport()) {
+                logger.info(line);
+            }
+            span.setAttribute("jpackage.modules.converted", result.getConverted().size())
+                    .setAttribute("jpackage.modules.skipped", result.getSkipped().size());
+            if (result.getConverted().isEmpty()) {
+                return;
+            }
+
+            // Converted jars are removed from the input
+            Set<String> converted = result.getConverted().keySet();
+            if (stagedInput != null) {
+                for (String jar : converted) {
+                    Files.delete(input.resolve(jar));
+                }
+            } else {
+                Path staging = getWorkDirectory(INPUT_STAGING_DIRECTORY).toPath().toAbsolutePath();
+                stage(input, staging, path -> !converted.contains(path));
+                stagedInput = staging.toFile();
+            }
+            convertedModulePath = result.getModulePath().toFile();
+            convertedModules = new ArrayList<>(result.getConverted().values());
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to convert automatic modules: " + ex.getMessage(), ex);
+        }
+    }
+
+    private boolean isServiceUnitEnabled() {
+        return serviceUnit != null && launcherAsService && getType() != ImageType.APP_IMAGE
+                && includeLauncherParameters();
+    }
+
+    private void stageServiceUnits(Tracer tracer) throws MojoExecutionException, MojoFailureException {
+        if (!isServiceUnitEnabled()) {
+            return;
+        }
+        if (!isLinux()) {
+            logger.warn("Service unit settings are supported on Linux only, ignoring");
+            return;
+        }
+        serviceUnit.validate();
+
+        List<String> unitFileNames = new ArrayList<>();
+        unitFileNames.add(getServiceUnitFileName(name));
+        if (launchers != null) {
+            for (Launcher launcher : launchers) {
+                if (launcher != null && launcher.getName() != null) {
+                    unitFileNames.add(getServiceUnitFileName(launcher.getName()));
+                }
+            }
+        }
+
+        Path staging = getWorkDirectory(ServiceUnitResources.STAGING_DIRECTORY).toPath().toAbsolutePath();
+        try (Tracer.Span span = tracer.start("stageServiceUnits")) {
+            span.setAttribute("jpackage.serviceUnits", unitFileNames.size());
+            ServiceUnitResources.stage(resourceDir, staging, unitFileNames, serviceUnit);
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to generate service units: " + ex.getMessage(), ex);
+        }
+        stagedResourceDir = staging.toFile();
+    }
+
+    private String getServiceUnitFileName(String launcherName) {
+        String packageName = linuxPackageName != null ?
+                linuxPackageName : ServiceUnitResources.getPackageName(name);
+        return ServiceUnitResources.getUnitFileName(packageName, launcherName);
+    }
+
+    private void verifyServiceUnit(File destinationDirectory) throws MojoExecutionException {
+        if (stagedResourceDir != null) {
+            ServiceUnitResources.verify(destinationDirectory.toPath(), getServiceUnitFileName(name));
+        }
+    }
+
+    private void mergeJars(Tracer tracer) throws MojoExecutionException, MojoFailureException {
+        if (jarMerge == null) {
+            return;
+        }
+        jarMerge.validate();
+        if (getEffectiveInput() == null || mainJar == null) {
+            logger.warn("Jar merging requires input and mainJar, skipping");
+            return;
+        }
+
+        Path input = getEffectiveInput().toPath().toAbsolutePath();
+        Path directory = getWorkDirectory(JAR_MERGE_DIRECTORY).toPath().toAbsolutePath();
+        try (Tracer.Span span = tracer.start("mergeJars")) {
+            List<Path> before = listJars(input);
+            String main = mainJar.replace(File.separatorChar, '/');
+            Predicate<String> filter = InputStaging.filter(null, jarMerge.getExcludes());
+            List<Path> candidates = before.stream()
+                    .filter(jar -> {
+                        String relativePath = toRelativePath(input, jar);
+                        return !relativePath.equals(main) && filter.test(relativePath);
+                    })
+                    .collect(Collectors.toList());
+            List<Path> kept = before.stream()
+                    .filter(jar -> !candidates.contains(jar))
+                    .collect(Collectors.toList());
+
+            removeDirectory(directory);
+            JarMerger.Result result = JarMerger.merge(candidates, kept, directory, jarMerge.getJars());
+            List<String> report = new ArrayList<>();
+            result.getSkipped().forEach((jar, reason) -> report.add("skipped " + toRelativePath(input, jar)
+                    + ": " + reason));
+            if (result.getMergedJars().isEmpty()) {
+                report.add("No jars merged");
+            } else {
+                // Measured before merged sources are removed from the staged input
+                double beforeMillis = measureOpenMillis(before);
+                // Merged jars replace their sources in the input
+                Set<String> sources = result.getSources().stream()
+                        .map(jar -> toRelativePath(input, jar))
+                        .collect(Collectors.toSet());
+                Path staging = input;
+                if (stagedInput != null) {
+                    for (Path jar : result.getSources()) {
+                        Files.delete(jar);
+                    }
+                } else {
+                    staging = getWorkDirectory(INPUT_STAGING_DIRECTORY).toPath().toAbsolutePath();
+                    stage(input, staging, path -> !sources.contains(path));
+                    stagedInput = staging.toFile();
+                }
+                List<Path> mergedJars = new ArrayList<>();
+                for (Path jar : result.getMergedJars()) {
+                    Path target = staging.resolve(jar.getFileName().toString());
+                    if (Files.exists(target)) {
+                        throw new MojoExecutionException("Input already contains " + target.getFileName());
+                    }
+                    mergedJars.add(Files.copy(jar, target));
+                }
+
+                List<Path> after = listJars(staging);
+                report.add(String.format("Merged %d jars into %d: classpath jars %d -> %d, "
+                                + "opening jars %.1f ms -> %.1f ms, %d service files merged",
+                        sources.size(), mergedJars.size(), before.size(), after.size(),
+                        beforeMillis, measureOpenMillis(after), result.getServices()));
+            }
+
+            for (String line : report) {
+                logger.info(line);
+            }
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(JAR_MERGE_REPORT), report, UTF_8);
+            span.setAttribute("jpackage.merge.sources", result.getSources().size())
+                    .setAttribute("jpackage.merge.skipped", result.getSkipped().size());
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to merge jars: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void extractNativeLibraries(Tracer tracer) throws MojoExecutionException {
+        if (!extractNativeLibraries) {
+            return;
+        }
+        if (getEffectiveInput() == null) {
+            logger.warn("Native library extraction requires input, skipping");
+            return;
+        }
+
+        try (Tracer.Span span = tracer.start("extractNativeLibraries")) {
+            Path input = getEffectiveInput().toPath().toAbsolutePath();
+            List<Path> jars = listJars(input);
+            for (File modulePath : getModulePaths()) {
+                if (modulePath.isDirectory()) {
+                    jars.addAll(listJars(modulePath.toPath().toAbsolutePath()));
+                } else if (modulePath.getName().endsWith(".jar")) {
+                    jars.add(modulePath.toPath().toAbsolutePath());
+                }
+            }
+
+            String os = NativeLibraries.getCurrentOs();
+            String arch = NativeLibraries.getCurrentArch();
+            Map<String, NativeLibraries.Library> libraries = new LinkedHashMap<>();
+            for (Path jar : jars) {
+                for (NativeLibraries.Library library : NativeLibraries.find(jar, os, arch)) {
+                    NativeLibraries.Library existing = libraries.putIfAbsent(library.getFileName(), library);
+                    if (existing != null) {
+                        logger.warn("Native library {} of {} is ignored, using {} of {}", library.getEntry(),
+                                library.getJar().getFileName(), existing.getEntry(), existing.getJar().getFileName());
+                    }
+                }
+            }
+            span.setAttribute("jpackage.native.libraries", libraries.size());
+            if (libraries.isEmpty()) {
+                logger.info("No native libraries for {}-{} found", os, arch);
+                return;
+            }
+
+            // Libraries are added to the staged input that jpackage copies into the application directory
+            if (stagedInput == null) {
+                Path staging = getWorkDirectory(INPUT_STAGING_DIRECTORY).toPath().toAbsolutePath();
+                stage(input, staging, path -> true);
+                stagedInput = staging.toFile();
+            }
+            Path directory = stagedInput.toPath().resolve(NATIVE_DIRECTORY);
+            logger.info("Extracting native libraries for {}-{} into {}", os, arch, directory);
+            for (NativeLibraries.Library library : libraries.values()) {
+                NativeLibraries.extract(library, directory);
+                logger.info("  {} from {}", library.getEntry(), library.getJar().getFileName());
+            }
+
+            List<String> options = new ArrayList<>(NativeLibraries.getSystemProperties(libraries.keySet(),
+                    APPDIR + File.separator + NATIVE_DIRECTORY));
+            if (getJavaOptions().stream().anyMatch(option -> option.startsWith(LIBRARY_PATH_OPTION))) {
+                logger.warn("java.library.path is set by javaOptions, make sure it includes {}", NATIVE_DIRECTORY);
+                options.removeIf(option -> option.startsWith(LIBRARY_PATH_OPTION));
+            }
+            nativeLibraryOptions = options;
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to extract native libraries: " + ex.getMessage(), ex);
+        }
+    }
+
+    // Jars of the directory in the order jpackage lists them in the classpath
+    private static List<Path> listJars(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".jar"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String toRelativePath(Path directory, Path file) {
+        return directory.relativize(file).toString().replace(File.separatorChar, '/');
+    }
+
+    private static double measureOpenMillis(List<Path> jars) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < JAR_OPEN_MEASUREMENTS; i++) {
+            best = Math.min(best, JarMerger.measureOpenNanos(jars));
+        }
+        return best / 1e6;
+    }
+
+    // Returns jlink options produced by the training run or empty list if training run is not configured
+    private List<String> train(Tracer tracer, Toolchain tc, File directory)
+            throws MojoExecutionException, MojoFailureException
+    {
+        trainingJarOrder = Collections.emptyList();
+        if (trainingRun == null) {
+            return Collections.emptyList();
+        }
+        if (!isLinkRuntime()) {
+            logger.warn("Runtime image is not linked by {}, skipping training run", EXECUTABLE);
+            return Collections.emptyList();
+        }
+        try (Tracer.Span span = tracer.start("trainingRun")) {
+            TrainingRunner.Result result = new TrainingRunner(tc, directory.toPath()).run(this, trainingRun);
+            span.setAttribute("jpackage.training.classLoadLog", result.getClassLoadLog().toString());
+            trainingJarOrder = result.getJarOrder();
+            return result.getJLinkOptions();
+        }
+    }
+
+    private void removeDestination(Tracer tracer) {
+        if (!removeDestination || destination == null) return;
+
+        try (Tracer.Span span = tracer.start("removeDestination")) {
             Path destinationPath = destination.toPath().toAbsolutePath();
+            span.setAttribute("jpackage.destination", destinationPath.toString());
             if (!isNestedDirectory(new File(projectBuildDirectory).toPath(), destinationPath)) {
                 logger.error("Cannot remove destination folder, must belong to {}", projectBuildDirectory);
             } else {
@@ -860,106 +1806,462 @@ public class JPackageMojo extends AbstractMojo {
                 removeDirectory(destinationPath);
             }
         }
+    }
 
+    private void exportTrace(Tracer tracer) {
         try {
-            execute(commandLine);
-        } catch (Exception ex) {
-            throw new MojoExecutionException(ex.getMessage(), ex);
+            if (traceFile != null) {
+                logger.info("Writing trace {}", traceFile.getAbsolutePath());
+                tracer.exportToFile(traceFile.toPath());
+            }
+            if (isNotEmpty(traceEndpoint)) {
+                logger.info("Exporting trace to {}", traceEndpoint);
+                tracer.exportToEndpoint(traceEndpoint, TRACE_EXPORT_TIMEOUT);
+            }
+        } catch (IOException ex) {
+            // Tracing must never fail the build
+            logger.warn("Failed to export trace: {}", ex.getMessage());
+        }
+    }
+
+    private void orderClasspath(Tracer tracer, File destinationDirectory, List<Path> jarOrder)
+            throws MojoExecutionException
+    {
+        if (!orderClasspath) return;
+        if (getType() != ImageType.APP_IMAGE) {
+            logger.warn("Classpath is ordered for {} type only", ImageType.APP_IMAGE.getValue());
+            return;
+        }
+        if (trainingRun == null) {
+            logger.warn("Classpath ordering requires training run");
+            return;
+        }
+        if (jarOrder.isEmpty()) {
+            logger.warn("No input jars were used by training run, classpath is not ordered");
+            return;
+        }
+
+        AppImage image = AppImage.of(destinationDirectory.toPath().toAbsolutePath(), name);
+        try (Tracer.Span span = tracer.start("orderClasspath")) {
+            int updated = image.orderClasspath(jarOrder);
+            logger.info("Ordered classpath of {} launchers, {} jars used by training run", updated, jarOrder.size());
+            span.setAttribute("jpackage.classpath.used", jarOrder.size());
+        } catch (UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to order classpath of " + image.getRoot() + ": "
+                    + ex.getMessage(), ex);
+        }
+    }
+
+    private void deduplicate(Tracer tracer, File destinationDirectory) throws MojoExecutionException {
+        if (!deduplicate || getType() != ImageType.APP_IMAGE) {
+            return;
+        }
+
+        AppImage image = AppImage.of(destinationDirectory.toPath().toAbsolutePath(), name);
+        try (Tracer.Span span = tracer.start("deduplicate")) {
+            logger.info("Deduplicating {}", image.getRoot());
+            Deduplicator.Result result = Deduplicator.deduplicate(image.getRoot());
+            logger.info("  {} files, {} linked, {} bytes saved",
+                    result.getFiles(), result.getLinked(), result.getSavedBytes());
+            span.setAttribute("jpackage.deduplicate.linked", result.getLinked())
+                    .setAttribute("jpackage.deduplicate.savedBytes", result.getSavedBytes());
+        } catch (UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to deduplicate " + image.getRoot() + ": " + ex.getMessage(), ex);
         }
     }
 
-    private Optional<String> getJPackageFromJdkHome(String jdkHome) {
-        if (jdkHome == null || jdkHome.isEmpty()) return Optional.empty();
+    private void profileStartup(Tracer tracer, Toolchain tc) throws MojoFailureException {
+        if (startupProfile == null || getType() != ImageType.APP_IMAGE) {
+            return;
+        }
+        startupProfile.validate();
+
+        String launcher = startupProfile.getLauncher() != null ? startupProfile.getLauncher() : name;
+        AppImage image = AppImage.of(destination.toPath().toAbsolutePath(), name);
+        StartupProfiler profiler = new StartupProfiler(tc, getWorkDirectory(PROFILE_DIRECTORY).toPath());
+        try (Tracer.Span span = tracer.start("startupProfile")) {
+            span.setAttribute("jpackage.startupProfile.launcher", launcher);
+            for (String line : profiler.run(startupProfile, image.getLauncher(launcher), launcher,
+                    destination.toPath()))
+            {
+                logger.info("  {}", line);
+            }
+        } catch (MojoExecutionException ex) {
+            // Profiling must never fail the build
+            logger.warn("Failed to profile startup: {}", ex.getMessage());
+        }
+    }
 
-        logger.debug("Looking for {} in {}", EXECUTABLE, jdkHome);
+    // Working directories of executions with explicit ids are suffixed with the id, so executions never share
+    // staging or report directories
+    File getWorkDirectory(String name) {
+        String id = mojoExecution == null ? null : mojoExecution.getExecutionId();
+        if (id == null || id.equals(DEFAULT_EXECUTION_ID) || id.startsWith(DEFAULT_EXECUTION_ID + "-")) {
+            return new File(projectBuildDirectory, name);
+        }
+        return new File(projectBuildDirectory, name + "-" + id);
+    }
 
-        String executable = jdkHome + File.separator + "bin" + File.separator + EXECUTABLE;
-        if (isWindows()) {
-            executable = executable + ".exe";
+    private void writeLayers(Tracer tracer, File destinationDirectory) throws MojoExecutionException {
+        if (layers == null) return;
+        if (getType() != ImageType.APP_IMAGE) {
+            logger.warn("Layers are created for {} type only", ImageType.APP_IMAGE.getValue());
+            return;
         }
 
-        if (new File(executable).exists()) {
-            return Optional.of(executable);
-        } else {
-            logger.warn("File {} does not exist", executable);
-            return Optional.empty();
+        Path destinationPath = destinationDirectory.toPath().toAbsolutePath();
+        AppImage image = AppImage.of(destinationPath, name);
+        Path root = image.getRoot();
+        String layersFile = ContentManifest.relativeName(root, image.getAppDirectory()) + "/" + LAYERS_FILE_NAME;
+        // Runtime and dependencies form a single layer
+        Function<String, String> imageClassifier = getLayerClassifier(image, getApplicationJarFilter(
+                layers.getApplicationJars()));
+        Function<String, String> classifier = path ->
+                APPLICATION_LAYER.equals(imageClassifier.apply(path)) ? APPLICATION_LAYER : DEPENDENCY_LAYER;
+        List<String> names = Arrays.asList(DEPENDENCY_LAYER, APPLICATION_LAYER);
+
+        try (Tracer.Span span = tracer.start("layers")) {
+            ImageLayers.Layer dependencies = ImageLayers.split(root, names, classifier).get(0);
+            String dependencyArchive = name + "-" + DEPENDENCY_LAYER + "-"
+                    + dependencies.getSha256().substring(0, LAYER_HASH_LENGTH) + LAYER_EXTENSION;
+            Files.write(root.resolve(layersFile), Arrays.asList(
+                    DEPENDENCY_LAYER + "=" + dependencyArchive,
+                    DEPENDENCY_LAYER + ".sha256=" + dependencies.getSha256()
+            ), UTF_8);
+            // Layer file is part of the application layer
+            ImageLayers.Layer application = ImageLayers.split(root, names, classifier).get(1);
+            String applicationArchive = name + (isNotEmpty(appVersion) ? "-" + appVersion : "") + "-"
+                    + APPLICATION_LAYER + LAYER_EXTENSION;
+
+            logger.info("Writing layers of {}", root);
+            for (ImageLayers.Layer layer : Arrays.asList(dependencies, application)) {
+                Path archive = destinationPath.resolve(layer == dependencies ? dependencyArchive : applicationArchive);
+                ImageLayers.writeArchive(layer, archive);
+                logger.info("  {}: {} files, {} bytes, archive {} bytes", archive.getFileName(),
+                        layer.getPaths().size(), layer.getSize(), Files.size(archive));
+            }
+            span.setAttribute("jpackage.layers.dependencies", dependencyArchive)
+                    .setAttribute("jpackage.layers.applicationFiles", application.getPaths().size());
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to write layers: " + ex.getMessage(), ex);
         }
     }
 
-    private Optional<String> getJPackageFromToolchain(Toolchain tc) {
-        if (tc == null) return Optional.empty();
+    private void writeOciImage(Tracer tracer, File destinationDirectory)
+            throws MojoExecutionException, MojoFailureException
+    {
+        if (ociImage == null) return;
+        ociImage.validate();
+        if (getType() != ImageType.APP_IMAGE || !isLinux()) {
+            logger.warn("OCI image is created for {} type on Linux only", ImageType.APP_IMAGE.getValue());
+            return;
+        }
 
-        String executable = tc.findTool(EXECUTABLE);
-        if (executable == null) {
-            logger.warn(EXECUTABLE + " is not part of configured toolchain");
+        AppImage image = AppImage.of(destinationDirectory.toPath().toAbsolutePath(), name);
+        Path root = image.getRoot();
+        Path directory = (ociImage.getDirectory() == null ? getWorkDirectory(OCI_DIRECTORY) : ociImage.getDirectory())
+                .toPath().toAbsolutePath();
+        String installDirectory = ociImage.getInstallDirectory().replaceAll("/+$", "");
+        String imageDirectory = installDirectory + "/" + root.getFileName();
+        List<Path> previous = ociImage.getPrevious() == null ?
+                Collections.emptyList() : Collections.singletonList(ociImage.getPrevious().toPath().toAbsolutePath());
+        OciLayout.Config config = new OciLayout.Config()
+                .setPrefix(installDirectory.isEmpty() ? "" : installDirectory.substring(1))
+                .setEntrypoint(Collections.singletonList(imageDirectory + "/"
+                        + ContentManifest.relativeName(root, image.getLauncher(name))))
+                .setWorkingDirectory(imageDirectory)
+                .setTag(isNotEmpty(ociImage.getTag()) ? ociImage.getTag() : appVersion)
+                .setBase(ociImage.getBase() == null ? null : ociImage.getBase().toPath().toAbsolutePath())
+                .setPrevious(previous);
+
+        try (Tracer.Span span = tracer.start("ociImage")) {
+            logger.info("Writing OCI image layout {}", directory);
+            List<ImageLayers.Layer> imageLayers = ImageLayers.split(root,
+                    Arrays.asList(RUNTIME_LAYER, DEPENDENCY_LAYER, APPLICATION_LAYER),
+                    getLayerClassifier(image, getApplicationJarFilter(layers == null ?
+                            Collections.emptyList() : layers.getApplicationJars())));
+            OciLayout.Result result = OciLayout.write(directory, imageLayers, config);
+            int reused = 0;
+            for (OciLayout.Descriptor layer : result.getLayers()) {
+                String layerName = layer.getAnnotation(OciLayout.LAYER_NAME);
+                boolean layerReused = result.isReused(layer);
+                if (layerReused) reused++;
+                logger.info("  {} {}, {} bytes{}", layerName == null ? "base" : layerName, layer.getDigest(),
+                        layer.getSize(), layerReused ? ", reused" : "");
+            }
+            logger.info("  manifest {}", result.getManifest().getDigest());
+            span.setAttribute("jpackage.oci.manifest", result.getManifest().getDigest())
+                    .setAttribute("jpackage.oci.layers", result.getLayers().size())
+                    .setAttribute("jpackage.oci.reused", reused);
+        } catch (UncheckedIOException | IllegalArgumentException ex) {
+            throw new MojoExecutionException("Failed to write OCI image: " + ex.getMessage(), ex);
         }
+    }
 
-        return Optional.ofNullable(executable);
+    // Layer of a path relative to the image root: application directory except dependency jars, modules and native
+    // libraries is the application layer, the rest of the application directory is the dependency layer, and files
+    // outside of it including launchers are the runtime layer.
+    private static Function<String, String> getLayerClassifier(AppImage image, Predicate<String> applicationJar) {
+        Path root = image.getRoot();
+        String appDirectory = ContentManifest.relativeName(root, image.getAppDirectory()) + "/";
+        String modulesDirectory = ContentManifest.relativeName(root, image.getModulesDirectory()) + "/";
+        String nativeDirectory = appDirectory + NATIVE_DIRECTORY + "/";
+        return path -> {
+            if (!path.startsWith(appDirectory)) return RUNTIME_LAYER;
+            if (path.startsWith(modulesDirectory) || path.startsWith(nativeDirectory)) return DEPENDENCY_LAYER;
+            String relativePath = path.substring(appDirectory.length());
+            if (!relativePath.endsWith(".jar") || applicationJar.test(relativePath)) return APPLICATION_LAYER;
+            return DEPENDENCY_LAYER;
+        };
     }
 
-    private Optional<String> getJPackageExecutable(Toolchain tc) {
-        Optional<String> executable = getJPackageFromToolchain(tc);
-        return executable.isPresent() ?
-                executable : getJPackageFromJdkHome(System.getProperty("java.home"));
+    // Matches paths relative to the input directory
+    private Predicate<String> getApplicationJarFilter(List<String> patterns) {
+        Set<String> jars = new HashSet<>();
+        if (mainJar != null) {
+            jars.add(mainJar.replace(File.separatorChar, '/'));
+        }
+        if (project.getArtifact() != null && project.getArtifact().getFile() != null) {
+            jars.add(project.getArtifact().getFile().getName());
+        }
+        Predicate<String> filter = patterns.isEmpty() ? path -> false : InputStaging.filter(patterns, null);
+        return path -> jars.contains(path) || filter.test(path);
     }
 
-    private void execute(Commandline commandline) throws Exception {
-        CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
-        CommandLineUtils.StringStreamConsumer out = new CommandLineUtils.StringStreamConsumer();
+    private int writeManifest(Path destinationPath) throws MojoExecutionException {
+        Path manifestFile = destinationPath.resolve(MANIFEST_FILE_NAME);
+        logger.info("Writing manifest {}", manifestFile);
 
         try {
-            int exitCode = CommandLineUtils.executeCommandLine(commandline, out, err);
+            ContentManifest manifest = ContentManifest.scan(destinationPath,
+                    path -> path.getParent().equals(destinationPath) && isManifestFile(path));
+            manifest.write(manifestFile);
+            logger.info("  {} files, {} bytes", manifest.getEntries().size(), manifest.getTotalSize());
+
+            // Files at the top level are packages, their checksums are already in the manifest
+            for (ContentManifest.Entry entry : manifest.getEntries()) {
+                if (entry.getPath().contains("/") || entry.isSymlink()) continue;
+                logger.info("  {}", writeChecksumFile(destinationPath.resolve(entry.getPath()), entry.getSha256())
+                        .getFileName());
+            }
+            return manifest.getEntries().size();
+        } catch (UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to write manifest: " + ex.getMessage(), ex);
+        }
+    }
 
-            String output = (isEmpty(out.getOutput()) ? null : '\n' + out.getOutput().trim());
+    // Returns null if remote cache is not configured
+    private OutputCache getOutputCache() throws MojoFailureException {
+        if (remoteCache == null) {
+            return null;
+        }
+        remoteCache.validate();
+        return new OutputCache(remoteCache, remoteCacheReadOnly);
+    }
 
-            if (exitCode != 0) {
-                if (isNotEmpty(output)) {
-                    for (String line : output.split("\n")) {
-                        logger.error(line);
-                    }
-                }
+    private String getCacheKey(String executable, Commandline commandline) {
+        Map<String, String> placeholders = new HashMap<>();
+        placeholders.put(destination.getAbsolutePath(), "<destination>");
+        if (temp != null) {
+            placeholders.put(temp.getAbsolutePath(), "<temp>");
+        }
+        return OutputCache.getKey(executable, commandline, placeholders);
+    }
 
-                StringBuilder msg = new StringBuilder("\nExit code: ")
-                        .append(exitCode);
-                String errOutput = err.getOutput();
-                if (isNotEmpty(errOutput)) {
-                    msg.append(" - ").append(errOutput);
-                }
-                msg.append('\n');
-                msg.append("Command line was: ").append(commandline).append('\n').append('\n');
+    private static boolean isManifestFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.equals(MANIFEST_FILE_NAME) || fileName.endsWith(CHECKSUM_EXTENSION)
+                || fileName.equals(ResourceAccounting.REPORT_FILE_NAME)
+                || fileName.endsWith(StartupProfiler.RECORDING_SUFFIX)
+                || fileName.endsWith(StartupProfiler.REPORT_SUFFIX);
+    }
 
-                throw new MojoExecutionException(msg.toString());
-            } else {
-                if (isNotEmpty(output)) {
-                    for (String outputLine : output.split("\n")) {
-                        logger.info(outputLine);
-                    }
-                }
-            }
-        } catch (CommandLineException e) {
-            throw new MojoExecutionException("Error while executing " + EXECUTABLE + ": " + e.getMessage(), e);
+    private void execute(String executable, Commandline commandline) throws MojoExecutionException {
+        try (ToolScheduler.Permit ignored = getScheduler().acquire(EXECUTABLE)) {
+            ResourceAccounting.execute(commandline, EXECUTABLE, executable, toolJvm,
+                    resourceReport ? destination : null);
+        }
+    }
+
+    // Accessors used by goals derived from this one
+
+    boolean includeLauncherParameters() {
+        return true;
+    }
+
+    ToolJvm getToolJvm() {
+        return toolJvm;
+    }
+
+    ToolScheduler getScheduler() {
+        return ToolScheduler.getShared(session, maxConcurrentExecutions, executionLockDirectory);
+    }
+
+    ImageType getType() {
+        return type;
+    }
+
+    boolean isSkip() {
+        return skip;
+    }
+
+    MavenSession getSession() {
+        return session;
+    }
+
+    MavenProject getProject() {
+        return project;
+    }
+
+    String getProjectBuildDirectory() {
+        return projectBuildDirectory;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    File getDestination() {
+        return destination;
+    }
+
+    File getInput() {
+        return input;
+    }
+
+    // Input directory passed to jpackage
+    File getEffectiveInput() {
+        return stagedInput != null ? stagedInput : input;
+    }
+
+    File getConvertedModulePath() {
+        return convertedModulePath;
+    }
+
+    List<String> getConvertedModules() {
+        return convertedModules;
+    }
+
+    File getAppImage() {
+        return appImage;
+    }
+
+    boolean isRemoveDestination() {
+        return removeDestination;
+    }
+
+    List<File> getModulePaths() {
+        return modulePaths == null ? Collections.emptyList() : modulePaths;
+    }
+
+    List<File> getAppContentPaths() {
+        return appContentPaths == null ? Collections.emptyList() : appContentPaths;
+    }
+
+    List<String> getJavaOptions() {
+        return javaOptions == null ? Collections.emptyList() : javaOptions;
+    }
+
+    List<String> getNativeLibraryOptions() {
+        return nativeLibraryOptions;
+    }
+
+    List<String> getArguments() {
+        return arguments == null ? Collections.emptyList() : arguments;
+    }
+
+    List<Launcher> getLaunchers() {
+        return launchers == null ? Collections.emptyList() : launchers;
+    }
+
+    String getModule() {
+        return module;
+    }
+
+    String getMainClass() {
+        return mainClass;
+    }
+
+    String getMainJar() {
+        return mainJar;
+    }
+
+    List<String> getAddModules() {
+        return addModules == null ? Collections.emptyList() : addModules;
+    }
+
+    // Options jpackage passes to jlink
+    List<String> getJLinkOptions() {
+        List<String> options = getExplicitJLinkOptions();
+        return options.isEmpty() ? DEFAULT_JLINK_OPTIONS : options;
+    }
+
+    private List<String> getExplicitJLinkOptions() {
+        List<String> options = new ArrayList<>();
+        if (jLinkOptions != null) {
+            jLinkOptions.stream().filter(Objects::nonNull).forEach(options::add);
         }
+        if (jLink != null && !jLink.build().isEmpty()) {
+            options.addAll(Arrays.asList(jLink.build().split(" ")));
+        }
+        return options;
+    }
+
+    private File getSharedRuntimeImage() {
+        String sharedRuntimeImage = project.getProperties().getProperty(SHARED_RUNTIME_IMAGE_PROPERTY);
+        return isNotEmpty(sharedRuntimeImage) ? new File(sharedRuntimeImage) : null;
+    }
+
+    // jpackage does not accept jlink options together with runtime image
+    private boolean isLinkRuntime() {
+        return includeLauncherParameters() && runtimeImage == null && appImage == null
+                && getSharedRuntimeImage() == null;
+    }
+
+    Commandline buildParameters(String executable) throws MojoFailureException {
+        return buildParameters(executable, destination, temp, trainingJLinkOptions);
     }
 
-    private Commandline buildParameters() throws MojoFailureException {
+    private Commandline buildParameters(String executable, File destination, File temp,
+            List<String> trainingJLinkOptions) throws MojoFailureException
+    {
         logger.info("jpackage options:");
 
-        Commandline commandline = new Commandline();
+        File effectiveRuntimeImage = runtimeImage;
+        if (effectiveRuntimeImage == null && appImage == null) {
+            effectiveRuntimeImage = getSharedRuntimeImage();
+            if (effectiveRuntimeImage != null) {
+                logger.info("Using shared runtime image {}", effectiveRuntimeImage);
+            }
+        }
+        // Options that define application launchers are not valid when package is created from application image
+        boolean launcherParameters = includeLauncherParameters();
+        if (!launcherParameters) {
+            effectiveRuntimeImage = null;
+        }
+        // jpackage does not accept jlink options together with runtime image
+        boolean linkRuntime = launcherParameters && effectiveRuntimeImage == null;
+
+        Commandline commandline = newCommandline(executable);
         addMandatoryParameter(commandline, NAME, name);
         addMandatoryParameter(commandline, DESTINATION, destination, false);
         addParameter(commandline, VERBOSE, verbose);
-        addParameter(commandline, TYPE, type);
+        addParameter(commandline, TYPE, getType());
         addParameter(commandline, APP_VERSION, appVersion);
         addParameter(commandline, COPYRIGHT, copyright);
         addParameter(commandline, DESCRIPTION, description);
-        addParameter(commandline, RUNTIME_IMAGE, runtimeImage, true);
-        addParameter(commandline, INPUT, input, true);
+        addParameter(commandline, RUNTIME_IMAGE, effectiveRuntimeImage, true);
+        if (launcherParameters) {
+            addParameter(commandline, INPUT, getEffectiveInput(), true);
+        }
         addParameter(commandline, INSTALL_DIR, installDir);
-        addParameter(commandline, RESOURCE_DIR, resourceDir, true);
+        addParameter(commandline, RESOURCE_DIR, stagedResourceDir != null ? stagedResourceDir : resourceDir, true);
         addParameter(commandline, VENDOR, vendor);
-        addParameter(commandline, MODULE, module);
-        addParameter(commandline, MAIN_CLASS, mainClass);
-        addParameter(commandline, MAIN_JAR, mainJar);
+        if (launcherParameters) {
+            addParameter(commandline, MODULE, module);
+            addParameter(commandline, MAIN_CLASS, mainClass);
+            addParameter(commandline, MAIN_JAR, mainJar);
+        }
         addParameter(commandline, TEMP, temp, false);
         addParameter(commandline, ICON, icon, true);
         addParameter(commandline, LICENSE_FILE, licenseFile, true);
@@ -967,37 +2269,59 @@ public class JPackageMojo extends AbstractMojo {
         addParameter(commandline, APP_IMAGE, appImage, true);
         addParameter(commandline, LAUNCHER_AS_SERVICE, launcherAsService);
 
-        if (modulePaths != null) {
+        if (launcherParameters && modulePaths != null) {
             for (File modulePath : modulePaths) {
                 addParameter(commandline, MODULE_PATH, modulePath, true);
             }
         }
 
-        if (addModules != null && !addModules.isEmpty()) {
+        if (linkRuntime && !convertedModules.isEmpty()) {
+            addParameter(commandline, MODULE_PATH, convertedModulePath, true);
+        }
+
+        if (linkRuntime && addModules != null && !addModules.isEmpty()) {
             addParameter(commandline, ADD_MODULES,
-                    addModules.stream()
-                            .filter(Objects::nonNull)
+                    Stream.concat(addModules.stream().filter(Objects::nonNull), convertedModules.stream())
+                            .collect(Collectors.joining(",")));
+        } else if (linkRuntime && !convertedModules.isEmpty()) {
+            addParameter(commandline, ADD_MODULES,
+                    Stream.concat(Stream.of(ALL_DEFAULT), convertedModules.stream())
                             .collect(Collectors.joining(",")));
         }
 
-        if (jLinkOptions != null && !jLinkOptions.isEmpty()) {
+        if (linkRuntime && jLinkOptions != null && !jLinkOptions.isEmpty()) {
             addParameter(commandline, JLINK_OPTIONS,
                     jLinkOptions.stream()
                             .filter(Objects::nonNull)
                             .collect(Collectors.joining(" ")));
         }
 
-        if (jLink != null) {
+        if (linkRuntime && jLink != null) {
             addParameter(commandline, JLINK_OPTIONS, jLink.build());
         }
 
-        if (javaOptions != null) {
+        if (linkRuntime && !trainingJLinkOptions.isEmpty()) {
+            List<String> options = new ArrayList<>();
+            // Any jlink options replace jpackage defaults
+            if (getExplicitJLinkOptions().isEmpty()) {
+                options.addAll(DEFAULT_JLINK_OPTIONS);
+            }
+            options.addAll(trainingJLinkOptions);
+            addParameter(commandline, JLINK_OPTIONS, String.join(" ", options));
+        }
+
+        if (launcherParameters && javaOptions != null) {
             for (String option : javaOptions) {
                 addParameter(commandline, JAVA_OPTIONS, escape(option));
             }
         }
+        if (launcherParameters) {
+            for (String option : nativeLibraryOptions) {
+                addParameter(commandline, JAVA_OPTIONS, escape(option));
+            }
+        }
 
-        if (arguments != null) {
+        if (launcherParameters && arguments != null) {
             for (String arg : arguments) {
                 addParameter(commandline, ARGUMENTS, escape(arg));
             }
@@ -1009,13 +2333,13 @@ public class JPackageMojo extends AbstractMojo {
             }
         }
 
-        if (appContentPaths != null) {
+        if (launcherParameters && appContentPaths != null) {
             for (File appContent : appContentPaths) {
                 addParameter(commandline, APP_CONTENT, appContent, true);
             }
         }
 
-        if (launchers != null) {
+        if (launcherParameters && launchers != null) {
             for (Launcher launcher : launchers) {
                 if (launcher == null) continue;
                 launcher.validate();
@@ -1046,7 +2370,7 @@ public class JPackageMojo extends AbstractMojo {
                 }
             }
         } else if (isWindows()) {
-            addParameter(commandline, WIN_CONSOLE, winConsole);
+            addParameter(commandline, WIN_CONSOLE, launcherParameters && winConsole);
             addParameter(commandline, WIN_DIR_CHOOSER, winDirChooser);
             addParameter(commandline, WIN_HELP_URL, winHelpUrl);
             addParameter(commandline, WIN_MENU, winMenu);
@@ -0,0 +1,54 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines merging of dependency jars of the input directory into a few combined jars.
+ */
+public class JarMerge {
+    private static final int DEFAULT_JARS = 1;
+
+    private int jars = DEFAULT_JARS;
+    private List<String> excludes;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public JarMerge() {
+    }
+
+    int getJars() {
+        return jars;
+    }
+
+    /**
+     * Sets maximum number of merged jars. Defaults to 1.
+     * @param jars number of merged jars
+     */
+    public void setJars(int jars) {
+        this.jars = jars;
+    }
+
+    List<String> getExcludes() {
+        return excludes == null ? Collections.emptyList() : excludes;
+    }
+
+    /**
+     * Sets glob patterns of jars that are not merged, relative to the input directory.
+     * @param excludes patterns
+     */
+    public void setExcludes(List<String> excludes) {
+        this.excludes = excludes;
+    }
+
+    void validate() throws MojoFailureException {
+        if (jars <= 0) {
+            throw new MojoFailureException("Number of merged jars must be positive");
+        }
+    }
+}
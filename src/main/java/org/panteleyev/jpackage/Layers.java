@@ -0,0 +1,32 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines splitting of the application image into a dependency layer and an application layer.
+ */
+public class Layers {
+    private List<String> applicationJars;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public Layers() {
+    }
+
+    List<String> getApplicationJars() {
+        return applicationJars == null ? Collections.emptyList() : applicationJars;
+    }
+
+    /**
+     * Sets glob patterns of jars that belong to the application layer in addition to the project artifact and
+     * <code>mainJar</code>, relative to the input directory.
+     * @param applicationJars patterns
+     */
+    public void setApplicationJars(List<String> applicationJars) {
+        this.applicationJars = applicationJars;
+    }
+}
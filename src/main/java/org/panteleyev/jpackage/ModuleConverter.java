@@ -0,0 +1,399 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.CommandLineUtils;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.toolchain.Toolchain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.ModuleConversion;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.panteleyev.jpackage.Tools.findTool;
+import static org.panteleyev.jpackage.Tools.newCommandline;
+import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+
+/**
+ * Converts non-modular jars of the input directory into explicit modules that can be linked into the runtime image.
+ *
+ * <p>Module descriptors are generated by {@code jdeps --generate-module-info} and declared open, so resources and
+ * reflection work as on the classpath. Descriptors are compiled by {@code javac} against the patched jar and injected
+ * into a copy of the jar. Jars are left on the classpath when they are signed, use
+ * {@code ServiceLoader}, share a package with another jar or a runtime module, require a module that is not
+ * available in the runtime image, or depend on a jar that stays on the classpath.</p>
+ */
+final class ModuleConverter {
+    private static final Logger logger = LoggerFactory.getLogger(ModuleConverter.class);
+
+    private static final String JDEPS = "jdeps";
+    private static final String JAVAC = "javac";
+    private static final String RELEASE_FILE = "release";
+    private static final String RELEASE_MODULES = "MODULES=";
+
+    static final String MODULES_DIRECTORY = "jars";
+    static final String REPORT_FILE = "report.txt";
+    private static final String SOURCES_DIRECTORY = "module-info";
+    private static final String CLASSES_DIRECTORY = "classes";
+    private static final String MODULE_INFO_JAVA = "module-info.java";
+
+    static final class Result {
+        private final Path modulePath;
+        // Relative path of the jar in the input directory mapped to the module name
+        private final Map<String, String> converted = new LinkedHashMap<>();
+        // Relative path of the jar in the input directory mapped to the reason
+        private final Map<String, String> skipped = new LinkedHashMap<>();
+
+        Result(Path modulePath) {
+            this.modulePath = modulePath;
+        }
+
+        Path getModulePath() {
+            return modulePath;
+        }
+
+        Map<String, String> getConverted() {
+            return converted;
+        }
+
+        Map<String, String> getSkipped() {
+            return skipped;
+        }
+
+        List<String> getReport() {
+            List<String> lines = new ArrayList<>();
+            converted.forEach((jar, module) -> lines.add("converted " + jar + " -> " + module));
+            skipped.forEach((jar, reason) -> lines.add("skipped " + jar + ": " + reason));
+            return lines;
+        }
+    }
+
+    private final Toolchain toolchain;
+    private final Path directory;
+
+    ModuleConverter(Toolchain toolchain, Path directory) {
+        this.toolchain = toolchain;
+        this.directory = directory.toAbsolutePath();
+    }
+
+    // Excluded jars, for example the main jar, stay on the classpath without being reported
+    Result convert(Path input, Set<String> excluded) throws MojoExecutionException {
+        String jdeps = findTool(toolchain, JDEPS)
+                .orElseThrow(() -> new MojoExecutionException("Failed to find " + JDEPS));
+        String javac = findTool(toolchain, JAVAC)
+                .orElseThrow(() -> new MojoExecutionException("Failed to find " + JAVAC));
+
+        Path jars = directory.resolve(MODULES_DIRECTORY);
+        Path sources = directory.resolve(SOURCES_DIRECTORY);
+        Path classes = directory.resolve(CLASSES_DIRECTORY);
+        Result result = new Result(jars.toAbsolutePath());
+        try {
+            removeDirectory(directory);
+            Files.createDirectories(jars);
+
+            // Candidates are copied, so the module path contains only jars that are being converted
+            List<Path> inputJars = getJars(input);
+            Map<Path, String> candidates = new LinkedHashMap<>();
+            Map<String, Path> names = new LinkedHashMap<>();
+            for (Map.Entry<Path, String> entry : ModuleConversion.getSplitPackages(inputJars).entrySet()) {
+                String jar = getRelativePath(input, entry.getKey());
+                if (!excluded.contains(jar)) {
+                    result.skipped.put(jar, "split package " + entry.getValue());
+                }
+            }
+            for (Path jar : inputJars) {
+                String relativePath = getRelativePath(input, jar);
+                if (excluded.contains(relativePath) || result.skipped.containsKey(relativePath)
+                        || ModuleConversion.isModular(jar))
+                {
+                    continue;
+                }
+                String reason = ModuleConversion.isSigned(jar) ? "signed jar" :
+                        ModuleConversion.usesServiceLoader(jar) ? "uses ServiceLoader" : null;
+                String name = ModuleConversion.getModuleName(jar);
+                if (reason == null && name.isEmpty()) {
+                    reason = "no valid module name";
+                }
+                if (reason == null && names.containsKey(name)) {
+                    reason = "module " + name + " already defined by " + getRelativePath(input, names.get(name));
+                }
+                if (reason != null) {
+                    result.skipped.put(relativePath, reason);
+                    continue;
+                }
+                Path copy = jars.resolve(name + ".jar");
+                Files.copy(jar, copy);
+                candidates.put(copy, relativePath);
+                names.put(name, jar);
+            }
+            if (candidates.isEmpty()) {
+                Files.write(directory.resolve(REPORT_FILE), result.getReport(), UTF_8);
+                return result;
+            }
+
+            // Descriptors of all candidates, jars sharing packages with runtime modules are reported by jdeps
+            List<String> output = generate(jdeps, new ArrayList<>(candidates.keySet()), sources);
+            for (Map.Entry<Path, String> entry : ModuleConversion.parseSplitPackageWarnings(output).entrySet()) {
+                String relativePath = candidates.get(entry.getKey());
+                if (relativePath != null) {
+                    result.skipped.put(relativePath, "split package " + entry.getValue());
+                }
+            }
+
+            // Generated descriptors cannot require jars left on the classpath, so their dependents stay there too
+            Map<String, String> classPath = new LinkedHashMap<>();
+            for (Path jar : inputJars) {
+                String relativePath = getRelativePath(input, jar);
+                if (excluded.contains(relativePath) || result.skipped.containsKey(relativePath)) {
+                    classPath.put(jar.toAbsolutePath().toString(), relativePath);
+                }
+            }
+            if (!classPath.isEmpty()) {
+                Set<Path> classPathJars = classPath.keySet().stream().map(Paths::get).collect(Collectors.toSet());
+                List<String> summary = analyze(jdeps, new ArrayList<>(candidates.keySet()), classPathJars);
+                ModuleConversion.parseClassPathDependencies(summary, classPathJars).forEach((jar, dependency) -> {
+                    String relativePath = candidates.get(jars.resolve(jar));
+                    if (relativePath != null) {
+                        result.skipped.putIfAbsent(relativePath,
+                                "requires non-converted jar " + classPath.get(dependency.toString()));
+                    }
+                });
+            }
+
+            Map<String, List<String>> requires = new LinkedHashMap<>();
+            for (Map.Entry<Path, String> entry : candidates.entrySet()) {
+                if (result.skipped.containsKey(entry.getValue())) {
+                    continue;
+                }
+                String name = getName(entry.getKey());
+                Path moduleInfo = findModuleInfo(sources.resolve(name));
+                if (moduleInfo == null) {
+                    result.skipped.put(entry.getValue(), "module descriptor was not generated");
+                    continue;
+                }
+                // Module source path expects descriptor in the module directory
+                Path descriptor = sources.resolve(name).resolve(MODULE_INFO_JAVA);
+                String source = ModuleConversion.toOpenModule(new String(Files.readAllBytes(moduleInfo), UTF_8));
+                Files.delete(moduleInfo);
+                Files.write(descriptor, source.getBytes(UTF_8));
+                requires.put(name, ModuleConversion.getRequires(source));
+            }
+
+            Predicate<String> runtimeModules = getRuntimeModules(jdeps);
+            Map<String, String> unresolved = ModuleConversion.removeUnresolved(requires, runtimeModules);
+            unresolved.forEach((name, required) -> result.skipped.put(candidates.get(jars.resolve(name + ".jar")),
+                    "requires " + required + " that is not available as a module"));
+            requires.keySet().removeAll(unresolved.keySet());
+
+            // Skipped jars are removed from the module path as all automatic modules are resolved together
+            for (Map.Entry<Path, String> entry : candidates.entrySet()) {
+                if (!requires.containsKey(getName(entry.getKey()))) {
+                    Files.delete(entry.getKey());
+                }
+            }
+
+            Set<String> failed = compile(javac, new ArrayList<>(requires.keySet()), jars, sources, classes);
+            failed.forEach(name -> result.skipped.put(candidates.get(jars.resolve(name + ".jar")),
+                    "module descriptor does not compile"));
+            requires.keySet().removeAll(failed);
+            Map<String, String> dependents = ModuleConversion.removeUnresolved(requires, runtimeModules);
+            dependents.forEach((name, required) -> result.skipped.put(candidates.get(jars.resolve(name + ".jar")),
+                    "requires " + required + " that is not converted"));
+            requires.keySet().removeAll(dependents.keySet());
+
+            for (Map.Entry<Path, String> entry : candidates.entrySet()) {
+                String name = getName(entry.getKey());
+                if (requires.containsKey(name)) {
+                    ModuleConversion.addModuleInfo(entry.getKey(),
+                            classes.resolve(name).resolve(ModuleConversion.MODULE_INFO_CLASS));
+                    result.converted.put(entry.getValue(), name);
+                } else {
+                    Files.deleteIfExists(entry.getKey());
+                }
+            }
+
+            Files.write(directory.resolve(REPORT_FILE), result.getReport(), UTF_8);
+            return result;
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to convert automatic modules: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static List<String> generate(String jdeps, List<Path> jars, Path sources) throws MojoExecutionException {
+        Commandline commandline = newCommandline(jdeps);
+        commandline.createArg().setValue("--generate-module-info");
+        commandline.createArg().setValue(sources.toAbsolutePath().toString());
+        commandline.createArg().setValue("--ignore-missing-deps");
+        String release = getFeatureVersion(jdeps);
+        if (release != null) {
+            // Required for multi-release jars
+            commandline.createArg().setValue("--multi-release");
+            commandline.createArg().setValue(release);
+        }
+        for (Path jar : jars) {
+            commandline.createArg().setValue(jar.toAbsolutePath().toString());
+        }
+
+        return executeJDeps(commandline);
+    }
+
+    // Summary of dependencies of the jars, classpath jars are reported by their paths
+    private static List<String> analyze(String jdeps, List<Path> jars, Set<Path> classPath)
+            throws MojoExecutionException
+    {
+        Commandline commandline = newCommandline(jdeps);
+        commandline.createArg().setValue("--class-path");
+        commandline.createArg().setValue(classPath.stream().map(Path::toString)
+                .collect(Collectors.joining(File.pathSeparator)));
+        String release = getFeatureVersion(jdeps);
+        if (release != null) {
+            commandline.createArg().setValue("--multi-release");
+            commandline.createArg().setValue(release);
+        }
+        commandline.createArg().setValue("-summary");
+        for (Path jar : jars) {
+            commandline.createArg().setValue(jar.toAbsolutePath().toString());
+        }
+        return executeJDeps(commandline);
+    }
+
+    private static List<String> executeJDeps(Commandline commandline) throws MojoExecutionException {
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        int exitCode = execute(commandline, output);
+        if (exitCode != 0) {
+            output.forEach(logger::error);
+            throw new MojoExecutionException(JDEPS + " exited with code " + exitCode);
+        }
+        output.forEach(logger::debug);
+        return output;
+    }
+
+    // Compiles all descriptors at once, then one by one if any of them fails. Returns modules that failed.
+    private static Set<String> compile(String javac, List<String> modules, Path jars, Path sources, Path classes)
+            throws MojoExecutionException
+    {
+        if (modules.isEmpty() || compile(javac, modules, jars, sources, classes, true) == 0) {
+            return Collections.emptySet();
+        }
+        Set<String> failed = new HashSet<>();
+        for (String module : modules) {
+            if (compile(javac, Collections.singletonList(module), jars, sources, classes, false) != 0) {
+                failed.add(module);
+            }
+        }
+        return failed;
+    }
+
+    private static int compile(String javac, List<String> modules, Path jars, Path sources, Path classes,
+            boolean quiet) throws MojoExecutionException
+    {
+        Commandline commandline = newCommandline(javac);
+        commandline.createArg().setValue("--module-path");
+        commandline.createArg().setValue(jars.toAbsolutePath().toString());
+        for (String module : modules) {
+            commandline.createArg().setValue("--patch-module");
+            commandline.createArg().setValue(module + "=" + jars.resolve(module + ".jar").toAbsolutePath());
+        }
+        commandline.createArg().setValue("--module-source-path");
+        commandline.createArg().setValue(sources.toAbsolutePath().toString());
+        commandline.createArg().setValue("-d");
+        commandline.createArg().setValue(classes.toAbsolutePath().toString());
+        commandline.createArg().setValue("--module");
+        commandline.createArg().setValue(String.join(",", modules));
+
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        int exitCode = execute(commandline, output);
+        if (exitCode != 0 && !quiet) {
+            output.forEach(logger::warn);
+        }
+        return exitCode;
+    }
+
+    private static int execute(Commandline commandline, List<String> output) throws MojoExecutionException {
+        try {
+            return CommandLineUtils.executeCommandLine(commandline, output::add, output::add);
+        } catch (CommandLineException ex) {
+            throw new MojoExecutionException("Error while executing " + commandline.getExecutable() + ": "
+                    + ex.getMessage(), ex);
+        }
+    }
+
+    // Modules of the toolchain JDK listed in its release file, java.* and jdk.* modules if the file is missing
+    private static Predicate<String> getRuntimeModules(String tool) throws IOException {
+        String modules = getReleaseValue(tool, RELEASE_MODULES);
+        if (modules != null) {
+            return new HashSet<>(Arrays.asList(modules.split("\\s+")))::contains;
+        }
+        return name -> name.startsWith("java.") || name.startsWith("jdk.");
+    }
+
+    private static String getFeatureVersion(String tool) throws MojoExecutionException {
+        try {
+            String version = getReleaseValue(tool, "JAVA_VERSION=");
+            return version == null ? null : version.split("[.+-]")[0];
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to read " + RELEASE_FILE + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static String getReleaseValue(String tool, String key) throws IOException {
+        Path home = Paths.get(tool).toAbsolutePath().getParent().getParent();
+        Path release = home.resolve(RELEASE_FILE);
+        if (!Files.isRegularFile(release)) return null;
+        for (String line : Files.readAllLines(release, UTF_8)) {
+            if (line.startsWith(key)) {
+                return line.substring(key.length()).replace("\"", "").trim();
+            }
+        }
+        return null;
+    }
+
+    // jdeps writes descriptors of multi-release jars into versions/<n>
+    private static Path findModuleInfo(Path moduleDirectory) throws IOException {
+        if (!Files.isDirectory(moduleDirectory)) return null;
+        try (Stream<Path> paths = Files.walk(moduleDirectory)) {
+            return paths.filter(path -> path.getFileName().toString().equals(MODULE_INFO_JAVA))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    private static List<Path> getJars(Path input) throws IOException {
+        try (Stream<Path> paths = Files.walk(input)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".jar"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String getName(Path jar) {
+        String fileName = jar.getFileName().toString();
+        return fileName.substring(0, fileName.length() - ".jar".length());
+    }
+
+    private static String getRelativePath(Path input, Path jar) {
+        return input.relativize(jar).toString().replace(File.separatorChar, '/');
+    }
+}
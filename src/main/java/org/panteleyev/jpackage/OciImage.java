@@ -0,0 +1,93 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.io.File;
+
+/**
+ * Defines OCI image layout created from the application image.
+ */
+public class OciImage {
+    private static final String DEFAULT_INSTALL_DIRECTORY = "/opt";
+
+    private File directory;
+    private File previous;
+    private File base;
+    private String installDirectory = DEFAULT_INSTALL_DIRECTORY;
+    private String tag;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public OciImage() {
+    }
+
+    File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets image layout directory. Defaults to <code>${project.build.directory}/jpackage-oci</code>.
+     * @param directory image layout directory
+     */
+    public void setDirectory(File directory) {
+        this.directory = directory;
+    }
+
+    File getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Sets image layout of a previous build. Its layers with unchanged content are reused.
+     * @param previous image layout directory
+     */
+    public void setPrevious(File previous) {
+        this.previous = previous;
+    }
+
+    File getBase() {
+        return base;
+    }
+
+    /**
+     * Sets image layout of the base image. Its layers precede application image layers.
+     * @param base image layout directory
+     */
+    public void setBase(File base) {
+        this.base = base;
+    }
+
+    String getInstallDirectory() {
+        return installDirectory;
+    }
+
+    /**
+     * Sets absolute path of the directory inside the container that contains application image. Defaults to
+     * <code>/opt</code>, <code>/</code> places the image at the root.
+     * @param installDirectory directory
+     */
+    public void setInstallDirectory(String installDirectory) {
+        this.installDirectory = installDirectory;
+    }
+
+    String getTag() {
+        return tag;
+    }
+
+    /**
+     * Sets image reference name. Defaults to <code>appVersion</code>.
+     * @param tag reference name
+     */
+    public void setTag(String tag) {
+        this.tag = tag;
+    }
+
+    void validate() throws MojoFailureException {
+        if (installDirectory == null || !installDirectory.startsWith("/")) {
+            throw new MojoFailureException("OCI image install directory must be an absolute path");
+        }
+    }
+}
@@ -0,0 +1,192 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.ChecksumUtil;
+import org.panteleyev.jpackage.util.ContentManifest;
+import org.panteleyev.jpackage.util.DirectoryUtil;
+import org.panteleyev.jpackage.util.HttpCache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Restores outputs of {@code jpackage} from the remote cache and stores them after execution.
+ *
+ * <p>Cache key is built from {@code jpackage} arguments, identity of the JDK and contents of files and directories
+ * passed as arguments, so the same build on different hosts produces the same key. Cache errors never fail the build,
+ * they are logged and treated as a cache miss.</p>
+ */
+final class OutputCache {
+    private static final Logger logger = LoggerFactory.getLogger(OutputCache.class);
+
+    static final String STAGING_DIRECTORY = "jpackage-cache";
+
+    // Changes of the key format invalidate all existing entries
+    private static final String KEY_VERSION = "jpackage-cache-1";
+    private static final String RELEASE_FILE = "release";
+    private static final String EXECUTABLE = "jpackage";
+
+    private final HttpCache cache;
+    private final boolean readOnly;
+
+    OutputCache(RemoteCache config, boolean readOnly) {
+        this.cache = new HttpCache(config.getUrl(), config.getConnectTimeout(), config.getReadTimeout(),
+                config.getTransferTimeout() * 1000L);
+        this.readOnly = readOnly || config.isReadOnly();
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    // Paths of placeholders are not hashed, for example destination and temporary directory
+    static String getKey(String executable, Commandline commandline, Map<String, String> placeholders) {
+        MessageDigest digest = ChecksumUtil.newDigest();
+        update(digest, KEY_VERSION);
+        update(digest, getJdkIdentity(executable));
+        for (String argument : commandline.getArguments()) {
+            update(digest, normalize(argument, placeholders));
+        }
+        return ChecksumUtil.toHex(digest.digest());
+    }
+
+    // Returns true if outputs were restored into destination
+    boolean restore(String key, Path destination, Path staging) {
+        try {
+            DirectoryUtil.removeDirectory(staging);
+            Files.createDirectories(staging);
+            if (!cache.get(key, staging)) {
+                logger.info("Cache miss {}", key);
+                return false;
+            }
+
+            Files.createDirectories(destination);
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(staging)) {
+                for (Path entry : entries) {
+                    Path target = destination.resolve(entry.getFileName().toString());
+                    DirectoryUtil.removeDirectory(target);
+                    Files.move(entry, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            logger.info("Restored {} outputs from cache {}", EXECUTABLE, key);
+            return true;
+        } catch (IOException | UncheckedIOException ex) {
+            logger.warn("Failed to restore from cache: {}", ex.getMessage());
+            return false;
+        } finally {
+            DirectoryUtil.removeDirectory(staging);
+        }
+    }
+
+    // Modification times of destination entries, outputs of execution are detected by comparison with them
+    static Map<String, FileTime> snapshot(Path destination) {
+        Map<String, FileTime> snapshot = new HashMap<>();
+        if (!Files.isDirectory(destination)) return snapshot;
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(destination)) {
+            for (Path entry : entries) {
+                snapshot.put(entry.getFileName().toString(),
+                        Files.getLastModifiedTime(entry, LinkOption.NOFOLLOW_LINKS));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return snapshot;
+    }
+
+    void store(String key, Path destination, Map<String, FileTime> before, Predicate<Path> exclude) {
+        if (readOnly) return;
+
+        try {
+            List<String> outputs = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(destination)) {
+                for (Path entry : entries) {
+                    String name = entry.getFileName().toString();
+                    if (exclude.test(entry)) continue;
+                    FileTime modified = Files.getLastModifiedTime(entry, LinkOption.NOFOLLOW_LINKS);
+                    if (!Objects.equals(before.get(name), modified)) {
+                        outputs.add(name);
+                    }
+                }
+            }
+            if (outputs.isEmpty()) {
+                logger.warn("No {} outputs found, cache is not updated", EXECUTABLE);
+                return;
+            }
+            cache.put(key, destination, outputs);
+            logger.info("Stored {} outputs in cache {}", EXECUTABLE, key);
+        } catch (IOException | UncheckedIOException ex) {
+            logger.warn("Failed to store in cache: {}", ex.getMessage());
+        }
+    }
+
+    private static String normalize(String argument, Map<String, String> placeholders) {
+        String placeholder = placeholders.get(argument);
+        if (placeholder != null) {
+            return placeholder;
+        }
+        if (isExistingPath(argument)) {
+            return "content:" + getContentHash(Paths.get(argument));
+        }
+        // name=path values, for example additional launchers
+        int separator = argument.indexOf('=');
+        if (separator > 0 && isExistingPath(argument.substring(separator + 1))) {
+            return argument.substring(0, separator + 1) + "content:"
+                    + getContentHash(Paths.get(argument.substring(separator + 1)));
+        }
+        return argument;
+    }
+
+    private static boolean isExistingPath(String value) {
+        File file = new File(value);
+        return file.isAbsolute() && file.exists();
+    }
+
+    private static String getContentHash(Path path) {
+        if (Files.isDirectory(path)) {
+            return ChecksumUtil.sha256(ContentManifest.scan(path).toBytes());
+        }
+        return ChecksumUtil.sha256(path);
+    }
+
+    // Release file identifies version and vendor of the JDK, executable path and time are used as a fallback
+    private static String getJdkIdentity(String executable) {
+        Path path = Paths.get(executable).toAbsolutePath();
+        Path home = path.getParent() == null ? null : path.getParent().getParent();
+        try {
+            if (home != null && Files.isRegularFile(home.resolve(RELEASE_FILE))) {
+                return new String(Files.readAllBytes(home.resolve(RELEASE_FILE)), UTF_8);
+            }
+            return path + ":" + Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException ex) {
+            return path.toString();
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(UTF_8));
+        digest.update((byte) 0);
+    }
+}
@@ -0,0 +1,99 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Defines remote cache of {@code jpackage} outputs in a plain HTTP store that supports {@code GET} and {@code PUT}.
+ */
+public class RemoteCache {
+    private static final int DEFAULT_CONNECT_TIMEOUT = 2000;
+    private static final int DEFAULT_READ_TIMEOUT = 10000;
+    private static final int DEFAULT_TRANSFER_TIMEOUT = 120;
+
+    private String url;
+    private boolean readOnly;
+    private int connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int readTimeout = DEFAULT_READ_TIMEOUT;
+    private int transferTimeout = DEFAULT_TRANSFER_TIMEOUT;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public RemoteCache() {
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    /**
+     * Sets base URL of the store, for example {@code https://cache.example.com/jpackage/}.
+     * @param url base URL
+     */
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Defines if outputs are only restored from the cache and never uploaded, for example in pull request builds.
+     * @param readOnly read-only mode
+     */
+    public void setReadOnly(boolean readOnly) {
+        this.readOnly = readOnly;
+    }
+
+    int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    /**
+     * Sets connect timeout in milliseconds. Defaults to 2000.
+     * @param connectTimeout connect timeout
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * Sets read timeout in milliseconds. Defaults to 10000.
+     * @param readTimeout read timeout
+     */
+    public void setReadTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    int getTransferTimeout() {
+        return transferTimeout;
+    }
+
+    /**
+     * Sets maximum time in seconds of a single download or upload. Defaults to 120. Transfers that take longer are
+     * abandoned and the cache is treated as missed.
+     * @param transferTimeout transfer timeout in seconds
+     */
+    public void setTransferTimeout(int transferTimeout) {
+        this.transferTimeout = transferTimeout;
+    }
+
+    void validate() throws MojoFailureException {
+        if (url == null || url.trim().isEmpty()) {
+            throw new MojoFailureException("Remote cache url must be specified");
+        }
+        if (!url.startsWith("http://") && !url.startsWith("https://")) {
+            throw new MojoFailureException("Remote cache url must use http or https: " + url);
+        }
+        if (connectTimeout <= 0 || readTimeout <= 0 || transferTimeout <= 0) {
+            throw new MojoFailureException("Remote cache timeouts must be positive");
+        }
+    }
+}
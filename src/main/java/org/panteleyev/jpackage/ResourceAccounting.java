@@ -0,0 +1,90 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.ProcessSampler;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Executes JDK tool sampling resource usage of its process tree.
+ */
+final class ResourceAccounting {
+    private static final Logger logger = LoggerFactory.getLogger(ResourceAccounting.class);
+
+    static final String REPORT_FILE_NAME = "jpackage-resources.properties";
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 100;
+    private static final double MB = 1024.0 * 1024.0;
+
+    private ResourceAccounting() {
+    }
+
+    // Usage is logged when execution succeeds. If report directory is not null, usage is also written to the report
+    // file in this directory.
+    static void execute(Commandline commandline, String tool, String executable, ToolJvm jvm, File reportDirectory)
+            throws MojoExecutionException
+    {
+        if (!ProcessSampler.isSupported()) {
+            Tools.execute(commandline, tool, executable, jvm);
+            return;
+        }
+
+        AtomicReference<ProcessSampler> sampler = new AtomicReference<>();
+        boolean success = false;
+        try {
+            Tools.execute(commandline, tool, executable, jvm, process -> {
+                long pid = ProcessSampler.getPid(process);
+                if (pid > 0) {
+                    sampler.set(ProcessSampler.start(pid, SAMPLE_INTERVAL_MILLIS));
+                }
+            });
+            success = true;
+        } finally {
+            if (sampler.get() != null) {
+                ProcessSampler.Usage usage = sampler.get().stop();
+                if (success) {
+                    report(tool, usage, reportDirectory);
+                }
+            }
+        }
+    }
+
+    private static void report(String tool, ProcessSampler.Usage usage, File reportDirectory) {
+        logger.info(String.format(Locale.ROOT,
+                "%s resources: peak RSS %.1f MB, CPU user %.1f s, system %.1f s, read %.1f MB, written %.1f MB",
+                tool, usage.getPeakRssBytes() / MB, usage.getUserCpuMillis() / 1000.0,
+                usage.getSystemCpuMillis() / 1000.0, usage.getReadBytes() / MB, usage.getWrittenBytes() / MB));
+
+        if (reportDirectory == null) return;
+
+        Path file = reportDirectory.toPath().resolve(REPORT_FILE_NAME);
+        List<String> lines = new ArrayList<>();
+        lines.add("tool=" + tool);
+        for (Map.Entry<String, Long> entry : usage.toMap().entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, lines, UTF_8);
+        } catch (IOException ex) {
+            // Accounting must never fail the build
+            logger.warn("Failed to write {}: {}", file, ex.getMessage());
+        }
+    }
+}
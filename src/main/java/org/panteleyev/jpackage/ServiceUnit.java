@@ -0,0 +1,170 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Defines systemd resource control settings of the service unit generated for {@code launcherAsService} on Linux.
+ */
+public class ServiceUnit {
+    private static final Pattern SIZE = Pattern.compile("\\d+[KMGT]?|\\d+(\\.\\d+)?%|infinity");
+    private static final Pattern PERCENT = Pattern.compile("\\d+%");
+    private static final Pattern LIMIT = Pattern.compile("\\d+(:\\d+)?|infinity");
+    private static final List<String> IO_SCHEDULING_CLASSES = Arrays.asList("realtime", "best-effort", "idle");
+
+    private String memoryHigh;
+    private String memoryMax;
+    private String cpuQuota;
+    private Integer cpuWeight;
+    private String tasksMax;
+    private String limitNoFile;
+    private Integer nice;
+    private String ioSchedulingClass;
+    private Integer ioSchedulingPriority;
+    private Integer ioWeight;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public ServiceUnit() {
+    }
+
+    /**
+     * Sets memory usage throttling limit, for example {@code 768M}.
+     * @param memoryHigh value of {@code MemoryHigh}
+     */
+    public void setMemoryHigh(String memoryHigh) {
+        this.memoryHigh = memoryHigh;
+    }
+
+    /**
+     * Sets absolute memory usage limit, for example {@code 1G}.
+     * @param memoryMax value of {@code MemoryMax}
+     */
+    public void setMemoryMax(String memoryMax) {
+        this.memoryMax = memoryMax;
+    }
+
+    /**
+     * Sets CPU time quota relative to a single CPU, for example {@code 150%}.
+     * @param cpuQuota value of {@code CPUQuota}
+     */
+    public void setCpuQuota(String cpuQuota) {
+        this.cpuQuota = cpuQuota;
+    }
+
+    /**
+     * Sets CPU weight in range 1..10000.
+     * @param cpuWeight value of {@code CPUWeight}
+     */
+    public void setCpuWeight(Integer cpuWeight) {
+        this.cpuWeight = cpuWeight;
+    }
+
+    /**
+     * Sets maximum number of tasks, for example {@code 512}.
+     * @param tasksMax value of {@code TasksMax}
+     */
+    public void setTasksMax(String tasksMax) {
+        this.tasksMax = tasksMax;
+    }
+
+    /**
+     * Sets open file limit, either single value or {@code soft:hard}.
+     * @param limitNoFile value of {@code LimitNOFILE}
+     */
+    public void setLimitNoFile(String limitNoFile) {
+        this.limitNoFile = limitNoFile;
+    }
+
+    /**
+     * Sets scheduling priority in range -20..19.
+     * @param nice value of {@code Nice}
+     */
+    public void setNice(Integer nice) {
+        this.nice = nice;
+    }
+
+    /**
+     * Sets I/O scheduling class: {@code realtime}, {@code best-effort} or {@code idle}.
+     * @param ioSchedulingClass value of {@code IOSchedulingClass}
+     */
+    public void setIoSchedulingClass(String ioSchedulingClass) {
+        this.ioSchedulingClass = ioSchedulingClass;
+    }
+
+    /**
+     * Sets I/O scheduling priority in range 0..7.
+     * @param ioSchedulingPriority value of {@code IOSchedulingPriority}
+     */
+    public void setIoSchedulingPriority(Integer ioSchedulingPriority) {
+        this.ioSchedulingPriority = ioSchedulingPriority;
+    }
+
+    /**
+     * Sets I/O weight in range 1..10000.
+     * @param ioWeight value of {@code IOWeight}
+     */
+    public void setIoWeight(Integer ioWeight) {
+        this.ioWeight = ioWeight;
+    }
+
+    // Settings of the [Service] section in the order they are written
+    Map<String, String> getSettings() {
+        Map<String, String> settings = new LinkedHashMap<>();
+        put(settings, "MemoryHigh", memoryHigh);
+        put(settings, "MemoryMax", memoryMax);
+        put(settings, "CPUQuota", cpuQuota);
+        put(settings, "CPUWeight", cpuWeight);
+        put(settings, "TasksMax", tasksMax);
+        put(settings, "LimitNOFILE", limitNoFile);
+        put(settings, "Nice", nice);
+        put(settings, "IOSchedulingClass", ioSchedulingClass);
+        put(settings, "IOSchedulingPriority", ioSchedulingPriority);
+        put(settings, "IOWeight", ioWeight);
+        return settings;
+    }
+
+    void validate() throws MojoFailureException {
+        check("memoryHigh", memoryHigh, SIZE);
+        check("memoryMax", memoryMax, SIZE);
+        check("cpuQuota", cpuQuota, PERCENT);
+        check("tasksMax", tasksMax, SIZE);
+        check("limitNoFile", limitNoFile, LIMIT);
+        checkRange("cpuWeight", cpuWeight, 1, 10000);
+        checkRange("nice", nice, -20, 19);
+        checkRange("ioSchedulingPriority", ioSchedulingPriority, 0, 7);
+        checkRange("ioWeight", ioWeight, 1, 10000);
+        if (ioSchedulingClass != null && !IO_SCHEDULING_CLASSES.contains(ioSchedulingClass)) {
+            throw new MojoFailureException("Service unit ioSchedulingClass must be one of " + IO_SCHEDULING_CLASSES);
+        }
+        if (getSettings().isEmpty()) {
+            throw new MojoFailureException("Service unit does not define any settings");
+        }
+    }
+
+    private static void put(Map<String, String> settings, String key, Object value) {
+        if (value != null) {
+            settings.put(key, value.toString().trim());
+        }
+    }
+
+    private static void check(String name, String value, Pattern pattern) throws MojoFailureException {
+        if (value != null && !pattern.matcher(value.trim()).matches()) {
+            throw new MojoFailureException("Invalid service unit " + name + ": " + value);
+        }
+    }
+
+    private static void checkRange(String name, Integer value, int min, int max) throws MojoFailureException {
+        if (value != null && (value < min || value > max)) {
+            throw new MojoFailureException("Service unit " + name + " must be in range " + min + ".." + max);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.CommandLineUtils;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.DirectoryUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Generates systemd service units of launchers in a staging resource directory and verifies they are packaged.
+ *
+ * <p>{@code jpackage} looks up the unit of each launcher as {@code <package>-<launcher>.service} in the resource
+ * directory and falls back to its built-in template. Placeholders of the template are substituted by
+ * {@code jpackage}.</p>
+ */
+final class ServiceUnitResources {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceUnitResources.class);
+
+    static final String STAGING_DIRECTORY = "jpackage-resources";
+
+    // Built-in template of jpackage
+    static final List<String> TEMPLATE = Arrays.asList(
+            "[Unit]",
+            "Description=SERVICE_DESCRIPTION",
+            "",
+            "[Service]",
+            "ExecStart=APPLICATION_LAUNCHER",
+            "Restart=on-failure",
+            "",
+            "[Install]",
+            "WantedBy=multi-user.target"
+    );
+
+    private static final String SERVICE_SECTION = "[Service]";
+    private static final String EXTENSION = ".service";
+
+    private ServiceUnitResources() {
+    }
+
+    // Same as default package name of jpackage on Linux
+    static String getPackageName(String name) {
+        String packageName = name.toLowerCase(Locale.ROOT).replaceAll("[^-+.a-z0-9]", "");
+        while (!packageName.isEmpty() && !Character.isLetterOrDigit(packageName.charAt(0))) {
+            packageName = packageName.substring(1);
+        }
+        return packageName;
+    }
+
+    static String getUnitFileName(String packageName, String launcherName) {
+        return packageName + "-" + launcherName.replaceAll("\\s", "_") + EXTENSION;
+    }
+
+    // Copies user resource directory into the staging directory and writes unit file of each launcher. Unit files
+    // provided by user are merged with the settings.
+    static void stage(File resourceDir, Path staging, List<String> unitFileNames, ServiceUnit unit)
+            throws IOException
+    {
+        DirectoryUtil.removeDirectory(staging);
+        if (resourceDir != null) {
+            DirectoryUtil.copyDirectory(resourceDir.toPath(), staging);
+        }
+        Files.createDirectories(staging);
+
+        for (String fileName : unitFileNames) {
+            Path file = staging.resolve(fileName);
+            List<String> lines = Files.isRegularFile(file) ? Files.readAllLines(file, UTF_8) : TEMPLATE;
+            Files.write(file, merge(lines, unit.getSettings()), UTF_8);
+            logger.info("Generated service unit {}", file);
+        }
+    }
+
+    // Replaces existing settings of [Service] section and appends missing ones at the end of the section
+    static List<String> merge(List<String> lines, Map<String, String> settings) {
+        Map<String, String> remaining = new LinkedHashMap<>(settings);
+        List<String> result = new ArrayList<>();
+        boolean inService = false;
+        int insertAt = -1;
+
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("[")) {
+                inService = trimmed.equals(SERVICE_SECTION);
+            } else if (inService) {
+                int separator = trimmed.indexOf('=');
+                if (separator > 0 && settings.containsKey(trimmed.substring(0, separator).trim())) {
+                    String key = trimmed.substring(0, separator).trim();
+                    String value = remaining.remove(key);
+                    if (value != null) {
+                        result.add(key + "=" + value);
+                        insertAt = result.size();
+                    }
+                    continue;
+                }
+            }
+            result.add(line);
+            if (inService && !trimmed.isEmpty()) {
+                insertAt = result.size();
+            }
+        }
+
+        List<String> added = new ArrayList<>();
+        remaining.forEach((key, value) -> added.add(key + "=" + value));
+        if (insertAt < 0) {
+            if (!result.isEmpty() && !result.get(result.size() - 1).trim().isEmpty()) {
+                result.add("");
+            }
+            result.add(SERVICE_SECTION);
+            result.addAll(added);
+        } else {
+            result.addAll(insertAt, added);
+        }
+        return result;
+    }
+
+    // Checks that DEB and RPM packages in the destination contain the unit file. Verification is skipped if
+    // package cannot be listed, for example when dpkg-deb or rpm is not installed.
+    static void verify(Path destination, String unitFileName) throws MojoExecutionException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(destination, "*.{deb,rpm}")) {
+            for (Path file : files) {
+                verifyPackage(file, unitFileName);
+            }
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to verify service unit: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static void verifyPackage(Path file, String unitFileName) throws MojoExecutionException {
+        boolean deb = file.getFileName().toString().endsWith(".deb");
+        Commandline commandline = new Commandline();
+        commandline.setExecutable(deb ? "dpkg-deb" : "rpm");
+        commandline.createArg().setValue(deb ? "-c" : "-qlp");
+        commandline.createArg().setFile(file.toFile());
+
+        List<String> listing = new ArrayList<>();
+        try {
+            int exitCode = CommandLineUtils.executeCommandLine(commandline, listing::add, logger::debug);
+            if (exitCode != 0) {
+                logger.warn("Unable to list {}, service unit is not verified", file.getFileName());
+                return;
+            }
+        } catch (CommandLineException ex) {
+            logger.warn("Unable to list {}, service unit is not verified: {}", file.getFileName(), ex.getMessage());
+            return;
+        }
+
+        if (listing.stream().noneMatch(line -> line.endsWith("/" + unitFileName))) {
+            throw new MojoExecutionException("Package " + file.getFileName() + " does not contain service unit "
+                    + unitFileName);
+        }
+        logger.info("Verified service unit {} in {}", unitFileName, file.getFileName());
+    }
+}
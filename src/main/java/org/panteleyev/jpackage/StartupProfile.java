@@ -0,0 +1,85 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines JFR startup profile of the generated application image.
+ */
+public class StartupProfile {
+    private static final int DEFAULT_DURATION = 10;
+    private static final int DEFAULT_HOT_METHODS = 10;
+
+    private String launcher;
+    private List<String> arguments;
+    private int duration = DEFAULT_DURATION;
+    private int hotMethods = DEFAULT_HOT_METHODS;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public StartupProfile() {
+    }
+
+    String getLauncher() {
+        return launcher;
+    }
+
+    /**
+     * Sets name of the profiled launcher. Defaults to the main launcher.
+     * @param launcher launcher name
+     */
+    public void setLauncher(String launcher) {
+        this.launcher = launcher;
+    }
+
+    List<String> getArguments() {
+        return arguments == null ? Collections.emptyList() : arguments;
+    }
+
+    /**
+     * Sets command line arguments of the launcher.
+     * @param arguments arguments
+     */
+    public void setArguments(List<String> arguments) {
+        this.arguments = arguments;
+    }
+
+    int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Sets duration of the recording in seconds. Defaults to 10. Application that is still running after the
+     * recording is complete is stopped.
+     * @param duration duration in seconds
+     */
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    int getHotMethods() {
+        return hotMethods;
+    }
+
+    /**
+     * Sets number of hot methods in the report. Defaults to 10.
+     * @param hotMethods number of hot methods
+     */
+    public void setHotMethods(int hotMethods) {
+        this.hotMethods = hotMethods;
+    }
+
+    void validate() throws MojoFailureException {
+        if (duration <= 0) {
+            throw new MojoFailureException("Startup profile duration must be positive");
+        }
+        if (hotMethods < 0) {
+            throw new MojoFailureException("Startup profile hotMethods must not be negative");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.CommandLineTimeOutException;
+import org.apache.maven.shared.utils.cli.CommandLineUtils;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.toolchain.Toolchain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.JfrSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.panteleyev.jpackage.Tools.findTool;
+import static org.panteleyev.jpackage.Tools.newCommandline;
+
+/**
+ * Launches application image with JFR recording of its startup and summarises the recording.
+ *
+ * <p>Recording is started with {@code JAVA_TOOL_OPTIONS}, so launcher and its configuration are used as is. Runtime
+ * image must contain {@code jdk.jfr} module. Recording is read with {@code jfr} tool of the toolchain.</p>
+ */
+final class StartupProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(StartupProfiler.class);
+
+    private static final String JFR = "jfr";
+    private static final String JAVA_TOOL_OPTIONS = "JAVA_TOOL_OPTIONS";
+    private static final String SETTINGS_FILE = "startup.jfc";
+    static final String RECORDING_SUFFIX = "-startup.jfr";
+    static final String REPORT_SUFFIX = "-startup.txt";
+
+    // Time given to the application to write the recording after its duration
+    private static final int GRACE_SECONDS = 10;
+
+    private final Toolchain toolchain;
+    private final Path directory;
+
+    StartupProfiler(Toolchain toolchain, Path directory) {
+        this.toolchain = toolchain;
+        this.directory = directory;
+    }
+
+    // Recording and report are written to the output directory. Returns report lines.
+    List<String> run(StartupProfile config, Path launcher, String launcherName, Path outputDirectory)
+            throws MojoExecutionException
+    {
+        if (!Files.isRegularFile(launcher)) {
+            throw new MojoExecutionException("Launcher " + launcher + " does not exist");
+        }
+        String jfr = findTool(toolchain, JFR)
+                .orElseThrow(() -> new MojoExecutionException("Failed to find " + JFR));
+
+        Path recording = outputDirectory.resolve(launcherName + RECORDING_SUFFIX).toAbsolutePath();
+        Path report = outputDirectory.resolve(launcherName + REPORT_SUFFIX);
+        Path settings = directory.resolve(SETTINGS_FILE).toAbsolutePath();
+        try {
+            Files.createDirectories(directory);
+            Files.write(settings, JfrSummary.SETTINGS, UTF_8);
+            Files.deleteIfExists(recording);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to prepare startup profile: " + ex.getMessage(), ex);
+        }
+
+        record(config, launcher, recording, settings);
+        if (!Files.isRegularFile(recording)) {
+            throw new MojoExecutionException("Recording " + recording + " was not created, make sure runtime image"
+                    + " contains jdk.jfr module");
+        }
+
+        List<String> lines = JfrSummary.parse(print(jfr, recording)).toReport(config.getHotMethods());
+        try {
+            Files.write(report, lines, UTF_8);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to write " + report + ": " + ex.getMessage(), ex);
+        }
+        logger.info("Startup profile {}", recording);
+        return lines;
+    }
+
+    private void record(StartupProfile config, Path launcher, Path recording, Path settings)
+            throws MojoExecutionException
+    {
+        String option = "-XX:StartFlightRecording=duration=" + config.getDuration() + "s"
+                + ",filename=" + recording
+                + ",settings=" + settings
+                + ",dumponexit=true";
+        String existing = System.getenv(JAVA_TOOL_OPTIONS);
+
+        Commandline commandline = newCommandline(launcher.toString());
+        commandline.setWorkingDirectory(directory.toFile());
+        commandline.addEnvironment(JAVA_TOOL_OPTIONS, existing == null ? option : existing + " " + option);
+        for (String argument : config.getArguments()) {
+            commandline.createArg().setValue(argument);
+        }
+
+        logger.info("Recording startup of {} for {} seconds", launcher, config.getDuration());
+        try {
+            int exitCode = CommandLineUtils.executeCommandLine(commandline, logger::debug, logger::debug,
+                    config.getDuration() + GRACE_SECONDS);
+            if (exitCode != 0) {
+                logger.warn("Application exited with code {}", exitCode);
+            }
+        } catch (CommandLineTimeOutException ex) {
+            // Recording is complete, long-running applications are stopped
+            logger.info("Application stopped after {} seconds", config.getDuration() + GRACE_SECONDS);
+        } catch (CommandLineException ex) {
+            throw new MojoExecutionException("Error while executing " + launcher + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static List<String> print(String jfr, Path recording) throws MojoExecutionException {
+        Commandline commandline = newCommandline(jfr);
+        commandline.createArg().setValue("print");
+        commandline.createArg().setValue("--events");
+        commandline.createArg().setValue(String.join(",", JfrSummary.EVENTS));
+        commandline.createArg().setValue(recording.toString());
+
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        try {
+            int exitCode = CommandLineUtils.executeCommandLine(commandline, output::add, logger::warn);
+            if (exitCode != 0) {
+                throw new MojoExecutionException(JFR + " exited with code " + exitCode);
+            }
+        } catch (CommandLineException ex) {
+            throw new MojoExecutionException("Error while executing " + JFR + ": " + ex.getMessage(), ex);
+        }
+        return output;
+    }
+}
@@ -0,0 +1,64 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.panteleyev.jpackage.util.ClassDataArchive;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines options of the JVM that runs {@code jpackage} and {@code jlink}.
+ */
+public class ToolJvm {
+    private static final String DEFAULT_ARCHIVE_DIRECTORY = ".jpackage-maven-plugin" + File.separator + "cds";
+
+    private List<String> options;
+    private boolean classDataSharing;
+    private File archiveDirectory;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public ToolJvm() {
+    }
+
+    List<String> getOptions() {
+        return options == null ? Collections.emptyList() : options;
+    }
+
+    /**
+     * Sets JVM options passed to the tool with {@code -J}, for example {@code -Xmx512m}.
+     * @param options JVM options
+     */
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
+
+    /**
+     * Defines if AppCDS archive of the tool classes is created by the first execution and used by subsequent ones.
+     * @param classDataSharing use class data sharing archive
+     */
+    public void setClassDataSharing(boolean classDataSharing) {
+        this.classDataSharing = classDataSharing;
+    }
+
+    /**
+     * Sets directory of class data sharing archives. Defaults to {@code ~/.jpackage-maven-plugin/cds}.
+     * @param archiveDirectory archive directory
+     */
+    public void setArchiveDirectory(File archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    // Returns null if class data sharing is disabled
+    ClassDataArchive getArchive(String tool, String executable) {
+        if (!classDataSharing) {
+            return null;
+        }
+        File directory = archiveDirectory != null ?
+                archiveDirectory : new File(System.getProperty("user.home"), DEFAULT_ARCHIVE_DIRECTORY);
+        return ClassDataArchive.of(directory.toPath(), tool, executable);
+    }
+}
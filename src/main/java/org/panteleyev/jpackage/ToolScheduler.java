@@ -0,0 +1,187 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.eclipse.aether.SessionData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits number of concurrent executions of heavy JDK tools.
+ *
+ * <p>Shared scheduler is used by all plugin executions of the Maven session, so parallel reactor builds do not run more
+ * than the configured number of <code>jpackage</code> and <code>jlink</code> processes at once. Waiting executions
+ * are served in order of arrival. If lock directory is defined, executions also take one of the file lock slots in
+ * this directory which limits executions of all Maven processes sharing it.</p>
+ */
+final class ToolScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ToolScheduler.class);
+
+    // One execution per 2 cores and per 2 GB of physical memory
+    private static final int CORES_PER_EXECUTION = 2;
+    private static final long MEMORY_PER_EXECUTION = 2L * 1024 * 1024 * 1024;
+
+    private static final long LOCK_RETRY_MILLIS = 200;
+    private static final String SLOT_PREFIX = "jpackage-slot-";
+    private static final String SLOT_EXTENSION = ".lock";
+
+    // Class of this plugin realm, other plugin versions in the same session use their own schedulers
+    private static final Object SESSION_KEY = ToolScheduler.class;
+
+    final class Permit implements AutoCloseable {
+        private final FileChannel channel;
+        private boolean released;
+
+        private Permit(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            try {
+                if (channel != null) {
+                    // Closing channel releases the lock
+                    channel.close();
+                }
+            } catch (IOException ex) {
+                logger.warn("Failed to release execution slot: {}", ex.getMessage());
+            } finally {
+                semaphore.release();
+            }
+        }
+    }
+
+    private final int limit;
+    private final Path lockDirectory;
+    private final Semaphore semaphore;
+
+    ToolScheduler(int limit, File lockDirectory) {
+        this.limit = limit;
+        this.lockDirectory = lockDirectory == null ? null : lockDirectory.toPath().toAbsolutePath();
+        this.semaphore = new Semaphore(limit, true);
+    }
+
+    // Returns scheduler shared by all executions of the plugin in the session. Limit that is not positive is derived
+    // from available processors and memory. Parameters of the first call define the scheduler for the rest of the
+    // session. Without session the scheduler is not shared.
+    static ToolScheduler getShared(MavenSession session, int limit, File lockDirectory) {
+        int effectiveLimit = limit > 0 ? limit : getDefaultLimit();
+        ToolScheduler created = new ToolScheduler(effectiveLimit, lockDirectory);
+        if (session == null || session.getRepositorySession() == null) {
+            return created;
+        }
+
+        // Data of the repository session is shared by sessions cloned for parallel project builds
+        SessionData data = session.getRepositorySession().getData();
+        if (data.set(SESSION_KEY, null, created)) {
+            logger.debug("Concurrent tool executions limited to {}", effectiveLimit);
+            return created;
+        }
+        ToolScheduler shared = (ToolScheduler) data.get(SESSION_KEY);
+        if (shared.limit != effectiveLimit) {
+            logger.warn("Concurrent tool executions are already limited to {}, ignoring {}",
+                    shared.limit, effectiveLimit);
+        }
+        if (!Objects.equals(shared.lockDirectory, created.lockDirectory)) {
+            logger.warn("Execution lock directory is already {}, ignoring {}",
+                    shared.lockDirectory, created.lockDirectory);
+        }
+        return shared;
+    }
+
+    static int getDefaultLimit() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long limit = Math.max(1, cores / CORES_PER_EXECUTION);
+
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            long memory = ((com.sun.management.OperatingSystemMXBean) os).getTotalPhysicalMemorySize();
+            if (memory > 0) {
+                limit = Math.min(limit, Math.max(1, memory / MEMORY_PER_EXECUTION));
+            }
+        }
+        return (int) limit;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    Permit acquire(String tool) throws MojoExecutionException {
+        long start = System.nanoTime();
+        boolean waited = false;
+        try {
+            if (!semaphore.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                waited = true;
+                logger.info("Waiting for {} execution slot, {} running", tool, limit);
+                semaphore.acquire();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for " + tool + " execution slot", ex);
+        }
+
+        FileChannel channel = null;
+        if (lockDirectory != null) {
+            try {
+                channel = tryLockSlot();
+                if (channel == null) {
+                    waited = true;
+                    logger.info("Waiting for {} execution slot in {}", tool, lockDirectory);
+                    while ((channel = tryLockSlot()) == null) {
+                        Thread.sleep(LOCK_RETRY_MILLIS);
+                    }
+                }
+            } catch (IOException | InterruptedException ex) {
+                semaphore.release();
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new MojoExecutionException("Failed to acquire " + tool + " execution slot: " + ex.getMessage(),
+                        ex);
+            }
+        }
+
+        if (waited) {
+            logger.info("Waited {} ms for {} execution slot", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    tool);
+        }
+        return new Permit(channel);
+    }
+
+    private FileChannel tryLockSlot() throws IOException {
+        Files.createDirectories(lockDirectory);
+        for (int slot = 0; slot < limit; slot++) {
+            Path file = lockDirectory.resolve(SLOT_PREFIX + slot + SLOT_EXTENSION);
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            try {
+                FileLock lock = channel.tryLock();
+                if (lock != null) {
+                    return channel;
+                }
+            } catch (OverlappingFileLockException ex) {
+                // Slot is held by this process
+            }
+            channel.close();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,165 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.Tracer;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.panteleyev.jpackage.util.DirectoryUtil.getSize;
+
+/**
+ * Executes <code>jpackage</code> of several JDK toolchains concurrently and reports results.
+ */
+final class ToolchainMatrix {
+    private static final Logger logger = LoggerFactory.getLogger(ToolchainMatrix.class);
+
+    private static final String EXECUTABLE = "jpackage";
+
+    static final class Target {
+        private final String id;
+        private final String executable;
+        private final Commandline commandline;
+        private final File destination;
+        // Input jars in order of first use during the training run of the toolchain
+        private final List<Path> jarOrder;
+
+        private long durationNanos;
+        private long size;
+        private Exception error;
+
+        Target(String id, String executable, Commandline commandline, File destination, List<Path> jarOrder) {
+            this.id = id;
+            this.executable = executable;
+            this.commandline = commandline;
+            this.destination = destination;
+            this.jarOrder = jarOrder;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        File getDestination() {
+            return destination;
+        }
+
+        List<Path> getJarOrder() {
+            return jarOrder;
+        }
+
+        long getDurationNanos() {
+            return durationNanos;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        Exception getError() {
+            return error;
+        }
+    }
+
+    private final ToolScheduler scheduler;
+    private final ToolJvm toolJvm;
+    private final boolean resourceReport;
+    private final List<Target> targets = new ArrayList<>();
+
+    ToolchainMatrix(ToolScheduler scheduler, ToolJvm toolJvm, boolean resourceReport) {
+        this.scheduler = scheduler;
+        this.toolJvm = toolJvm;
+        this.resourceReport = resourceReport;
+    }
+
+    void add(String id, String executable, Commandline commandline, File destination, List<Path> jarOrder) {
+        targets.add(new Target(id, executable, commandline, destination, jarOrder));
+    }
+
+    List<Target> getTargets() {
+        return targets;
+    }
+
+    // Executes all targets and waits for completion. Fails if any of the targets failed.
+    void execute(Tracer tracer, Tracer.Span parent) throws MojoExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(targets.size());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Target target : targets) {
+                futures.add(executor.submit(() -> execute(tracer, parent, target)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for " + EXECUTABLE, ex);
+        } catch (ExecutionException ex) {
+            throw new MojoExecutionException(ex.getCause().getMessage(), ex.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String line : getSummary()) {
+            logger.info(line);
+        }
+
+        List<Target> failed = targets.stream().filter(target -> target.error != null).collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            throw new MojoExecutionException(EXECUTABLE + " failed for toolchains "
+                    + failed.stream().map(Target::getId).collect(Collectors.joining(", ")), failed.get(0).error);
+        }
+    }
+
+    List<String> getSummary() {
+        int width = Math.max("Toolchain".length(),
+                targets.stream().mapToInt(target -> target.id.length()).max().orElse(0));
+        String format = "%-" + width + "s  %-6s  %10s  %12s";
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, format, "Toolchain", "Status", "Duration", "Size"));
+        for (Target target : targets) {
+            lines.add(String.format(Locale.ROOT, format,
+                    target.id,
+                    target.error == null ? "OK" : "FAILED",
+                    String.format(Locale.ROOT, "%.1f s", target.durationNanos / 1e9),
+                    String.format(Locale.ROOT, "%.1f MB", target.size / (1024.0 * 1024.0))));
+        }
+        return lines;
+    }
+
+    private void execute(Tracer tracer, Tracer.Span parent, Target target) {
+        try (Tracer.Span span = tracer.start("execute", parent)) {
+            span.setAttribute("jpackage.toolchain.id", target.id)
+                    .setAttribute("jpackage.commandLine", target.commandline.toString());
+            String tool = EXECUTABLE + " [" + target.id + "]";
+            long start = System.nanoTime();
+            try (ToolScheduler.Permit ignored = scheduler.acquire(tool)) {
+                // Waiting for the permit is not a part of the duration
+                start = System.nanoTime();
+                ResourceAccounting.execute(target.commandline, tool, target.executable, toolJvm,
+                        resourceReport ? target.destination : null);
+            } catch (MojoExecutionException ex) {
+                span.setError(ex);
+                target.error = ex;
+            }
+            target.durationNanos = System.nanoTime() - start;
+            target.size = getSize(target.destination.toPath());
+            span.setAttribute("jpackage.size", target.size);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.panteleyev.jpackage.util.StringUtil.isNotEmpty;
+
+/**
+ * Defines JDK toolchain used to build one of the packages of the toolchain matrix.
+ */
+public class ToolchainRequirement {
+    private String id;
+    private String version;
+    private String vendor;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public ToolchainRequirement() {
+    }
+
+    ToolchainRequirement(String id, String version, String vendor) {
+        this.id = id;
+        this.version = version;
+        this.vendor = vendor;
+    }
+
+    /**
+     * Sets identifier of the toolchain used as the name of <code>destination</code> and <code>temp</code>
+     * subdirectories. Defaults to version and vendor.
+     * @param id identifier
+     */
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    /**
+     * Sets required JDK version as defined in <code>toolchains.xml</code>.
+     * @param version JDK version
+     */
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    /**
+     * Sets required JDK vendor as defined in <code>toolchains.xml</code>.
+     * @param vendor JDK vendor
+     */
+    public void setVendor(String vendor) {
+        this.vendor = vendor;
+    }
+
+    String getId() {
+        if (isNotEmpty(id)) {
+            return id;
+        }
+        String result = (isNotEmpty(version) ? version : "")
+                + (isNotEmpty(version) && isNotEmpty(vendor) ? "-" : "")
+                + (isNotEmpty(vendor) ? vendor : "");
+        return result.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    Map<String, String> getRequirements() {
+        Map<String, String> requirements = new LinkedHashMap<>();
+        if (isNotEmpty(version)) {
+            requirements.put("version", version);
+        }
+        if (isNotEmpty(vendor)) {
+            requirements.put("vendor", vendor);
+        }
+        return requirements;
+    }
+
+    void validate() throws MojoFailureException {
+        if (getId().isEmpty()) {
+            throw new MojoFailureException("Toolchain requirement must define id, version or vendor");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getRequirements().toString();
+    }
+}
@@ -0,0 +1,200 @@
+// Copyright © 2020-2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.CommandLineUtils;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.shared.utils.cli.StreamConsumer;
+import org.apache.maven.shared.utils.cli.StreamPumper;
+import org.apache.maven.toolchain.Toolchain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.ClassDataArchive;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.panteleyev.jpackage.util.OsUtil.isWindows;
+import static org.panteleyev.jpackage.util.StringUtil.isEmpty;
+import static org.panteleyev.jpackage.util.StringUtil.isNotEmpty;
+
+/**
+ * Locates and executes JDK tools.
+ */
+final class Tools {
+    private static final Logger logger = LoggerFactory.getLogger(Tools.class);
+
+    private Tools() {
+    }
+
+    static Optional<String> findTool(Toolchain tc, String tool) {
+        Optional<String> executable = getToolFromToolchain(tc, tool);
+        return executable.isPresent() ?
+                executable : getToolFromJdkHome(System.getProperty("java.home"), tool);
+    }
+
+    static Optional<String> getToolFromJdkHome(String jdkHome, String tool) {
+        if (jdkHome == null || jdkHome.isEmpty()) return Optional.empty();
+
+        logger.debug("Looking for {} in {}", tool, jdkHome);
+
+        String executable = jdkHome + File.separator + "bin" + File.separator + tool;
+        if (isWindows()) {
+            executable = executable + ".exe";
+        }
+
+        if (new File(executable).exists()) {
+            return Optional.of(executable);
+        } else {
+            logger.warn("File {} does not exist", executable);
+            return Optional.empty();
+        }
+    }
+
+    private static Optional<String> getToolFromToolchain(Toolchain tc, String tool) {
+        if (tc == null) return Optional.empty();
+
+        String executable = tc.findTool(tool);
+        if (executable == null) {
+            logger.warn(tool + " is not part of configured toolchain");
+        }
+
+        return Optional.ofNullable(executable);
+    }
+
+    static Commandline newCommandline(String executable) {
+        Commandline commandline = new Commandline();
+        commandline.setExecutable(executable.contains(" ") ? ("\"" + executable + "\"") : executable);
+        return commandline;
+    }
+
+    // Executes tool adding JVM options with -J to the command line. Class data sharing archive is created by the first
+    // successful execution of the executable and used by subsequent ones.
+    static String execute(Commandline commandline, String tool, String executable, ToolJvm jvm)
+            throws MojoExecutionException
+    {
+        return execute(commandline, tool, executable, jvm, null);
+    }
+
+    static String execute(Commandline commandline, String tool, String executable, ToolJvm jvm,
+            Consumer<Process> started) throws MojoExecutionException
+    {
+        if (jvm == null) {
+            return execute(commandline, tool, started);
+        }
+
+        List<String> options = new ArrayList<>();
+        for (String option : jvm.getOptions()) {
+            options.add("-J" + option);
+        }
+        String toolName = new File(executable).getName().replace(".exe", "");
+        ClassDataArchive archive = jvm.getArchive(toolName, executable);
+        if (archive != null) {
+            if (archive.isCreating()) {
+                logger.info("Creating class data sharing archive {}", archive.getArchive());
+            }
+            options.add("-J" + archive.getOption());
+        }
+        for (int i = options.size() - 1; i >= 0; i--) {
+            commandline.createArg(true).setValue(options.get(i));
+        }
+
+        boolean success = false;
+        try {
+            String output = execute(commandline, tool, started);
+            success = true;
+            return output;
+        } finally {
+            if (archive != null) {
+                try {
+                    archive.complete(success);
+                } catch (UncheckedIOException ex) {
+                    logger.warn("Failed to store class data sharing archive: {}", ex.getMessage());
+                }
+            }
+        }
+    }
+
+    static String execute(Commandline commandline, String tool) throws MojoExecutionException {
+        return execute(commandline, tool, (Consumer<Process>) null);
+    }
+
+    // Executes tool, started consumer receives the process before its output is processed
+    static String execute(Commandline commandline, String tool, Consumer<Process> started)
+            throws MojoExecutionException
+    {
+        CommandLineUtils.StringStreamConsumer err = new CommandLineUtils.StringStreamConsumer();
+        CommandLineUtils.StringStreamConsumer out = new CommandLineUtils.StringStreamConsumer();
+
+        try {
+            int exitCode = started == null ?
+                    CommandLineUtils.executeCommandLine(commandline, out, err) :
+                    executeProcess(commandline, out, err, started);
+
+            String output = (isEmpty(out.getOutput()) ? null : '\n' + out.getOutput().trim());
+
+            if (exitCode != 0) {
+                if (isNotEmpty(output)) {
+                    for (String line : output.split("\n")) {
+                        logger.error(line);
+                    }
+                }
+
+                StringBuilder msg = new StringBuilder("\nExit code: ")
+                        .append(exitCode);
+                String errOutput = err.getOutput();
+                if (isNotEmpty(errOutput)) {
+                    msg.append(" - ").append(errOutput);
+                }
+                msg.append('\n');
+                msg.append("Command line was: ").append(commandline).append('\n').append('\n');
+
+                throw new MojoExecutionException(msg.toString());
+            } else {
+                if (isNotEmpty(output)) {
+                    for (String outputLine : output.split("\n")) {
+                        logger.info(outputLine);
+                    }
+                }
+            }
+            return output == null ? "" : output.trim();
+        } catch (CommandLineException e) {
+            throw new MojoExecutionException("Error while executing " + tool + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static int executeProcess(Commandline commandline, StreamConsumer out, StreamConsumer err,
+            Consumer<Process> started) throws CommandLineException
+    {
+        Process process = commandline.execute();
+        StreamPumper outPumper = new StreamPumper(process.getInputStream(), out);
+        StreamPumper errPumper = new StreamPumper(process.getErrorStream(), err);
+        outPumper.start();
+        errPumper.start();
+        try {
+            started.accept(process);
+            process.getOutputStream().close();
+            int exitCode = process.waitFor();
+            outPumper.waitUntilDone();
+            errPumper.waitUntilDone();
+            return exitCode;
+        } catch (IOException ex) {
+            throw new CommandLineException("Error while executing process", ex);
+        } catch (InterruptedException ex) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new CommandLineException("Interrupted while waiting for process", ex);
+        } finally {
+            outPumper.close();
+            errPumper.close();
+        }
+    }
+}
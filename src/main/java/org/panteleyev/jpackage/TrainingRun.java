@@ -0,0 +1,68 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Defines training run of the application used to order runtime image resources and pregenerate
+ * {@code java.lang.invoke} classes.
+ */
+public class TrainingRun {
+    private static final int DEFAULT_TIMEOUT = 60;
+
+    private List<String> arguments;
+    private List<String> javaOptions;
+    private int timeout = DEFAULT_TIMEOUT;
+
+    /**
+     * Creates new instance of the class.
+     */
+    public TrainingRun() {
+    }
+
+    List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * Sets command line arguments of the training run. If not specified, application arguments are used.
+     * @param arguments arguments
+     */
+    public void setArguments(List<String> arguments) {
+        this.arguments = arguments;
+    }
+
+    List<String> getJavaOptions() {
+        return javaOptions == null ? Collections.emptyList() : javaOptions;
+    }
+
+    /**
+     * Sets Java options added to the application Java options during the training run.
+     * @param javaOptions Java options
+     */
+    public void setJavaOptions(List<String> javaOptions) {
+        this.javaOptions = javaOptions;
+    }
+
+    int getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets time in seconds after which the training run is stopped. Defaults to 60.
+     * @param timeout timeout in seconds
+     */
+    public void setTimeout(int timeout) {
+        this.timeout = timeout;
+    }
+
+    void validate() throws MojoFailureException {
+        if (timeout <= 0) {
+            throw new MojoFailureException("Training run timeout must be positive");
+        }
+    }
+}
@@ -0,0 +1,299 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.CommandLineTimeOutException;
+import org.apache.maven.shared.utils.cli.CommandLineUtils;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.toolchain.Toolchain;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.panteleyev.jpackage.util.ClassLoadLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.panteleyev.jpackage.JPackageMojo.ALL_DEFAULT;
+import static org.panteleyev.jpackage.Tools.findTool;
+import static org.panteleyev.jpackage.Tools.getToolFromJdkHome;
+import static org.panteleyev.jpackage.Tools.newCommandline;
+import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+import static org.panteleyev.jpackage.util.LauncherConfig.APPDIR;
+
+/**
+ * Runs the application once on a preliminary runtime image with class loading and
+ * {@code java.lang.invoke} resolution tracing enabled, then derives input files of {@code jlink} plugins
+ * {@code --order-resources} and {@code --generate-jli-classes}, and the order in which classpath jars were first
+ * used.
+ */
+final class TrainingRunner {
+    private static final Logger logger = LoggerFactory.getLogger(TrainingRunner.class);
+
+    private static final String JLINK = "jlink";
+    private static final String JAVA = "java";
+
+    static final String CLASS_LOAD_LOG = "class-load.log";
+    static final String ORDER_RESOURCES_FILE = "order-resources.txt";
+    static final String JLI_CLASSES_FILE = "jli-classes.txt";
+    static final String CLASSPATH_ORDER_FILE = "classpath-order.txt";
+
+    private static final String RUNTIME_DIRECTORY = "runtime";
+    // Preliminary runtime must keep bin/java and must not depend on the results of a previous training run
+    private static final List<String> EXCLUDED_JLINK_OPTIONS = Arrays.asList(
+            "--strip-native-commands", "--order-resources", "--generate-jli-classes"
+    );
+    private static final List<String> TRACE_OPTIONS = Arrays.asList(
+            // Classes must be loaded from the runtime image rather than from CDS archive to get their module
+            "-Xshare:off",
+            "-Xlog:class+load=info:file=" + CLASS_LOAD_LOG,
+            "-Djava.lang.invoke.MethodHandle.TRACE_RESOLVE=true"
+    );
+
+    static final class Result {
+        private final Path classLoadLog;
+        private final Path orderResources;
+        private final Path jliClasses;
+        private final List<Path> jarOrder;
+
+        Result(Path classLoadLog, Path orderResources, Path jliClasses, List<Path> jarOrder) {
+            this.classLoadLog = classLoadLog;
+            this.orderResources = orderResources;
+            this.jliClasses = jliClasses;
+            this.jarOrder = jarOrder;
+        }
+
+        Path getClassLoadLog() {
+            return classLoadLog;
+        }
+
+        Path getOrderResources() {
+            return orderResources;
+        }
+
+        Path getJliClasses() {
+            return jliClasses;
+        }
+
+        // Jars of the input directory in order of first use, relative to the input directory
+        List<Path> getJarOrder() {
+            return jarOrder;
+        }
+
+        // jlink options that apply results of the training run
+        List<String> getJLinkOptions() {
+            return Arrays.asList(
+                    "--order-resources=@" + orderResources.toAbsolutePath(),
+                    "--generate-jli-classes=@" + jliClasses.toAbsolutePath()
+            );
+        }
+    }
+
+    private final Toolchain toolchain;
+    private final Path directory;
+
+    TrainingRunner(Toolchain toolchain, Path directory) {
+        this.toolchain = toolchain;
+        this.directory = directory;
+    }
+
+    Result run(JPackageMojo mojo, TrainingRun config) throws MojoExecutionException, MojoFailureException {
+        config.validate();
+        try {
+            if (Files.exists(directory)) {
+                removeDirectory(directory);
+            }
+            Files.createDirectories(directory);
+
+            Path runtime = directory.resolve(RUNTIME_DIRECTORY);
+            linkRuntime(mojo, runtime);
+
+            List<String> output = runApplication(mojo, config, runtime);
+
+            Path classLoadLog = directory.resolve(CLASS_LOAD_LOG);
+            if (!Files.isRegularFile(classLoadLog)) {
+                throw new MojoExecutionException("Training run did not produce " + classLoadLog);
+            }
+            ClassLoadLog log = ClassLoadLog.read(classLoadLog);
+            List<String> resources = log.getResourceOrder();
+            List<String> jliClasses = ClassLoadLog.getJliClasses(output);
+            List<Path> jarOrder = getJarOrder(mojo, log);
+            logger.info("Training run: {} classes loaded from runtime image, {} JLI species resolved, {} jars used",
+                    resources.size(), jliClasses.size(), jarOrder.size());
+            Files.write(directory.resolve(CLASSPATH_ORDER_FILE),
+                    jarOrder.stream().map(Path::toString).collect(Collectors.toList()), UTF_8);
+
+            return new Result(classLoadLog,
+                    Files.write(directory.resolve(ORDER_RESOURCES_FILE), resources, UTF_8),
+                    Files.write(directory.resolve(JLI_CLASSES_FILE), jliClasses, UTF_8),
+                    jarOrder);
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Training run failed: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void linkRuntime(JPackageMojo mojo, Path runtime) throws MojoExecutionException {
+        String executable = findTool(toolchain, JLINK)
+                .orElseThrow(() -> new MojoExecutionException("Failed to find " + JLINK));
+
+        Set<String> modules = new LinkedHashSet<>();
+        if (mojo.getModule() != null) {
+            modules.add(mojo.getModule().split("/")[0]);
+        }
+        mojo.getAddModules().stream().filter(Objects::nonNull).forEach(modules::add);
+        if (modules.isEmpty()) {
+            modules.add(ALL_DEFAULT);
+        }
+        modules.addAll(mojo.getConvertedModules());
+
+        List<File> modulePaths = new ArrayList<>(mojo.getModulePaths());
+        if (mojo.getConvertedModulePath() != null) {
+            modulePaths.add(mojo.getConvertedModulePath());
+        }
+
+        Commandline commandline = newCommandline(executable);
+        commandline.createArg().setValue("--output");
+        commandline.createArg().setValue(runtime.toAbsolutePath().toString());
+        if (!modulePaths.isEmpty()) {
+            commandline.createArg().setValue("--module-path");
+            commandline.createArg().setValue(modulePaths.stream()
+                    .map(File::getAbsolutePath)
+                    .collect(Collectors.joining(File.pathSeparator)));
+        }
+        commandline.createArg().setValue("--add-modules");
+        commandline.createArg().setValue(String.join(",", modules));
+        for (String option : mojo.getJLinkOptions()) {
+            if (EXCLUDED_JLINK_OPTIONS.stream().noneMatch(option::startsWith)) {
+                commandline.createArg().setValue(option);
+            }
+        }
+
+        logger.info("Linking preliminary runtime image {}", runtime);
+        try (ToolScheduler.Permit ignored = mojo.getScheduler().acquire(JLINK)) {
+            Tools.execute(commandline, JLINK, executable, mojo.getToolJvm());
+        }
+    }
+
+    private List<String> runApplication(JPackageMojo mojo, TrainingRun config, Path runtime)
+            throws MojoExecutionException, MojoFailureException, IOException
+    {
+        String executable = getToolFromJdkHome(runtime.toAbsolutePath().toString(), JAVA)
+                .orElseThrow(() -> new MojoExecutionException("Preliminary runtime image does not contain " + JAVA));
+
+        String appDirectory = mojo.getEffectiveInput() == null ? "" : mojo.getEffectiveInput().getAbsolutePath();
+
+        Commandline commandline = newCommandline(executable);
+        commandline.setWorkingDirectory(directory.toFile());
+        for (String option : TRACE_OPTIONS) {
+            commandline.createArg().setValue(option);
+        }
+        List<String> javaOptions = new ArrayList<>(mojo.getJavaOptions());
+        javaOptions.addAll(mojo.getNativeLibraryOptions());
+        javaOptions.addAll(config.getJavaOptions());
+        for (String option : javaOptions) {
+            commandline.createArg().setValue(option.replace(APPDIR, appDirectory));
+        }
+
+        if (mojo.getModule() != null) {
+            commandline.createArg().setValue("-m");
+            commandline.createArg().setValue(mojo.getModule());
+        } else {
+            Path mainJar = getMainJar(mojo);
+            commandline.createArg().setValue("-cp");
+            commandline.createArg().setValue(getClasspath(mojo.getEffectiveInput().toPath(), mainJar));
+            commandline.createArg().setValue(getMainClass(mojo, mainJar));
+        }
+
+        List<String> arguments = config.getArguments() == null ? mojo.getArguments() : config.getArguments();
+        for (String argument : arguments) {
+            commandline.createArg().setValue(argument);
+        }
+
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        logger.info("Training run for up to {} seconds", config.getTimeout());
+        try {
+            int exitCode = CommandLineUtils.executeCommandLine(commandline, output::add, logger::debug,
+                    config.getTimeout());
+            if (exitCode != 0) {
+                logger.warn("Training run exited with code {}", exitCode);
+            }
+        } catch (CommandLineTimeOutException ex) {
+            // Long-running applications are stopped, classes loaded so far are sufficient
+            logger.warn("Training run stopped after {} seconds", config.getTimeout());
+        } catch (CommandLineException ex) {
+            throw new MojoExecutionException("Error while executing training run: " + ex.getMessage(), ex);
+        }
+        return output;
+    }
+
+    private static Path getMainJar(JPackageMojo mojo) throws MojoFailureException {
+        if (mojo.getEffectiveInput() == null || mojo.getMainJar() == null) {
+            throw new MojoFailureException("Training run requires either module or input and mainJar");
+        }
+        Path mainJar = mojo.getEffectiveInput().toPath().resolve(mojo.getMainJar()).toAbsolutePath();
+        if (!Files.isRegularFile(mainJar)) {
+            throw new MojoFailureException("Main jar " + mainJar + " does not exist");
+        }
+        return mainJar;
+    }
+
+    private static List<Path> getJarOrder(JPackageMojo mojo, ClassLoadLog log) {
+        if (mojo.getModule() != null || mojo.getEffectiveInput() == null) {
+            return Collections.emptyList();
+        }
+        Path input = mojo.getEffectiveInput().toPath().toAbsolutePath().normalize();
+        return log.getJarOrder().stream()
+                .filter(jar -> jar.startsWith(input))
+                .map(input::relativize)
+                .collect(Collectors.toList());
+    }
+
+    // Same order as jpackage uses: main jar first, then all other jars of the input directory
+    private static String getClasspath(Path input, Path mainJar) throws IOException {
+        List<String> classpath = new ArrayList<>();
+        classpath.add(mainJar.toString());
+        try (Stream<Path> paths = Files.walk(input)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".jar"))
+                    .map(path -> path.toAbsolutePath().toString())
+                    .filter(path -> !path.equals(mainJar.toString()))
+                    .sorted()
+                    .forEach(classpath::add);
+        }
+        return String.join(File.pathSeparator, classpath);
+    }
+
+    private static String getMainClass(JPackageMojo mojo, Path mainJar) throws IOException, MojoFailureException {
+        if (mojo.getMainClass() != null) {
+            return mojo.getMainClass();
+        }
+        try (JarFile jar = new JarFile(mainJar.toFile())) {
+            Manifest manifest = jar.getManifest();
+            String mainClass = manifest == null ?
+                    null : manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+            if (mainClass == null) {
+                throw new MojoFailureException("Main class is not defined and " + mainJar + " has no Main-Class");
+            }
+            return mainClass;
+        }
+    }
+}
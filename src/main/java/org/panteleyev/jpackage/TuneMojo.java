@@ -0,0 +1,352 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.shared.utils.cli.CommandLineException;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.shared.utils.cli.StreamConsumer;
+import org.apache.maven.shared.utils.cli.StreamPumper;
+import org.panteleyev.jpackage.util.AppImage;
+import org.panteleyev.jpackage.util.FlagTuning;
+import org.panteleyev.jpackage.util.LauncherConfig;
+import org.panteleyev.jpackage.util.ProcessSampler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.panteleyev.jpackage.Tools.newCommandline;
+import static org.panteleyev.jpackage.util.LauncherConfig.JAVA_OPTION;
+import static org.panteleyev.jpackage.util.LauncherConfig.JAVA_OPTIONS;
+
+/**
+ * <p>Selects garbage collector, heap size and tiered compilation flags of the application launcher.</p>
+ *
+ * <p>Goal runs the launcher of an existing application image with each candidate flag set and measures startup time,
+ * throughput and peak RSS. Candidates replace garbage collector, heap and tiered compilation options of the launcher
+ * configuration, other options are kept. Results are ranked by the objective and the winning flags are written as
+ * <code>java-options</code> of a launcher properties file:</p>
+ * <pre>
+ * mvn jpackage:tune
+ * </pre>
+ */
+@Mojo(name = "tune", defaultPhase = LifecyclePhase.NONE)
+public class TuneMojo extends AbstractMojo {
+    private static final Logger logger = LoggerFactory.getLogger(TuneMojo.class);
+
+    static final String PROPERTIES_SUFFIX = "-tuned.properties";
+    static final String REPORT_SUFFIX = "-tuning.txt";
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 50;
+
+    /**
+     * Skips plugin execution.
+     */
+    @Parameter(defaultValue = "false")
+    private boolean skip;
+
+    /**
+     * <p>Application image.</p>
+     */
+    @Parameter(required = true)
+    private File appImage;
+
+    /**
+     * <p>Tuned launcher.</p>
+     */
+    @Parameter(defaultValue = "${project.name}", required = true)
+    private String launcher;
+
+    /**
+     * <p>Workload arguments.</p>
+     * <p>Command line arguments of the launcher that make the application execute representative workload.</p>
+     * <pre>
+     * &lt;arguments>
+     *     &lt;argument>--benchmark&lt;/argument>
+     * &lt;/arguments>
+     * </pre>
+     */
+    @Parameter
+    private List<String> arguments;
+
+    /**
+     * <p>Working directory of the application.</p>
+     */
+    @Parameter(defaultValue = "${project.build.directory}")
+    private File workingDirectory;
+
+    /**
+     * <p>Startup marker.</p>
+     * <p>Regular expression matching output line the application prints when startup is complete. If not specified,
+     * startup time is the time to the application exit.</p>
+     */
+    @Parameter
+    private String startupMarker;
+
+    /**
+     * <p>Throughput marker.</p>
+     * <p>Regular expression matching output lines that report progress of the workload. If the expression has a
+     * group, throughput is the number captured by the last matching line, for example <code>ops/s: ([\d.]+)</code>.
+     * Otherwise throughput is the number of matching lines per second after startup.</p>
+     */
+    @Parameter
+    private String throughputMarker;
+
+    /**
+     * <p>Candidate flag sets.</p>
+     * <p>Each candidate is a space separated list of options. Defaults to G1, Parallel, Serial and Z garbage
+     * collectors with <code>-XX:MaxRAMPercentage</code> of 25, 50 and 75, with and without
+     * <code>-XX:TieredStopAtLevel=1</code>. Launcher options as is are always measured as a baseline.</p>
+     * <pre>
+     * &lt;candidates>
+     *     &lt;candidate>-XX:+UseSerialGC -Xmx64m&lt;/candidate>
+     *     &lt;candidate>-XX:+UseParallelGC -Xmx128m&lt;/candidate>
+     * &lt;/candidates>
+     * </pre>
+     */
+    @Parameter
+    private List<String> candidates;
+
+    /**
+     * <p>Tuning objective.</p>
+     * <p>Possible values: <code>STARTUP</code>, <code>THROUGHPUT</code>, <code>MEMORY</code>.</p>
+     */
+    @Parameter(defaultValue = "STARTUP")
+    private FlagTuning.Objective objective;
+
+    /**
+     * <p>Number of runs of each candidate.</p>
+     * <p>Candidates are compared by median values of their runs.</p>
+     */
+    @Parameter(defaultValue = "3")
+    private int runs;
+
+    /**
+     * <p>Duration of a run in seconds.</p>
+     * <p>Application that is still running after this time is stopped, this is not a failure.</p>
+     */
+    @Parameter(defaultValue = "30")
+    private int duration;
+
+    /**
+     * <p>Output directory.</p>
+     * <p>Directory of <code>&lt;launcher>-tuned.properties</code> with the winning flags and
+     * <code>&lt;launcher>-tuning.txt</code> report.</p>
+     */
+    @Parameter(defaultValue = "${project.build.directory}/jpackage-tuning")
+    private File outputDirectory;
+
+    /**
+     * <p>Apply winning flags to the application image.</p>
+     * <p>If <code>true</code> launcher configuration of the image is updated.</p>
+     */
+    @Parameter(defaultValue = "false")
+    private boolean applyToImage;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            logger.info("Skipping plugin execution");
+            return;
+        }
+
+        AppImage image = AppImage.at(appImage.toPath().toAbsolutePath());
+        Path launcherPath = image.getLauncher(launcher);
+        Path configFile = image.getConfigFile(launcher);
+        if (!Files.isRegularFile(launcherPath)) {
+            throw new MojoFailureException("Launcher " + launcherPath + " does not exist");
+        }
+        if (!Files.isRegularFile(configFile)) {
+            throw new MojoFailureException("Launcher configuration " + configFile + " does not exist");
+        }
+        if (runs < 1) {
+            throw new MojoFailureException("Number of runs must be positive");
+        }
+        if (duration <= 0) {
+            throw new MojoFailureException("Run duration must be positive");
+        }
+        Pattern startup = compile("startupMarker", startupMarker);
+        Pattern throughput = compile("throughputMarker", throughputMarker);
+
+        List<FlagTuning.Candidate> measured = new ArrayList<>();
+        measured.add(new FlagTuning.Candidate(Collections.emptyList()));
+        for (List<String> options : getCandidates()) {
+            measured.add(new FlagTuning.Candidate(options));
+        }
+
+        byte[] original;
+        List<String> launcherOptions;
+        try {
+            original = Files.readAllBytes(configFile);
+            launcherOptions = LauncherConfig.read(configFile).getValues(JAVA_OPTIONS, JAVA_OPTION);
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to read " + configFile + ": " + ex.getMessage(), ex);
+        }
+
+        try {
+            // Warm-up run of the baseline fills file system caches and is not measured
+            logger.info("Warming up {}", launcherPath);
+            run(launcherPath, startup, throughput);
+
+            for (int i = 0; i < measured.size(); i++) {
+                FlagTuning.Candidate candidate = measured.get(i);
+                logger.info("Candidate {}/{}: {}", i + 1, measured.size(), candidate);
+                if (!candidate.getOptions().isEmpty()) {
+                    writeOptions(configFile, FlagTuning.merge(launcherOptions, candidate.getOptions()));
+                }
+                for (int r = 0; r < runs && (r == 0 || !candidate.isFailed()); r++) {
+                    candidate.add(run(launcherPath, startup, throughput));
+                }
+            }
+        } finally {
+            try {
+                Files.write(configFile, original);
+            } catch (IOException ex) {
+                logger.error("Failed to restore {}: {}", configFile, ex.getMessage());
+            }
+        }
+
+        if (measured.get(0).isFailed()) {
+            throw new MojoExecutionException("Application failed with launcher options, check the workload");
+        }
+
+        List<FlagTuning.Candidate> ranked = FlagTuning.rank(measured, objective);
+        List<String> report = FlagTuning.toReport(ranked, objective);
+        for (String line : report) {
+            logger.info(line);
+        }
+
+        FlagTuning.Candidate winner = ranked.get(0);
+        List<String> winningOptions = winner.getOptions().isEmpty() ?
+                launcherOptions.stream().filter(FlagTuning::isTuned).collect(Collectors.toList()) :
+                winner.getOptions();
+        logger.info("Winning flags: {}", winningOptions.isEmpty() ? "JVM defaults" : String.join(" ", winningOptions));
+
+        Path properties = outputDirectory.toPath().resolve(launcher + PROPERTIES_SUFFIX);
+        try {
+            Files.createDirectories(outputDirectory.toPath());
+            Files.write(properties, Arrays.asList(
+                    "# Objective: " + objective.name().toLowerCase(Locale.ROOT),
+                    JAVA_OPTION + "=" + FlagTuning.toPropertyValue(winningOptions)
+            ), UTF_8);
+            Files.write(outputDirectory.toPath().resolve(launcher + REPORT_SUFFIX), report, UTF_8);
+        } catch (IOException ex) {
+            throw new MojoExecutionException("Failed to write " + properties + ": " + ex.getMessage(), ex);
+        }
+        logger.info("Launcher properties {}", properties);
+
+        if (applyToImage && !winner.getOptions().isEmpty()) {
+            writeOptions(configFile, FlagTuning.merge(launcherOptions, winningOptions));
+            logger.info("Updated {}", configFile);
+        }
+    }
+
+    private List<List<String>> getCandidates() {
+        if (candidates == null || candidates.isEmpty()) {
+            return FlagTuning.getDefaultCandidates();
+        }
+        return candidates.stream()
+                .map(String::trim)
+                .filter(candidate -> !candidate.isEmpty())
+                .map(candidate -> Arrays.asList(candidate.split("\\s+")))
+                .collect(Collectors.toList());
+    }
+
+    private static Pattern compile(String name, String regex) throws MojoFailureException {
+        if (regex == null || regex.isEmpty()) return null;
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException ex) {
+            throw new MojoFailureException("Invalid " + name + ": " + ex.getMessage());
+        }
+    }
+
+    private static void writeOptions(Path configFile, List<String> options) throws MojoExecutionException {
+        try {
+            LauncherConfig config = LauncherConfig.read(configFile);
+            config.setValues(JAVA_OPTIONS, JAVA_OPTION, options);
+            config.write(configFile);
+        } catch (UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to update " + configFile + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private FlagTuning.Run run(Path launcherPath, Pattern startup, Pattern throughput)
+            throws MojoExecutionException
+    {
+        Commandline commandline = newCommandline(launcherPath.toString());
+        if (workingDirectory != null && workingDirectory.isDirectory()) {
+            commandline.setWorkingDirectory(workingDirectory);
+        }
+        if (arguments != null) {
+            for (String argument : arguments) {
+                commandline.createArg().setValue(argument);
+            }
+        }
+
+        FlagTuning.Run run = new FlagTuning.Run(startup, throughput);
+        long start = System.nanoTime();
+        StreamConsumer consumer = line -> {
+            logger.debug(line);
+            run.line(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), line);
+        };
+
+        Process process;
+        try {
+            process = commandline.execute();
+        } catch (CommandLineException ex) {
+            throw new MojoExecutionException("Error while executing " + launcherPath + ": " + ex.getMessage(), ex);
+        }
+        long pid = ProcessSampler.isSupported() ? ProcessSampler.getPid(process) : -1;
+        ProcessSampler sampler = pid > 0 ? ProcessSampler.start(pid, SAMPLE_INTERVAL_MILLIS) : null;
+
+        StreamPumper outPumper = new StreamPumper(process.getInputStream(), consumer);
+        StreamPumper errPumper = new StreamPumper(process.getErrorStream(), consumer);
+        outPumper.start();
+        errPumper.start();
+        boolean timedOut = false;
+        try {
+            process.getOutputStream().close();
+            timedOut = !process.waitFor(duration, TimeUnit.SECONDS);
+            if (timedOut) {
+                process.destroyForcibly().waitFor();
+            }
+            outPumper.waitUntilDone();
+            errPumper.waitUntilDone();
+        } catch (IOException ex) {
+            process.destroyForcibly();
+            throw new MojoExecutionException("Error while executing " + launcherPath + ": " + ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting for " + launcherPath, ex);
+        } finally {
+            outPumper.close();
+            errPumper.close();
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long peakRss = sampler == null ? 0 : sampler.stop().getPeakRssBytes();
+        run.complete(durationMillis, timedOut ? 0 : process.exitValue(), timedOut, peakRss);
+        return run;
+    }
+}
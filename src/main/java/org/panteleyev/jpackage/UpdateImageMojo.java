@@ -0,0 +1,81 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.toolchain.ToolchainManager;
+import org.panteleyev.jpackage.util.AppImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+
+import static org.panteleyev.jpackage.util.DirectoryUtil.isNestedDirectory;
+
+/**
+ * <p>Updates existing application image and generates application package from it.</p>
+ *
+ * <p>Goal compares files of <code>input</code> with the application directory of <code>appImage</code> by size,
+ * modification time and content, and replaces only changed files. Input is filtered by <code>inputIncludes</code>
+ * and <code>inputExcludes</code>, jars are merged and native libraries extracted as by
+ * <code>jpackage:jpackage</code>. Launcher classpath is rebuilt when jars are added or removed. If <code>type</code>
+ * defines an installer, <code>jpackage</code> is then executed with <code>--app-image</code>. Options that define
+ * application launchers are not passed to <code>jpackage</code> in this case.</p>
+ */
+@Mojo(name = "update-image", defaultPhase = LifecyclePhase.NONE)
+public class UpdateImageMojo extends JPackageMojo {
+    private static final Logger logger = LoggerFactory.getLogger(UpdateImageMojo.class);
+
+    @Inject
+    public UpdateImageMojo(ToolchainManager toolchainManager) {
+        super(toolchainManager);
+    }
+
+    @Override
+    boolean includeLauncherParameters() {
+        return false;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (isSkip()) {
+            logger.info("Skipping plugin execution");
+            return;
+        }
+        if (getAppImage() == null || getInput() == null) {
+            throw new MojoFailureException("Parameters appImage and input are required for jpackage:update-image");
+        }
+
+        Path appImagePath = getAppImage().toPath().toAbsolutePath();
+        AppImage image = AppImage.at(appImagePath);
+        if (!image.exists()) {
+            throw new MojoFailureException("Application image " + appImagePath + " does not exist");
+        }
+        if (isRemoveDestination() && isNestedDirectory(getDestination().toPath(), appImagePath)) {
+            throw new MojoFailureException("Application image " + appImagePath
+                    + " belongs to destination and cannot be used with removeDestination");
+        }
+
+        try {
+            logger.info("Updating application image {}", appImagePath);
+            AppImage.Statistics statistics = image.update(prepareInput().toPath().toAbsolutePath());
+            logger.info("  {}", statistics);
+            if (statistics.isJarsChanged()) {
+                logger.info("  updated classpath of {} launcher(s)", image.updateClasspath());
+            }
+        } catch (UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to update application image: " + ex.getMessage(), ex);
+        }
+
+        if (getType() == null || getType() == ImageType.APP_IMAGE) {
+            logger.info("Package type is not an installer, skipping jpackage");
+            return;
+        }
+        super.execute();
+    }
+}
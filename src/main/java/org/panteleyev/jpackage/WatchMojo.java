@@ -0,0 +1,507 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.PluginParameterExpressionEvaluator;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuilder;
+import org.apache.maven.project.ProjectBuildingException;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.apache.maven.toolchain.ToolchainManager;
+import org.codehaus.plexus.component.configurator.ComponentConfigurationException;
+import org.codehaus.plexus.component.configurator.ComponentConfigurator;
+import org.codehaus.plexus.configuration.xml.XmlPlexusConfiguration;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.panteleyev.jpackage.util.AppImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static org.panteleyev.jpackage.CommandLineParameter.ARGUMENTS;
+import static org.panteleyev.jpackage.CommandLineParameter.JAVA_OPTIONS;
+import static org.panteleyev.jpackage.util.DirectoryUtil.isNestedDirectory;
+import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+
+/**
+ * <p>Builds application image and keeps it up to date during development.</p>
+ *
+ * <p>Goal builds an application image using configuration of <code>jpackage:jpackage</code>, <code>type</code> is
+ * ignored. Then it watches <code>input</code>, <code>modulePaths</code>, <code>appContentPaths</code> and the project
+ * POM until interrupted:</p>
+ * <ul>
+ *     <li>changed files of <code>input</code> and <code>appContentPaths</code> are copied into the existing image,
+ *     launcher classpath is updated when jars are added or removed. Input is filtered, merged and extracted as for
+ *     <code>jpackage:jpackage</code>, image is rebuilt if jars of input were converted into modules;</li>
+ *     <li>launcher configuration is regenerated when <code>javaOptions</code> or <code>arguments</code> are changed in
+ *     the POM;</li>
+ *     <li>image is rebuilt when modules linked into the runtime or any other <code>jpackage</code> option
+ *     change.</li>
+ * </ul>
+ * <pre>
+ * mvn jpackage:watch
+ * </pre>
+ */
+@Mojo(name = "watch", defaultPhase = LifecyclePhase.NONE)
+public class WatchMojo extends JPackageMojo {
+    private static final Logger logger = LoggerFactory.getLogger(WatchMojo.class);
+
+    private static final String EXECUTABLE = "jpackage";
+    // Options that do not require image rebuild
+    private static final List<String> LAUNCHER_OPTIONS = Arrays.asList(JAVA_OPTIONS.getName(), ARGUMENTS.getName());
+    // Keys of additional launcher properties file
+    private static final String JAVA_OPTIONS_PROPERTY = "java-options";
+    private static final String ARGUMENTS_PROPERTY = "arguments";
+
+    private final ProjectBuilder projectBuilder;
+    private final ComponentConfigurator configurator;
+
+    private final List<WatchRoot> roots = new ArrayList<>();
+    private final Map<WatchKey, Path> keys = new HashMap<>();
+
+    @Parameter(defaultValue = "${mojoExecution}", required = true, readonly = true)
+    private MojoExecution mojoExecution;
+
+    /**
+     * <p>Quiet period in milliseconds.</p>
+     * <p>Changes are applied when no more file system events arrive during this period. This allows build tools to
+     * finish writing files.</p>
+     */
+    @Parameter(defaultValue = "500")
+    private long quietPeriod;
+
+    private enum RootType {
+        INPUT, MODULE_PATH, APP_CONTENT, POM
+    }
+
+    private static final class WatchRoot {
+        private final RootType type;
+        private final Path source;
+        // Location of the source in the image, null if source is linked into the runtime
+        private final Path target;
+
+        WatchRoot(RootType type, Path source, Path target) {
+            this.type = type;
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    @Inject
+    public WatchMojo(ToolchainManager toolchainManager, ProjectBuilder projectBuilder,
+            @Named("basic") ComponentConfigurator configurator)
+    {
+        super(toolchainManager);
+        this.projectBuilder = projectBuilder;
+        this.configurator = configurator;
+    }
+
+    @Override
+    ImageType getType() {
+        return ImageType.APP_IMAGE;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (isSkip()) {
+            logger.info("Skipping plugin execution");
+            return;
+        }
+        if (getAppImage() != null) {
+            throw new MojoFailureException("Parameter appImage cannot be used with jpackage:watch");
+        }
+
+        AppImage image = build();
+        if (!image.exists()) {
+            logger.warn("Application image {} was not created, nothing to watch", image.getRoot());
+            return;
+        }
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            register(watchService, image);
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changes = waitForChanges(watchService);
+                image = apply(watchService, image, changes);
+            }
+        } catch (IOException | UncheckedIOException ex) {
+            throw new MojoExecutionException("Failed to watch application sources: " + ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private AppImage build() throws MojoExecutionException, MojoFailureException {
+        AppImage image = AppImage.of(getDestination().toPath().toAbsolutePath(), getName());
+        // jpackage fails if the image already exists
+        if (Files.exists(image.getRoot())) {
+            if (!isNestedDirectory(new File(getProjectBuildDirectory()).toPath(), image.getRoot())) {
+                throw new MojoFailureException("Cannot remove application image " + image.getRoot()
+                        + ", must belong to " + getProjectBuildDirectory());
+            }
+            removeDirectory(image.getRoot());
+        }
+        super.execute();
+        return image;
+    }
+
+    private AppImage apply(WatchService watchService, AppImage image, Set<Path> changes)
+            throws IOException, MojoExecutionException, MojoFailureException
+    {
+        boolean rebuild = false;
+        boolean input = false;
+        int updated = 0;
+
+        for (Path path : changes) {
+            WatchRoot root = findRoot(path);
+            if (root == null) continue;
+
+            if (root.type == RootType.POM) {
+                rebuild |= reloadConfiguration(image);
+            } else if (root.target == null) {
+                logger.info("Runtime module {} changed", path);
+                rebuild = true;
+            } else if (root.type == RootType.INPUT) {
+                input = true;
+            } else if (!rebuild) {
+                Path target = root.target.resolve(root.source.relativize(path).toString());
+                // Top level target directories also contain files that do not belong to the root
+                updated += sync(path, target, !path.equals(root.source) || root.type == RootType.APP_CONTENT);
+            }
+        }
+
+        // Converted modules are linked into the runtime image
+        if (input && !rebuild && !getConvertedModules().isEmpty()) {
+            logger.info("Input of converted modules changed");
+            rebuild = true;
+        }
+
+        if (rebuild) {
+            logger.info("Rebuilding application image");
+            image = build();
+            register(watchService, image);
+            return image;
+        }
+
+        if (updated > 0) {
+            logger.info("Updated {} file(s) in {}", updated, image.getRoot());
+        }
+        if (input) {
+            updateInput(image);
+        }
+        // Newly created directories must be watched as well
+        registerRoots(watchService);
+        return image;
+    }
+
+    // Application directory is synchronized with the input prepared the same way as for the image build
+    private void updateInput(AppImage image) throws MojoExecutionException, MojoFailureException {
+        List<String> nativeLibraryOptions = getNativeLibraryOptions();
+        AppImage.Statistics statistics = image.update(prepareInput().toPath().toAbsolutePath());
+        logger.info("Updated input of {}: {}", image.getRoot(), statistics);
+        if (statistics.isJarsChanged()) {
+            int configs = image.updateClasspath();
+            if (configs > 0) {
+                logger.info("Updated classpath of {} launcher(s)", configs);
+            }
+        }
+        if (!nativeLibraryOptions.equals(getNativeLibraryOptions())) {
+            setJavaOptions(image);
+        }
+    }
+
+    // Additional launchers inherit options of the main launcher unless their properties define them
+    private List<String> getInheritingLaunchers(AppImage image, String key) {
+        List<String> result = new ArrayList<>();
+        result.add(getName());
+        for (Launcher launcher : getLaunchers()) {
+            if (launcher == null || !Files.isRegularFile(image.getConfigFile(launcher.getName()))) continue;
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(launcher.getFile().toPath())) {
+                properties.load(in);
+            } catch (IOException ex) {
+                logger.warn("Failed to read launcher file {}: {}", launcher.getFile(), ex.getMessage());
+                continue;
+            }
+            if (!properties.containsKey(key)) {
+                result.add(launcher.getName());
+            }
+        }
+        return result;
+    }
+
+    void setJavaOptions(AppImage image) {
+        for (String launcher : getInheritingLaunchers(image, JAVA_OPTIONS_PROPERTY)) {
+            if (image.setJavaOptions(launcher, getLauncherJavaOptions())) {
+                logger.info("Updated java options of {}", launcher);
+            }
+        }
+    }
+
+    void setArguments(AppImage image) {
+        for (String launcher : getInheritingLaunchers(image, ARGUMENTS_PROPERTY)) {
+            if (image.setArguments(launcher, getArguments())) {
+                logger.info("Updated arguments of {}", launcher);
+            }
+        }
+    }
+
+    // Java options stored in the launcher configuration
+    private List<String> getLauncherJavaOptions() {
+        List<String> options = new ArrayList<>(getJavaOptions());
+        options.addAll(getNativeLibraryOptions());
+        return options;
+    }
+
+    // Returns true if the image must be rebuilt
+    private boolean reloadConfiguration(AppImage image) throws MojoExecutionException {
+        File pom = getProject().getFile();
+        logger.info("Reloading configuration from {}", pom);
+
+        List<String> signature;
+        List<String> javaOptions = new ArrayList<>(getJavaOptions());
+        List<String> arguments = new ArrayList<>(getArguments());
+        try {
+            signature = getSignature();
+
+            ProjectBuildingRequest request = new DefaultProjectBuildingRequest(getSession().getProjectBuildingRequest());
+            request.setResolveDependencies(false);
+            MavenProject reloaded = projectBuilder.build(pom, request).getProject();
+
+            Xpp3Dom configuration = getConfiguration(reloaded);
+            if (configuration != null) {
+                configurator.configureComponent(this, new XmlPlexusConfiguration(configuration),
+                        new PluginParameterExpressionEvaluator(getSession(), mojoExecution),
+                        mojoExecution.getMojoDescriptor().getPluginDescriptor().getClassRealm());
+            }
+
+            if (!signature.equals(getSignature())) {
+                logger.info("Configuration of the application image changed");
+                return true;
+            }
+        } catch (ProjectBuildingException | ComponentConfigurationException | MojoFailureException ex) {
+            // Keep watching, the POM may be saved in the middle of editing
+            logger.error("Failed to reload configuration: {}", ex.getMessage());
+            return false;
+        }
+
+        if (!javaOptions.equals(getJavaOptions())) {
+            setJavaOptions(image);
+        }
+        if (!arguments.equals(getArguments())) {
+            setArguments(image);
+        }
+        return false;
+    }
+
+    private Xpp3Dom getConfiguration(MavenProject reloaded) {
+        Plugin plugin = reloaded.getPlugin(mojoExecution.getPlugin().getKey());
+        if (plugin == null) return null;
+
+        Xpp3Dom configuration = (Xpp3Dom) plugin.getConfiguration();
+        PluginExecution execution = plugin.getExecutionsAsMap().get(mojoExecution.getExecutionId());
+        if (execution != null) {
+            configuration = Xpp3Dom.mergeXpp3Dom((Xpp3Dom) execution.getConfiguration(), configuration);
+        }
+        return configuration;
+    }
+
+    // jpackage arguments except options stored in the launcher configuration
+    private List<String> getSignature() throws MojoFailureException {
+        Commandline commandline = buildParameters(EXECUTABLE);
+        List<String> signature = new ArrayList<>();
+        String[] arguments = commandline.getArguments();
+        for (int i = 0; i < arguments.length; i++) {
+            if (LAUNCHER_OPTIONS.contains(arguments[i])) {
+                i++;
+            } else {
+                signature.add(arguments[i]);
+            }
+        }
+        return signature;
+    }
+
+    private int sync(Path source, Path target, boolean removeExtra) throws IOException {
+        if (!Files.exists(source, LinkOption.NOFOLLOW_LINKS)) {
+            if (Files.exists(target, LinkOption.NOFOLLOW_LINKS)) {
+                logger.info("  removed {}", target);
+                removeDirectory(target);
+                return 1;
+            }
+            return 0;
+        }
+
+        if (!Files.isDirectory(source)) {
+            return copy(source, target);
+        }
+
+        int updated = 0;
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                Path destination = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(destination);
+                } else {
+                    updated += copy(path, destination);
+                }
+            }
+        }
+
+        if (removeExtra) {
+            try (Stream<Path> paths = Files.walk(target)) {
+                for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                    if (!Files.exists(source.resolve(target.relativize(path).toString()))) {
+                        logger.info("  removed {}", path);
+                        removeDirectory(path);
+                        updated++;
+                    }
+                }
+            }
+        }
+        return updated;
+    }
+
+    private static int copy(Path source, Path target) throws IOException {
+        if (Files.isRegularFile(target)
+                && Files.size(source) == Files.size(target)
+                && Files.getLastModifiedTime(source).equals(Files.getLastModifiedTime(target)))
+        {
+            return 0;
+        }
+
+        Files.createDirectories(target.getParent());
+        Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        logger.info("  updated {}", target);
+        return 1;
+    }
+
+    private WatchRoot findRoot(Path path) {
+        // The most specific root wins
+        WatchRoot result = null;
+        for (WatchRoot root : roots) {
+            if (path.startsWith(root.source)
+                    && (result == null || root.source.getNameCount() > result.source.getNameCount()))
+            {
+                result = root;
+            }
+        }
+        return result;
+    }
+
+    private Set<Path> waitForChanges(WatchService watchService) throws InterruptedException {
+        Set<Path> changes = new TreeSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            Path directory = keys.get(key);
+            if (directory != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        changes.add(directory);
+                    } else {
+                        changes.add(directory.resolve((Path) event.context()));
+                    }
+                }
+            }
+            if (!key.reset()) {
+                keys.remove(key);
+            }
+            key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+        }
+        return changes;
+    }
+
+    private void register(WatchService watchService, AppImage image) throws IOException {
+        for (WatchKey key : keys.keySet()) {
+            key.cancel();
+        }
+        keys.clear();
+        roots.clear();
+
+        if (getInput() != null) {
+            roots.add(new WatchRoot(RootType.INPUT, absolute(getInput()), image.getAppDirectory()));
+        }
+        // Modules are copied into the image only if the runtime is not linked by jpackage
+        Path modules = Files.isDirectory(image.getModulesDirectory()) ? image.getModulesDirectory() : null;
+        for (File modulePath : getModulePaths()) {
+            Path source = absolute(modulePath);
+            Path target = modules == null ? null :
+                    Files.isDirectory(source) ? modules : modules.resolve(source.getFileName().toString());
+            roots.add(new WatchRoot(RootType.MODULE_PATH, source, target));
+        }
+        for (File content : getAppContentPaths()) {
+            Path source = absolute(content);
+            roots.add(new WatchRoot(RootType.APP_CONTENT, source,
+                    image.getContentDirectory().resolve(source.getFileName().toString())));
+        }
+        if (getProject().getFile() != null) {
+            roots.add(new WatchRoot(RootType.POM, absolute(getProject().getFile()), null));
+        }
+
+        registerRoots(watchService);
+        logger.info("Watching for changes, press Ctrl+C to stop");
+        for (WatchRoot root : roots) {
+            logger.info("  {}", root.source);
+        }
+    }
+
+    private void registerRoots(WatchService watchService) throws IOException {
+        for (WatchRoot root : roots) {
+            if (Files.isDirectory(root.source)) {
+                try (Stream<Path> paths = Files.walk(root.source)) {
+                    for (Path directory : paths.filter(Files::isDirectory).collect(Collectors.toList())) {
+                        register(watchService, directory);
+                    }
+                }
+            } else if (root.source.getParent() != null && Files.isDirectory(root.source.getParent())) {
+                // Files are watched through their directory
+                register(watchService, root.source.getParent());
+            }
+        }
+    }
+
+    private void register(WatchService watchService, Path directory) throws IOException {
+        keys.put(directory.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY), directory);
+    }
+
+    private static Path absolute(File file) {
+        return file.toPath().toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,335 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.panteleyev.jpackage.util.LauncherConfig.APPDIR;
+import static org.panteleyev.jpackage.util.LauncherConfig.APPLICATION;
+import static org.panteleyev.jpackage.util.LauncherConfig.ARGUMENT;
+import static org.panteleyev.jpackage.util.LauncherConfig.ARG_OPTIONS;
+import static org.panteleyev.jpackage.util.LauncherConfig.CLASSPATH;
+import static org.panteleyev.jpackage.util.LauncherConfig.JAVA_OPTION;
+import static org.panteleyev.jpackage.util.LauncherConfig.JAVA_OPTIONS;
+import static org.panteleyev.jpackage.util.OsUtil.isMac;
+import static org.panteleyev.jpackage.util.OsUtil.isWindows;
+
+// Layout of the application image generated by jpackage.
+public final class AppImage {
+    private static final String CONFIG_EXTENSION = ".cfg";
+    private static final String JAR_EXTENSION = ".jar";
+    private static final String MAIN_JAR = "app.mainjar";
+    private static final String MODULES_DIRECTORY = "mods";
+    // Options added to the launcher configuration by jpackage itself
+    private static final String APP_VERSION_OPTION = "-Djpackage.app-version=";
+    private static final String MODULE_PATH_OPTION = "--module-path";
+
+    private static final String IMAGE_DESCRIPTOR = ".jpackage.xml";
+
+    public static final class Statistics {
+        private int added;
+        private int changed;
+        private int unchanged;
+        private int deleted;
+        private boolean jarsChanged;
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getChanged() {
+            return changed;
+        }
+
+        public int getUnchanged() {
+            return unchanged;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        // True if jars were added or deleted and classpath must be updated
+        public boolean isJarsChanged() {
+            return jarsChanged;
+        }
+
+        public boolean isModified() {
+            return added + changed + deleted > 0;
+        }
+
+        @Override
+        public String toString() {
+            return "added: " + added + ", changed: " + changed + ", unchanged: " + unchanged
+                    + ", deleted: " + deleted;
+        }
+    }
+
+    private final Path root;
+    private final Path appDirectory;
+    private final Path contentDirectory;
+
+    private AppImage(Path root, Path appDirectory, Path contentDirectory) {
+        this.root = root;
+        this.appDirectory = appDirectory;
+        this.contentDirectory = contentDirectory;
+    }
+
+    // Image generated by jpackage with --dest and --name
+    public static AppImage of(Path destination, String name) {
+        return at(destination.resolve(isMac() ? name + ".app" : name));
+    }
+
+    public static AppImage at(Path root) {
+        if (isMac()) {
+            Path contents = root.resolve("Contents");
+            return new AppImage(root, contents.resolve("app"), contents);
+        } else if (isWindows()) {
+            return new AppImage(root, root.resolve("app"), root);
+        } else {
+            Path lib = root.resolve("lib");
+            return new AppImage(root, lib.resolve("app"), lib);
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Contents of --input
+    public Path getAppDirectory() {
+        return appDirectory;
+    }
+
+    // Modules that are not linked into the runtime
+    public Path getModulesDirectory() {
+        return appDirectory.resolve(MODULES_DIRECTORY);
+    }
+
+    // Parent of the --app-content copies
+    public Path getContentDirectory() {
+        return contentDirectory;
+    }
+
+    public Path getLauncher(String launcher) {
+        if (isMac()) {
+            return contentDirectory.resolve("MacOS").resolve(launcher);
+        } else if (isWindows()) {
+            return root.resolve(launcher + ".exe");
+        } else {
+            return root.resolve("bin").resolve(launcher);
+        }
+    }
+
+    public boolean exists() {
+        return Files.isDirectory(appDirectory);
+    }
+
+    public Path getConfigFile(String launcher) {
+        return appDirectory.resolve(launcher + CONFIG_EXTENSION);
+    }
+
+    public List<Path> getConfigFiles() {
+        List<Path> result = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(appDirectory, "*" + CONFIG_EXTENSION)) {
+            for (Path file : files) {
+                result.add(file);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return result;
+    }
+
+    // Jars of the application directory outside of the modules directory, relative to the application directory
+    public List<Path> getJars() {
+        Path modules = getModulesDirectory();
+        try (Stream<Path> paths = Files.walk(appDirectory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(AppImage::isJar)
+                    .filter(path -> !path.startsWith(modules))
+                    .map(appDirectory::relativize)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Brings application directory in sync with the input directory. Files with the same size and modification time
+    // are considered unchanged, files with the same size are compared by content. Changed files are replaced
+    // atomically.
+    public Statistics update(Path input) {
+        Statistics statistics = new Statistics();
+        try {
+            List<Path> sources;
+            try (Stream<Path> paths = Files.walk(input)) {
+                sources = paths.filter(Files::isRegularFile).collect(Collectors.toList());
+            }
+
+            List<Path> modified = sources.parallelStream()
+                    .filter(source -> isModified(source, appDirectory.resolve(input.relativize(source).toString())))
+                    .collect(Collectors.toList());
+            statistics.unchanged = sources.size() - modified.size();
+
+            for (Path source : modified) {
+                Path target = appDirectory.resolve(input.relativize(source).toString());
+                if (Files.exists(target)) {
+                    statistics.changed++;
+                } else {
+                    statistics.added++;
+                    statistics.jarsChanged |= isJar(target);
+                    Files.createDirectories(target.getParent());
+                }
+                Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+                Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+
+            List<Path> targets;
+            try (Stream<Path> paths = Files.walk(appDirectory)) {
+                targets = paths.filter(Files::isRegularFile)
+                        .filter(path -> !isGenerated(path))
+                        .collect(Collectors.toList());
+            }
+            for (Path target : targets) {
+                if (!Files.exists(input.resolve(appDirectory.relativize(target).toString()))) {
+                    Files.delete(target);
+                    statistics.deleted++;
+                    statistics.jarsChanged |= isJar(target);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return statistics;
+    }
+
+    // Rebuilds classpath of all non-modular launchers the same way jpackage does: main jar first, then all other
+    // jars of the application directory in sorted order. Returns number of modified configuration files.
+    public int updateClasspath() {
+        List<Path> jars = getJars();
+        int updated = 0;
+        for (Path file : getConfigFiles()) {
+            LauncherConfig config = LauncherConfig.read(file);
+            if (config.getValues(APPLICATION, CLASSPATH).isEmpty()) continue;
+
+            List<String> mainJars = config.getValues(APPLICATION, MAIN_JAR);
+            String mainJar = mainJars.isEmpty() ? null : mainJars.get(0);
+
+            List<String> classpath = new ArrayList<>();
+            if (mainJar != null) {
+                classpath.add(mainJar);
+            }
+            for (Path jar : jars) {
+                String entry = toEntry(jar);
+                if (!entry.equals(mainJar)) {
+                    classpath.add(entry);
+                }
+            }
+
+            if (config.setValues(APPLICATION, CLASSPATH, classpath)) {
+                config.write(file);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    // Moves classpath entries of the given jars to the front in the given order, remaining entries keep their order.
+    // Jars are relative to the application directory. Returns number of modified configuration files.
+    public int orderClasspath(List<Path> jars) {
+        List<String> order = jars.stream().map(AppImage::toEntry).collect(Collectors.toList());
+        int updated = 0;
+        for (Path file : getConfigFiles()) {
+            LauncherConfig config = LauncherConfig.read(file);
+            List<String> current = config.getValues(APPLICATION, CLASSPATH);
+            if (current.isEmpty()) continue;
+
+            List<String> classpath = new ArrayList<>();
+            for (String entry : order) {
+                if (current.contains(entry) && !classpath.contains(entry)) {
+                    classpath.add(entry);
+                }
+            }
+            for (String entry : current) {
+                if (!classpath.contains(entry)) {
+                    classpath.add(entry);
+                }
+            }
+
+            if (config.setValues(APPLICATION, CLASSPATH, classpath)) {
+                config.write(file);
+                updated++;
+            }
+        }
+        return updated;
+    }
+
+    // Replaces user defined java options of the launcher keeping options added by jpackage
+    public boolean setJavaOptions(String launcher, List<String> options) {
+        Path file = getConfigFile(launcher);
+        LauncherConfig config = LauncherConfig.read(file);
+
+        List<String> current = config.getValues(JAVA_OPTIONS, JAVA_OPTION);
+        List<String> result = new ArrayList<>();
+        for (String option : current) {
+            if (option.startsWith(APP_VERSION_OPTION)) {
+                result.add(option);
+            }
+        }
+        result.addAll(options);
+        int modulePath = current.lastIndexOf(MODULE_PATH_OPTION);
+        if (modulePath >= 0 && modulePath < current.size() - 1) {
+            result.add(current.get(modulePath));
+            result.add(current.get(modulePath + 1));
+        }
+
+        if (!config.setValues(JAVA_OPTIONS, JAVA_OPTION, result)) return false;
+        config.write(file);
+        return true;
+    }
+
+    public boolean setArguments(String launcher, List<String> arguments) {
+        Path file = getConfigFile(launcher);
+        LauncherConfig config = LauncherConfig.read(file);
+        if (!config.setValues(ARG_OPTIONS, ARGUMENT, arguments)) return false;
+        config.write(file);
+        return true;
+    }
+
+    private boolean isGenerated(Path path) {
+        if (path.startsWith(getModulesDirectory())) return true;
+        if (!path.getParent().equals(appDirectory)) return false;
+        String fileName = path.getFileName().toString();
+        return fileName.endsWith(CONFIG_EXTENSION) || fileName.equals(IMAGE_DESCRIPTOR);
+    }
+
+    private static boolean isModified(Path source, Path target) {
+        try {
+            if (!Files.isRegularFile(target) || Files.size(source) != Files.size(target)) return true;
+            if (Files.getLastModifiedTime(source).equals(Files.getLastModifiedTime(target))) return false;
+            return !ChecksumUtil.sha256(source).equals(ChecksumUtil.sha256(target));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static boolean isJar(Path path) {
+        return path.getFileName().toString().endsWith(JAR_EXTENSION);
+    }
+
+    private static String toEntry(Path jar) {
+        return APPDIR + File.separator + jar.toString();
+    }
+}
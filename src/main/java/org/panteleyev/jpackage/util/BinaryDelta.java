@@ -0,0 +1,207 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+// Block matching binary diff in the spirit of rsync: blocks of the old file are indexed by a rolling checksum,
+// new file is scanned with the same checksum and matches are extended forward byte by byte.
+public final class BinaryDelta {
+    private static final int MAGIC = 0x4A504431; // JPD1
+    private static final int OP_END = 0;
+    private static final int OP_COPY = 1;
+    private static final int OP_DATA = 2;
+
+    static final int BLOCK_SIZE = 2048;
+    private static final int MAX_LITERAL = 64 * 1024;
+
+    public static boolean canDiff(long size) {
+        return size < Integer.MAX_VALUE;
+    }
+
+    public static void diff(Path oldFile, Path newFile, OutputStream out) throws IOException {
+        try (FileChannel oldChannel = FileChannel.open(oldFile, StandardOpenOption.READ);
+             FileChannel newChannel = FileChannel.open(newFile, StandardOpenOption.READ))
+        {
+            diff(map(oldChannel), map(newChannel), out);
+        }
+    }
+
+    static void diff(ByteBuffer source, ByteBuffer target, OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeLong(target.limit());
+
+        Map<Integer, int[]> index = buildIndex(source);
+        ByteArrayOutputStream literal = new ByteArrayOutputStream();
+
+        int targetSize = target.limit();
+        int position = 0;
+        int checksum = targetSize >= BLOCK_SIZE ? checksum(target, 0, BLOCK_SIZE) : 0;
+
+        while (position < targetSize) {
+            int match = -1;
+            if (position + BLOCK_SIZE <= targetSize) {
+                int[] candidates = index.get(checksum);
+                if (candidates != null) {
+                    for (int candidate : candidates) {
+                        if (equalBlocks(source, candidate, target, position)) {
+                            match = candidate;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (match >= 0) {
+                flushLiteral(out, literal);
+                int length = BLOCK_SIZE;
+                while (match + length < source.limit() && position + length < targetSize
+                        && source.get(match + length) == target.get(position + length))
+                {
+                    length++;
+                }
+                out.writeByte(OP_COPY);
+                out.writeInt(match);
+                out.writeInt(length);
+                position += length;
+                if (position + BLOCK_SIZE <= targetSize) {
+                    checksum = checksum(target, position, BLOCK_SIZE);
+                }
+            } else {
+                literal.write(target.get(position));
+                if (literal.size() >= MAX_LITERAL) {
+                    flushLiteral(out, literal);
+                }
+                if (position + BLOCK_SIZE < targetSize) {
+                    checksum = roll(checksum, target.get(position), target.get(position + BLOCK_SIZE));
+                }
+                position++;
+            }
+        }
+
+        flushLiteral(out, literal);
+        out.writeByte(OP_END);
+        out.flush();
+    }
+
+    // Old file is read with positional reads rather than mapped, so it can be replaced right after patching
+    public static void patch(Path oldFile, InputStream patch, OutputStream out) throws IOException {
+        try (FileChannel source = FileChannel.open(oldFile, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(patch);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a binary delta");
+            }
+            long expectedSize = in.readLong();
+            long written = 0;
+
+            byte[] buffer = new byte[MAX_LITERAL];
+            while (true) {
+                int op = in.readUnsignedByte();
+                if (op == OP_END) break;
+
+                if (op == OP_COPY) {
+                    long offset = in.readInt();
+                    int length = in.readInt();
+                    while (length > 0) {
+                        ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, Math.min(length, buffer.length));
+                        while (chunk.hasRemaining()) {
+                            if (source.read(chunk, offset + chunk.position()) < 0) {
+                                throw new IOException("Binary delta does not match the old file");
+                            }
+                        }
+                        out.write(buffer, 0, chunk.position());
+                        offset += chunk.position();
+                        length -= chunk.position();
+                        written += chunk.position();
+                    }
+                } else if (op == OP_DATA) {
+                    int length = in.readInt();
+                    in.readFully(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                    written += length;
+                } else {
+                    throw new IOException("Corrupted binary delta, unknown operation " + op);
+                }
+            }
+
+            if (written != expectedSize) {
+                throw new IOException("Corrupted binary delta, expected " + expectedSize + " bytes, got " + written);
+            }
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (!canDiff(size)) {
+            throw new IOException("File is too large for binary delta");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    private static Map<Integer, int[]> buildIndex(ByteBuffer source) {
+        Map<Integer, int[]> index = new HashMap<>();
+        for (int offset = 0; offset + BLOCK_SIZE <= source.limit(); offset += BLOCK_SIZE) {
+            int sum = checksum(source, offset, BLOCK_SIZE);
+            int[] existing = index.get(sum);
+            if (existing == null) {
+                index.put(sum, new int[]{offset});
+            } else if (existing.length < 8) {
+                int[] extended = new int[existing.length + 1];
+                System.arraycopy(existing, 0, extended, 0, existing.length);
+                extended[existing.length] = offset;
+                index.put(sum, extended);
+            }
+        }
+        return index;
+    }
+
+    private static void flushLiteral(DataOutputStream out, ByteArrayOutputStream literal) throws IOException {
+        if (literal.size() == 0) return;
+        out.writeByte(OP_DATA);
+        out.writeInt(literal.size());
+        literal.writeTo(out);
+        literal.reset();
+    }
+
+    private static boolean equalBlocks(ByteBuffer source, int sourceOffset, ByteBuffer target, int targetOffset) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            if (source.get(sourceOffset + i) != target.get(targetOffset + i)) return false;
+        }
+        return true;
+    }
+
+    // Rolling checksum: a is a plain sum of bytes, b is a sum of prefix sums, both modulo 2^16
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        int a = 0;
+        int b = 0;
+        for (int i = 0; i < length; i++) {
+            int value = buffer.get(offset + i) & 0xFF;
+            a += value;
+            b += (length - i) * value;
+        }
+        return ((b & 0xFFFF) << 16) | (a & 0xFFFF);
+    }
+
+    private static int roll(int checksum, byte removed, byte added) {
+        int out = removed & 0xFF;
+        int in = added & 0xFF;
+        int a = ((checksum & 0xFFFF) - out + in) & 0xFFFF;
+        int b = ((checksum >>> 16) - BLOCK_SIZE * out + a) & 0xFFFF;
+        return (b << 16) | a;
+    }
+
+    private BinaryDelta() {
+    }
+}
@@ -0,0 +1,95 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class ChecksumUtil {
+    private ChecksumUtil() {
+    }
+
+    public static final String CHECKSUM_EXTENSION = ".sha256";
+
+    // Files of this size and above are read via memory mapping
+    static final long MMAP_THRESHOLD = 16L * 1024 * 1024;
+
+    private static final long MMAP_CHUNK = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static String sha256(Path file) {
+        return sha256(file, MMAP_THRESHOLD);
+    }
+
+    static String sha256(Path file, long mmapThreshold) {
+        MessageDigest digest = newDigest();
+        try {
+            long size = Files.size(file);
+            if (size > 0 && size >= mmapThreshold) {
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    for (long position = 0; position < size; position += MMAP_CHUNK) {
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                Math.min(MMAP_CHUNK, size - position));
+                        digest.update(buffer);
+                    }
+                }
+            } else {
+                try (InputStream in = Files.newInputStream(file)) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    int count;
+                    while ((count = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, count);
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return toHex(digest.digest());
+    }
+
+    public static String sha256(byte[] bytes) {
+        return toHex(newDigest().digest(bytes));
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+
+    // Format is understood by sha256sum -c
+    public static Path writeChecksumFile(Path file) {
+        return writeChecksumFile(file, sha256(file));
+    }
+
+    // Writes checksum computed before, for example one of the content manifest
+    public static Path writeChecksumFile(Path file, String sha256) {
+        Path checksumFile = file.resolveSibling(file.getFileName() + CHECKSUM_EXTENSION);
+        String line = sha256 + "  " + file.getFileName() + System.lineSeparator();
+        DirectoryUtil.writeAtomically(checksumFile, line.getBytes(UTF_8));
+        return checksumFile;
+    }
+}
@@ -0,0 +1,71 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Dynamic AppCDS archive of a JDK tool. Archive is keyed by the tool executable and its modification time, so
+// each JDK gets its own archive. The first execution dumps classes into a temporary file that replaces the archive
+// atomically when the execution succeeds, subsequent executions map the archive.
+public final class ClassDataArchive {
+    private static final String EXTENSION = ".jsa";
+    private static final int KEY_LENGTH = 16;
+
+    private final Path archive;
+    private final Path temp;
+
+    private ClassDataArchive(Path archive, Path temp) {
+        this.archive = archive;
+        this.temp = temp;
+    }
+
+    public static ClassDataArchive of(Path directory, String tool, String executable) {
+        File file = new File(executable);
+        String key = ChecksumUtil.sha256((file.getAbsolutePath() + ":" + file.lastModified()).getBytes(UTF_8))
+                .substring(0, KEY_LENGTH);
+        Path archive = directory.resolve(tool + "-" + key + EXTENSION);
+        if (Files.isRegularFile(archive)) {
+            return new ClassDataArchive(archive, null);
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new ClassDataArchive(archive, directory.resolve(archive.getFileName() + "." + UUID.randomUUID()));
+    }
+
+    public Path getArchive() {
+        return archive;
+    }
+
+    public boolean isCreating() {
+        return temp != null;
+    }
+
+    // JVM option that either creates or uses the archive
+    public String getOption() {
+        return isCreating() ? "-XX:ArchiveClassesAtExit=" + temp : "-XX:SharedArchiveFile=" + archive;
+    }
+
+    public void complete(boolean success) {
+        if (temp == null) return;
+        try {
+            if (success && Files.isRegularFile(temp)) {
+                Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
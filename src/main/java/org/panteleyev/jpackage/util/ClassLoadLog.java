@@ -0,0 +1,119 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Output of -Xlog:class+load produced by a training run, in order of class loading.
+// Also extracts lines of -Djava.lang.invoke.MethodHandle.TRACE_RESOLVE=true output consumed by
+// jlink --generate-jli-classes.
+public final class ClassLoadLog {
+    private static final String TAG = "[class,load] ";
+    private static final String SOURCE = " source: ";
+    private static final String JRT = "jrt:/";
+    private static final String FILE = "file:";
+    private static final String CLASS_EXTENSION = ".class";
+    private static final List<String> JLI_PREFIXES = Arrays.asList("[LF_RESOLVE]", "[SPECIES_RESOLVE]");
+
+    public static final class Entry {
+        private final String className;
+        private final String source;
+
+        Entry(String className, String source) {
+            this.className = className;
+            this.source = source;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private ClassLoadLog(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static ClassLoadLog read(Path file) {
+        try {
+            return parse(Files.readAllLines(file, UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static ClassLoadLog parse(List<String> lines) {
+        List<Entry> entries = new ArrayList<>();
+        for (String line : lines) {
+            int tag = line.indexOf(TAG);
+            if (tag < 0) continue;
+            String rest = line.substring(tag + TAG.length());
+            int source = rest.indexOf(SOURCE);
+            if (source < 0) continue;
+            entries.add(new Entry(rest.substring(0, source).trim(), rest.substring(source + SOURCE.length()).trim()));
+        }
+        return new ClassLoadLog(entries);
+    }
+
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    // Runtime image resources in order of loading, format of jlink --order-resources: /module/package/Class.class
+    public List<String> getResourceOrder() {
+        Set<String> result = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            if (!entry.source.startsWith(JRT)) continue;
+            String module = entry.source.substring(JRT.length());
+            result.add("/" + module + "/" + entry.className.replace('.', '/') + CLASS_EXTENSION);
+        }
+        return new ArrayList<>(result);
+    }
+
+    // Jars of the class path in order of first use
+    public List<Path> getJarOrder() {
+        Set<Path> result = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            if (!entry.source.startsWith(FILE) || !entry.source.endsWith(".jar")) continue;
+            try {
+                result.add(Paths.get(new URI(entry.source)).toAbsolutePath().normalize());
+            } catch (URISyntaxException | IllegalArgumentException ex) {
+                // Sources with unescaped characters are logged as plain paths
+                result.add(Paths.get(entry.source.substring(FILE.length())).toAbsolutePath().normalize());
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    // Lines of MethodHandle.TRACE_RESOLVE output, format of jlink --generate-jli-classes
+    public static List<String> getJliClasses(List<String> output) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String line : output) {
+            for (String prefix : JLI_PREFIXES) {
+                if (line.startsWith(prefix)) {
+                    result.add(line.trim());
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+}
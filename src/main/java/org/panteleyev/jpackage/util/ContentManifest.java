@@ -0,0 +1,226 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class ContentManifest {
+    private static final String SEPARATOR = "\t";
+    private static final String SYMLINK = "symlink";
+
+    public static final class Entry {
+        private final String path;
+        private final long size;
+        private final String sha256;
+        // Target of a symbolic link, null for regular files
+        private final String linkTarget;
+
+        public Entry(String path, long size, String sha256) {
+            this(path, size, sha256, null);
+        }
+
+        private Entry(String path, long size, String sha256, String linkTarget) {
+            this.path = path;
+            this.size = size;
+            this.sha256 = sha256;
+            this.linkTarget = linkTarget;
+        }
+
+        // Symbolic link has zero size and checksum of its target
+        public static Entry symlink(String path, String target) {
+            return new Entry(path, 0, ChecksumUtil.sha256((SYMLINK + ":" + target).getBytes(UTF_8)), target);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public boolean isSymlink() {
+            return linkTarget != null;
+        }
+
+        public String getLinkTarget() {
+            return linkTarget;
+        }
+    }
+
+    private final List<Entry> entries;
+
+    private ContentManifest(List<Entry> entries) {
+        this.entries = entries;
+    }
+
+    public static ContentManifest of(List<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(Entry::getPath));
+        return new ContentManifest(sorted);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public Map<String, Entry> toMap() {
+        Map<String, Entry> map = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            map.put(entry.getPath(), entry);
+        }
+        return map;
+    }
+
+    public long getTotalSize() {
+        return entries.stream().mapToLong(Entry::getSize).sum();
+    }
+
+    public static ContentManifest scan(Path root) {
+        return scan(root, path -> false);
+    }
+
+    public static ContentManifest scan(Path root, Predicate<Path> exclude) {
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Entry> entries = pool.invoke(new ScanTask(root, root, exclude));
+            entries.sort(Comparator.comparing(Entry::getPath));
+            return new ContentManifest(entries);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public static ContentManifest read(Path file) {
+        try {
+            return parse(new String(Files.readAllBytes(file), UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static ContentManifest parse(String text) {
+        List<Entry> entries = Stream.of(text.split("\n"))
+                .filter(StringUtil::isNotEmpty)
+                .map(line -> {
+                    String[] parts = line.split(SEPARATOR);
+                    if (parts.length != 3 && parts.length != 4) {
+                        throw new IllegalArgumentException("Malformed manifest line: " + line);
+                    }
+                    return new Entry(parts[0], Long.parseLong(parts[1]), parts[2],
+                            parts.length == 4 ? parts[3] : null);
+                })
+                .collect(Collectors.toList());
+        return new ContentManifest(entries);
+    }
+
+    public void write(Path file) {
+        DirectoryUtil.writeAtomically(file, toBytes());
+    }
+
+    public byte[] toBytes() {
+        StringBuilder text = new StringBuilder();
+        for (Entry e : entries) {
+            text.append(e.getPath()).append(SEPARATOR)
+                    .append(e.getSize()).append(SEPARATOR)
+                    .append(e.getSha256());
+            if (e.isSymlink()) {
+                text.append(SEPARATOR).append(e.getLinkTarget());
+            }
+            text.append('\n');
+        }
+        return text.toString().getBytes(UTF_8);
+    }
+
+    public static String relativeName(Path root, Path file) {
+        return root.relativize(file).toString().replace('\\', '/');
+    }
+
+    private static final class ScanTask extends RecursiveTask<List<Entry>> {
+        private final Path root;
+        private final Path dir;
+        private final Predicate<Path> exclude;
+
+        ScanTask(Path root, Path dir, Predicate<Path> exclude) {
+            this.root = root;
+            this.dir = dir;
+            this.exclude = exclude;
+        }
+
+        @Override
+        protected List<Entry> compute() {
+            List<ScanTask> subTasks = new ArrayList<>();
+            List<FileTask> fileTasks = new ArrayList<>();
+            List<Entry> symlinks = new ArrayList<>();
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path path : stream) {
+                    if (exclude.test(path)) continue;
+
+                    if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        subTasks.add(new ScanTask(root, path, exclude));
+                    } else if (Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+                        fileTasks.add(new FileTask(root, path));
+                    } else if (Files.isSymbolicLink(path)) {
+                        symlinks.add(Entry.symlink(relativeName(root, path), Files.readSymbolicLink(path).toString()));
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+
+            List<RecursiveTask<?>> tasks = new ArrayList<>(subTasks);
+            tasks.addAll(fileTasks);
+            invokeAll(tasks);
+
+            List<Entry> result = new ArrayList<>(symlinks);
+            for (FileTask task : fileTasks) {
+                result.add(task.join());
+            }
+            for (ScanTask task : subTasks) {
+                result.addAll(task.join());
+            }
+            return result;
+        }
+    }
+
+    private static final class FileTask extends RecursiveTask<Entry> {
+        private final Path root;
+        private final Path file;
+
+        FileTask(Path root, Path file) {
+            this.root = root;
+            this.file = file;
+        }
+
+        @Override
+        protected Entry compute() {
+            try {
+                return new Entry(relativeName(root, file), Files.size(file), ChecksumUtil.sha256(file));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
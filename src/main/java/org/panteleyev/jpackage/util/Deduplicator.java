@@ -0,0 +1,150 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Replaces identical files of a directory tree with hard links to a single copy. Files are grouped by size and
+// permissions first, only files sharing both are hashed, in parallel. Files that are already hard links of each other
+// are counted once.
+public final class Deduplicator {
+    private static final String TEMP_SUFFIX = ".dedup";
+
+    public static final class Result {
+        private int files;
+        private int linked;
+        private long savedBytes;
+
+        public int getFiles() {
+            return files;
+        }
+
+        public int getLinked() {
+            return linked;
+        }
+
+        public long getSavedBytes() {
+            return savedBytes;
+        }
+
+        @Override
+        public String toString() {
+            return "files: " + files + ", linked: " + linked + ", saved bytes: " + savedBytes;
+        }
+    }
+
+    private static final class Candidate {
+        private final Path path;
+        private final long size;
+        private final Object fileKey;
+        private final String permissions;
+        private String sha256;
+
+        Candidate(Path path, BasicFileAttributes attributes, String permissions) {
+            this.path = path;
+            this.size = attributes.size();
+            this.fileKey = attributes.fileKey();
+            this.permissions = permissions;
+        }
+
+        String getGroup() {
+            return size + ":" + permissions;
+        }
+    }
+
+    private Deduplicator() {
+    }
+
+    public static Result deduplicate(Path root) {
+        Result result = new Result();
+
+        Map<String, List<Candidate>> groups = new TreeMap<>();
+        Set<Object> fileKeys = new HashSet<>();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted().collect(Collectors.toList())) {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (!attributes.isRegularFile()) continue;
+                result.files++;
+                if (attributes.size() == 0) continue;
+                // Existing hard links of the same file
+                if (attributes.fileKey() != null && !fileKeys.add(attributes.fileKey())) continue;
+
+                Candidate candidate = new Candidate(path, attributes, getPermissions(path));
+                groups.computeIfAbsent(candidate.getGroup(), key -> new ArrayList<>()).add(candidate);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        List<Candidate> candidates = groups.values().stream()
+                .filter(group -> group.size() > 1)
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return result;
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            pool.submit(() -> candidates.parallelStream()
+                    .forEach(candidate -> candidate.sha256 = ChecksumUtil.sha256(candidate.path))).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<String, List<Candidate>> byContent = candidates.stream()
+                .collect(Collectors.groupingBy(candidate -> candidate.getGroup() + ":" + candidate.sha256,
+                        TreeMap::new, Collectors.toList()));
+        for (List<Candidate> group : byContent.values()) {
+            Path original = group.get(0).path;
+            for (Candidate duplicate : group.subList(1, group.size())) {
+                link(original, duplicate.path);
+                result.linked++;
+                result.savedBytes += duplicate.size;
+            }
+        }
+        return result;
+    }
+
+    // Link is created next to the duplicate and replaces it atomically, so the image is never left without the file
+    private static void link(Path original, Path duplicate) {
+        Path temp = duplicate.resolveSibling(duplicate.getFileName() + TEMP_SUFFIX);
+        try {
+            Files.deleteIfExists(temp);
+            Files.createLink(temp, original);
+            Files.move(temp, duplicate, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Original exception is more important
+            }
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Hard links share permissions, files that differ in permissions are never linked
+    private static String getPermissions(Path path) throws IOException {
+        PosixFileAttributeView view =
+                Files.getFileAttributeView(path, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+        return view == null ? "" : PosixFilePermissions.toString(view.readAttributes().permissions());
+    }
+}
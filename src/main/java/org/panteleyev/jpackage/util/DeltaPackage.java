@@ -0,0 +1,397 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Delta between two application images. Archive is a gzipped tar with the following layout:
+//   delta/manifest.txt - content manifest of the resulting image
+//   delta/base.txt     - manifest entries of the old files binary patches are built against
+//   delta/deleted.txt  - files, symbolic links and directories to delete, deepest first
+//   files/...          - added and changed files and symbolic links, directories absent in the old image
+//   patches/...        - binary patches for large changed files
+//
+// Delta can be applied without Maven:
+//   java -cp jpackage-maven-plugin.jar org.panteleyev.jpackage.util.DeltaPackage <image> <delta>
+public final class DeltaPackage {
+    private static final String MANIFEST = "delta/manifest.txt";
+    private static final String BASE = "delta/base.txt";
+    private static final String DELETED = "delta/deleted.txt";
+    private static final String FILES = "files/";
+    private static final String PATCHES = "patches/";
+    private static final String TEMP_SUFFIX = ".jpdtmp";
+
+    public static final class Statistics {
+        private int added;
+        private int changed;
+        private int patched;
+        private int deleted;
+        private long size;
+
+        public int getAdded() {
+            return added;
+        }
+
+        public int getChanged() {
+            return changed;
+        }
+
+        public int getPatched() {
+            return patched;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return "added: " + added + ", changed: " + changed + " (patched: " + patched + "), deleted: " + deleted;
+        }
+    }
+
+    public static Statistics create(Path oldImage, Path newImage, Path deltaFile, long diffThreshold)
+            throws IOException
+    {
+        ContentManifest oldManifest = ContentManifest.scan(oldImage);
+        ContentManifest newManifest = ContentManifest.scan(newImage);
+        Map<String, ContentManifest.Entry> oldEntries = oldManifest.toMap();
+        Map<String, ContentManifest.Entry> newEntries = newManifest.toMap();
+        Set<String> oldDirectories = directories(oldImage);
+        Set<String> newDirectories = directories(newImage);
+
+        List<String> deleted = new ArrayList<>();
+        for (String path : oldEntries.keySet()) {
+            if (!newEntries.containsKey(path)) deleted.add(path);
+        }
+        for (String dir : oldDirectories) {
+            if (!newDirectories.contains(dir)) deleted.add(dir);
+        }
+        deleted.sort(Comparator.comparing((String p) -> p.split("/").length).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        Statistics statistics = new Statistics();
+        statistics.deleted = deleted.size();
+
+        Path patchDirectory = Files.createTempDirectory("jpackage-delta");
+        try {
+            List<ContentManifest.Entry> baseEntries = new ArrayList<>();
+            Map<String, Path> patches = new HashMap<>();
+            for (ContentManifest.Entry entry : newManifest.getEntries()) {
+                ContentManifest.Entry oldEntry = oldEntries.get(entry.getPath());
+                if (oldEntry == null || oldEntry.getSha256().equals(entry.getSha256())) continue;
+                if (entry.isSymlink() || oldEntry.isSymlink()) continue;
+                if (entry.getSize() < diffThreshold || !BinaryDelta.canDiff(entry.getSize())
+                        || !BinaryDelta.canDiff(oldEntry.getSize()))
+                {
+                    continue;
+                }
+
+                Path patch = patchDirectory.resolve(patches.size() + ".patch");
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(patch))) {
+                    BinaryDelta.diff(oldImage.resolve(oldEntry.getPath()), newImage.resolve(entry.getPath()), out);
+                }
+                // Patch that saves less than 10% is not worth it
+                if (Files.size(patch) < entry.getSize() - entry.getSize() / 10) {
+                    patches.put(entry.getPath(), patch);
+                    baseEntries.add(oldEntry);
+                }
+            }
+
+            writeDelta(deltaFile, newImage, newManifest, ContentManifest.of(baseEntries), oldEntries,
+                    oldDirectories, newDirectories, deleted, patches, statistics);
+        } finally {
+            DirectoryUtil.removeDirectory(patchDirectory);
+        }
+
+        statistics.size = Files.size(deltaFile);
+        return statistics;
+    }
+
+    private static void writeDelta(Path deltaFile, Path newImage, ContentManifest newManifest,
+            ContentManifest baseManifest, Map<String, ContentManifest.Entry> oldEntries, Set<String> oldDirectories,
+            Set<String> newDirectories, List<String> deleted, Map<String, Path> patches, Statistics statistics)
+            throws IOException
+    {
+        long mtime = System.currentTimeMillis() / 1000;
+        try (TarArchive.Writer writer = new TarArchive.Writer(
+                new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(deltaFile)))))
+        {
+            writer.addFile(MANIFEST, 0644, mtime, newManifest.toBytes());
+            writer.addFile(BASE, 0644, mtime, baseManifest.toBytes());
+            writer.addFile(DELETED, 0644, mtime, String.join("\n", deleted).getBytes(UTF_8));
+
+            for (String dir : newDirectories) {
+                if (!oldDirectories.contains(dir)) {
+                    writer.addDirectory(FILES + dir, TarArchive.getMode(newImage.resolve(dir)), mtime);
+                }
+            }
+
+            for (ContentManifest.Entry entry : newManifest.getEntries()) {
+                ContentManifest.Entry oldEntry = oldEntries.get(entry.getPath());
+                Path file = newImage.resolve(entry.getPath());
+                if (oldEntry == null) {
+                    statistics.added++;
+                } else if (!oldEntry.getSha256().equals(entry.getSha256())) {
+                    statistics.changed++;
+                } else {
+                    continue;
+                }
+
+                if (entry.isSymlink()) {
+                    writer.addSymlink(FILES + entry.getPath(), entry.getLinkTarget(), mtime);
+                } else {
+                    Path patch = patches.get(entry.getPath());
+                    if (patch != null) {
+                        statistics.patched++;
+                        try (InputStream in = Files.newInputStream(patch)) {
+                            writer.addFile(PATCHES + entry.getPath(), TarArchive.getMode(file), mtime,
+                                    Files.size(patch), in);
+                        }
+                    } else {
+                        writer.addFile(FILES + entry.getPath(), file, mtime);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void apply(Path image, Path deltaFile) throws IOException {
+        ContentManifest manifest = null;
+
+        try (TarArchive.Reader reader = new TarArchive.Reader(
+                new GZIPInputStream(new BufferedInputStream(Files.newInputStream(deltaFile)))))
+        {
+            TarArchive.Entry entry;
+            while ((entry = reader.next()) != null) {
+                String name = entry.getName();
+                if (name.equals(MANIFEST)) {
+                    manifest = readManifest(reader.content());
+                } else if (name.equals(BASE)) {
+                    verifyBase(image, readManifest(reader.content()));
+                } else if (name.equals(DELETED)) {
+                    // Deleted paths may be replaced by entries of another type
+                    delete(image, readLines(reader.content()));
+                } else if (name.startsWith(FILES)) {
+                    Path target = resolve(image, name.substring(FILES.length()));
+                    if (entry.getType() == TarArchive.EntryType.DIRECTORY) {
+                        Files.createDirectories(target);
+                        TarArchive.setMode(target, entry.getMode());
+                    } else if (entry.getType() == TarArchive.EntryType.SYMLINK) {
+                        Files.createDirectories(target.getParent());
+                        Files.deleteIfExists(target);
+                        Files.createSymbolicLink(target, Paths.get(entry.getLinkName()));
+                    } else if (entry.getType() == TarArchive.EntryType.HARDLINK) {
+                        throw new IOException("Unexpected hard link " + name);
+                    } else {
+                        replace(target, entry.getMode(), out -> copy(reader.content(), out));
+                    }
+                } else if (name.startsWith(PATCHES)) {
+                    Path target = resolve(image, name.substring(PATCHES.length()));
+                    replace(target, entry.getMode(), out -> BinaryDelta.patch(target, reader.content(), out));
+                }
+            }
+        }
+
+        if (manifest == null) {
+            throw new IOException("Delta does not contain manifest");
+        }
+        verify(image, manifest);
+    }
+
+    public static void verify(Path image, ContentManifest expected) throws IOException {
+        Map<String, ContentManifest.Entry> actual = ContentManifest.scan(image).toMap();
+        List<String> errors = new ArrayList<>();
+        for (ContentManifest.Entry entry : expected.getEntries()) {
+            ContentManifest.Entry actualEntry = actual.remove(entry.getPath());
+            if (actualEntry == null) {
+                errors.add("missing " + entry.getPath());
+            } else if (!actualEntry.getSha256().equals(entry.getSha256())) {
+                errors.add("checksum mismatch " + entry.getPath());
+            }
+        }
+        for (String path : actual.keySet()) {
+            errors.add("unexpected " + path);
+        }
+        if (!errors.isEmpty()) {
+            throw new IOException("Image verification failed: " + String.join(", ", errors));
+        }
+    }
+
+    public static void extract(Path archive, Path directory) throws IOException {
+        String fileName = archive.getFileName().toString().toLowerCase();
+        Files.createDirectories(directory);
+
+        if (fileName.endsWith(".zip")) {
+            try (ZipFile zip = new ZipFile(archive.toFile())) {
+                Enumeration<? extends ZipEntry> entries = zip.entries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    Path target = resolve(directory, entry.getName());
+                    if (entry.isDirectory()) {
+                        Files.createDirectories(target);
+                    } else {
+                        Files.createDirectories(target.getParent());
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                        }
+                    }
+                }
+            }
+            return;
+        }
+
+        InputStream in = new BufferedInputStream(Files.newInputStream(archive));
+        if (fileName.endsWith(".gz") || fileName.endsWith(".tgz")) {
+            in = new GZIPInputStream(in);
+        }
+        try (TarArchive.Reader reader = new TarArchive.Reader(in)) {
+            TarArchive.Entry entry;
+            while ((entry = reader.next()) != null) {
+                Path target = resolve(directory, entry.getName());
+                switch (entry.getType()) {
+                    case DIRECTORY:
+                        Files.createDirectories(target);
+                        break;
+                    case SYMLINK:
+                        Files.createDirectories(target.getParent());
+                        Files.createSymbolicLink(target, Paths.get(entry.getLinkName()));
+                        break;
+                    case HARDLINK:
+                        Files.createDirectories(target.getParent());
+                        Files.deleteIfExists(target);
+                        Files.createLink(target, resolve(directory, entry.getLinkName()));
+                        break;
+                    case FILE:
+                        Files.createDirectories(target.getParent());
+                        Files.copy(reader.content(), target, StandardCopyOption.REPLACE_EXISTING);
+                        TarArchive.setMode(target, entry.getMode());
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: DeltaPackage <application image> <delta file>");
+            System.exit(2);
+        }
+        try {
+            apply(Paths.get(args[0]), Paths.get(args[1]));
+            System.out.println("Delta applied and verified");
+        } catch (IOException | UncheckedIOException ex) {
+            System.err.println(ex.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private interface ContentWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    private static void replace(Path target, int mode, ContentWriter writer) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_SUFFIX);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            writer.write(out);
+        }
+        TarArchive.setMode(temp, mode);
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void delete(Path image, List<String> deleted) throws IOException {
+        for (String path : deleted) {
+            Path target = resolve(image, path);
+            if (Files.isDirectory(target, LinkOption.NOFOLLOW_LINKS)) {
+                DirectoryUtil.removeDirectory(target);
+            } else {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    private static void verifyBase(Path image, ContentManifest base) throws IOException {
+        for (ContentManifest.Entry entry : base.getEntries()) {
+            Path file = resolve(image, entry.getPath());
+            if (!Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS)
+                    || !ChecksumUtil.sha256(file).equals(entry.getSha256()))
+            {
+                throw new IOException("Image does not match delta base: " + entry.getPath());
+            }
+        }
+    }
+
+    private static Set<String> directories(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(p -> !p.equals(root) && Files.isDirectory(p, LinkOption.NOFOLLOW_LINKS))
+                    .map(p -> ContentManifest.relativeName(root, p))
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    private static Path resolve(Path root, String name) throws IOException {
+        Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root.normalize())) {
+            throw new IOException("Entry is outside of the target directory: " + name);
+        }
+        return target;
+    }
+
+    private static ContentManifest readManifest(InputStream in) throws IOException {
+        return ContentManifest.parse(readText(in));
+    }
+
+    private static List<String> readLines(InputStream in) throws IOException {
+        return Stream.of(readText(in).split("\n"))
+                .filter(StringUtil::isNotEmpty)
+                .collect(Collectors.toList());
+    }
+
+    private static String readText(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        copy(in, bytes);
+        return new String(bytes.toByteArray(), UTF_8);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+        }
+    }
+
+    private DeltaPackage() {
+    }
+}
@@ -5,15 +5,22 @@ package org.panteleyev.jpackage.util;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.DosFileAttributeView;
-import java.util.Comparator;
+import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.panteleyev.jpackage.util.OsUtil.isWindows;
 
 public final class DirectoryUtil {
+    private static final int REMOVE_ATTEMPTS = 3;
 
     public static boolean isNestedDirectory(Path parent, Path child) {
         Path absoluteParent = parent.toAbsolutePath();
@@ -21,25 +28,105 @@ public final class DirectoryUtil {
         return absoluteChild.startsWith(absoluteParent);
     }
 
+    // Files removed concurrently by another execution are skipped and the walk continues. Walk is repeated while the
+    // directory exists, for example when files were added concurrently, the last error is thrown if it still exists.
     public static void removeDirectory(Path dir) {
-        if (!dir.toFile().exists()) return;
+        IOException error = null;
+        for (int attempt = 0; attempt < REMOVE_ATTEMPTS; attempt++) {
+            if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) return;
+            try {
+                Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                        delete(file);
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException ex) throws IOException {
+                        if (ex instanceof NoSuchFileException) return FileVisitResult.CONTINUE;
+                        throw ex;
+                    }
+
+                    @Override
+                    public FileVisitResult postVisitDirectory(Path directory, IOException ex) throws IOException {
+                        if (ex != null && !(ex instanceof NoSuchFileException)) throw ex;
+                        delete(directory);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException ex) {
+                error = ex;
+            }
+        }
+        if (Files.exists(dir, LinkOption.NOFOLLOW_LINKS)) {
+            throw new UncheckedIOException(error != null ? error :
+                    new IOException("Failed to remove directory " + dir));
+        }
+    }
+
+    // Content is written into a unique temporary file that replaces the target atomically, so concurrent readers
+    // and writers never see a partially written file
+    public static void writeAtomically(Path file, byte[] content) {
+        Path temp = file.resolveSibling(file.getFileName() + "." + UUID.randomUUID());
+        try {
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Reported by the original exception
+            }
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static void copyDirectory(Path source, Path target) {
+        try (Stream<Path> paths = Files.walk(source)) {
+            paths.forEach(path -> {
+                Path destination = target.resolve(source.relativize(path).toString());
+                try {
+                    if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                        Files.createDirectories(destination);
+                    } else {
+                        Files.copy(path, destination, StandardCopyOption.COPY_ATTRIBUTES,
+                                LinkOption.NOFOLLOW_LINKS);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Total size of regular files in the directory
+    public static long getSize(Path dir) {
+        if (!Files.isDirectory(dir)) return 0;
 
         try (Stream<Path> paths = Files.walk(dir)) {
-            paths.sorted(Comparator.reverseOrder())
-                    .forEach(DirectoryUtil::delete);
+            return paths.filter(Files::isRegularFile).mapToLong(path -> {
+                try {
+                    return Files.size(path);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }).sum();
         } catch (IOException ex) {
             throw new UncheckedIOException(ex);
         }
     }
 
-    private static void delete(Path path) {
+    private static void delete(Path path) throws IOException {
         try {
             if (isWindows()) {
                 clearDosReadonly(path);
             }
-            Files.delete(path);
-        } catch (IOException ex) {
-            throw new UncheckedIOException(ex);
+            Files.deleteIfExists(path);
+        } catch (NoSuchFileException ex) {
+            // Removed concurrently
         }
     }
 
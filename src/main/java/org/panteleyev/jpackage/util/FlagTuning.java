@@ -0,0 +1,253 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Ranks candidate JVM flag sets by measurements of application runs. Only flags that select garbage collector, heap
+// size and tiered compilation are tuned, other options of the launcher are kept.
+public final class FlagTuning {
+    public enum Objective {
+        STARTUP, THROUGHPUT, MEMORY
+    }
+
+    static final List<String> COLLECTORS = Arrays.asList(
+            "-XX:+UseG1GC", "-XX:+UseParallelGC", "-XX:+UseSerialGC", "-XX:+UseZGC");
+    static final List<String> RAM_PERCENTAGES = Arrays.asList("25", "50", "75");
+    static final List<String> TIERED_STOP_LEVELS = Arrays.asList(null, "1");
+
+    private static final Pattern TUNED = Pattern.compile("-XX:[+-]Use\\w*GC|-Xm[xsn].+"
+            + "|-XX:(Max|Min|Initial)RAM(Percentage|Fraction)=.+|-XX:TieredStopAtLevel=.+|-XX:[+-]TieredCompilation");
+
+    private static final double MB = 1024.0 * 1024.0;
+
+    // Single run of the application
+    public static final class Run {
+        private final Pattern startupMarker;
+        private final Pattern throughputMarker;
+
+        private long startupMillis = -1;
+        private int markers;
+        private double markerValue = Double.NaN;
+        private long durationMillis;
+        private long peakRssBytes;
+        private int exitCode;
+        private boolean timedOut;
+
+        // Markers are optional
+        public Run(Pattern startupMarker, Pattern throughputMarker) {
+            this.startupMarker = startupMarker;
+            this.throughputMarker = throughputMarker;
+        }
+
+        // Output line of the application received after the specified time since start
+        public synchronized void line(long millis, String line) {
+            if (startupMillis < 0 && startupMarker != null && startupMarker.matcher(line).find()) {
+                startupMillis = millis;
+            }
+            if (throughputMarker == null) return;
+
+            Matcher matcher = throughputMarker.matcher(line);
+            if (!matcher.find()) return;
+            markers++;
+            if (matcher.groupCount() > 0 && matcher.group(1) != null) {
+                try {
+                    markerValue = Double.parseDouble(matcher.group(1));
+                } catch (NumberFormatException ex) {
+                    // Marker is counted
+                }
+            }
+        }
+
+        public synchronized void complete(long durationMillis, int exitCode, boolean timedOut, long peakRssBytes) {
+            this.durationMillis = durationMillis;
+            this.exitCode = exitCode;
+            this.timedOut = timedOut;
+            this.peakRssBytes = peakRssBytes;
+        }
+
+        // Time to the startup marker or, without marker, to the exit. Returns -1 if unknown.
+        public synchronized long getStartupMillis() {
+            if (startupMarker != null) return startupMillis;
+            return timedOut ? -1 : durationMillis;
+        }
+
+        // Value captured by the first group of the last marker, otherwise number of markers per second after startup
+        public synchronized double getThroughput() {
+            if (!Double.isNaN(markerValue)) return markerValue;
+            long elapsed = durationMillis - Math.max(startupMillis, 0);
+            return markers == 0 || elapsed <= 0 ? 0 : markers * 1000.0 / elapsed;
+        }
+
+        public synchronized long getPeakRssBytes() {
+            return peakRssBytes;
+        }
+
+        public synchronized int getExitCode() {
+            return exitCode;
+        }
+
+        // Application stopped after the run duration is not a failure
+        public synchronized boolean isFailed() {
+            return (!timedOut && exitCode != 0) || (startupMarker != null && startupMillis < 0);
+        }
+    }
+
+    // Flag set and its runs, values are medians of the runs
+    public static final class Candidate {
+        private final List<String> options;
+        private final List<Run> runs = new ArrayList<>();
+
+        public Candidate(List<String> options) {
+            this.options = options;
+        }
+
+        public List<String> getOptions() {
+            return options;
+        }
+
+        public void add(Run run) {
+            runs.add(run);
+        }
+
+        public List<Run> getRuns() {
+            return runs;
+        }
+
+        public boolean isFailed() {
+            return runs.isEmpty() || runs.stream().anyMatch(Run::isFailed);
+        }
+
+        public long getStartupMillis() {
+            return (long) median(runs.stream()
+                    .filter(run -> run.getStartupMillis() >= 0)
+                    .mapToDouble(Run::getStartupMillis)
+                    .toArray(), -1);
+        }
+
+        public double getThroughput() {
+            return median(runs.stream().mapToDouble(Run::getThroughput).toArray(), 0);
+        }
+
+        public long getPeakRssBytes() {
+            return (long) median(runs.stream().mapToDouble(Run::getPeakRssBytes).toArray(), 0);
+        }
+
+        @Override
+        public String toString() {
+            return options.isEmpty() ? "(launcher options)" : String.join(" ", options);
+        }
+    }
+
+    private FlagTuning() {
+    }
+
+    // Collectors x heap ratios x tiered compilation
+    public static List<List<String>> getDefaultCandidates() {
+        List<List<String>> candidates = new ArrayList<>();
+        for (String collector : COLLECTORS) {
+            for (String percentage : RAM_PERCENTAGES) {
+                for (String level : TIERED_STOP_LEVELS) {
+                    List<String> options = new ArrayList<>();
+                    options.add(collector);
+                    options.add("-XX:MaxRAMPercentage=" + percentage);
+                    if (level != null) {
+                        options.add("-XX:TieredStopAtLevel=" + level);
+                    }
+                    candidates.add(options);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    public static boolean isTuned(String option) {
+        return TUNED.matcher(option.trim()).matches();
+    }
+
+    // Launcher options without tuned flags followed by candidate flags
+    public static List<String> merge(List<String> launcherOptions, List<String> candidate) {
+        List<String> result = launcherOptions.stream()
+                .filter(option -> !isTuned(option))
+                .collect(Collectors.toList());
+        result.addAll(candidate);
+        return result;
+    }
+
+    // Succeeded candidates from the best to the worst followed by failed ones. Order of equal candidates is kept.
+    public static List<Candidate> rank(List<Candidate> candidates, Objective objective) {
+        Comparator<Candidate> comparator;
+        switch (objective) {
+            case THROUGHPUT:
+                comparator = Comparator.comparingDouble(Candidate::getThroughput).reversed();
+                break;
+            case MEMORY:
+                comparator = Comparator.comparingLong(Candidate::getPeakRssBytes);
+                break;
+            default:
+                // Unknown startup time goes last
+                comparator = Comparator.comparingLong(candidate ->
+                        candidate.getStartupMillis() < 0 ? Long.MAX_VALUE : candidate.getStartupMillis());
+                break;
+        }
+
+        List<Candidate> result = candidates.stream()
+                .filter(candidate -> !candidate.isFailed())
+                .sorted(comparator)
+                .collect(Collectors.toList());
+        candidates.stream()
+                .filter(Candidate::isFailed)
+                .forEach(result::add);
+        return result;
+    }
+
+    // Options in the format of "java-options" value of launcher properties file
+    public static String toPropertyValue(List<String> options) {
+        return options.stream()
+                .map(option -> option.contains(" ") ? "\"" + option + "\"" : option)
+                .collect(Collectors.joining(" "));
+    }
+
+    public static List<String> toReport(List<Candidate> ranked, Objective objective) {
+        String format = "%4s  %10s  %10s  %10s  %s";
+        List<String> lines = new ArrayList<>();
+        lines.add("Objective: " + objective.name().toLowerCase(Locale.ROOT));
+        lines.add(String.format(Locale.ROOT, format, "Rank", "Startup", "Throughput", "Peak RSS", "Options"));
+        int rank = 1;
+        for (Candidate candidate : ranked) {
+            if (candidate.isFailed()) {
+                int exitCode = candidate.getRuns().stream()
+                        .filter(Run::isFailed)
+                        .mapToInt(Run::getExitCode)
+                        .findFirst()
+                        .orElse(0);
+                lines.add(String.format(Locale.ROOT, format, "-", "FAILED", "", "",
+                        candidate + (exitCode == 0 ? "" : " (exit code " + exitCode + ")")));
+            } else {
+                long startup = candidate.getStartupMillis();
+                lines.add(String.format(Locale.ROOT, format,
+                        rank++,
+                        startup < 0 ? "-" : startup + " ms",
+                        String.format(Locale.ROOT, "%.1f", candidate.getThroughput()),
+                        String.format(Locale.ROOT, "%.1f MB", candidate.getPeakRssBytes() / MB),
+                        candidate));
+            }
+        }
+        return lines;
+    }
+
+    private static double median(double[] values, double defaultValue) {
+        if (values.length == 0) return defaultValue;
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2;
+    }
+}
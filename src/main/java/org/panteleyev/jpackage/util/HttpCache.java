@@ -0,0 +1,280 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Cache of directory entries in a plain HTTP store that supports GET and PUT. Entry <key>.tar holds the files,
+// <key>.sha256 holds checksum of the archive. Checksum is uploaded last, so readers never restore a partially uploaded
+// entry. Both transfers are streamed and limited by the transfer timeout in addition to connect and read timeouts.
+public final class HttpCache {
+    private static final String ARCHIVE_EXTENSION = ".tar";
+    private static final String CHECKSUM_EXTENSION = ".sha256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHECKSUM_LENGTH = 1024;
+
+    private final String url;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long transferTimeoutMillis;
+
+    public HttpCache(String url, int connectTimeoutMillis, int readTimeoutMillis, long transferTimeoutMillis) {
+        this.url = url.endsWith("/") ? url : url + "/";
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.transferTimeoutMillis = transferTimeoutMillis;
+    }
+
+    // Restores entry into the directory. Returns false if entry does not exist. Directory content is unspecified
+    // if exception is thrown.
+    public boolean get(String key, Path directory) throws IOException {
+        long deadline = System.currentTimeMillis() + transferTimeoutMillis;
+
+        HttpURLConnection checksumConnection = open(key + CHECKSUM_EXTENSION, "GET");
+        String expected;
+        try {
+            if (!isFound(checksumConnection)) return false;
+            try (InputStream in = new DeadlineInputStream(checksumConnection.getInputStream(), deadline)) {
+                expected = readChecksum(in);
+            }
+        } finally {
+            checksumConnection.disconnect();
+        }
+
+        HttpURLConnection connection = open(key + ARCHIVE_EXTENSION, "GET");
+        try {
+            if (!isFound(connection)) return false;
+
+            MessageDigest digest = ChecksumUtil.newDigest();
+            DigestInputStream in = new DigestInputStream(new BufferedInputStream(
+                    new DeadlineInputStream(connection.getInputStream(), deadline), BUFFER_SIZE), digest);
+            try (TarArchive.Reader reader = new TarArchive.Reader(in)) {
+                extract(reader, directory);
+                // Padding after the last entry is a part of the checksum
+                byte[] buffer = new byte[BUFFER_SIZE];
+                while (in.read(buffer) != -1) {
+                    // Drain
+                }
+            }
+            String actual = ChecksumUtil.toHex(digest.digest());
+            if (!actual.equals(expected)) {
+                throw new IOException("Checksum mismatch of cache entry " + key);
+            }
+            return true;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    // Stores files and directories of the directory, given by names relative to it
+    public void put(String key, Path directory, List<String> names) throws IOException {
+        long deadline = System.currentTimeMillis() + transferTimeoutMillis;
+
+        String checksum;
+        try {
+            checksum = upload(key, directory, names, deadline);
+        } catch (IOException ex) {
+            // Streamed upload is not retried by HttpURLConnection if pooled connection was closed by the server
+            checkDeadline(deadline);
+            checksum = upload(key, directory, names, deadline);
+        }
+
+        byte[] checksumBytes = checksum.getBytes(UTF_8);
+        HttpURLConnection checksumConnection = open(key + CHECKSUM_EXTENSION, "PUT");
+        try {
+            checksumConnection.setDoOutput(true);
+            checksumConnection.setFixedLengthStreamingMode(checksumBytes.length);
+            checksumConnection.setRequestProperty("Content-Type", "text/plain");
+            try (OutputStream out = checksumConnection.getOutputStream()) {
+                out.write(checksumBytes);
+            }
+            checkResponse(checksumConnection);
+        } finally {
+            checksumConnection.disconnect();
+        }
+    }
+
+    // Returns checksum of the uploaded archive
+    private String upload(String key, Path directory, List<String> names, long deadline) throws IOException {
+        MessageDigest digest = ChecksumUtil.newDigest();
+        HttpURLConnection connection = open(key + ARCHIVE_EXTENSION, "PUT");
+        try {
+            connection.setDoOutput(true);
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+            connection.setRequestProperty("Content-Type", "application/x-tar");
+            try (TarArchive.Writer writer = new TarArchive.Writer(new DigestOutputStream(new BufferedOutputStream(
+                    new DeadlineOutputStream(connection.getOutputStream(), deadline), BUFFER_SIZE), digest)))
+            {
+                for (String name : names) {
+                    add(writer, directory, directory.resolve(name));
+                }
+            }
+            checkResponse(connection);
+        } finally {
+            connection.disconnect();
+        }
+        return ChecksumUtil.toHex(digest.digest());
+    }
+
+    private HttpURLConnection open(String name, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url + name).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeoutMillis);
+        connection.setReadTimeout(readTimeoutMillis);
+        connection.setUseCaches(false);
+        return connection;
+    }
+
+    private boolean isFound(HttpURLConnection connection) throws IOException {
+        int code = connection.getResponseCode();
+        if (code == HttpURLConnection.HTTP_NOT_FOUND) return false;
+        if (code / 100 != 2) {
+            throw new IOException("Cache " + connection.getURL() + " returned HTTP " + code);
+        }
+        return true;
+    }
+
+    private static void checkResponse(HttpURLConnection connection) throws IOException {
+        int code = connection.getResponseCode();
+        if (code / 100 != 2) {
+            throw new IOException("Cache " + connection.getURL() + " returned HTTP " + code);
+        }
+    }
+
+    private static String readChecksum(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[MAX_CHECKSUM_LENGTH];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+            if (out.size() > MAX_CHECKSUM_LENGTH) {
+                throw new IOException("Malformed cache checksum");
+            }
+        }
+        return new String(out.toByteArray(), UTF_8).trim();
+    }
+
+    private static void add(TarArchive.Writer writer, Path directory, Path path) throws IOException {
+        String name = directory.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+        long mtime = Files.getLastModifiedTime(path, LinkOption.NOFOLLOW_LINKS).toMillis() / 1000;
+        if (Files.isSymbolicLink(path)) {
+            writer.addSymlink(name, Files.readSymbolicLink(path).toString(), mtime);
+        } else if (Files.isDirectory(path)) {
+            writer.addDirectory(name, TarArchive.getMode(path), mtime);
+            List<Path> children;
+            try (Stream<Path> paths = Files.list(path)) {
+                children = paths.sorted().collect(Collectors.toList());
+            }
+            for (Path child : children) {
+                add(writer, directory, child);
+            }
+        } else {
+            writer.addFile(name, path, mtime);
+        }
+    }
+
+    private static void extract(TarArchive.Reader reader, Path directory) throws IOException {
+        TarArchive.Entry entry;
+        while ((entry = reader.next()) != null) {
+            Path target = resolve(directory, entry.getName());
+            switch (entry.getType()) {
+                case DIRECTORY:
+                    Files.createDirectories(target);
+                    TarArchive.setMode(target, entry.getMode());
+                    break;
+                case SYMLINK:
+                    Files.createDirectories(target.getParent());
+                    Files.createSymbolicLink(target, Paths.get(entry.getLinkName()));
+                    break;
+                case HARDLINK:
+                    Files.createDirectories(target.getParent());
+                    Files.deleteIfExists(target);
+                    Files.createLink(target, resolve(directory, entry.getLinkName()));
+                    break;
+                case FILE:
+                    Files.createDirectories(target.getParent());
+                    Files.copy(reader.content(), target, StandardCopyOption.REPLACE_EXISTING);
+                    TarArchive.setMode(target, entry.getMode());
+            }
+        }
+    }
+
+    private static Path resolve(Path directory, String name) throws IOException {
+        Path target = directory.resolve(name).normalize();
+        if (!target.startsWith(directory.normalize())) {
+            throw new IOException("Cache entry " + name + " is outside of the target directory");
+        }
+        return target;
+    }
+
+    private static final class DeadlineInputStream extends FilterInputStream {
+        private final long deadline;
+
+        DeadlineInputStream(InputStream in, long deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkDeadline(deadline);
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkDeadline(deadline);
+            return super.read(b, off, len);
+        }
+    }
+
+    private static final class DeadlineOutputStream extends FilterOutputStream {
+        private final long deadline;
+
+        DeadlineOutputStream(OutputStream out, long deadline) {
+            super(out);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkDeadline(deadline);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkDeadline(deadline);
+            out.write(b, off, len);
+        }
+    }
+
+    private static void checkDeadline(long deadline) throws IOException {
+        if (System.currentTimeMillis() > deadline) {
+            throw new IOException("Cache transfer timed out");
+        }
+    }
+}
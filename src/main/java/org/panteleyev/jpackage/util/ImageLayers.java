@@ -0,0 +1,208 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+// Layers of an application image. Every file and symbolic link of the image belongs to exactly one layer. Layers are
+// written as reproducible tar archives with paths prefixed by the image directory name, so extracting all layers into
+// the same directory restores the image. Layer checksum depends on paths and contents of its files only.
+public final class ImageLayers {
+    // Modification time of all archive entries, 1980-01-01
+    public static final long MTIME = 315532800L;
+
+    public static final class Layer {
+        private final String name;
+        private final Path image;
+        private final List<String> paths = new ArrayList<>();
+        private final Map<String, String> symlinks = new TreeMap<>();
+        private String sha256;
+
+        Layer(String name, Path image) {
+            this.name = name;
+            this.image = image;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Path getImage() {
+            return image;
+        }
+
+        // Files and symbolic links relative to the image, sorted
+        public List<String> getPaths() {
+            return Collections.unmodifiableList(paths);
+        }
+
+        public boolean isEmpty() {
+            return paths.isEmpty();
+        }
+
+        public long getSize() {
+            try {
+                long size = 0;
+                for (String path : paths) {
+                    if (!symlinks.containsKey(path)) {
+                        size += Files.size(image.resolve(path));
+                    }
+                }
+                return size;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        // Checksum of the layer manifest, calculated on first call
+        public String getSha256() {
+            if (sha256 == null) {
+                sha256 = ChecksumUtil.sha256(toManifest().toBytes());
+            }
+            return sha256;
+        }
+
+        // Files with their checksums, symbolic links with checksum of the link target
+        public ContentManifest toManifest() {
+            List<ContentManifest.Entry> entries = new ArrayList<>();
+            for (String path : paths) {
+                String target = symlinks.get(path);
+                if (target == null) {
+                    Path file = image.resolve(path);
+                    try {
+                        entries.add(new ContentManifest.Entry(path, Files.size(file), ChecksumUtil.sha256(file)));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                } else {
+                    entries.add(ContentManifest.Entry.symlink(path, target));
+                }
+            }
+            return ContentManifest.of(entries);
+        }
+    }
+
+    private ImageLayers() {
+    }
+
+    // Assigns every file and symbolic link of the image to the layer named by classifier for its path relative to
+    // the image. Layers are returned in order of names, unknown layer name is an error.
+    public static List<Layer> split(Path image, List<String> names, Function<String, String> classifier) {
+        Map<String, Layer> layers = new LinkedHashMap<>();
+        for (String name : names) {
+            layers.put(name, new Layer(name, image));
+        }
+
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(image)) {
+            files = stream.filter(path -> !Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        for (Path file : files) {
+            String path = ContentManifest.relativeName(image, file);
+            String name = classifier.apply(path);
+            Layer layer = layers.get(name);
+            if (layer == null) {
+                throw new IllegalArgumentException("Unknown layer " + name + " of " + path);
+            }
+            layer.paths.add(path);
+            if (Files.isSymbolicLink(file)) {
+                try {
+                    layer.symlinks.put(path, Files.readSymbolicLink(file).toString());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        }
+        return new ArrayList<>(layers.values());
+    }
+
+    // Writes layer entries with paths prefixed by the image directory name
+    public static void write(Layer layer, TarArchive.Writer writer) throws IOException {
+        write(layer, layer.image.getFileName().toString(), writer);
+    }
+
+    // Writes layer entries in sorted order with paths prefixed by the given relative path. Parent directories precede
+    // their contents, directories of the prefix outside the image have mode 755, all entries have the same
+    // modification time.
+    public static void write(Layer layer, String prefix, TarArchive.Writer writer) throws IOException {
+        if (prefix.isEmpty() || prefix.startsWith("/") || prefix.endsWith("/")) {
+            throw new IllegalArgumentException("Layer prefix must be a relative path: \"" + prefix + "\"");
+        }
+        Map<String, Path> entries = new TreeMap<>();
+        for (String path : layer.paths) {
+            entries.put(prefix + "/" + path, layer.image.resolve(path));
+            int index = path.lastIndexOf('/');
+            while (index > 0) {
+                String directory = path.substring(0, index);
+                entries.put(prefix + "/" + directory + "/", layer.image.resolve(directory));
+                index = directory.lastIndexOf('/');
+            }
+        }
+        if (!entries.isEmpty()) {
+            entries.put(prefix + "/", layer.image);
+            int index = prefix.lastIndexOf('/');
+            while (index > 0) {
+                entries.put(prefix.substring(0, index + 1), null);
+                index = prefix.lastIndexOf('/', index - 1);
+            }
+        }
+
+        for (Map.Entry<String, Path> entry : entries.entrySet()) {
+            String name = entry.getKey();
+            if (name.endsWith("/")) {
+                writer.addDirectory(name, entry.getValue() == null ? 0755 : TarArchive.getMode(entry.getValue()),
+                        MTIME);
+                continue;
+            }
+            String target = layer.symlinks.get(name.substring(prefix.length() + 1));
+            if (target != null) {
+                writer.addSymlink(name, target, MTIME);
+            } else {
+                writer.addFile(name, entry.getValue(), MTIME);
+            }
+        }
+    }
+
+    // Writes layer as .tar.gz archive
+    public static void writeArchive(Layer layer, Path archive) {
+        Path temporary = archive.resolveSibling(archive.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(archive.toAbsolutePath().getParent());
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+                 TarArchive.Writer writer = new TarArchive.Writer(out))
+            {
+                write(layer, writer);
+            }
+            Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
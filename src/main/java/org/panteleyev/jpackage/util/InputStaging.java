@@ -0,0 +1,164 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemLoopException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+// Builds a filtered copy of the input directory. Files are hard-linked where possible and copied otherwise, for
+// example when staging directory is located on a different file system. Symbolic links are followed as jpackage does
+// when it copies the input, entries that are neither files nor directories are skipped.
+public final class InputStaging {
+    private static final String GLOB = "glob:";
+    private static final String ANY_DIRECTORY = "**/";
+
+    public static final class Result {
+        private int files;
+        private int excluded;
+        private int copied;
+        private final List<String> skipped = new ArrayList<>();
+
+        // Number of staged files
+        public int getFiles() {
+            return files;
+        }
+
+        public int getExcluded() {
+            return excluded;
+        }
+
+        // Number of staged files that could not be linked
+        public int getCopied() {
+            return copied;
+        }
+
+        // Relative paths of broken links, link loops and special files
+        public List<String> getSkipped() {
+            return Collections.unmodifiableList(skipped);
+        }
+
+        @Override
+        public String toString() {
+            return "files: " + files + ", excluded: " + excluded + ", copied: " + copied + ", skipped: "
+                    + skipped.size();
+        }
+    }
+
+    private InputStaging() {
+    }
+
+    // Glob patterns are matched against paths relative to the input directory with '/' as separator.
+    // Empty includes match all files.
+    public static Predicate<String> filter(List<String> includes, List<String> excludes) {
+        List<PathMatcher> includeMatchers = toMatchers(includes);
+        List<PathMatcher> excludeMatchers = toMatchers(excludes);
+        return relativePath -> {
+            Path path = Paths.get(relativePath);
+            return (includeMatchers.isEmpty() || matches(includeMatchers, path)) && !matches(excludeMatchers, path);
+        };
+    }
+
+    public static Result stage(Path input, Path staging, Predicate<String> filter) {
+        DirectoryUtil.removeDirectory(staging);
+
+        Result result = new Result();
+        try {
+            Files.walkFileTree(input, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path path, BasicFileAttributes attributes)
+                                throws IOException
+                        {
+                            String relativePath = toRelativePath(input, path);
+                            // Attributes of the link itself are reported for a broken link
+                            if (!attributes.isRegularFile()) {
+                                result.skipped.add(relativePath);
+                                return FileVisitResult.CONTINUE;
+                            }
+                            if (!filter.test(relativePath)) {
+                                result.excluded++;
+                                return FileVisitResult.CONTINUE;
+                            }
+
+                            Path target = staging.resolve(input.relativize(path).toString());
+                            Files.createDirectories(target.getParent());
+                            // Hard link to a symbolic link would keep the link and break its relative target
+                            Path source = Files.isSymbolicLink(path) ? path.toRealPath() : path;
+                            if (!link(source, target)) {
+                                Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+                                result.copied++;
+                            }
+                            result.files++;
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path path, IOException ex) throws IOException {
+                            if (ex instanceof FileSystemLoopException) {
+                                result.skipped.add(toRelativePath(input, path));
+                                return FileVisitResult.CONTINUE;
+                            }
+                            throw ex;
+                        }
+                    });
+            Files.createDirectories(staging);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return result;
+    }
+
+    private static String toRelativePath(Path input, Path path) {
+        return input.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+    }
+
+    private static boolean link(Path source, Path target) {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException ex) {
+            return false;
+        }
+    }
+
+    private static List<PathMatcher> toMatchers(List<String> patterns) {
+        FileSystem fileSystem = FileSystems.getDefault();
+        List<PathMatcher> matchers = new ArrayList<>();
+        if (patterns == null) {
+            return matchers;
+        }
+        for (String pattern : patterns) {
+            if (StringUtil.isEmpty(pattern)) continue;
+            matchers.add(fileSystem.getPathMatcher(GLOB + pattern));
+            // "**/" also matches files at the top level, as in Maven and Ant patterns
+            if (pattern.startsWith(ANY_DIRECTORY)) {
+                matchers.add(fileSystem.getPathMatcher(GLOB + pattern.substring(ANY_DIRECTORY.length())));
+            }
+        }
+        return matchers;
+    }
+
+    private static boolean matches(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,340 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+// Merges non-modular dependency jars into a few combined jars. Service files are concatenated, license files are
+// relocated per source jar. Merged jars take another place on the classpath, so jars having an entry with different
+// content than the same entry of another merged jar or of a jar left separate stay separate too. Entries of merged jars
+// are unique on the resulting classpath and resolve regardless of the classpath order.
+public final class JarMerger {
+    public static final String MERGED_PREFIX = "merged-";
+
+    private static final String JAR_EXTENSION = ".jar";
+    private static final String META_INF = "META-INF/";
+    private static final String SERVICES = META_INF + "services/";
+    private static final String LICENSES = META_INF + "licenses/";
+    private static final String INDEX = META_INF + "INDEX.LIST";
+    private static final String MODULE_INFO = "module-info.class";
+    private static final String MULTI_RELEASE = "Multi-Release";
+    private static final String CREATED_BY = "jpackage-maven-plugin";
+    private static final Pattern LICENSE = Pattern.compile("META-INF/(LICENSE|NOTICE|DEPENDENCIES|COPYRIGHT)[^/]*",
+            Pattern.CASE_INSENSITIVE);
+
+    public static final class Result {
+        private final List<Path> mergedJars = new ArrayList<>();
+        private final List<Path> sources = new ArrayList<>();
+        private final Map<Path, String> skipped = new LinkedHashMap<>();
+        private int services;
+
+        // Created jars
+        public List<Path> getMergedJars() {
+            return Collections.unmodifiableList(mergedJars);
+        }
+
+        // Jars merged into created jars
+        public List<Path> getSources() {
+            return Collections.unmodifiableList(sources);
+        }
+
+        // Jars left as is mapped to the reason
+        public Map<Path, String> getSkipped() {
+            return Collections.unmodifiableMap(skipped);
+        }
+
+        // Number of merged service files
+        public int getServices() {
+            return services;
+        }
+    }
+
+    // Size and CRC of an entry, as stored in the central directory
+    private static final class Content {
+        private final long size;
+        private final long crc;
+        private final Path jar;
+
+        Content(JarEntry entry, Path jar) {
+            this.size = entry.getSize();
+            this.crc = entry.getCrc();
+            this.jar = jar;
+        }
+
+        boolean matches(Content other) {
+            return size == other.size && crc == other.crc;
+        }
+    }
+
+    private JarMerger() {
+    }
+
+    // Reason why jar cannot be merged, null if it can
+    public static String getSkipReason(Path jar) {
+        if (ModuleConversion.isSigned(jar)) return "signed";
+        if (ModuleConversion.isModular(jar)) return "modular";
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Manifest manifest = file.getManifest();
+            if (manifest != null) {
+                Attributes attributes = manifest.getMainAttributes();
+                if (Boolean.parseBoolean(attributes.getValue(MULTI_RELEASE))) return "multi-release";
+                if (attributes.getValue(Attributes.Name.CLASS_PATH) != null) return "manifest Class-Path";
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return null;
+    }
+
+    // Merges jars in the given order into at most count jars named merged-<n>.jar in the directory. Jars are split
+    // into groups of consecutive jars with a similar number of entries. Kept jars stay on the classpath as is.
+    public static Result merge(List<Path> jars, List<Path> kept, Path directory, int count) {
+        Result result = new Result();
+        Map<Path, Map<String, Content>> entries = new LinkedHashMap<>();
+        Map<Path, Integer> sizes = new HashMap<>();
+        List<Path> separate = new ArrayList<>(kept);
+        for (Path jar : jars) {
+            String reason = getSkipReason(jar);
+            if (reason != null) {
+                result.skipped.put(jar, reason);
+                separate.add(jar);
+            } else {
+                entries.put(jar, readEntries(jar, true, sizes));
+            }
+        }
+        for (Path jar : kept) {
+            entries.put(jar, readEntries(jar, false, sizes));
+        }
+
+        // Jar left separate may conflict with jars accepted before it, so the check is repeated until stable
+        List<Path> candidates = jars.stream().filter(jar -> !separate.contains(jar)).collect(Collectors.toList());
+        while (true) {
+            Map<String, List<Content>> contents = new HashMap<>();
+            for (Path jar : separate) {
+                // Skipped jars are not read, their entries are not merged
+                addContents(contents, entries.getOrDefault(jar, Collections.emptyMap()));
+            }
+            Path conflicting = null;
+            String reason = null;
+            for (Path jar : candidates) {
+                reason = findConflict(entries.get(jar), contents);
+                if (reason != null) {
+                    conflicting = jar;
+                    break;
+                }
+                addContents(contents, entries.get(jar));
+            }
+            if (conflicting == null) {
+                break;
+            }
+            result.skipped.put(conflicting, reason);
+            separate.add(conflicting);
+            candidates.remove(conflicting);
+        }
+        result.sources.addAll(candidates);
+
+        if (result.sources.size() < 2) {
+            for (Path jar : result.sources) {
+                result.skipped.put(jar, "nothing to merge with");
+            }
+            result.sources.clear();
+            return result;
+        }
+
+        try {
+            Files.createDirectories(directory);
+            long total = result.sources.stream().mapToLong(sizes::get).sum();
+            long perJar = Math.max(1, (total + count - 1) / count);
+            List<Path> group = new ArrayList<>();
+            long groupSize = 0;
+            for (Path jar : result.sources) {
+                group.add(jar);
+                groupSize += sizes.get(jar);
+                if (groupSize >= perJar && result.mergedJars.size() < count - 1) {
+                    result.services += write(group, next(result, directory));
+                    group.clear();
+                    groupSize = 0;
+                }
+            }
+            if (!group.isEmpty()) {
+                result.services += write(group, next(result, directory));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return result;
+    }
+
+    // Time to open jars and read their central directories, the same work JVM does for each classpath jar
+    public static long measureOpenNanos(List<Path> jars) {
+        long start = System.nanoTime();
+        for (Path jar : jars) {
+            try (JarFile file = new JarFile(jar.toFile())) {
+                Enumeration<JarEntry> entries = file.entries();
+                while (entries.hasMoreElements()) {
+                    entries.nextElement();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    static String getTargetName(String entryName, Path jar) {
+        if (LICENSE.matcher(entryName).matches()) {
+            return LICENSES + jar.getFileName() + "/" + entryName.substring(META_INF.length());
+        }
+        return entryName;
+    }
+
+    // Entries that are copied as is, mapped to their names in the merged jar if the jar is merged
+    private static Map<String, Content> readEntries(Path jar, boolean merged, Map<Path, Integer> sizes) {
+        Map<String, Content> result = new LinkedHashMap<>();
+        int entryCount = 0;
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                entryCount++;
+                if (entry.isDirectory() || isMerged(entry.getName())) continue;
+                result.put(merged ? getTargetName(entry.getName(), jar) : entry.getName(), new Content(entry, jar));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        sizes.put(jar, entryCount);
+        return result;
+    }
+
+    private static void addContents(Map<String, List<Content>> contents, Map<String, Content> entries) {
+        entries.forEach((name, content) -> contents.computeIfAbsent(name, key -> new ArrayList<>()).add(content));
+    }
+
+    private static String findConflict(Map<String, Content> entries, Map<String, List<Content>> contents) {
+        for (Map.Entry<String, Content> entry : entries.entrySet()) {
+            for (Content existing : contents.getOrDefault(entry.getKey(), Collections.emptyList())) {
+                if (!existing.matches(entry.getValue())) {
+                    return "conflict: " + entry.getKey() + " with " + existing.jar.getFileName();
+                }
+            }
+        }
+        return null;
+    }
+
+    // Entries that are generated or concatenated rather than copied
+    private static boolean isMerged(String name) {
+        return name.equalsIgnoreCase(JarFile.MANIFEST_NAME) || name.equalsIgnoreCase(INDEX)
+                || (name.startsWith(SERVICES) && name.length() > SERVICES.length());
+    }
+
+    private static Path next(Result result, Path directory) {
+        Path jar = directory.resolve(MERGED_PREFIX + (result.mergedJars.size() + 1) + JAR_EXTENSION);
+        result.mergedJars.add(jar);
+        return jar;
+    }
+
+    // Returns number of service files
+    private static int write(List<Path> jars, Path target) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Created-By"), CREATED_BY);
+
+        Map<String, ByteArrayOutputStream> services = new LinkedHashMap<>();
+        Set<String> written = new HashSet<>();
+        written.add(META_INF);
+        written.add(JarFile.MANIFEST_NAME);
+
+        try (OutputStream out = Files.newOutputStream(target);
+             JarOutputStream jarOut = new JarOutputStream(out, manifest))
+        {
+            for (Path jar : jars) {
+                try (JarFile file = new JarFile(jar.toFile())) {
+                    Enumeration<JarEntry> entries = file.entries();
+                    while (entries.hasMoreElements()) {
+                        JarEntry entry = entries.nextElement();
+                        String name = entry.getName();
+                        if (name.equals(MODULE_INFO) || name.equalsIgnoreCase(JarFile.MANIFEST_NAME)
+                                || name.equalsIgnoreCase(INDEX))
+                        {
+                            continue;
+                        }
+                        if (isMerged(name)) {
+                            ByteArrayOutputStream service = services.computeIfAbsent(name,
+                                    key -> new ByteArrayOutputStream());
+                            try (InputStream in = file.getInputStream(entry)) {
+                                copy(in, service);
+                            }
+                            service.write('\n');
+                            continue;
+                        }
+
+                        String targetName = getTargetName(name, jar);
+                        addDirectories(jarOut, targetName, written);
+                        if (!written.add(targetName)) continue;
+
+                        JarEntry targetEntry = new JarEntry(targetName);
+                        targetEntry.setTime(entry.getTime());
+                        jarOut.putNextEntry(targetEntry);
+                        if (!entry.isDirectory()) {
+                            try (InputStream in = file.getInputStream(entry)) {
+                                copy(in, jarOut);
+                            }
+                        }
+                        jarOut.closeEntry();
+                    }
+                }
+            }
+            for (Map.Entry<String, ByteArrayOutputStream> service : services.entrySet()) {
+                addDirectories(jarOut, service.getKey(), written);
+                jarOut.putNextEntry(new JarEntry(service.getKey()));
+                service.getValue().writeTo(jarOut);
+                jarOut.closeEntry();
+            }
+        }
+        return services.size();
+    }
+
+    // Parent directory entries of relocated and service files
+    private static void addDirectories(JarOutputStream jarOut, String name, Set<String> written) throws IOException {
+        int index = name.indexOf('/');
+        while (index > 0 && index < name.length() - 1) {
+            String directory = name.substring(0, index + 1);
+            if (written.add(directory)) {
+                jarOut.putNextEntry(new JarEntry(directory));
+                jarOut.closeEntry();
+            }
+            index = name.indexOf('/', index + 1);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+}
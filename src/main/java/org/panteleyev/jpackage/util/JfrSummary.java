@@ -0,0 +1,236 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Startup summary of a JFR recording, parsed from the output of "jfr print --events". Recording settings enable only
+// the summarised events, with zero thresholds, so short startup events are not lost.
+public final class JfrSummary {
+    public static final List<String> EVENTS = Arrays.asList(
+            "jdk.ClassLoad",
+            "jdk.ClassLoadingStatistics",
+            "jdk.GarbageCollection",
+            "jdk.Compilation",
+            "jdk.ExecutionSample"
+    );
+
+    // Contents of .jfc settings file
+    public static final List<String> SETTINGS = Arrays.asList(
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>",
+            "<configuration version=\"2.0\" label=\"Startup\" description=\"Startup profile\""
+                    + " provider=\"jpackage-maven-plugin\">",
+            "  <event name=\"jdk.ClassLoad\">",
+            "    <setting name=\"enabled\">true</setting>",
+            "    <setting name=\"stackTrace\">false</setting>",
+            "    <setting name=\"threshold\">0 ms</setting>",
+            "  </event>",
+            "  <event name=\"jdk.ClassLoadingStatistics\">",
+            "    <setting name=\"enabled\">true</setting>",
+            "    <setting name=\"period\">endChunk</setting>",
+            "  </event>",
+            "  <event name=\"jdk.GarbageCollection\">",
+            "    <setting name=\"enabled\">true</setting>",
+            "    <setting name=\"threshold\">0 ms</setting>",
+            "  </event>",
+            "  <event name=\"jdk.Compilation\">",
+            "    <setting name=\"enabled\">true</setting>",
+            "    <setting name=\"threshold\">0 ms</setting>",
+            "  </event>",
+            "  <event name=\"jdk.ExecutionSample\">",
+            "    <setting name=\"enabled\">true</setting>",
+            "    <setting name=\"period\">10 ms</setting>",
+            "  </event>",
+            "</configuration>"
+    );
+
+    private static final String STACK_TRACE = "stackTrace = [";
+    private static final String LINE_SUFFIX = " line:";
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private int loadedClasses;
+    private int classLoadEvents;
+    private double classLoadNanos;
+    private int collections;
+    private double pauseNanos;
+    private double maxPauseNanos;
+    private int compilations;
+    private double compilationNanos;
+    private int samples;
+    private final Map<String, Integer> topFrames = new HashMap<>();
+
+    private JfrSummary() {
+    }
+
+    public static JfrSummary parse(List<String> lines) {
+        JfrSummary summary = new JfrSummary();
+        String event = null;
+        Map<String, String> fields = new HashMap<>();
+        String topFrame = null;
+        boolean inStackTrace = false;
+
+        for (String line : lines) {
+            String trimmed = line.trim();
+            if (event == null) {
+                if (trimmed.endsWith("{")) {
+                    event = trimmed.substring(0, trimmed.length() - 1).trim();
+                    fields.clear();
+                    topFrame = null;
+                }
+            } else if (inStackTrace) {
+                if (trimmed.equals("]")) {
+                    inStackTrace = false;
+                } else if (topFrame == null && !trimmed.isEmpty()) {
+                    int suffix = trimmed.indexOf(LINE_SUFFIX);
+                    topFrame = suffix < 0 ? trimmed : trimmed.substring(0, suffix);
+                }
+            } else if (trimmed.equals(STACK_TRACE)) {
+                inStackTrace = true;
+            } else if (trimmed.equals("}")) {
+                summary.add(event, fields, topFrame);
+                event = null;
+            } else {
+                int separator = trimmed.indexOf(" = ");
+                if (separator > 0) {
+                    fields.put(trimmed.substring(0, separator), trimmed.substring(separator + 3));
+                }
+            }
+        }
+        return summary;
+    }
+
+    private void add(String event, Map<String, String> fields, String topFrame) {
+        switch (event) {
+            case "jdk.ClassLoad":
+                classLoadEvents++;
+                classLoadNanos += parseDuration(fields.get("duration"));
+                break;
+            case "jdk.ClassLoadingStatistics":
+                loadedClasses = Math.max(loadedClasses, parseInt(fields.get("loadedClassCount")));
+                break;
+            case "jdk.GarbageCollection":
+                collections++;
+                pauseNanos += parseDuration(fields.get("sumOfPauses"));
+                maxPauseNanos = Math.max(maxPauseNanos, parseDuration(fields.get("longestPause")));
+                break;
+            case "jdk.Compilation":
+                compilations++;
+                compilationNanos += parseDuration(fields.get("duration"));
+                break;
+            case "jdk.ExecutionSample":
+                samples++;
+                if (topFrame != null) {
+                    topFrames.merge(topFrame, 1, Integer::sum);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Durations are printed as "<value> <unit>", for example "11.3 ms"
+    static double parseDuration(String value) {
+        if (value == null) return 0;
+        String[] parts = value.trim().split("\\s+");
+        if (parts.length != 2) return 0;
+        try {
+            double number = Double.parseDouble(parts[0]);
+            switch (parts[1]) {
+                case "ns":
+                    return number;
+                case "us":
+                    return number * 1_000;
+                case "ms":
+                    return number * 1_000_000;
+                case "s":
+                    return number * 1_000_000_000;
+                case "min":
+                    return number * 60_000_000_000.0;
+                default:
+                    return 0;
+            }
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return value == null ? 0 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    public int getLoadedClasses() {
+        return loadedClasses;
+    }
+
+    public int getClassLoadEvents() {
+        return classLoadEvents;
+    }
+
+    public double getClassLoadMillis() {
+        return classLoadNanos / NANOS_PER_MILLI;
+    }
+
+    public int getCollections() {
+        return collections;
+    }
+
+    public double getPauseMillis() {
+        return pauseNanos / NANOS_PER_MILLI;
+    }
+
+    public double getMaxPauseMillis() {
+        return maxPauseNanos / NANOS_PER_MILLI;
+    }
+
+    public int getCompilations() {
+        return compilations;
+    }
+
+    public double getCompilationMillis() {
+        return compilationNanos / NANOS_PER_MILLI;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    // Methods executing on top of the stack, most sampled first
+    public List<Map.Entry<String, Integer>> getHotMethods(int limit) {
+        return topFrames.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public List<String> toReport(int hotMethods) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "Classes loaded:     %d", loadedClasses));
+        lines.add(String.format(Locale.ROOT, "Class loading:      %d events, %.1f ms", classLoadEvents,
+                getClassLoadMillis()));
+        lines.add(String.format(Locale.ROOT, "GC pauses:          %d collections, %.1f ms total, %.1f ms max",
+                collections, getPauseMillis(), getMaxPauseMillis()));
+        lines.add(String.format(Locale.ROOT, "JIT compilation:    %d methods, %.1f ms", compilations,
+                getCompilationMillis()));
+        lines.add(String.format(Locale.ROOT, "Execution samples:  %d", samples));
+        List<Map.Entry<String, Integer>> methods = getHotMethods(hotMethods);
+        if (!methods.isEmpty()) {
+            lines.add("Hot methods:");
+            for (Map.Entry<String, Integer> method : methods) {
+                lines.add(String.format(Locale.ROOT, "  %5.1f%%  %s", method.getValue() * 100.0 / samples,
+                        method.getKey()));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,142 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Launcher configuration file (.cfg) generated by jpackage. Lines are kept as is so rewritten file differs from the
+// original only in modified values.
+public final class LauncherConfig {
+    public static final String APPLICATION = "Application";
+    public static final String JAVA_OPTIONS = "JavaOptions";
+    public static final String ARG_OPTIONS = "ArgOptions";
+
+    public static final String CLASSPATH = "app.classpath";
+    public static final String JAVA_OPTION = "java-options";
+    public static final String ARGUMENT = "arguments";
+
+    public static final String APPDIR = "$APPDIR";
+
+    private final List<String> lines;
+
+    private LauncherConfig(List<String> lines) {
+        this.lines = lines;
+    }
+
+    public static LauncherConfig read(Path file) {
+        try {
+            return parse(new String(Files.readAllBytes(file), UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static LauncherConfig parse(String content) {
+        List<String> lines = new ArrayList<>();
+        for (String line : content.split("\r?\n", -1)) {
+            lines.add(line);
+        }
+        // Trailing empty element produced by the final line separator
+        if (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+            lines.remove(lines.size() - 1);
+        }
+        return new LauncherConfig(lines);
+    }
+
+    public List<String> getValues(String section, String key) {
+        List<String> values = new ArrayList<>();
+        int start = findSection(section);
+        if (start < 0) return values;
+
+        for (int i = start + 1; i < lines.size() && !isSection(lines.get(i)); i++) {
+            String value = getValue(lines.get(i), key);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    public boolean setValues(String section, String key, List<String> values) {
+        if (getValues(section, key).equals(values)) return false;
+
+        int start = findSection(section);
+        if (start < 0) {
+            if (!lines.isEmpty() && !lines.get(lines.size() - 1).trim().isEmpty()) {
+                lines.add("");
+            }
+            lines.add("[" + section + "]");
+            start = lines.size() - 1;
+        }
+
+        // New values replace the first existing one, or are appended after the last non-empty line of the section
+        int insert = -1;
+        int end = start + 1;
+        for (int i = start + 1; i < lines.size() && !isSection(lines.get(i)); ) {
+            if (getValue(lines.get(i), key) != null) {
+                if (insert < 0) {
+                    insert = i;
+                }
+                lines.remove(i);
+            } else {
+                if (!lines.get(i).trim().isEmpty()) {
+                    end = i + 1;
+                }
+                i++;
+            }
+        }
+        if (insert < 0) {
+            insert = end;
+        }
+
+        for (String value : values) {
+            lines.add(insert++, key + "=" + value);
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (String line : lines) {
+            result.append(line).append(System.lineSeparator());
+        }
+        return result.toString();
+    }
+
+    public void write(Path file) {
+        try {
+            Files.write(file, toString().getBytes(UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int findSection(String section) {
+        String header = "[" + section + "]";
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).trim().equals(header)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isSection(String line) {
+        String trimmed = line.trim();
+        return trimmed.startsWith("[") && trimmed.endsWith("]");
+    }
+
+    private static String getValue(String line, String key) {
+        int index = line.indexOf('=');
+        if (index < 0 || !line.substring(0, index).trim().equals(key)) return null;
+        return line.substring(index + 1);
+    }
+}
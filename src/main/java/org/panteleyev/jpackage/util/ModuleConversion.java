@@ -0,0 +1,283 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Checks of non-modular jars before they are converted into explicit modules, and injection of compiled module
+// descriptors. Names follow the rules of automatic modules, so converted modules keep names other jars may refer to.
+public final class ModuleConversion {
+    public static final String MODULE_INFO_CLASS = "module-info.class";
+
+    private static final String VERSIONS = "META-INF/versions/";
+    private static final String CLASS_EXTENSION = ".class";
+    private static final String AUTOMATIC_MODULE_NAME = "Automatic-Module-Name";
+    private static final byte[] SERVICE_LOADER = "java/util/ServiceLoader".getBytes(UTF_8);
+
+    private static final Pattern VERSION = Pattern.compile("-(\\d+(\\.|$))");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^A-Za-z0-9]");
+    private static final Pattern REPEATING_DOTS = Pattern.compile("(\\.)(\\1)+");
+    private static final Pattern REQUIRES = Pattern.compile(
+            "^\\s*requires\\s+(?:(?:transitive|static)\\s+)*([\\w.]+)\\s*;", Pattern.MULTILINE);
+    private static final Pattern MODULE_DECLARATION = Pattern.compile("^module\\s+", Pattern.MULTILINE);
+    // jdeps: "Warning: split package: <package> <location> <location>"
+    private static final Pattern SPLIT_PACKAGE_WARNING = Pattern.compile("split package: (\\S+) (\\S+) (\\S+)");
+    // jdeps -summary: "<jar> -> <dependency>"
+    private static final Pattern SUMMARY_DEPENDENCY = Pattern.compile("^(\\S+) -> (.+)$");
+
+    private ModuleConversion() {
+    }
+
+    public static boolean isModular(Path jar) {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                if (getClassName(entries.nextElement().getName()).equals(MODULE_INFO_CLASS)) return true;
+            }
+            return false;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Injected descriptor invalidates signature
+    public static boolean isSigned(Path jar) {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName().toUpperCase(Locale.ROOT);
+                if (name.startsWith("META-INF/") && name.indexOf('/', "META-INF/".length()) < 0
+                        && (name.endsWith(".SF") || name.endsWith(".RSA") || name.endsWith(".DSA")
+                        || name.endsWith(".EC")))
+                {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Generated descriptors do not declare services used with ServiceLoader, so such jars keep working only on the
+    // classpath
+    public static boolean usesServiceLoader(Path jar) {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (!entry.getName().endsWith(CLASS_EXTENSION)) continue;
+                try (InputStream in = file.getInputStream(entry)) {
+                    if (contains(readAll(in), SERVICE_LOADER)) return true;
+                }
+            }
+            return false;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Automatic-Module-Name or name derived from the file name
+    public static String getModuleName(Path jar) {
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Manifest manifest = file.getManifest();
+            if (manifest != null) {
+                String name = manifest.getMainAttributes().getValue(new Attributes.Name(AUTOMATIC_MODULE_NAME));
+                if (name != null && !name.trim().isEmpty()) {
+                    return name.trim();
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return deriveModuleName(jar.getFileName().toString());
+    }
+
+    // Same algorithm as java.lang.module.ModuleFinder uses for automatic modules
+    static String deriveModuleName(String fileName) {
+        String name = fileName.endsWith(".jar") ? fileName.substring(0, fileName.length() - 4) : fileName;
+        Matcher matcher = VERSION.matcher(name);
+        if (matcher.find()) {
+            name = name.substring(0, matcher.start());
+        }
+        name = NON_ALPHANUMERIC.matcher(name).replaceAll(".");
+        name = REPEATING_DOTS.matcher(name).replaceAll(".");
+        while (name.startsWith(".")) {
+            name = name.substring(1);
+        }
+        while (name.endsWith(".")) {
+            name = name.substring(0, name.length() - 1);
+        }
+        return name;
+    }
+
+    // Packages of classes including versioned ones
+    public static Set<String> getPackages(Path jar) {
+        Set<String> packages = new TreeSet<>();
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                String name = getClassName(entries.nextElement().getName());
+                int index = name.lastIndexOf('/');
+                if (name.endsWith(CLASS_EXTENSION) && index > 0 && !name.startsWith("META-INF/")) {
+                    packages.add(name.substring(0, index).replace('/', '.'));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return packages;
+    }
+
+    // Jars sharing a package with another jar, mapped to the package and the other jar
+    public static Map<Path, String> getSplitPackages(List<Path> jars) {
+        Map<String, Path> owners = new HashMap<>();
+        Map<Path, String> result = new LinkedHashMap<>();
+        for (Path jar : jars) {
+            for (String pkg : getPackages(jar)) {
+                Path owner = owners.putIfAbsent(pkg, jar);
+                if (owner != null && !owner.equals(jar)) {
+                    result.putIfAbsent(jar, pkg + " with " + owner.getFileName());
+                    result.putIfAbsent(owner, pkg + " with " + jar.getFileName());
+                }
+            }
+        }
+        return result;
+    }
+
+    // Split packages with runtime modules reported by jdeps, jar path mapped to the package and the module
+    public static Map<Path, String> parseSplitPackageWarnings(List<String> output) {
+        Map<Path, String> result = new LinkedHashMap<>();
+        for (String line : output) {
+            Matcher matcher = SPLIT_PACKAGE_WARNING.matcher(line);
+            if (!matcher.find()) continue;
+            String first = matcher.group(2);
+            String second = matcher.group(3);
+            String jar = first.startsWith("jrt:/") ? second : first;
+            String module = first.startsWith("jrt:/") ? first : second;
+            result.putIfAbsent(Paths.get(jar).toAbsolutePath(), matcher.group(1) + " with "
+                    + module.replace("jrt:/", ""));
+        }
+        return result;
+    }
+
+    // Dependencies reported by jdeps -summary, jar file name mapped to the first dependency found on the class path
+    public static Map<String, Path> parseClassPathDependencies(List<String> output, Set<Path> classPath) {
+        Map<String, Path> result = new LinkedHashMap<>();
+        for (String line : output) {
+            Matcher matcher = SUMMARY_DEPENDENCY.matcher(line.trim());
+            if (!matcher.find()) continue;
+            Path dependency = Paths.get(matcher.group(2).trim()).toAbsolutePath();
+            if (classPath.contains(dependency)) {
+                result.putIfAbsent(matcher.group(1), dependency);
+            }
+        }
+        return result;
+    }
+
+    // Open module keeps resources and deep reflection accessible as they are on the classpath, while exports of the
+    // descriptor make the module a default root of the runtime image
+    public static String toOpenModule(String moduleInfo) {
+        return MODULE_DECLARATION.matcher(moduleInfo).replaceFirst("open module ");
+    }
+
+    public static List<String> getRequires(String moduleInfo) {
+        List<String> requires = new ArrayList<>();
+        Matcher matcher = REQUIRES.matcher(moduleInfo);
+        while (matcher.find()) {
+            requires.add(matcher.group(1));
+        }
+        return requires;
+    }
+
+    // Removes modules that require unavailable modules, directly or through other removed modules.
+    // Returns removed modules mapped to the missing requirement.
+    public static Map<String, String> removeUnresolved(Map<String, List<String>> modules,
+            Predicate<String> available)
+    {
+        Map<String, String> removed = new LinkedHashMap<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<String, List<String>> entry : modules.entrySet()) {
+                if (removed.containsKey(entry.getKey())) continue;
+                for (String required : entry.getValue()) {
+                    if (removed.containsKey(required) || (!modules.containsKey(required)
+                            && !available.test(required)))
+                    {
+                        removed.put(entry.getKey(), required);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    public static void addModuleInfo(Path jar, Path moduleInfoClass) {
+        URI uri = URI.create("jar:" + jar.toAbsolutePath().toUri());
+        try (FileSystem fs = FileSystems.newFileSystem(uri, Collections.emptyMap())) {
+            Files.copy(moduleInfoClass, fs.getPath(MODULE_INFO_CLASS), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Entry name without META-INF/versions/<n>/ prefix
+    private static String getClassName(String entryName) {
+        if (!entryName.startsWith(VERSIONS)) return entryName;
+        int index = entryName.indexOf('/', VERSIONS.length());
+        return index < 0 ? entryName : entryName.substring(index + 1);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean contains(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) continue outer;
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,184 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+
+// Native libraries bundled into jars, which libraries like JNA, sqlite-jdbc or netty extract into a temporary
+// directory on every start. Libraries of the given platform are detected by file extension and by operating system
+// and architecture names found in the entry path.
+public final class NativeLibraries {
+    public static final String LINUX = "linux";
+    public static final String MAC = "mac";
+    public static final String WINDOWS = "windows";
+
+    private static final Map<String, Pattern> OS_NAMES = new LinkedHashMap<>();
+    private static final Map<String, Pattern> ARCH_NAMES = new LinkedHashMap<>();
+    private static final Map<String, Pattern> EXTENSIONS = new LinkedHashMap<>();
+    // Variants that are never loaded by a desktop JVM
+    private static final Pattern FOREIGN = boundary("musl|android|freebsd|openbsd|sunos|solaris|aix");
+
+    static {
+        OS_NAMES.put(LINUX, boundary("linux"));
+        OS_NAMES.put(MAC, boundary("mac|macos|macosx|osx|darwin"));
+        OS_NAMES.put(WINDOWS, boundary("win|win32|win64|windows"));
+
+        ARCH_NAMES.put("x86_64", boundary("x86[_-]?64|amd64|x64"));
+        ARCH_NAMES.put("aarch64", boundary("aarch_?64|arm64"));
+        ARCH_NAMES.put("x86", boundary("x86(?![_-]?64)|i[3-6]86"));
+        ARCH_NAMES.put("arm", boundary("arm|armv[5-7][a-z]*|armhf|armel"));
+        ARCH_NAMES.put("ppc64le", boundary("ppc64le"));
+        ARCH_NAMES.put("s390x", boundary("s390x"));
+        ARCH_NAMES.put("riscv64", boundary("riscv64"));
+
+        EXTENSIONS.put(LINUX, Pattern.compile("\\.so(\\.\\d+)*$"));
+        EXTENSIONS.put(MAC, Pattern.compile("\\.(dylib|jnilib)$"));
+        EXTENSIONS.put(WINDOWS, Pattern.compile("\\.dll$"));
+    }
+
+    public static final class Library {
+        private final Path jar;
+        private final String entry;
+
+        Library(Path jar, String entry) {
+            this.jar = jar;
+            this.entry = entry;
+        }
+
+        public Path getJar() {
+            return jar;
+        }
+
+        public String getEntry() {
+            return entry;
+        }
+
+        public String getFileName() {
+            return entry.substring(entry.lastIndexOf('/') + 1);
+        }
+    }
+
+    private NativeLibraries() {
+    }
+
+    public static String getCurrentOs() {
+        if (OsUtil.isWindows()) return WINDOWS;
+        if (OsUtil.isMac()) return MAC;
+        return LINUX;
+    }
+
+    // Architecture name as used in ARCH_NAMES, os.arch value if it is not known
+    public static String getCurrentArch() {
+        return normalizeArch(System.getProperty("os.arch"));
+    }
+
+    static String normalizeArch(String arch) {
+        String value = arch.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, Pattern> entry : ARCH_NAMES.entrySet()) {
+            if (entry.getValue().matcher(value).matches()) {
+                return entry.getKey();
+            }
+        }
+        return value;
+    }
+
+    // True if the jar entry is a native library of the platform. Entries that do not name an operating system or an
+    // architecture match any of them.
+    public static boolean matches(String entryName, String os, String arch) {
+        String name = entryName.toLowerCase(Locale.ROOT);
+        if (name.endsWith("/") || !EXTENSIONS.get(os).matcher(name).find()) return false;
+        if (FOREIGN.matcher(name).find()) return false;
+        return matchesAny(name, OS_NAMES, os) && matchesAny(name, ARCH_NAMES, arch);
+    }
+
+    public static List<Library> find(Path jar, String os, String arch) {
+        List<Library> result = new ArrayList<>();
+        try (JarFile file = new JarFile(jar.toFile())) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (matches(name, os, arch)) {
+                    result.add(new Library(jar, name));
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return result;
+    }
+
+    public static Path extract(Library library, Path directory) {
+        Path target = directory.resolve(library.getFileName());
+        try (JarFile file = new JarFile(library.getJar().toFile());
+             InputStream in = file.getInputStream(file.getJarEntry(library.getEntry())))
+        {
+            Files.createDirectories(directory);
+            Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+            if (!OsUtil.isWindows()) {
+                target.toFile().setExecutable(true, false);
+            }
+            return target;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // System properties that make libraries load extracted files instead of extracting them again. The directory
+    // is the value used in properties, for example one based on $APPDIR.
+    public static List<String> getSystemProperties(Collection<String> fileNames, String directory) {
+        if (fileNames.isEmpty()) return Collections.emptyList();
+
+        List<String> result = new ArrayList<>();
+        result.add("-Djava.library.path=" + directory);
+        for (String fileName : fileNames) {
+            String library = getLibraryName(fileName);
+            if (library.equals("jnidispatch")) {
+                result.add("-Djna.boot.library.path=" + directory);
+                result.add("-Djna.nounpack=true");
+            } else if (library.equals("sqlitejdbc")) {
+                result.add("-Dorg.sqlite.lib.path=" + directory);
+                result.add("-Dorg.sqlite.lib.name=" + fileName);
+            }
+        }
+        return result;
+    }
+
+    // Name as passed to System.loadLibrary
+    static String getLibraryName(String fileName) {
+        String name = fileName.startsWith("lib") ? fileName.substring(3) : fileName;
+        int index = name.indexOf('.');
+        return index < 0 ? name : name.substring(0, index);
+    }
+
+    private static boolean matchesAny(String name, Map<String, Pattern> patterns, String current) {
+        boolean named = false;
+        for (Map.Entry<String, Pattern> entry : patterns.entrySet()) {
+            if (entry.getValue().matcher(name).find()) {
+                if (entry.getKey().equals(current)) return true;
+                named = true;
+            }
+        }
+        return !named;
+    }
+
+    // Whole words of a path, letters or digits must not precede or follow the name
+    private static Pattern boundary(String names) {
+        return Pattern.compile("(?<![a-z0-9])(" + names + ")(?![a-z0-9])");
+    }
+}
@@ -0,0 +1,583 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.panteleyev.jpackage.util.StringUtil.jsonString;
+
+// OCI image layout of application image layers: oci-layout, index.json and content-addressed blobs. Layers are
+// reproducible gzip compressed tar archives, so unchanged layers keep their digests between builds. Layers of
+// previous layouts with the same content are reused instead of being compressed again. Layers of an optional base
+// image layout precede application image layers.
+public final class OciLayout {
+    public static final String LAYOUT_FILE = "oci-layout";
+    public static final String INDEX_FILE = "index.json";
+    public static final String BLOBS_DIRECTORY = "blobs/sha256";
+
+    static final String INDEX_TYPE = "application/vnd.oci.image.index.v1+json";
+    static final String MANIFEST_TYPE = "application/vnd.oci.image.manifest.v1+json";
+    static final String CONFIG_TYPE = "application/vnd.oci.image.config.v1+json";
+    static final String LAYER_TYPE = "application/vnd.oci.image.layer.v1.tar+gzip";
+    static final String REF_NAME = "org.opencontainers.image.ref.name";
+    // Annotations of layers written by the plugin
+    public static final String LAYER_NAME = "org.panteleyev.jpackage.layer";
+    static final String CONTENT_KEY = "org.panteleyev.jpackage.content";
+    static final String DIFF_ID = "org.panteleyev.jpackage.diff-id";
+
+    // Uncompressed size of independently compressed parts of a layer
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final String SHA256 = "sha256:";
+    private static final String CREATED = "1980-01-01T00:00:00Z";
+    private static final String OS = "linux";
+    private static final String LAYOUT_VERSION = "{\"imageLayoutVersion\":\"1.0.0\"}";
+    private static final Set<String> INDEX_TYPES = new HashSet<>(Arrays.asList(INDEX_TYPE,
+            "application/vnd.docker.distribution.manifest.list.v2+json"));
+    private static final Map<String, String> ARCHITECTURES = new HashMap<>();
+
+    static {
+        ARCHITECTURES.put("x86_64", "amd64");
+        ARCHITECTURES.put("aarch64", "arm64");
+        ARCHITECTURES.put("x86", "386");
+    }
+
+    public static final class Descriptor {
+        private final String mediaType;
+        private final String digest;
+        private final long size;
+        private final Map<String, String> annotations;
+
+        Descriptor(String mediaType, String digest, long size, Map<String, String> annotations) {
+            this.mediaType = mediaType;
+            this.digest = digest;
+            this.size = size;
+            this.annotations = new TreeMap<>(annotations);
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getAnnotation(String name) {
+            return annotations.get(name);
+        }
+
+        String toJson() {
+            StringBuilder json = new StringBuilder("{\"mediaType\":").append(jsonString(mediaType))
+                    .append(",\"digest\":").append(jsonString(digest))
+                    .append(",\"size\":").append(size);
+            if (!annotations.isEmpty()) {
+                json.append(",\"annotations\":{");
+                int index = 0;
+                for (Map.Entry<String, String> annotation : annotations.entrySet()) {
+                    if (index++ > 0) json.append(',');
+                    json.append(jsonString(annotation.getKey())).append(':').append(jsonString(annotation.getValue()));
+                }
+                json.append('}');
+            }
+            return json.append('}').toString();
+        }
+
+        static Descriptor of(Object json) {
+            Object mediaType = JsonReader.get(json, "mediaType");
+            Object digest = JsonReader.get(json, "digest");
+            Object size = JsonReader.get(json, "size");
+            if (!(digest instanceof String) || !(size instanceof Number)) {
+                throw new IllegalArgumentException("Malformed descriptor " + json);
+            }
+            Map<String, String> annotations = new TreeMap<>();
+            Object values = JsonReader.get(json, "annotations");
+            if (values instanceof Map) {
+                ((Map<?, ?>) values).forEach((key, value) -> annotations.put(key.toString(), String.valueOf(value)));
+            }
+            return new Descriptor(mediaType == null ? null : mediaType.toString(), (String) digest,
+                    ((Number) size).longValue(), annotations);
+        }
+    }
+
+    public static final class Config {
+        private String prefix = "opt";
+        private List<String> entrypoint = Collections.emptyList();
+        private String workingDirectory;
+        private String tag;
+        private Path base;
+        private List<Path> previous = Collections.emptyList();
+        private String architecture = getArchitecture(NativeLibraries.getCurrentArch());
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        // Directory containing the application image inside the container, relative to the root, empty for the root
+        public Config setPrefix(String prefix) {
+            this.prefix = prefix;
+            return this;
+        }
+
+        public Config setEntrypoint(List<String> entrypoint) {
+            this.entrypoint = entrypoint;
+            return this;
+        }
+
+        public Config setWorkingDirectory(String workingDirectory) {
+            this.workingDirectory = workingDirectory;
+            return this;
+        }
+
+        public Config setTag(String tag) {
+            this.tag = tag;
+            return this;
+        }
+
+        // Layout of the base image
+        public Config setBase(Path base) {
+            this.base = base;
+            return this;
+        }
+
+        // Layouts to reuse layers from in addition to the target directory
+        public Config setPrevious(List<Path> previous) {
+            this.previous = previous;
+            return this;
+        }
+
+        // Used if there is no base image
+        public Config setArchitecture(String architecture) {
+            this.architecture = architecture;
+            return this;
+        }
+
+        public Config setThreads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+    }
+
+    public static final class Result {
+        private final List<Descriptor> layers = new ArrayList<>();
+        private final Set<String> reused = new HashSet<>();
+        private int baseLayers;
+        private Descriptor manifest;
+
+        public Descriptor getManifest() {
+            return manifest;
+        }
+
+        // Base image layers followed by application image layers
+        public List<Descriptor> getLayers() {
+            return Collections.unmodifiableList(layers);
+        }
+
+        public int getBaseLayers() {
+            return baseLayers;
+        }
+
+        public boolean isReused(Descriptor layer) {
+            return reused.contains(layer.getDigest());
+        }
+    }
+
+    // Layer blob of an existing layout
+    private static final class Blob {
+        private final Descriptor descriptor;
+        private final Path file;
+
+        Blob(Descriptor descriptor, Path file) {
+            this.descriptor = descriptor;
+            this.file = file;
+        }
+    }
+
+    private static final class Base {
+        private final List<Descriptor> layers = new ArrayList<>();
+        private final List<String> diffIds = new ArrayList<>();
+        private final List<String> environment = new ArrayList<>();
+        private String architecture;
+    }
+
+    private OciLayout() {
+    }
+
+    // Architecture name used by OCI for the name returned by NativeLibraries.getCurrentArch
+    public static String getArchitecture(String arch) {
+        return ARCHITECTURES.getOrDefault(arch, arch);
+    }
+
+    // Writes layout into the directory. Empty layers are skipped, blobs that are not referenced by the new image are
+    // removed.
+    public static Result write(Path directory, List<ImageLayers.Layer> layers, Config config) {
+        Result result = new Result();
+        ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+        try {
+            Files.createDirectories(directory.resolve(BLOBS_DIRECTORY));
+            Map<String, Blob> reusable = new HashMap<>();
+            for (Path previous : config.previous) {
+                reusable.putAll(readLayers(previous));
+            }
+            reusable.putAll(readLayers(directory));
+
+            List<String> diffIds = new ArrayList<>();
+            List<String> environment = Collections.emptyList();
+            String architecture = config.architecture;
+            if (config.base != null) {
+                Base base = readBase(config.base, architecture);
+                for (Descriptor layer : base.layers) {
+                    copyBlob(blobPath(config.base, layer.getDigest()), directory, layer.getDigest());
+                }
+                result.layers.addAll(base.layers);
+                result.baseLayers = base.layers.size();
+                diffIds.addAll(base.diffIds);
+                environment = base.environment;
+                if (base.architecture != null) {
+                    architecture = base.architecture;
+                }
+            }
+
+            for (ImageLayers.Layer layer : layers) {
+                if (layer.isEmpty()) continue;
+
+                String key = ChecksumUtil.sha256((config.prefix + "\n" + layer.getSha256()).getBytes(UTF_8));
+                Blob blob = reusable.get(key);
+                Descriptor descriptor;
+                if (blob != null) {
+                    descriptor = blob.descriptor;
+                    copyBlob(blob.file, directory, descriptor.getDigest());
+                    result.reused.add(descriptor.getDigest());
+                } else {
+                    descriptor = writeLayer(directory, layer, config, key, executor);
+                }
+                result.layers.add(descriptor);
+                diffIds.add(descriptor.getAnnotation(DIFF_ID));
+            }
+
+            Descriptor configBlob = writeBlob(directory, CONFIG_TYPE, toConfigJson(config, architecture, environment,
+                    diffIds), Collections.emptyMap());
+            StringBuilder manifest = new StringBuilder("{\"schemaVersion\":2,\"mediaType\":")
+                    .append(jsonString(MANIFEST_TYPE))
+                    .append(",\"config\":").append(configBlob.toJson())
+                    .append(",\"layers\":[")
+                    .append(result.layers.stream().map(Descriptor::toJson).collect(Collectors.joining(",")))
+                    .append("]}");
+            result.manifest = writeBlob(directory, MANIFEST_TYPE, manifest.toString(),
+                    config.tag == null ? Collections.emptyMap() : Collections.singletonMap(REF_NAME, config.tag));
+
+            DirectoryUtil.writeAtomically(directory.resolve(INDEX_FILE), ("{\"schemaVersion\":2,\"mediaType\":"
+                    + jsonString(INDEX_TYPE) + ",\"manifests\":[" + result.manifest.toJson() + "]}").getBytes(UTF_8));
+            DirectoryUtil.writeAtomically(directory.resolve(LAYOUT_FILE), LAYOUT_VERSION.getBytes(UTF_8));
+
+            Set<String> referenced = new HashSet<>();
+            referenced.add(configBlob.getDigest());
+            referenced.add(result.manifest.getDigest());
+            result.layers.forEach(layer -> referenced.add(layer.getDigest()));
+            removeUnreferenced(directory, referenced);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    // Compresses file into a single gzip member of independently deflated chunks. Each chunk except the last one
+    // ends with a sync flush, so concatenated chunks form one deflate stream. Output does not depend on the number of
+    // threads.
+    static void compress(Path source, OutputStream out, ExecutorService executor, int window) throws IOException {
+        out.write(new byte[] {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff});
+        CRC32 crc = new CRC32();
+        long size = Files.size(source);
+        long offset = 0;
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+        try (InputStream in = Files.newInputStream(source)) {
+            do {
+                byte[] chunk = readChunk(in, (int) Math.min(CHUNK_SIZE, size - offset));
+                crc.update(chunk);
+                offset += chunk.length;
+                boolean last = offset >= size;
+                pending.add(executor.submit(() -> deflate(chunk, last)));
+                if (pending.size() >= window) {
+                    out.write(take(pending));
+                }
+            } while (offset < size);
+            while (!pending.isEmpty()) {
+                out.write(take(pending));
+            }
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+        }
+        writeInt(out, (int) crc.getValue());
+        writeInt(out, (int) size);
+    }
+
+    private static byte[] deflate(byte[] chunk, boolean last) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(chunk.length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            deflater.setInput(chunk);
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    out.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] take(Deque<Future<byte[]>> pending) throws IOException {
+        try {
+            return pending.poll().get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Compression interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Compression failed: " + ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    private static byte[] readChunk(InputStream in, int length) throws IOException {
+        byte[] chunk = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int count = in.read(chunk, offset, length - offset);
+            if (count < 0) {
+                throw new IOException("File changed while compressing");
+            }
+            offset += count;
+        }
+        return chunk;
+    }
+
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static Descriptor writeLayer(Path directory, ImageLayers.Layer layer, Config config, String key,
+            ExecutorService executor) throws IOException
+    {
+        Path tar = Files.createTempFile(directory, "layer", ".tar");
+        Path compressed = Files.createTempFile(directory, "layer", ".tar.gz");
+        try {
+            MessageDigest diffDigest = ChecksumUtil.newDigest();
+            try (TarArchive.Writer writer = new TarArchive.Writer(new DigestOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tar)), diffDigest)))
+            {
+                String imageDirectory = layer.getImage().getFileName().toString();
+                ImageLayers.write(layer,
+                        config.prefix.isEmpty() ? imageDirectory : config.prefix + "/" + imageDirectory, writer);
+            }
+            MessageDigest digest = ChecksumUtil.newDigest();
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(compressed)),
+                    digest))
+            {
+                compress(tar, out, executor, config.threads * 2);
+            }
+
+            String hex = ChecksumUtil.toHex(digest.digest());
+            Path blob = blobPath(directory, SHA256 + hex);
+            Files.move(compressed, blob, StandardCopyOption.REPLACE_EXISTING);
+
+            Map<String, String> annotations = new LinkedHashMap<>();
+            annotations.put(LAYER_NAME, layer.getName());
+            annotations.put(CONTENT_KEY, key);
+            annotations.put(DIFF_ID, SHA256 + ChecksumUtil.toHex(diffDigest.digest()));
+            return new Descriptor(LAYER_TYPE, SHA256 + hex, Files.size(blob), annotations);
+        } finally {
+            Files.deleteIfExists(tar);
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    private static String toConfigJson(Config config, String architecture, List<String> environment,
+            List<String> diffIds)
+    {
+        StringBuilder json = new StringBuilder("{\"architecture\":").append(jsonString(architecture))
+                .append(",\"config\":{");
+        List<String> fields = new ArrayList<>();
+        if (!config.entrypoint.isEmpty()) {
+            fields.add("\"Entrypoint\":" + toJsonArray(config.entrypoint));
+        }
+        if (!environment.isEmpty()) {
+            fields.add("\"Env\":" + toJsonArray(environment));
+        }
+        if (config.workingDirectory != null) {
+            fields.add("\"WorkingDir\":" + jsonString(config.workingDirectory));
+        }
+        return json.append(String.join(",", fields))
+                .append("},\"created\":").append(jsonString(CREATED))
+                .append(",\"os\":").append(jsonString(OS))
+                .append(",\"rootfs\":{\"type\":\"layers\",\"diff_ids\":").append(toJsonArray(diffIds))
+                .append("}}")
+                .toString();
+    }
+
+    private static String toJsonArray(List<String> values) {
+        return values.stream().map(StringUtil::jsonString).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static Descriptor writeBlob(Path directory, String mediaType, String content,
+            Map<String, String> annotations) throws IOException
+    {
+        byte[] bytes = content.getBytes(UTF_8);
+        String digest = SHA256 + ChecksumUtil.sha256(bytes);
+        Path blob = blobPath(directory, digest);
+        if (!Files.exists(blob)) {
+            DirectoryUtil.writeAtomically(blob, bytes);
+        }
+        return new Descriptor(mediaType, digest, bytes.length, annotations);
+    }
+
+    private static void copyBlob(Path source, Path directory, String digest) throws IOException {
+        Path target = blobPath(directory, digest);
+        if (Files.exists(target)) return;
+        if (!Files.isRegularFile(source)) {
+            throw new IOException("Blob " + digest + " not found");
+        }
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.copy(source, temporary, StandardCopyOption.REPLACE_EXISTING);
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    static Path blobPath(Path layout, String digest) {
+        if (!digest.startsWith(SHA256)) {
+            throw new IllegalArgumentException("Unsupported digest " + digest);
+        }
+        return layout.resolve(BLOBS_DIRECTORY).resolve(digest.substring(SHA256.length()));
+    }
+
+    private static Object readJson(Path file) throws IOException {
+        return JsonReader.parse(new String(Files.readAllBytes(file), UTF_8));
+    }
+
+    // Layers written by the plugin mapped to their content keys
+    private static Map<String, Blob> readLayers(Path layout) throws IOException {
+        Map<String, Blob> result = new HashMap<>();
+        if (!Files.isRegularFile(layout.resolve(INDEX_FILE))) return result;
+
+        for (Object manifest : getList(readJson(layout.resolve(INDEX_FILE)), "manifests")) {
+            Descriptor descriptor = Descriptor.of(manifest);
+            Path manifestFile = blobPath(layout, descriptor.getDigest());
+            if (!MANIFEST_TYPE.equals(descriptor.getMediaType()) || !Files.isRegularFile(manifestFile)) continue;
+
+            for (Object layer : getList(readJson(manifestFile), "layers")) {
+                Descriptor layerDescriptor = Descriptor.of(layer);
+                String key = layerDescriptor.getAnnotation(CONTENT_KEY);
+                Path blob = blobPath(layout, layerDescriptor.getDigest());
+                if (key != null && layerDescriptor.getAnnotation(DIFF_ID) != null && Files.isRegularFile(blob)) {
+                    result.put(key, new Blob(layerDescriptor, blob));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Base readBase(Path layout, String architecture) throws IOException {
+        if (!Files.isRegularFile(layout.resolve(INDEX_FILE))) {
+            throw new IOException("Base image layout " + layout + " does not contain " + INDEX_FILE);
+        }
+        Descriptor manifest = selectManifest(layout, readJson(layout.resolve(INDEX_FILE)), architecture);
+        Object manifestJson = readJson(blobPath(layout, manifest.getDigest()));
+        Descriptor config = Descriptor.of(JsonReader.get(manifestJson, "config"));
+        Object configJson = readJson(blobPath(layout, config.getDigest()));
+
+        Base base = new Base();
+        for (Object layer : getList(manifestJson, "layers")) {
+            base.layers.add(Descriptor.of(layer));
+        }
+        for (Object diffId : getList(JsonReader.get(configJson, "rootfs"), "diff_ids")) {
+            base.diffIds.add(diffId.toString());
+        }
+        if (base.layers.size() != base.diffIds.size()) {
+            throw new IOException("Base image has " + base.layers.size() + " layers and " + base.diffIds.size()
+                    + " diff ids");
+        }
+        for (Object variable : getList(JsonReader.get(configJson, "config"), "Env")) {
+            base.environment.add(variable.toString());
+        }
+        Object baseArchitecture = JsonReader.get(configJson, "architecture");
+        base.architecture = baseArchitecture == null ? null : baseArchitecture.toString();
+        return base;
+    }
+
+    // Manifest of the first entry matching the platform, entries without platform match any
+    private static Descriptor selectManifest(Path layout, Object index, String architecture) throws IOException {
+        for (Object entry : getList(index, "manifests")) {
+            Object os = JsonReader.get(entry, "platform", "os");
+            Object entryArchitecture = JsonReader.get(entry, "platform", "architecture");
+            if ((os != null && !OS.equals(os)) || (entryArchitecture != null
+                    && !architecture.equals(entryArchitecture)))
+            {
+                continue;
+            }
+            Descriptor descriptor = Descriptor.of(entry);
+            if (INDEX_TYPES.contains(descriptor.getMediaType())) {
+                return selectManifest(layout, readJson(blobPath(layout, descriptor.getDigest())), architecture);
+            }
+            return descriptor;
+        }
+        throw new IOException("No " + OS + "/" + architecture + " image in " + layout);
+    }
+
+    private static List<?> getList(Object json, String key) {
+        Object value = JsonReader.get(json, key);
+        return value instanceof List ? (List<?>) value : Collections.emptyList();
+    }
+
+    private static void removeUnreferenced(Path directory, Set<String> digests) throws IOException {
+        try (DirectoryStream<Path> blobs = Files.newDirectoryStream(directory.resolve(BLOBS_DIRECTORY))) {
+            for (Path blob : blobs) {
+                if (!digests.contains(SHA256 + blob.getFileName())) {
+                    Files.delete(blob);
+                }
+            }
+        }
+    }
+}
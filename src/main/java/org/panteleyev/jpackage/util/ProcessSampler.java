@@ -0,0 +1,259 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Samples resource usage of a process tree from /proc on Linux. CPU time and I/O are accumulated per process, so
+// processes that exit between samples are accounted up to their last sample.
+public final class ProcessSampler {
+    private static final Path PROC = Paths.get("/proc");
+    // USER_HZ, units of utime and stime in /proc/<pid>/stat
+    private static final long CLOCK_TICKS = 100;
+
+    // Indices of fields following the command name in /proc/<pid>/stat
+    private static final int PPID = 1;
+    private static final int UTIME = 11;
+    private static final int STIME = 12;
+
+    public static final class Usage {
+        private long durationMillis;
+        private long peakRssBytes;
+        private long userCpuMillis;
+        private long systemCpuMillis;
+        private long readBytes;
+        private long writtenBytes;
+        private int processes;
+        private int samples;
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        public long getPeakRssBytes() {
+            return peakRssBytes;
+        }
+
+        public long getUserCpuMillis() {
+            return userCpuMillis;
+        }
+
+        public long getSystemCpuMillis() {
+            return systemCpuMillis;
+        }
+
+        public long getReadBytes() {
+            return readBytes;
+        }
+
+        public long getWrittenBytes() {
+            return writtenBytes;
+        }
+
+        public int getProcesses() {
+            return processes;
+        }
+
+        public int getSamples() {
+            return samples;
+        }
+
+        public Map<String, Long> toMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            map.put("durationMillis", durationMillis);
+            map.put("peakRssBytes", peakRssBytes);
+            map.put("userCpuMillis", userCpuMillis);
+            map.put("systemCpuMillis", systemCpuMillis);
+            map.put("readBytes", readBytes);
+            map.put("writtenBytes", writtenBytes);
+            map.put("processes", (long) processes);
+            map.put("samples", (long) samples);
+            return map;
+        }
+    }
+
+    // Counters of a single process: user ticks, system ticks, read bytes, written bytes
+    private final Map<Long, long[]> counters = new HashMap<>();
+    private final long pid;
+    private final long startNanos = System.nanoTime();
+    private final ScheduledExecutorService executor;
+    private long peakRss;
+    private int samples;
+
+    private ProcessSampler(long pid, long intervalMillis) {
+        this.pid = pid;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "process-sampler-" + pid);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First sample is taken right away, so short-lived processes are accounted too
+        sample();
+        executor.scheduleAtFixedRate(this::sample, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static boolean isSupported() {
+        return Files.isDirectory(PROC.resolve("self"));
+    }
+
+    // Returns -1 if pid is not available
+    public static long getPid(Process process) {
+        try {
+            // Java 9+
+            Method method = Process.class.getMethod("pid");
+            return (Long) method.invoke(process);
+        } catch (ReflectiveOperationException ex) {
+            // Java 8 UNIXProcess
+            try {
+                Field field = process.getClass().getDeclaredField("pid");
+                field.setAccessible(true);
+                return field.getInt(process);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+
+    public static ProcessSampler start(long pid, long intervalMillis) {
+        return new ProcessSampler(pid, intervalMillis);
+    }
+
+    public Usage stop() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        synchronized (this) {
+            Usage usage = new Usage();
+            usage.durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            usage.peakRssBytes = peakRss;
+            for (long[] values : counters.values()) {
+                usage.userCpuMillis += values[0] * 1000 / CLOCK_TICKS;
+                usage.systemCpuMillis += values[1] * 1000 / CLOCK_TICKS;
+                usage.readBytes += values[2];
+                usage.writtenBytes += values[3];
+            }
+            usage.processes = counters.size();
+            usage.samples = samples;
+            return usage;
+        }
+    }
+
+    private synchronized void sample() {
+        long rss = 0;
+        for (long process : getProcessTree()) {
+            String stat = read(PROC.resolve(Long.toString(process)).resolve("stat"));
+            if (stat == null) continue;
+
+            long[] values = counters.computeIfAbsent(process, key -> new long[4]);
+            long[] times = parseStat(stat);
+            values[0] = Math.max(values[0], times[UTIME]);
+            values[1] = Math.max(values[1], times[STIME]);
+
+            String io = read(PROC.resolve(Long.toString(process)).resolve("io"));
+            if (io != null) {
+                values[2] = Math.max(values[2], parseField(io, "read_bytes:"));
+                values[3] = Math.max(values[3], parseField(io, "write_bytes:"));
+            }
+
+            String status = read(PROC.resolve(Long.toString(process)).resolve("status"));
+            if (status != null) {
+                rss += parseField(status, "VmRSS:") * 1024;
+            }
+        }
+        peakRss = Math.max(peakRss, rss);
+        samples++;
+    }
+
+    // Root process and all its descendants
+    private List<Long> getProcessTree() {
+        Map<Long, List<Long>> children = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(PROC, path -> isNumber(path.getFileName()))) {
+            for (Path entry : entries) {
+                String stat = read(entry.resolve("stat"));
+                if (stat == null) continue;
+                long process = Long.parseLong(entry.getFileName().toString());
+                children.computeIfAbsent(parseStat(stat)[PPID], key -> new ArrayList<>()).add(process);
+            }
+        } catch (IOException ex) {
+            return new ArrayList<>();
+        }
+
+        List<Long> result = new ArrayList<>();
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(pid);
+        while (!queue.isEmpty()) {
+            long process = queue.poll();
+            result.add(process);
+            queue.addAll(children.getOrDefault(process, new ArrayList<>()));
+        }
+        return result;
+    }
+
+    // Fields of /proc/<pid>/stat following the command name which may contain spaces and parentheses
+    static long[] parseStat(String stat) {
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split(" ");
+        long[] result = new long[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            try {
+                result[i] = Long.parseLong(fields[i]);
+            } catch (NumberFormatException ex) {
+                // State and other non-numeric fields
+            }
+        }
+        return result;
+    }
+
+    // Numeric value of "name: value [unit]" line
+    static long parseField(String content, String name) {
+        for (String line : content.split("\n")) {
+            if (line.startsWith(name)) {
+                String[] parts = line.substring(name.length()).trim().split("\\s+");
+                try {
+                    return Long.parseLong(parts[0]);
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean isNumber(Path fileName) {
+        String name = fileName.toString();
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) return false;
+        }
+        return !name.isEmpty();
+    }
+
+    // Process may exit at any moment, its files become unreadable
+    private static String read(Path file) {
+        try {
+            return new String(Files.readAllBytes(file), UTF_8);
+        } catch (IOException ex) {
+            return null;
+        }
+    }
+}
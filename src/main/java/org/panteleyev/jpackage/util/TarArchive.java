@@ -0,0 +1,452 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// Minimal POSIX tar reader and writer, long names are stored with PAX extended headers. Reader also accepts GNU long
+// names and hard links, entries of other types are rejected.
+public final class TarArchive {
+    private static final int BLOCK = 512;
+    private static final int NAME_LENGTH = 100;
+
+    private static final byte TYPE_FILE = '0';
+    private static final byte TYPE_OLD_FILE = 0;
+    private static final byte TYPE_CONTIGUOUS = '7';
+    private static final byte TYPE_HARDLINK = '1';
+    private static final byte TYPE_SYMLINK = '2';
+    private static final byte TYPE_DIRECTORY = '5';
+    private static final byte TYPE_PAX = 'x';
+    private static final byte TYPE_PAX_GLOBAL = 'g';
+    private static final byte TYPE_GNU_LONG_NAME = 'L';
+    private static final byte TYPE_GNU_LONG_LINK = 'K';
+    // GNU format uses the POSIX prefix field for other data
+    private static final String GNU_MAGIC = "ustar  ";
+
+    private static final PosixFilePermission[] PERMISSIONS = {
+            PosixFilePermission.OTHERS_EXECUTE, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_READ,
+            PosixFilePermission.GROUP_EXECUTE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_READ,
+            PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_READ
+    };
+
+    public enum EntryType {
+        // Link name of a hard link is the name of an earlier entry of the archive
+        FILE, DIRECTORY, SYMLINK, HARDLINK
+    }
+
+    public static final class Entry {
+        private final String name;
+        private final EntryType type;
+        private final int mode;
+        private final long size;
+        private final long mtime;
+        private final String linkName;
+
+        Entry(String name, EntryType type, int mode, long size, long mtime, String linkName) {
+            this.name = name;
+            this.type = type;
+            this.mode = mode;
+            this.size = size;
+            this.mtime = mtime;
+            this.linkName = linkName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public EntryType getType() {
+            return type;
+        }
+
+        public int getMode() {
+            return mode;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getMtime() {
+            return mtime;
+        }
+
+        public String getLinkName() {
+            return linkName;
+        }
+    }
+
+    public static final class Writer implements Closeable {
+        private final OutputStream out;
+        private boolean closed;
+
+        public Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        public void addDirectory(String name, int mode, long mtime) throws IOException {
+            writeHeader(name.endsWith("/") ? name : name + "/", TYPE_DIRECTORY, mode, 0, mtime, "");
+        }
+
+        public void addSymlink(String name, String target, long mtime) throws IOException {
+            writeHeader(name, TYPE_SYMLINK, 0777, 0, mtime, target);
+        }
+
+        public void addFile(String name, int mode, long mtime, long size, InputStream content) throws IOException {
+            writeHeader(name, TYPE_FILE, mode, size, mtime, "");
+
+            byte[] buffer = new byte[64 * 1024];
+            long remaining = size;
+            while (remaining > 0) {
+                int count = content.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (count < 0) {
+                    throw new EOFException("Unexpected end of content for " + name);
+                }
+                out.write(buffer, 0, count);
+                remaining -= count;
+            }
+            pad(size);
+        }
+
+        public void addFile(String name, Path file, long mtime) throws IOException {
+            try (InputStream in = Files.newInputStream(file)) {
+                addFile(name, getMode(file), mtime, Files.size(file), in);
+            }
+        }
+
+        public void addFile(String name, int mode, long mtime, byte[] content) throws IOException {
+            writeHeader(name, TYPE_FILE, mode, content.length, mtime, "");
+            out.write(content);
+            pad(content.length);
+        }
+
+        private void writeHeader(String name, byte type, int mode, long size, long mtime, String linkName)
+                throws IOException
+        {
+            byte[] nameBytes = name.getBytes(UTF_8);
+            byte[] linkBytes = linkName.getBytes(UTF_8);
+            if (nameBytes.length > NAME_LENGTH || linkBytes.length > NAME_LENGTH) {
+                StringBuilder records = new StringBuilder();
+                if (nameBytes.length > NAME_LENGTH) {
+                    records.append(paxRecord("path", name));
+                }
+                if (linkBytes.length > NAME_LENGTH) {
+                    records.append(paxRecord("linkpath", linkName));
+                }
+                byte[] pax = records.toString().getBytes(UTF_8);
+                out.write(header("PaxHeader", TYPE_PAX, 0644, pax.length, mtime, ""));
+                out.write(pax);
+                pad(pax.length);
+            }
+            out.write(header(name, type, mode, size, mtime, linkName));
+        }
+
+        private void pad(long size) throws IOException {
+            int remainder = (int) (size % BLOCK);
+            if (remainder != 0) {
+                out.write(new byte[BLOCK - remainder]);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            out.write(new byte[BLOCK * 2]);
+            out.close();
+        }
+    }
+
+    public static final class Reader implements Closeable {
+        private final InputStream in;
+        private long remaining;
+        private long padding;
+
+        public Reader(InputStream in) {
+            this.in = in;
+        }
+
+        public Entry next() throws IOException {
+            skip(remaining + padding);
+            remaining = 0;
+            padding = 0;
+
+            String paxPath = null;
+            String paxLinkPath = null;
+            String longName = null;
+            String longLinkName = null;
+            while (true) {
+                byte[] header = new byte[BLOCK];
+                if (!readBlock(header) || isZero(header)) {
+                    return null;
+                }
+
+                byte type = header[156];
+                long size = parseOctal(header, 124, 12);
+
+                if (type == TYPE_PAX || type == TYPE_PAX_GLOBAL) {
+                    byte[] data = new byte[(int) size];
+                    readFully(data);
+                    skip(paddingOf(size));
+                    if (type == TYPE_PAX) {
+                        String records = new String(data, UTF_8);
+                        paxPath = paxValue(records, "path");
+                        paxLinkPath = paxValue(records, "linkpath");
+                    }
+                    continue;
+                }
+                if (type == TYPE_GNU_LONG_NAME || type == TYPE_GNU_LONG_LINK) {
+                    byte[] data = new byte[(int) size];
+                    readFully(data);
+                    skip(paddingOf(size));
+                    String value = string(data, 0, data.length);
+                    if (type == TYPE_GNU_LONG_NAME) {
+                        longName = value;
+                    } else {
+                        longLinkName = value;
+                    }
+                    continue;
+                }
+
+                String name = paxPath != null ? paxPath : longName != null ? longName : headerName(header);
+                String linkName = paxLinkPath != null ? paxLinkPath :
+                        longLinkName != null ? longLinkName : string(header, 157, NAME_LENGTH);
+                int mode = (int) parseOctal(header, 100, 8);
+                long mtime = parseOctal(header, 136, 12);
+
+                EntryType entryType;
+                if (type == TYPE_DIRECTORY || name.endsWith("/")) {
+                    entryType = EntryType.DIRECTORY;
+                    name = name.endsWith("/") ? name.substring(0, name.length() - 1) : name;
+                } else if (type == TYPE_SYMLINK) {
+                    entryType = EntryType.SYMLINK;
+                } else if (type == TYPE_HARDLINK) {
+                    entryType = EntryType.HARDLINK;
+                } else if (type == TYPE_FILE || type == TYPE_OLD_FILE || type == TYPE_CONTIGUOUS) {
+                    entryType = EntryType.FILE;
+                } else {
+                    throw new IOException("Unsupported tar entry type '" + (char) type + "' of " + name);
+                }
+
+                // Data of other entries is never exposed and skipped by the next call
+                remaining = entryType == EntryType.FILE ? size : 0;
+                padding = entryType == EntryType.FILE ? paddingOf(size) : size + paddingOf(size);
+                return new Entry(name, entryType, mode, remaining, mtime, linkName);
+            }
+        }
+
+        // Content of the current entry, valid until next() is called
+        public InputStream content() {
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    if (remaining <= 0) return -1;
+                    int b = in.read();
+                    if (b >= 0) remaining--;
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    if (remaining <= 0) return -1;
+                    int count = in.read(b, off, (int) Math.min(len, remaining));
+                    if (count > 0) remaining -= count;
+                    return count;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        private boolean readBlock(byte[] block) throws IOException {
+            int offset = 0;
+            while (offset < block.length) {
+                int count = in.read(block, offset, block.length - offset);
+                if (count < 0) {
+                    if (offset == 0) return false;
+                    throw new EOFException("Truncated tar header");
+                }
+                offset += count;
+            }
+            return true;
+        }
+
+        private void readFully(byte[] data) throws IOException {
+            int offset = 0;
+            while (offset < data.length) {
+                int count = in.read(data, offset, data.length - offset);
+                if (count < 0) throw new EOFException("Truncated tar entry");
+                offset += count;
+            }
+        }
+
+        private void skip(long count) throws IOException {
+            byte[] buffer = new byte[8192];
+            while (count > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+                if (read < 0) throw new EOFException("Truncated tar entry");
+                count -= read;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    public static int getMode(Path path) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(path, PosixFileAttributeView.class,
+                LinkOption.NOFOLLOW_LINKS);
+        if (view != null) {
+            int mode = 0;
+            Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+            for (int i = 0; i < PERMISSIONS.length; i++) {
+                if (permissions.contains(PERMISSIONS[i])) {
+                    mode |= 1 << i;
+                }
+            }
+            return mode;
+        }
+        if (Files.isDirectory(path)) return 0755;
+        return Files.isExecutable(path) ? 0755 : 0644;
+    }
+
+    public static void setMode(Path path, int mode) throws IOException {
+        PosixFileAttributeView view = Files.getFileAttributeView(path, PosixFileAttributeView.class);
+        if (view == null) {
+            if ((mode & 0100) != 0) {
+                path.toFile().setExecutable(true);
+            }
+            return;
+        }
+        Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+        for (int i = 0; i < PERMISSIONS.length; i++) {
+            if ((mode & (1 << i)) != 0) {
+                permissions.add(PERMISSIONS[i]);
+            }
+        }
+        view.setPermissions(permissions);
+    }
+
+    private static byte[] header(String name, byte type, int mode, long size, long mtime, String linkName) {
+        byte[] header = new byte[BLOCK];
+        putString(header, 0, NAME_LENGTH, name);
+        putOctal(header, 100, 8, mode);
+        putOctal(header, 108, 8, 0);
+        putOctal(header, 116, 8, 0);
+        putOctal(header, 124, 12, size);
+        putOctal(header, 136, 12, mtime);
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        header[156] = type;
+        putString(header, 157, NAME_LENGTH, linkName);
+        putString(header, 257, 6, "ustar");
+        header[263] = '0';
+        header[264] = '0';
+
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        putOctal(header, 148, 7, checksum);
+        return header;
+    }
+
+    private static void putString(byte[] header, int offset, int length, String value) {
+        byte[] bytes = value.getBytes(UTF_8);
+        System.arraycopy(bytes, 0, header, offset, Math.min(bytes.length, length));
+    }
+
+    private static void putOctal(byte[] header, int offset, int length, long value) {
+        String octal = Long.toOctalString(value);
+        if (octal.length() > length - 1) {
+            throw new IllegalArgumentException("Value " + value + " does not fit tar header field");
+        }
+        StringBuilder padded = new StringBuilder();
+        for (int i = octal.length(); i < length - 1; i++) {
+            padded.append('0');
+        }
+        putString(header, offset, length - 1, padded.append(octal).toString());
+    }
+
+    private static long parseOctal(byte[] header, int offset, int length) {
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = header[i];
+            if (b == 0 || b == ' ') {
+                if (value != 0) break;
+                continue;
+            }
+            value = (value << 3) + (b - '0');
+        }
+        return value;
+    }
+
+    private static String string(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, UTF_8);
+    }
+
+    private static String headerName(byte[] header) {
+        String name = string(header, 0, NAME_LENGTH);
+        if (string(header, 257, 8).equals(GNU_MAGIC)) return name;
+        String prefix = string(header, 345, 155);
+        return prefix.isEmpty() ? name : prefix + "/" + name;
+    }
+
+    private static boolean isZero(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) return false;
+        }
+        return true;
+    }
+
+    private static long paddingOf(long size) {
+        int remainder = (int) (size % BLOCK);
+        return remainder == 0 ? 0 : BLOCK - remainder;
+    }
+
+    static String paxRecord(String key, String value) {
+        String body = " " + key + "=" + value + "\n";
+        int bodyLength = body.getBytes(UTF_8).length;
+        int length = bodyLength + 1;
+        while (String.valueOf(length).length() + bodyLength != length) {
+            length = String.valueOf(length).length() + bodyLength;
+        }
+        return length + body;
+    }
+
+    private static String paxValue(String records, String key) {
+        String marker = " " + key + "=";
+        for (String record : records.split("\n")) {
+            int index = record.indexOf(marker);
+            if (index >= 0) {
+                return record.substring(index + marker.length());
+            }
+        }
+        return null;
+    }
+
+    private TarArchive() {
+    }
+}
@@ -0,0 +1,222 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.panteleyev.jpackage.util.StringUtil.jsonString;
+
+// Collects spans of the packaging pipeline and exports them in OTLP/JSON format.
+// Parent context is taken from W3C TRACEPARENT variable if present, so spans join the trace of the build.
+public final class Tracer {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String SCOPE = "org.panteleyev.jpackage";
+    private static final long NANO_OFFSET = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    private final String serviceName;
+    private final String traceId;
+    private final String parentSpanId;
+    private final List<Span> spans = new ArrayList<>();
+    private final ThreadLocal<Deque<Span>> current = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public final class Span implements AutoCloseable {
+        private final String name;
+        private final String spanId;
+        private final String parentId;
+        private final long startNanos;
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+        private long endNanos;
+        private String error;
+
+        private Span(String name, String parentId) {
+            this.name = name;
+            this.spanId = randomId(8);
+            this.parentId = parentId;
+            this.startNanos = epochNanos();
+        }
+
+        public Span setAttribute(String key, Object value) {
+            if (value != null) {
+                attributes.put(key, value);
+            }
+            return this;
+        }
+
+        public void setError(Throwable throwable) {
+            this.error = throwable.getMessage() == null ? throwable.getClass().getName() : throwable.getMessage();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getSpanId() {
+            return spanId;
+        }
+
+        public String getParentId() {
+            return parentId;
+        }
+
+        public long getDurationNanos() {
+            return endNanos - startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (endNanos != 0) return;
+            endNanos = epochNanos();
+            current.get().remove(this);
+            synchronized (spans) {
+                spans.add(this);
+            }
+        }
+    }
+
+    public Tracer(String serviceName) {
+        this(serviceName, System.getenv("TRACEPARENT"));
+    }
+
+    Tracer(String serviceName, String traceParent) {
+        this.serviceName = serviceName;
+
+        // version-traceid-parentid-flags
+        String[] parts = traceParent == null ? new String[0] : traceParent.trim().split("-");
+        if (parts.length == 4 && parts[1].length() == 32 && parts[2].length() == 16) {
+            traceId = parts[1];
+            parentSpanId = parts[2];
+        } else {
+            traceId = randomId(16);
+            parentSpanId = null;
+        }
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public Span start(String name) {
+        Deque<Span> stack = current.get();
+        Span parent = stack.peek();
+        Span span = new Span(name, parent == null ? parentSpanId : parent.spanId);
+        stack.push(span);
+        return span;
+    }
+
+    // Starts span with explicit parent, used for work executed by other threads
+    public Span start(String name, Span parent) {
+        Span span = new Span(name, parent.spanId);
+        current.get().push(span);
+        return span;
+    }
+
+    public List<Span> getSpans() {
+        synchronized (spans) {
+            return new ArrayList<>(spans);
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"resourceSpans\":[{\"resource\":{\"attributes\":[")
+                .append(attribute("service.name", serviceName))
+                .append("]},\"scopeSpans\":[{\"scope\":{\"name\":").append(jsonString(SCOPE))
+                .append("},\"spans\":[");
+
+        List<Span> finished = getSpans();
+        for (int i = 0; i < finished.size(); i++) {
+            Span span = finished.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"traceId\":").append(jsonString(traceId))
+                    .append(",\"spanId\":").append(jsonString(span.spanId));
+            if (span.parentId != null) {
+                json.append(",\"parentSpanId\":").append(jsonString(span.parentId));
+            }
+            json.append(",\"name\":").append(jsonString(span.name))
+                    .append(",\"kind\":1")
+                    .append(",\"startTimeUnixNano\":\"").append(span.startNanos).append('"')
+                    .append(",\"endTimeUnixNano\":\"").append(span.endNanos).append('"')
+                    .append(",\"attributes\":[");
+            int index = 0;
+            for (Map.Entry<String, Object> attribute : span.attributes.entrySet()) {
+                if (index++ > 0) json.append(',');
+                json.append(attribute(attribute.getKey(), attribute.getValue()));
+            }
+            json.append("],\"status\":");
+            if (span.error == null) {
+                json.append("{\"code\":1}");
+            } else {
+                json.append("{\"code\":2,\"message\":").append(jsonString(span.error)).append('}');
+            }
+            json.append('}');
+        }
+        return json.append("]}]}]}").toString();
+    }
+
+    public void exportToFile(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(file, toJson().getBytes(UTF_8));
+    }
+
+    public void exportToEndpoint(String endpoint, int timeoutMillis) throws IOException {
+        byte[] body = toJson().getBytes(UTF_8);
+        HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+        try {
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(timeoutMillis);
+            connection.setReadTimeout(timeoutMillis);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setFixedLengthStreamingMode(body.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+            int code = connection.getResponseCode();
+            if (code / 100 != 2) {
+                throw new IOException("Trace endpoint " + endpoint + " returned HTTP " + code);
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static String attribute(String key, Object value) {
+        String typed;
+        if (value instanceof Boolean) {
+            typed = "{\"boolValue\":" + value + "}";
+        } else if (value instanceof Integer || value instanceof Long) {
+            typed = "{\"intValue\":\"" + value + "\"}";
+        } else if (value instanceof Number) {
+            typed = "{\"doubleValue\":" + value + "}";
+        } else {
+            typed = "{\"stringValue\":" + jsonString(String.valueOf(value)) + "}";
+        }
+        return "{\"key\":" + jsonString(key) + ",\"value\":" + typed + "}";
+    }
+
+    private static long epochNanos() {
+        return NANO_OFFSET + System.nanoTime();
+    }
+
+    private static String randomId(int bytes) {
+        byte[] id = new byte[bytes];
+        RANDOM.nextBytes(id);
+        return ChecksumUtil.toHex(id);
+    }
+}
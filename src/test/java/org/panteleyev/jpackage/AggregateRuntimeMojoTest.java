@@ -0,0 +1,51 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.panteleyev.jpackage.AggregateRuntimeMojo.mergeJLinkOptions;
+import static org.panteleyev.jpackage.AggregateRuntimeMojo.parseJLinkOptions;
+import static org.panteleyev.jpackage.AggregateRuntimeMojo.toArguments;
+
+public class AggregateRuntimeMojoTest {
+    @Test
+    public void testParseJLinkOptions() {
+        Map<String, List<String>> options = parseJLinkOptions(Arrays.asList(
+                "--strip-debug", "--compress 2", "--disable-plugin x --disable-plugin y", "--order-resources=@order"));
+
+        assertEquals(Arrays.asList("--strip-debug", "--compress", "--disable-plugin", "--order-resources"),
+                Arrays.asList(options.keySet().toArray()));
+        assertEquals(Collections.emptyList(), options.get("--strip-debug"));
+        assertEquals(Collections.singletonList("2"), options.get("--compress"));
+        assertEquals(Arrays.asList("x", "y"), options.get("--disable-plugin"));
+        assertEquals(Arrays.asList("--strip-debug", "--compress", "2", "--disable-plugin", "x", "--disable-plugin",
+                "y", "--order-resources", "@order"), toArguments(options));
+    }
+
+    @Test
+    public void testMergeJLinkOptions() throws MojoFailureException {
+        Map<String, List<String>> merged = new LinkedHashMap<>();
+        Map<String, String> owners = new HashMap<>();
+        mergeJLinkOptions(merged, owners, "first", parseJLinkOptions(Arrays.asList("--strip-debug", "--compress 2")));
+        mergeJLinkOptions(merged, owners, "second",
+                parseJLinkOptions(Arrays.asList("--compress=2", "--no-man-pages")));
+
+        assertEquals(Arrays.asList("--strip-debug", "--compress", "2", "--no-man-pages"), toArguments(merged));
+
+        Map<String, List<String>> conflicting = parseJLinkOptions(Collections.singletonList("--compress 1"));
+        MojoFailureException ex = assertThrows(MojoFailureException.class, () ->
+                mergeJLinkOptions(merged, owners, "third", conflicting));
+        assertEquals("Projects first and third define different values of --compress: 2, 1", ex.getMessage());
+    }
+}
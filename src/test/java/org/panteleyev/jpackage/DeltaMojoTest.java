@@ -0,0 +1,92 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.panteleyev.jpackage.util.DeltaPackage;
+import org.panteleyev.jpackage.util.TarArchive;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.panteleyev.jpackage.StubJdk.setParameter;
+
+public class DeltaMojoTest {
+    @TempDir
+    Path root;
+
+    private static Path createImage(Path directory, String version) throws Exception {
+        Path image = Files.createDirectories(directory.resolve("MyApp"));
+        Path app = Files.createDirectories(image.resolve("lib/app/a-directory-name-long-enough-to-make-the-path-exceed"
+                + "-one-hundred-characters"));
+        Files.write(app.resolve("app.jar"), ("app " + version).getBytes());
+        Files.write(app.resolve("library.jar"), "library".getBytes());
+        Files.write(image.resolve("lib/runtime"), "runtime".getBytes());
+        Files.createLink(image.resolve("lib/runtime-link"), image.resolve("lib/runtime"));
+        return image;
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testPreviousImageArchive() throws Exception {
+        createImage(root.resolve("v1"), "1");
+        Path archive = root.resolve("v1.tar.gz");
+        Process process = new ProcessBuilder("tar", "-czf", archive.toString(), "MyApp")
+                .directory(root.resolve("v1").toFile()).inheritIO().start();
+        assertEquals(0, process.waitFor());
+
+        Path image = createImage(root.resolve("v2"), "2");
+        File delta = root.resolve("delta.tar.gz").toFile();
+
+        DeltaMojo mojo = new DeltaMojo();
+        setParameter(mojo, "appImage", image.toFile());
+        setParameter(mojo, "previousAppImage", archive.toFile());
+        setParameter(mojo, "deltaFile", delta);
+        setParameter(mojo, "diffThreshold", Long.MAX_VALUE);
+        setParameter(mojo, "verifyDelta", true);
+        mojo.execute();
+
+        List<String> files = new ArrayList<>();
+        try (TarArchive.Reader reader = new TarArchive.Reader(new GZIPInputStream(
+                new BufferedInputStream(Files.newInputStream(delta.toPath())))))
+        {
+            TarArchive.Entry entry;
+            while ((entry = reader.next()) != null) {
+                if (entry.getName().startsWith("files/")) {
+                    files.add(entry.getName());
+                }
+            }
+        }
+        // Only the changed file, top-level directory of the archive is not a part of the image
+        assertEquals(Arrays.asList("files/lib/app/a-directory-name-long-enough-to-make-the-path-exceed"
+                + "-one-hundred-characters/app.jar"), files);
+
+        Path previous = root.resolve("previous");
+        DeltaPackage.extract(archive, previous);
+        DeltaPackage.apply(previous.resolve("MyApp"), delta.toPath());
+        assertArrayEquals("app 2".getBytes(), Files.readAllBytes(previous.resolve("MyApp/lib/app/a-directory-name"
+                + "-long-enough-to-make-the-path-exceed-one-hundred-characters/app.jar")));
+    }
+
+    @Test
+    public void testImageRoot() throws Exception {
+        Path image = Files.createDirectories(root.resolve("image/lib"));
+        Path extracted = Files.createDirectories(root.resolve("extracted/MyApp/lib"));
+        assertEquals(extracted.getParent(), DeltaMojo.imageRoot(root.resolve("extracted"), image.getParent()));
+
+        // Image with a single directory at its root
+        Path single = Files.createDirectories(root.resolve("single/lib"));
+        assertEquals(single.getParent(), DeltaMojo.imageRoot(single.getParent(), image.getParent()));
+    }
+}
@@ -20,10 +20,21 @@ public class JLinkTest {
                 argumentSet("Several", new JLink(true, false, true, false, false, false),
                         "--bind-services --no-man-pages"),
                 argumentSet("All", new JLink(true, true, true, true, true, true),
-                        "--bind-services --no-header-files --no-man-pages --strip-debug --strip-native-commands --generate-cds-archive")
+                        "--bind-services --no-header-files --no-man-pages --strip-debug --strip-native-commands --generate-cds-archive"),
+                argumentSet("Training", training("@order.txt", "@jli.txt"),
+                        "--strip-debug --order-resources=@order.txt --generate-jli-classes=@jli.txt"),
+                argumentSet("Order only", training("/java.base/*", null),
+                        "--strip-debug --order-resources=/java.base/*")
         );
     }
 
+    private static JLink training(String orderResources, String generateJliClasses) {
+        JLink jLink = new JLink(false, false, false, true, false, false);
+        jLink.setOrderResources(orderResources);
+        jLink.setGenerateJliClasses(generateJliClasses);
+        return jLink;
+    }
+
     @ParameterizedTest
     @MethodSource("arguments")
     public void test(JLink jLink, String expected) {
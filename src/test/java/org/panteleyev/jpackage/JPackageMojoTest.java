@@ -0,0 +1,813 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugin.descriptor.MojoDescriptor;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.panteleyev.jpackage.util.AppImage;
+import org.panteleyev.jpackage.util.ChecksumUtil;
+import org.panteleyev.jpackage.util.DeltaPackage;
+import org.panteleyev.jpackage.util.NativeLibraries;
+import org.panteleyev.jpackage.util.OciLayout;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.panteleyev.jpackage.StubJdk.setParameter;
+
+@DisabledOnOs(OS.WINDOWS)
+public class JPackageMojoTest {
+    private static final String NAME = "Application";
+    private static final long MAX_OVERHEAD_MILLIS = 1000;
+
+    @TempDir
+    Path root;
+
+    private void configure(JPackageMojo mojo) {
+        setParameter(mojo, "project", new MavenProject());
+        setParameter(mojo, "projectBuildDirectory", root.toString());
+        setParameter(mojo, "name", NAME);
+        setParameter(mojo, "appVersion", "1.0");
+        setParameter(mojo, "destination", root.resolve("dist").toFile());
+    }
+
+    private JPackageMojo newMojo(StubJdk jdk) {
+        JPackageMojo mojo = new JPackageMojo(jdk.getToolchainManager());
+        configure(mojo);
+        return mojo;
+    }
+
+    private Path createInput(String... jars) throws Exception {
+        Path input = Files.createDirectories(root.resolve("input"));
+        for (String jar : jars) {
+            Files.write(input.resolve(jar), jar.getBytes(UTF_8));
+        }
+        return input;
+    }
+
+    @Test
+    public void testArguments() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar");
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "javaOptions", Arrays.asList("-Xmx100m", "-Dname=with space"));
+        mojo.execute();
+
+        List<String> arguments = jdk.getLastInvocation();
+        assertEquals(Arrays.asList("--name", NAME), arguments.subList(0, 2));
+        assertTrue(String.join(" ", arguments).contains("--type app-image"));
+        assertTrue(String.join(" ", arguments).contains("--input " + input.toAbsolutePath()));
+        assertTrue(arguments.contains("-Xmx100m"));
+        assertTrue(arguments.contains("\"-Dname=with space\""));
+        assertTrue(Files.isRegularFile(root.resolve("dist/Application/lib/app/Application.cfg")));
+    }
+
+    @Test
+    public void testInputFilter() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "main-sources.jar", "main-tests.jar");
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "inputExcludes", Arrays.asList("*-sources.jar", "*-tests.jar"));
+        mojo.execute();
+
+        Path staging = root.resolve("jpackage-input");
+        assertTrue(String.join(" ", jdk.getLastInvocation()).contains("--input " + staging.toAbsolutePath()));
+        try (Stream<Path> files = Files.list(staging)) {
+            assertEquals(Collections.singletonList(staging.resolve("main.jar")), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testServiceUnit() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path resourceDir = Files.createDirectories(root.resolve("resources"));
+        Files.write(resourceDir.resolve("postinst"), "#!/bin/sh".getBytes(UTF_8));
+        Files.write(resourceDir.resolve("application-Application.service"), String.join("\n",
+                "[Unit]",
+                "Description=Custom",
+                "",
+                "[Service]",
+                "ExecStart=APPLICATION_LAUNCHER",
+                "Nice=10",
+                "",
+                "[Install]",
+                "WantedBy=multi-user.target").getBytes(UTF_8));
+
+        ServiceUnit unit = new ServiceUnit();
+        unit.setMemoryMax("1G");
+        unit.setNice(5);
+        unit.setIoSchedulingClass("idle");
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.DEB);
+        setParameter(mojo, "resourceDir", resourceDir.toFile());
+        setParameter(mojo, "launcherAsService", true);
+        setParameter(mojo, "serviceUnit", unit);
+        mojo.execute();
+
+        Path staging = root.resolve(ServiceUnitResources.STAGING_DIRECTORY);
+        assertTrue(String.join(" ", jdk.getLastInvocation()).contains("--resource-dir " + staging.toAbsolutePath()));
+        assertTrue(Files.isRegularFile(staging.resolve("postinst")));
+        assertEquals(Arrays.asList(
+                "[Unit]",
+                "Description=Custom",
+                "",
+                "[Service]",
+                "ExecStart=APPLICATION_LAUNCHER",
+                "Nice=5",
+                "MemoryMax=1G",
+                "IOSchedulingClass=idle",
+                "",
+                "[Install]",
+                "WantedBy=multi-user.target"
+        ), Files.readAllLines(staging.resolve("application-Application.service"), UTF_8));
+
+        unit.setNice(20);
+        assertThrows(MojoFailureException.class, mojo::execute);
+    }
+
+    @Test
+    public void testRemoteCache() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar");
+
+        try (StubHttpStore store = new StubHttpStore()) {
+            RemoteCache remoteCache = new RemoteCache();
+            remoteCache.setUrl(store.getUrl());
+
+            JPackageMojo mojo = newMojo(jdk);
+            setParameter(mojo, "type", ImageType.DEB);
+            setParameter(mojo, "input", input.toFile());
+            setParameter(mojo, "mainJar", "main.jar");
+            setParameter(mojo, "removeDestination", true);
+            setParameter(mojo, "remoteCache", remoteCache);
+
+            // Miss, outputs are uploaded
+            mojo.execute();
+            assertEquals(1, jdk.getInvocations().size());
+            assertEquals(2, store.getPuts());
+
+            // Hit, outputs are restored
+            mojo.execute();
+            assertEquals(1, jdk.getInvocations().size());
+            assertEquals(1024, Files.size(root.resolve("dist/Application_1.0.deb")));
+
+            // Changed input in read-only mode
+            Files.write(input.resolve("main.jar"), "changed".getBytes(UTF_8));
+            setParameter(mojo, "remoteCacheReadOnly", true);
+            mojo.execute();
+            assertEquals(2, jdk.getInvocations().size());
+            assertEquals(2, store.getPuts());
+        }
+    }
+
+    @Test
+    public void testManifest() throws Exception {
+        StubJdk jdk = new StubJdk(root).packageSize(100_000).install();
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.DEB);
+        setParameter(mojo, "generateManifest", true);
+        mojo.execute();
+
+        Path dist = root.resolve("dist");
+        assertEquals(100_000, Files.size(dist.resolve("Application_1.0.deb")));
+        assertTrue(Files.isRegularFile(dist.resolve(JPackageMojo.MANIFEST_FILE_NAME)));
+        // Checksum file repeats the manifest entry
+        String sha256 = ChecksumUtil.sha256(dist.resolve("Application_1.0.deb"));
+        assertEquals(sha256 + "  Application_1.0.deb",
+                Files.readAllLines(dist.resolve("Application_1.0.deb.sha256"), UTF_8).get(0));
+        assertTrue(Files.readAllLines(dist.resolve(JPackageMojo.MANIFEST_FILE_NAME), UTF_8).stream()
+                .anyMatch(line -> line.startsWith("Application_1.0.deb") && line.endsWith(sha256)));
+    }
+
+    @Test
+    public void testFailure() {
+        StubJdk jdk = new StubJdk(root).exitCode(2).outputLines(10).install();
+        assertThrows(MojoExecutionException.class, () -> newMojo(jdk).execute());
+    }
+
+    @Test
+    public void testRemoveDestination() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        mojo.execute();
+        // Image already exists
+        assertThrows(MojoExecutionException.class, mojo::execute);
+
+        setParameter(mojo, "removeDestination", true);
+        mojo.execute();
+        assertEquals(3, jdk.getInvocations().size());
+    }
+
+    @Test
+    public void testConcurrentExecutions() throws Exception {
+        // Modules of a parallel build have their own build directories and may share destination
+        int modules = 8;
+        StubJdk jdk = new StubJdk(root).latency(100).outputLines(100).install();
+        Path dist = root.resolve("dist");
+
+        List<Callable<Void>> executions = new ArrayList<>();
+        for (int i = 0; i < modules; i++) {
+            Path buildDirectory = root.resolve("module" + i);
+            Path input = Files.createDirectories(buildDirectory.resolve("input"));
+            Files.write(input.resolve("main.jar"), "main".getBytes(UTF_8));
+            Files.write(input.resolve("main-sources.jar"), "sources".getBytes(UTF_8));
+
+            JPackageMojo mojo = newMojo(jdk);
+            setParameter(mojo, "projectBuildDirectory", buildDirectory.toString());
+            setParameter(mojo, "name", NAME + i);
+            setParameter(mojo, "type", ImageType.DEB);
+            setParameter(mojo, "input", input.toFile());
+            setParameter(mojo, "mainJar", "main.jar");
+            setParameter(mojo, "inputExcludes", Collections.singletonList("*-sources.jar"));
+            executions.add(() -> {
+                mojo.execute();
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(modules);
+        try {
+            for (Future<Void> future : executor.invokeAll(executions)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(modules, jdk.getInvocations().size());
+        for (int i = 0; i < modules; i++) {
+            assertTrue(Files.isRegularFile(dist.resolve(NAME + i + "_1.0.deb")));
+            Path staging = root.resolve("module" + i).resolve("jpackage-input");
+            try (Stream<Path> files = Files.list(staging)) {
+                assertEquals(Collections.singletonList(staging.resolve("main.jar")),
+                        files.collect(Collectors.toList()));
+            }
+        }
+    }
+
+    @Test
+    public void testExecutionWorkDirectory() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "main-sources.jar");
+
+        JPackageMojo mojo = newMojo(jdk);
+        assertEquals(root.resolve("jpackage-input").toFile(), mojo.getWorkDirectory("jpackage-input"));
+        setParameter(mojo, "mojoExecution", new MojoExecution(new MojoDescriptor(), "default-cli"));
+        assertEquals(root.resolve("jpackage-input").toFile(), mojo.getWorkDirectory("jpackage-input"));
+
+        // Executions with explicit ids do not share staging directories
+        setParameter(mojo, "mojoExecution", new MojoExecution(new MojoDescriptor(), "linux"));
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "inputExcludes", Collections.singletonList("*-sources.jar"));
+        mojo.execute();
+
+        Path staging = root.resolve("jpackage-input-linux");
+        assertTrue(String.join(" ", jdk.getLastInvocation()).contains("--input " + staging.toAbsolutePath()));
+        assertTrue(Files.isRegularFile(staging.resolve("main.jar")));
+        assertFalse(Files.exists(root.resolve("jpackage-input")));
+    }
+
+    @Test
+    public void testUpdateImage() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "lib.jar");
+
+        JPackageMojo build = newMojo(jdk);
+        setParameter(build, "type", ImageType.APP_IMAGE);
+        build.execute();
+
+        UpdateImageMojo update = new UpdateImageMojo(jdk.getToolchainManager());
+        configure(update);
+        setParameter(update, "destination", root.resolve("installer").toFile());
+        setParameter(update, "appImage", root.resolve("dist/Application").toFile());
+        setParameter(update, "input", input.toFile());
+        setParameter(update, "inputExcludes", Collections.singletonList("*-sources.jar"));
+        setParameter(update, "javaOptions", Arrays.asList("-Xmx100m"));
+        setParameter(update, "type", ImageType.DEB);
+        Files.write(input.resolve("lib-sources.jar"), "sources".getBytes(UTF_8));
+        update.execute();
+
+        Path app = root.resolve("dist/Application/lib/app");
+        assertTrue(Files.isRegularFile(app.resolve("lib.jar")));
+        assertFalse(Files.exists(app.resolve("lib-sources.jar")));
+        assertTrue(new String(Files.readAllBytes(app.resolve("Application.cfg")), UTF_8)
+                .contains("app.classpath=$APPDIR" + File.separator + "lib.jar"));
+
+        List<String> arguments = jdk.getLastInvocation();
+        assertTrue(arguments.contains("--app-image"));
+        assertFalse(arguments.contains("--input"));
+        assertFalse(arguments.contains("--java-options"));
+        assertTrue(Files.isRegularFile(root.resolve("installer/Application_1.0.deb")));
+    }
+
+    @Test
+    public void testWatchLauncherOptions() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        JPackageMojo build = newMojo(jdk);
+        setParameter(build, "type", ImageType.APP_IMAGE);
+        build.execute();
+
+        Path app = root.resolve("dist/Application/lib/app");
+        Files.copy(app.resolve("Application.cfg"), app.resolve("Inherited.cfg"));
+        Files.copy(app.resolve("Application.cfg"), app.resolve("Own.cfg"));
+        Launcher inherited = new Launcher();
+        inherited.setName("Inherited");
+        inherited.setFile(Files.write(root.resolve("inherited.properties"), "main-class=Main\n".getBytes(UTF_8))
+                .toFile());
+        Launcher own = new Launcher();
+        own.setName("Own");
+        own.setFile(Files.write(root.resolve("own.properties"), "java-options=-Xmx1g\narguments=own\n"
+                .getBytes(UTF_8)).toFile());
+
+        WatchMojo watch = new WatchMojo(jdk.getToolchainManager(), null, null);
+        configure(watch);
+        setParameter(watch, "launchers", Arrays.asList(inherited, own));
+        setParameter(watch, "javaOptions", Collections.singletonList("-Xmx300m"));
+        setParameter(watch, "arguments", Collections.singletonList("--watch"));
+        AppImage image = AppImage.of(root.resolve("dist"), NAME);
+        watch.setJavaOptions(image);
+        watch.setArguments(image);
+
+        // Launchers that define the option in their properties keep it
+        for (String launcher : Arrays.asList("Application", "Inherited", "Own")) {
+            String config = new String(Files.readAllBytes(app.resolve(launcher + ".cfg")), UTF_8);
+            assertEquals(!launcher.equals("Own"), config.contains("java-options=-Xmx300m"), launcher);
+            assertEquals(!launcher.equals("Own"), config.contains("arguments=--watch"), launcher);
+        }
+    }
+
+    @Test
+    public void testTrainingRun() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("lib.jar");
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(input.resolve("main.jar")))) {
+            jar.putNextEntry(new JarEntry("META-INF/"));
+        }
+
+        TrainingRun trainingRun = new TrainingRun();
+        trainingRun.setArguments(Arrays.asList("--exit"));
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "mainClass", "org.example.Main");
+        setParameter(mojo, "javaOptions", Arrays.asList("-Dhome=$APPDIR"));
+        setParameter(mojo, "trainingRun", trainingRun);
+        mojo.execute();
+
+        Path training = root.resolve("jpackage-training");
+        assertEquals(Arrays.asList(
+                "-Xshare:off",
+                "-Xlog:class+load=info:file=" + TrainingRunner.CLASS_LOAD_LOG,
+                "-Djava.lang.invoke.MethodHandle.TRACE_RESOLVE=true",
+                "-Dhome=" + input.toAbsolutePath(),
+                "-cp",
+                input.resolve("main.jar").toAbsolutePath() + File.pathSeparator
+                        + input.resolve("lib.jar").toAbsolutePath(),
+                "org.example.Main",
+                "--exit"
+        ), Files.readAllLines(training.resolve("java.args"), UTF_8));
+        assertEquals(Arrays.asList("/java.base/java/lang/Object.class", "/java.logging/java/util/logging/Logger.class"),
+                Files.readAllLines(training.resolve(TrainingRunner.ORDER_RESOURCES_FILE), UTF_8));
+        assertEquals(1, Files.readAllLines(training.resolve(TrainingRunner.JLI_CLASSES_FILE), UTF_8).size());
+
+        List<String> arguments = jdk.getLastInvocation();
+        String jLinkOptions = arguments.get(arguments.indexOf("--jlink-options") + 1);
+        assertTrue(jLinkOptions.startsWith(String.join(" ", JPackageMojo.DEFAULT_JLINK_OPTIONS)));
+        assertTrue(jLinkOptions.contains(
+                "--order-resources=@" + training.resolve(TrainingRunner.ORDER_RESOURCES_FILE)));
+        assertTrue(jLinkOptions.contains(
+                "--generate-jli-classes=@" + training.resolve(TrainingRunner.JLI_CLASSES_FILE)));
+    }
+
+    @Test
+    public void testOrderClasspath() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "a.jar", "b.jar", "unused.jar");
+
+        TrainingRun trainingRun = new TrainingRun();
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "mainClass", "org.example.Main");
+        setParameter(mojo, "trainingRun", trainingRun);
+        setParameter(mojo, "orderClasspath", true);
+        mojo.execute();
+
+        // Stub loads classes from classpath jars in reverse order
+        assertEquals(Arrays.asList("b.jar", "a.jar", "main.jar"), Files.readAllLines(
+                root.resolve("jpackage-training").resolve(TrainingRunner.CLASSPATH_ORDER_FILE), UTF_8));
+        List<String> classpath = Files.readAllLines(root.resolve("dist/Application/lib/app/Application.cfg"), UTF_8)
+                .stream()
+                .filter(line -> line.startsWith("app.classpath="))
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList(
+                "app.classpath=$APPDIR" + File.separator + "b.jar",
+                "app.classpath=$APPDIR" + File.separator + "a.jar",
+                "app.classpath=$APPDIR" + File.separator + "main.jar",
+                "app.classpath=$APPDIR" + File.separator + "unused.jar"
+        ), classpath);
+    }
+
+    @Test
+    public void testJarMerge() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput();
+        for (String name : Arrays.asList("main", "a", "b", "plugin")) {
+            try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(input.resolve(name + ".jar")))) {
+                jar.putNextEntry(new JarEntry(name + "/Class.class"));
+            }
+        }
+
+        JarMerge jarMerge = new JarMerge();
+        jarMerge.setExcludes(Collections.singletonList("plugin*.jar"));
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "jarMerge", jarMerge);
+        mojo.execute();
+
+        Path staging = root.resolve("jpackage-input");
+        assertTrue(String.join(" ", jdk.getLastInvocation()).contains("--input " + staging.toAbsolutePath()));
+        try (Stream<Path> files = Files.list(staging)) {
+            assertEquals(Arrays.asList("main.jar", "merged-1.jar", "plugin.jar"), files
+                    .map(path -> path.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        // Original input is not modified
+        assertTrue(Files.isRegularFile(input.resolve("a.jar")));
+        assertTrue(new String(Files.readAllBytes(root.resolve("dist/Application/lib/app/Application.cfg")), UTF_8)
+                .contains("app.classpath=$APPDIR/merged-1.jar"));
+        List<String> report = Files.readAllLines(root.resolve("jpackage-merge/report.txt"), UTF_8);
+        assertTrue(report.get(0).startsWith("Merged 2 jars into 1: classpath jars 4 -> 3"), report.get(0));
+    }
+
+    @Test
+    public void testJarMergeStagedInput() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput();
+        for (String name : Arrays.asList("main", "a", "b", "a-sources")) {
+            try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(input.resolve(name + ".jar")))) {
+                jar.putNextEntry(new JarEntry(name + "/Class.class"));
+            }
+        }
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "inputExcludes", Collections.singletonList("*-sources.jar"));
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "jarMerge", new JarMerge());
+        mojo.execute();
+
+        try (Stream<Path> files = Files.list(root.resolve("jpackage-input"))) {
+            assertEquals(Arrays.asList("main.jar", "merged-1.jar"), files
+                    .map(path -> path.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        List<String> report = Files.readAllLines(root.resolve("jpackage-merge/report.txt"), UTF_8);
+        assertTrue(report.get(0).startsWith("Merged 2 jars into 1: classpath jars 3 -> 2"), report.get(0));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testExtractNativeLibraries() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput();
+        String arch = NativeLibraries.getCurrentArch();
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(input.resolve("main.jar")))) {
+            jar.putNextEntry(new JarEntry("org/example/Main.class"));
+        }
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(input.resolve("jna.jar")))) {
+            jar.putNextEntry(new JarEntry("com/sun/jna/linux-" + arch + "/libjnidispatch.so"));
+            jar.putNextEntry(new JarEntry("com/sun/jna/win32-" + arch + "/jnidispatch.dll"));
+        }
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "extractNativeLibraries", true);
+        mojo.execute();
+
+        Path staging = root.resolve("jpackage-input");
+        assertTrue(Files.isRegularFile(staging.resolve("native/libjnidispatch.so")));
+        assertTrue(Files.isRegularFile(staging.resolve("jna.jar")));
+        assertFalse(Files.exists(input.resolve("native")));
+        List<String> arguments = jdk.getLastInvocation();
+        assertTrue(String.join(" ", arguments).contains("--input " + staging.toAbsolutePath()));
+        assertTrue(arguments.contains("-Djava.library.path=$APPDIR/native"));
+        assertTrue(arguments.contains("-Djna.nounpack=true"));
+
+        // Update keeps extracted libraries in the image
+        UpdateImageMojo update = new UpdateImageMojo(jdk.getToolchainManager());
+        configure(update);
+        setParameter(update, "appImage", root.resolve("dist/Application").toFile());
+        setParameter(update, "input", input.toFile());
+        setParameter(update, "extractNativeLibraries", true);
+        update.execute();
+
+        Path app = root.resolve("dist/Application/lib/app");
+        assertTrue(Files.isRegularFile(app.resolve("native/libjnidispatch.so")));
+        assertTrue(Files.isRegularFile(app.resolve("jna.jar")));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testLayers() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "app-plugin.jar", "library.jar", "config.txt");
+        Layers layers = new Layers();
+        layers.setApplicationJars(Collections.singletonList("app-*.jar"));
+
+        List<String> dependencyArchives = new ArrayList<>();
+        for (String version : Arrays.asList("1.0", "2.0")) {
+            Files.write(input.resolve("main.jar"), version.getBytes(UTF_8));
+            JPackageMojo mojo = newMojo(jdk);
+            setParameter(mojo, "type", ImageType.APP_IMAGE);
+            setParameter(mojo, "input", input.toFile());
+            setParameter(mojo, "mainJar", "main.jar");
+            setParameter(mojo, "appVersion", version);
+            setParameter(mojo, "layers", layers);
+            setParameter(mojo, "removeDestination", true);
+            mojo.execute();
+
+            Path dist = root.resolve("dist");
+            Properties properties = new Properties();
+            try (Reader reader = Files.newBufferedReader(
+                    dist.resolve("Application/lib/app").resolve(JPackageMojo.LAYERS_FILE_NAME), UTF_8))
+            {
+                properties.load(reader);
+            }
+            String dependencies = properties.getProperty("dependencies");
+            dependencyArchives.add(dependencies);
+            assertTrue(Files.isRegularFile(dist.resolve(dependencies)));
+            assertTrue(Files.isRegularFile(dist.resolve("Application-" + version + "-app.tar.gz")));
+
+            Path extracted = root.resolve("extracted-" + version);
+            DeltaPackage.extract(dist.resolve(dependencies), extracted.resolve("dependencies"));
+            DeltaPackage.extract(dist.resolve("Application-" + version + "-app.tar.gz"), extracted.resolve("app"));
+            try (Stream<Path> files = Files.walk(extracted.resolve("app"))) {
+                assertEquals(Arrays.asList("Application.cfg", "app-plugin.jar", "config.txt",
+                        JPackageMojo.LAYERS_FILE_NAME, "main.jar"), files.filter(Files::isRegularFile)
+                        .map(file -> file.getFileName().toString())
+                        .sorted()
+                        .collect(Collectors.toList()));
+            }
+            assertTrue(Files.isRegularFile(extracted.resolve("dependencies/Application/lib/app/library.jar")));
+            assertTrue(Files.isRegularFile(extracted.resolve("dependencies/Application/lib/runtime/release")));
+            assertTrue(Files.isRegularFile(extracted.resolve("dependencies/Application/bin/Application")));
+        }
+
+        // Dependency layer is the same for both versions
+        assertTrue(dependencyArchives.get(0).matches("Application-dependencies-[0-9a-f]{12}\\.tar\\.gz"));
+        assertEquals(dependencyArchives.get(0), dependencyArchives.get(1));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testOciImage() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "library.jar");
+        OciImage ociImage = new OciImage();
+        ociImage.setTag("latest");
+
+        List<List<String>> digests = new ArrayList<>();
+        for (String version : Arrays.asList("1.0", "2.0")) {
+            Files.write(input.resolve("main.jar"), version.getBytes(UTF_8));
+            JPackageMojo mojo = newMojo(jdk);
+            setParameter(mojo, "type", ImageType.APP_IMAGE);
+            setParameter(mojo, "input", input.toFile());
+            setParameter(mojo, "mainJar", "main.jar");
+            setParameter(mojo, "appVersion", version);
+            setParameter(mojo, "ociImage", ociImage);
+            setParameter(mojo, "removeDestination", true);
+            mojo.execute();
+
+            Path layout = root.resolve("jpackage-oci");
+            String index = new String(Files.readAllBytes(layout.resolve(OciLayout.INDEX_FILE)), UTF_8);
+            assertTrue(index.contains("\"org.opencontainers.image.ref.name\":\"latest\""));
+            try (Stream<Path> blobs = Files.list(layout.resolve(OciLayout.BLOBS_DIRECTORY))) {
+                // Config, manifest and three layers
+                assertEquals(5, blobs.count());
+            }
+            String manifest = new String(Files.readAllBytes(layout.resolve(OciLayout.BLOBS_DIRECTORY)
+                    .resolve(index.replaceAll(".*\"digest\":\"sha256:([0-9a-f]+)\".*", "$1"))), UTF_8);
+            digests.add(Stream.of(manifest.split("\"mediaType\":"))
+                    .filter(descriptor -> descriptor.contains("tar+gzip"))
+                    .map(descriptor -> descriptor.replaceAll(".*\"digest\":\"(sha256:[0-9a-f]+)\".*", "$1"))
+                    .collect(Collectors.toList()));
+        }
+
+        // Runtime and dependency layers are reused, application layer changes
+        assertEquals(3, digests.get(0).size());
+        assertEquals(digests.get(0).subList(0, 2), digests.get(1).subList(0, 2));
+        assertFalse(digests.get(0).get(2).equals(digests.get(1).get(2)));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testOciImageRootInstallDirectory() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        OciImage ociImage = new OciImage();
+        ociImage.setInstallDirectory("/");
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", createInput("main.jar").toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "ociImage", ociImage);
+        mojo.execute();
+
+        try (Stream<Path> blobs = Files.list(root.resolve("jpackage-oci").resolve(OciLayout.BLOBS_DIRECTORY))) {
+            assertTrue(blobs.anyMatch(blob -> {
+                try {
+                    return new String(Files.readAllBytes(blob), UTF_8)
+                            .contains("\"Entrypoint\":[\"/Application/bin/Application\"]");
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+        }
+    }
+
+    @Test
+    public void testToolchainMatrix() throws Exception {
+        StubJdk jdk = new StubJdk(root).latency(200).install();
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "temp", root.resolve("temp").toFile());
+        setParameter(mojo, "toolchains", Arrays.asList(
+                new ToolchainRequirement(null, StubJdk.VERSION, "temurin"),
+                new ToolchainRequirement("any", null, null)));
+        mojo.execute();
+
+        assertEquals(2, jdk.getInvocations().size());
+        for (String id : Arrays.asList(StubJdk.VERSION + "-temurin", "any")) {
+            assertTrue(Files.isRegularFile(root.resolve("dist/" + id + "/Application/lib/app/Application.cfg")));
+            assertTrue(jdk.getInvocations().stream()
+                    .anyMatch(arguments -> arguments.contains(root.resolve("temp/" + id).toString())));
+        }
+
+        setParameter(mojo, "toolchains", Arrays.asList(new ToolchainRequirement(null, "8", null)));
+        assertThrows(MojoFailureException.class, mojo::execute);
+
+        setParameter(mojo, "toolchains", Arrays.asList(
+                new ToolchainRequirement("same", "21", null),
+                new ToolchainRequirement("same", null, null)));
+        assertThrows(MojoFailureException.class, mojo::execute);
+    }
+
+    @Test
+    public void testToolchainMatrixOrderClasspath() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path input = createInput("main.jar", "a.jar", "unused.jar");
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "input", input.toFile());
+        setParameter(mojo, "mainJar", "main.jar");
+        setParameter(mojo, "mainClass", "org.example.Main");
+        setParameter(mojo, "trainingRun", new TrainingRun());
+        setParameter(mojo, "orderClasspath", true);
+        setParameter(mojo, "toolchains", Arrays.asList(
+                new ToolchainRequirement("first", null, null),
+                new ToolchainRequirement("second", null, null)));
+        mojo.execute();
+
+        // Every target is ordered by its own training run
+        for (String id : Arrays.asList("first", "second")) {
+            assertEquals(Arrays.asList("a.jar", "main.jar"), Files.readAllLines(root.resolve("jpackage-training")
+                    .resolve(id).resolve(TrainingRunner.CLASSPATH_ORDER_FILE), UTF_8));
+            Path config = root.resolve("dist/" + id + "/Application/lib/app/Application.cfg");
+            assertTrue(new String(Files.readAllBytes(config), UTF_8).contains(
+                    "app.classpath=$APPDIR" + File.separator + "a.jar\n"
+                            + "app.classpath=$APPDIR" + File.separator + "main.jar"));
+        }
+    }
+
+    @Test
+    public void testToolJvm() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+        Path archives = root.resolve("cds");
+
+        ToolJvm toolJvm = new ToolJvm();
+        toolJvm.setOptions(Arrays.asList("-Xmx256m", "-XX:TieredStopAtLevel=1"));
+        toolJvm.setClassDataSharing(true);
+        toolJvm.setArchiveDirectory(archives.toFile());
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.DEB);
+        setParameter(mojo, "toolJvm", toolJvm);
+        mojo.execute();
+
+        List<String> arguments = jdk.getLastInvocation();
+        assertEquals(Arrays.asList("-J-Xmx256m", "-J-XX:TieredStopAtLevel=1"), arguments.subList(0, 2));
+        assertTrue(arguments.get(2).startsWith("-J-XX:ArchiveClassesAtExit=" + archives));
+        assertEquals(Arrays.asList("--name", NAME), arguments.subList(3, 5));
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(archives)) {
+            files = paths.collect(Collectors.toList());
+        }
+        assertEquals(1, files.size());
+        assertTrue(files.get(0).getFileName().toString().matches("jpackage-[0-9a-f]+\\.jsa"));
+
+        mojo.execute();
+        assertEquals("-J-XX:SharedArchiveFile=" + files.get(0), jdk.getLastInvocation().get(2));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testResourceReport() throws Exception {
+        StubJdk jdk = new StubJdk(root).install();
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.DEB);
+        setParameter(mojo, "resourceReport", true);
+        mojo.execute();
+
+        Properties report = new Properties();
+        Path file = root.resolve("dist").resolve(ResourceAccounting.REPORT_FILE_NAME);
+        try (Reader reader = Files.newBufferedReader(file)) {
+            report.load(reader);
+        }
+        assertEquals("jpackage", report.getProperty("tool"));
+        assertTrue(Long.parseLong(report.getProperty("samples")) > 0);
+    }
+
+    @Test
+    public void testOverhead() throws Exception {
+        int executions = 10;
+        StubJdk jdk = new StubJdk(root).outputLines(1000).install();
+
+        JPackageMojo mojo = newMojo(jdk);
+        setParameter(mojo, "type", ImageType.APP_IMAGE);
+        setParameter(mojo, "removeDestination", true);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < executions; i++) {
+            mojo.execute();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        assertEquals(executions, jdk.getInvocations().size());
+        // Generous bound that catches per-line or per-execution regressions, not slow build machines
+        long average = TimeUnit.NANOSECONDS.toMillis(elapsed / executions);
+        assertTrue(average < MAX_OVERHEAD_MILLIS, "Average execution with stub jpackage: " + average + " ms");
+    }
+}
@@ -0,0 +1,101 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.shared.utils.cli.Commandline;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import org.panteleyev.jpackage.util.HttpCache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutputCacheTest {
+    private static final String KEY = "0123456789abcdef";
+
+    @TempDir
+    Path root;
+
+    private static Commandline commandline(String... arguments) {
+        Commandline commandline = new Commandline();
+        commandline.setExecutable("jpackage");
+        commandline.addArguments(arguments);
+        return commandline;
+    }
+
+    private Path createOutput() throws IOException {
+        Path output = Files.createDirectories(root.resolve("output"));
+        Files.createDirectories(output.resolve("Application/bin"));
+        Files.write(output.resolve("Application/bin/Application"), "launcher".getBytes(UTF_8));
+        Files.write(output.resolve("app.deb"), new byte[100_000]);
+        return output;
+    }
+
+    @Test
+    public void testKey() throws IOException {
+        Path input = Files.createDirectories(root.resolve("input"));
+        Files.write(input.resolve("main.jar"), "v1".getBytes(UTF_8));
+        Map<String, String> placeholders = Collections.singletonMap("/tmp/dest1", "<destination>");
+
+        String key = OutputCache.getKey("/opt/jdk/bin/jpackage",
+                commandline("--input", input.toString(), "--dest", "/tmp/dest1"), placeholders);
+        assertEquals(key, OutputCache.getKey("/opt/jdk/bin/jpackage",
+                commandline("--input", input.toString(), "--dest", "/tmp/dest1"), placeholders));
+
+        // Input is identified by content, not by location
+        Path copy = Files.createDirectories(root.resolve("copy"));
+        Files.write(copy.resolve("main.jar"), "v1".getBytes(UTF_8));
+        assertEquals(key, OutputCache.getKey("/opt/jdk/bin/jpackage",
+                commandline("--input", copy.toString(), "--dest", "/tmp/dest1"), placeholders));
+
+        Files.write(input.resolve("main.jar"), "v2".getBytes(UTF_8));
+        assertNotEquals(key, OutputCache.getKey("/opt/jdk/bin/jpackage",
+                commandline("--input", input.toString(), "--dest", "/tmp/dest1"), placeholders));
+        assertNotEquals(key, OutputCache.getKey("/opt/jdk/bin/jpackage",
+                commandline("--input", copy.toString(), "--dest", "/tmp/dest1", "--verbose"), placeholders));
+    }
+
+    @Test
+    public void testStoreAndRestore() throws IOException {
+        Path output = createOutput();
+        try (StubHttpStore store = new StubHttpStore()) {
+            HttpCache cache = new HttpCache(store.getUrl(), 1000, 1000, 10_000);
+            assertFalse(cache.get(KEY, Files.createDirectories(root.resolve("miss"))));
+
+            cache.put(KEY, output, Arrays.asList("Application", "app.deb"));
+            assertEquals(2, store.getPuts());
+
+            Path restored = Files.createDirectories(root.resolve("restored"));
+            assertTrue(cache.get(KEY, restored));
+            assertEquals("launcher", new String(Files.readAllBytes(restored.resolve("Application/bin/Application")),
+                    UTF_8));
+            assertEquals(100_000, Files.size(restored.resolve("app.deb")));
+
+            // Corrupted entry
+            store.getObjects().get("/cache/" + KEY + ".tar")[600] ^= 1;
+            assertThrows(IOException.class, () -> cache.get(KEY, Files.createDirectories(root.resolve("corrupted"))));
+        }
+    }
+
+    @Test
+    public void testTimeout() throws IOException {
+        try (StubHttpStore store = new StubHttpStore().latency(2000)) {
+            HttpCache cache = new HttpCache(store.getUrl(), 1000, 200, 10_000);
+            long start = System.nanoTime();
+            assertThrows(IOException.class, () -> cache.get(KEY, root));
+            assertTrue(System.nanoTime() - start < 1_500_000_000L);
+        }
+    }
+}
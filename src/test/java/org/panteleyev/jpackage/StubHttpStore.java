@@ -0,0 +1,89 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory HTTP store for remote cache tests. <code>GET</code> returns stored object or 404, <code>PUT</code>
+ * stores request body. Responses can be delayed to test timeouts.
+ */
+final class StubHttpStore implements AutoCloseable {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private volatile long latencyMillis;
+    private volatile int puts;
+
+    StubHttpStore() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/cache/";
+    }
+
+    Map<String, byte[]> getObjects() {
+        return objects;
+    }
+
+    int getPuts() {
+        return puts;
+    }
+
+    StubHttpStore latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        String path = exchange.getRequestURI().getPath();
+        if ("PUT".equals(exchange.getRequestMethod())) {
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int count;
+                while ((count = in.read(buffer)) != -1) {
+                    body.write(buffer, 0, count);
+                }
+                objects.put(path, body.toByteArray());
+            }
+            puts++;
+            exchange.sendResponseHeaders(201, -1);
+        } else {
+            byte[] object = objects.get(path);
+            if (object == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, object.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(object);
+                }
+            }
+        }
+        exchange.close();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
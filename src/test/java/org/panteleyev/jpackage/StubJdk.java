@@ -0,0 +1,250 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.toolchain.Toolchain;
+import org.apache.maven.toolchain.ToolchainManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * JDK home with a stub <code>jpackage</code> shell script for tests that execute mojos end-to-end.
+ *
+ * <p>Stub records received arguments, sleeps for the configured latency, prints the configured number of output
+ * lines and creates either an application image or a package file of the configured size in <code>--dest</code>.
+ * Application image contains a copy of <code>--input</code>. Like the real tool it fails if the application image
+ * already exists.</p>
+ *
+ * <p>Stub <code>jlink</code> creates runtime image with <code>bin/java</code> that writes class loading log of a
+ * training run and prints <code>java.lang.invoke</code> resolution trace. Classes are loaded from classpath jars in
+ * reverse order, jars with <code>unused</code> in the name are skipped.</p>
+ */
+final class StubJdk {
+    static final String VERSION = "21";
+
+    private final Path home;
+    private final Path records;
+
+    private long latencyMillis;
+    private int outputLines;
+    private long packageSize = 1024;
+    private int exitCode;
+
+    StubJdk(Path root) {
+        this.home = root.resolve("jdk");
+        this.records = root.resolve("records");
+    }
+
+    StubJdk latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    StubJdk outputLines(int outputLines) {
+        this.outputLines = outputLines;
+        return this;
+    }
+
+    StubJdk packageSize(long packageSize) {
+        this.packageSize = packageSize;
+        return this;
+    }
+
+    StubJdk exitCode(int exitCode) {
+        this.exitCode = exitCode;
+        return this;
+    }
+
+    StubJdk install() {
+        try {
+            Files.createDirectories(records);
+            writeTool("jpackage", jpackageScript());
+            writeTool("jlink", jlinkScript());
+            return this;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    Path getHome() {
+        return home;
+    }
+
+    void writeTool(String name, String script) throws IOException {
+        Path tool = Files.createDirectories(home.resolve("bin")).resolve(name);
+        Files.write(tool, script.getBytes(UTF_8));
+        Files.setPosixFilePermissions(tool, PosixFilePermissions.fromString("rwxr-xr-x"));
+    }
+
+    // Arguments of all invocations in order of execution
+    List<List<String>> getInvocations() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(records, "*.args")) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+            Collections.sort(files);
+
+            List<List<String>> result = new ArrayList<>();
+            for (Path file : files) {
+                result.add(Files.readAllLines(file, UTF_8));
+            }
+            return result;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    List<String> getLastInvocation() {
+        List<List<String>> invocations = getInvocations();
+        return invocations.isEmpty() ? Collections.emptyList() : invocations.get(invocations.size() - 1);
+    }
+
+    ToolchainManager getToolchainManager() {
+        Toolchain toolchain = new Toolchain() {
+            @Override
+            public String getType() {
+                return "jdk";
+            }
+
+            @Override
+            public String findTool(String tool) {
+                Path executable = home.resolve("bin").resolve(tool);
+                return Files.isExecutable(executable) ? executable.toString() : null;
+            }
+
+            @Override
+            public String toString() {
+                return "JDK[" + home + "]";
+            }
+        };
+
+        return new ToolchainManager() {
+            @Override
+            public Toolchain getToolchainFromBuildContext(String type, MavenSession session) {
+                return toolchain;
+            }
+
+            @Override
+            public List<Toolchain> getToolchains(MavenSession session, String type, Map<String, String> requirements) {
+                String version = requirements.get("version");
+                return version == null || version.equals(VERSION) ?
+                        Collections.singletonList(toolchain) : Collections.emptyList();
+            }
+        };
+    }
+
+    // Sets mojo parameter the same way Maven injects it
+    static void setParameter(Object mojo, String name, Object value) {
+        for (Class<?> type = mojo.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(mojo, value);
+                return;
+            } catch (NoSuchFieldException ex) {
+                // Try superclass
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        throw new IllegalArgumentException("Parameter " + name + " not found");
+    }
+
+    private static String jlinkScript() {
+        return String.join("\n",
+                "#!/bin/sh",
+                "output=",
+                "while [ $# -gt 0 ]; do",
+                "  case \"$1\" in",
+                "    --output) output=\"$2\"; shift ;;",
+                "  esac",
+                "  shift",
+                "done",
+                "mkdir -p \"$output/bin\"",
+                "cat > \"$output/bin/java\" <<'EOF'",
+                "#!/bin/sh",
+                "printf '%s\\n' \"$@\" > java.args",
+                "prev=; cp=",
+                "for arg in \"$@\"; do",
+                "  case \"$arg\" in",
+                "    -Xlog:*file=*) log=\"${arg##*file=}\" ;;",
+                "  esac",
+                "  if [ \"$prev\" = -cp ]; then cp=\"$arg\"; fi",
+                "  prev=\"$arg\"",
+                "done",
+                "echo '[0.006s][info][class,load] java.lang.Object source: jrt:/java.base' > \"$log\"",
+                "echo '[0.020s][info][class,load] org.example.Main source: file:/app/main.jar' >> \"$log\"",
+                "echo '[0.021s][info][class,load] java.util.logging.Logger source: jrt:/java.logging' >> \"$log\"",
+                "jars=; for jar in $(echo \"$cp\" | tr ':' ' '); do jars=\"$jar $jars\"; done",
+                "for jar in $jars; do",
+                "  case \"$jar\" in",
+                "    *unused*) ;;",
+                "    *) echo \"[0.030s][info][class,load] org.example.Class source: file:$jar\" >> \"$log\" ;;",
+                "  esac",
+                "done",
+                "echo 'Application started'",
+                "echo '[LF_RESOLVE] java.lang.invoke.DirectMethodHandle$Holder invokeStatic L_L (success)'",
+                "EOF",
+                "chmod +x \"$output/bin/java\"",
+                "");
+    }
+
+    private String jpackageScript() {
+        return String.join("\n",
+                "#!/bin/sh",
+                "record=\"" + records + "/$(date +%s%N)-$$\"",
+                "for arg in \"$@\"; do printf '%s\\n' \"$arg\"; done > \"$record.tmp\"",
+                "mv \"$record.tmp\" \"$record.args\"",
+                "type=app-image; name=; dest=; input=; version=1.0",
+                "while [ $# -gt 0 ]; do",
+                "  case \"$1\" in",
+                "    --type) type=\"$2\"; shift ;;",
+                "    --name) name=\"$2\"; shift ;;",
+                "    --dest) dest=\"$2\"; shift ;;",
+                "    --input) input=\"$2\"; shift ;;",
+                "    --app-version) version=\"$2\"; shift ;;",
+                "    -J-XX:ArchiveClassesAtExit=*) echo archive > \"${1#-J-XX:ArchiveClassesAtExit=}\" ;;",
+                "  esac",
+                "  shift",
+                "done",
+                "sleep " + String.format("%d.%03d", latencyMillis / 1000, latencyMillis % 1000),
+                "i=0",
+                "while [ $i -lt " + outputLines + " ]; do echo \"stub jpackage output line $i\"; i=$((i+1)); done",
+                "if [ " + exitCode + " -ne 0 ]; then echo \"Error: stub failure\" >&2; exit " + exitCode + "; fi",
+                "mkdir -p \"$dest\"",
+                "if [ \"$type\" = app-image ]; then",
+                "  if [ -e \"$dest/$name\" ]; then echo \"Error: $dest/$name already exists\" >&2; exit 1; fi",
+                "  mkdir -p \"$dest/$name/bin\" \"$dest/$name/lib/app\" \"$dest/$name/lib/runtime\"",
+                "  printf '#!/bin/sh\\n' > \"$dest/$name/bin/$name\"",
+                "  echo \"JAVA_VERSION=stub\" > \"$dest/$name/lib/runtime/release\"",
+                "  if [ -n \"$input\" ]; then cp -R \"$input\"/. \"$dest/$name/lib/app/\"; fi",
+                "  cfg=\"$dest/$name/lib/app/$name.cfg\"",
+                "  echo '[Application]' > \"$cfg\"",
+                "  if [ -n \"$input\" ]; then",
+                "    for jar in $(ls \"$input\" | grep '\\.jar$'); do",
+                "      echo \"app.classpath=\\$APPDIR/$jar\" >> \"$cfg\"",
+                "    done",
+                "  else",
+                "    echo \"app.classpath=\\$APPDIR/$name.jar\" >> \"$cfg\"",
+                "  fi",
+                "  printf '\\n[JavaOptions]\\njava-options=-Djpackage.app-version=%s\\n' \"$version\" >> \"$cfg\"",
+                "else",
+                "  head -c " + packageSize + " /dev/zero > \"$dest/${name}_$version.$type\"",
+                "fi",
+                "");
+    }
+}
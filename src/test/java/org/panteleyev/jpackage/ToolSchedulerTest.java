@@ -0,0 +1,95 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ToolSchedulerTest {
+    private static final int TASKS = 8;
+
+    @TempDir
+    Path root;
+
+    private static int run(List<ToolScheduler> schedulers) throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(TASKS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < TASKS; i++) {
+                ToolScheduler scheduler = schedulers.get(i % schedulers.size());
+                futures.add(executor.submit(() -> {
+                    try (ToolScheduler.Permit ignored = scheduler.acquire("tool")) {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        Thread.sleep(20);
+                        running.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return maxRunning.get();
+    }
+
+    @Test
+    public void testLimit() throws Exception {
+        List<ToolScheduler> schedulers = new ArrayList<>();
+        schedulers.add(new ToolScheduler(2, null));
+        assertTrue(run(schedulers) <= 2);
+    }
+
+    @Test
+    public void testLockDirectory() throws Exception {
+        // Schedulers sharing lock directory behave like separate processes
+        List<ToolScheduler> schedulers = new ArrayList<>();
+        schedulers.add(new ToolScheduler(1, root.toFile()));
+        schedulers.add(new ToolScheduler(1, root.toFile()));
+        assertEquals(1, run(schedulers));
+    }
+
+    @Test
+    public void testDefaultLimit() {
+        assertTrue(ToolScheduler.getDefaultLimit() >= 1);
+    }
+
+    private static MavenSession newSession() {
+        return new MavenSession(null, new DefaultRepositorySystemSession(), new DefaultMavenExecutionRequest(),
+                new DefaultMavenExecutionResult());
+    }
+
+    @Test
+    public void testSessionScope() {
+        MavenSession session = newSession();
+        ToolScheduler scheduler = ToolScheduler.getShared(session, 3, null);
+        assertEquals(3, scheduler.getLimit());
+        // Cloned sessions of parallel project builds share the scheduler, parameters of the first call win
+        assertSame(scheduler, ToolScheduler.getShared(session.clone(), 1, root.toFile()));
+
+        assertNotSame(scheduler, ToolScheduler.getShared(newSession(), 3, null));
+        assertNotSame(scheduler, ToolScheduler.getShared(null, 3, null));
+    }
+}
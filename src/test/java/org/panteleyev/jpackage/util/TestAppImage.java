@@ -0,0 +1,161 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.panteleyev.jpackage.util.LauncherConfig.APPLICATION;
+import static org.panteleyev.jpackage.util.LauncherConfig.ARGUMENT;
+import static org.panteleyev.jpackage.util.LauncherConfig.ARG_OPTIONS;
+import static org.panteleyev.jpackage.util.LauncherConfig.CLASSPATH;
+import static org.panteleyev.jpackage.util.LauncherConfig.JAVA_OPTION;
+import static org.panteleyev.jpackage.util.LauncherConfig.JAVA_OPTIONS;
+
+public class TestAppImage {
+    private static final String SEP = File.separator;
+
+    private static final String CONFIG = String.join("\n",
+            "[Application]",
+            "app.mainjar=$APPDIR" + SEP + "main.jar",
+            "app.classpath=$APPDIR" + SEP + "main.jar",
+            "app.mainclass=org.example.Main",
+            "app.classpath=$APPDIR" + SEP + "a.jar",
+            "app.classpath=$APPDIR" + SEP + "old.jar",
+            "",
+            "[JavaOptions]",
+            "java-options=-Djpackage.app-version=1.0",
+            "java-options=-Xmx100m",
+            "") + "\n";
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testLauncherConfig() {
+        LauncherConfig config = LauncherConfig.parse(CONFIG);
+        assertEquals(Arrays.asList("-Djpackage.app-version=1.0", "-Xmx100m"),
+                config.getValues(JAVA_OPTIONS, JAVA_OPTION));
+        assertFalse(config.setValues(JAVA_OPTIONS, JAVA_OPTION,
+                Arrays.asList("-Djpackage.app-version=1.0", "-Xmx100m")));
+
+        assertTrue(config.setValues(ARG_OPTIONS, ARGUMENT, Arrays.asList("--help", "--verbose")));
+        assertEquals(Arrays.asList("--help", "--verbose"), config.getValues(ARG_OPTIONS, ARGUMENT));
+
+        assertTrue(config.setValues(ARG_OPTIONS, ARGUMENT, Collections.emptyList()));
+        assertTrue(config.getValues(ARG_OPTIONS, ARGUMENT).isEmpty());
+        assertEquals("app.mainclass=org.example.Main", config.toString().split("\\R")[3]);
+    }
+
+    @Test
+    public void testUpdateClasspath() throws IOException {
+        AppImage image = AppImage.at(root.resolve("Application"));
+        Path app = Files.createDirectories(image.getAppDirectory());
+        Files.write(image.getConfigFile("Application"), CONFIG.getBytes(UTF_8));
+        for (String jar : Arrays.asList("main.jar", "a.jar", "b.jar", "lib/c.jar", "mods/module.jar")) {
+            Path file = app.resolve(jar);
+            Files.createDirectories(file.getParent());
+            Files.write(file, jar.getBytes(UTF_8));
+        }
+
+        assertEquals(1, image.updateClasspath());
+        LauncherConfig config = LauncherConfig.read(image.getConfigFile("Application"));
+        assertEquals(Arrays.asList(
+                "$APPDIR" + SEP + "main.jar",
+                "$APPDIR" + SEP + "a.jar",
+                "$APPDIR" + SEP + "b.jar",
+                "$APPDIR" + SEP + "lib" + SEP + "c.jar"
+        ), config.getValues(APPLICATION, CLASSPATH));
+        assertEquals(0, image.updateClasspath());
+    }
+
+    @Test
+    public void testOrderClasspath() throws IOException {
+        AppImage image = AppImage.at(root.resolve("Application"));
+        Files.createDirectories(image.getAppDirectory());
+        Files.write(image.getConfigFile("Application"), CONFIG.getBytes(UTF_8));
+
+        // Jars outside of the classpath are ignored
+        assertEquals(1, image.orderClasspath(Arrays.asList(Paths.get("old.jar"), Paths.get("lib", "c.jar"),
+                Paths.get("main.jar"))));
+        LauncherConfig config = LauncherConfig.read(image.getConfigFile("Application"));
+        assertEquals(Arrays.asList(
+                "$APPDIR" + SEP + "old.jar",
+                "$APPDIR" + SEP + "main.jar",
+                "$APPDIR" + SEP + "a.jar"
+        ), config.getValues(APPLICATION, CLASSPATH));
+        assertEquals(Collections.singletonList("$APPDIR" + SEP + "main.jar"), config.getValues(APPLICATION,
+                "app.mainjar"));
+        assertEquals(0, image.orderClasspath(Collections.singletonList(Paths.get("old.jar"))));
+    }
+
+    @Test
+    public void testSetJavaOptions() throws IOException {
+        AppImage image = AppImage.at(root.resolve("Application"));
+        Files.createDirectories(image.getAppDirectory());
+        Files.write(image.getConfigFile("Application"), CONFIG.getBytes(UTF_8));
+
+        assertTrue(image.setJavaOptions("Application", Arrays.asList("-Xms10m", "-Xmx200m")));
+        LauncherConfig config = LauncherConfig.read(image.getConfigFile("Application"));
+        assertEquals(Arrays.asList("-Djpackage.app-version=1.0", "-Xms10m", "-Xmx200m"),
+                config.getValues(JAVA_OPTIONS, JAVA_OPTION));
+        assertFalse(image.setJavaOptions("Application", Arrays.asList("-Xms10m", "-Xmx200m")));
+    }
+
+    @Test
+    public void testUpdate() throws IOException {
+        Path input = Files.createDirectories(root.resolve("input"));
+        AppImage image = AppImage.at(root.resolve("Application"));
+        Path app = Files.createDirectories(image.getModulesDirectory()).getParent();
+        Files.write(image.getConfigFile("Application"), CONFIG.getBytes(UTF_8));
+        Files.write(app.resolve(".jpackage.xml"), "descriptor".getBytes(UTF_8));
+        Files.write(image.getModulesDirectory().resolve("module.jar"), "module".getBytes(UTF_8));
+
+        for (String jar : Arrays.asList("main.jar", "a.jar", "old.jar")) {
+            Files.write(input.resolve(jar), jar.getBytes(UTF_8));
+        }
+        AppImage.Statistics statistics = image.update(input);
+        assertEquals(3, statistics.getAdded());
+        assertTrue(statistics.isJarsChanged());
+
+        // Same content with different modification time is not a change
+        Files.setLastModifiedTime(input.resolve("main.jar"), FileTime.fromMillis(0));
+        Files.write(input.resolve("a.jar"), "changed".getBytes(UTF_8));
+        Files.delete(input.resolve("old.jar"));
+        Files.write(input.resolve("b.jar"), "b.jar".getBytes(UTF_8));
+
+        statistics = image.update(input);
+        assertEquals(1, statistics.getAdded());
+        assertEquals(1, statistics.getChanged());
+        assertEquals(1, statistics.getUnchanged());
+        assertEquals(1, statistics.getDeleted());
+        assertTrue(statistics.isJarsChanged());
+        assertEquals("changed", new String(Files.readAllBytes(app.resolve("a.jar")), UTF_8));
+        assertTrue(Files.exists(app.resolve(".jpackage.xml")));
+        assertTrue(Files.exists(image.getConfigFile("Application")));
+        assertTrue(Files.exists(image.getModulesDirectory().resolve("module.jar")));
+
+        assertEquals(1, image.updateClasspath());
+        assertEquals(Arrays.asList(
+                "$APPDIR" + SEP + "main.jar",
+                "$APPDIR" + SEP + "a.jar",
+                "$APPDIR" + SEP + "b.jar"
+        ), LauncherConfig.read(image.getConfigFile("Application")).getValues(APPLICATION, CLASSPATH));
+
+        statistics = image.update(input);
+        assertFalse(statistics.isModified());
+    }
+}
@@ -0,0 +1,58 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestClassLoadLog {
+    private static final List<String> LOG = Arrays.asList(
+            "[0.006s][info][class,load] java.lang.Object source: jrt:/java.base",
+            "[0.007s][info][class,load] java.lang.String source: jrt:/java.base",
+            "[0.010s][info][class,load] java.lang.invoke.LambdaForm$MH/0x0000000800c01000 source: "
+                    + "__JVM_LookupDefineClass__",
+            "[0.020s][info][class,load] org.example.Main source: file:/opt/app/main.jar",
+            "[0.021s][info][class,load] java.util.logging.Logger source: jrt:/java.logging",
+            "[0.022s][info][class,load] org.example.util.Util source: file:/opt/app/lib%20dir/util.jar",
+            "[0.023s][info][class,load] org.example.Other source: file:/opt/app/main.jar",
+            "[0.024s][info][class,load] java.lang.Object source: jrt:/java.base",
+            "[0.030s][info][gc] Using G1"
+    );
+
+    @Test
+    public void testResourceOrder() {
+        ClassLoadLog log = ClassLoadLog.parse(LOG);
+        assertEquals(8, log.getEntries().size());
+        assertEquals(Arrays.asList(
+                "/java.base/java/lang/Object.class",
+                "/java.base/java/lang/String.class",
+                "/java.logging/java/util/logging/Logger.class"
+        ), log.getResourceOrder());
+    }
+
+    @Test
+    public void testJarOrder() {
+        assertEquals(Arrays.asList(
+                Paths.get("/opt/app/main.jar").toAbsolutePath(),
+                Paths.get("/opt/app/lib dir/util.jar").toAbsolutePath()
+        ), ClassLoadLog.parse(LOG).getJarOrder());
+    }
+
+    @Test
+    public void testJliClasses() {
+        List<String> output = Arrays.asList(
+                "Application started",
+                "[LF_RESOLVE] java.lang.invoke.DirectMethodHandle$Holder invokeStatic L_L (success)",
+                "[SPECIES_RESOLVE] java.lang.invoke.BoundMethodHandle$Species_LL (salvaged)",
+                "[LF_RESOLVE] java.lang.invoke.DirectMethodHandle$Holder invokeStatic L_L (success)"
+        );
+        assertEquals(Arrays.asList(output.get(1), output.get(2)), ClassLoadLog.getJliClasses(output));
+        assertEquals(Collections.emptyList(), ClassLoadLog.getJliClasses(Collections.singletonList("output")));
+    }
+}
@@ -0,0 +1,71 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestContentManifest {
+    @TempDir
+    Path root;
+
+    @Test
+    public void testMappedAndStreamedChecksumsMatch() throws IOException {
+        byte[] bytes = new byte[300_000];
+        new Random(1).nextBytes(bytes);
+        Path file = Files.write(root.resolve("data.bin"), bytes);
+
+        String expected = ChecksumUtil.sha256(bytes);
+        assertEquals(expected, ChecksumUtil.sha256(file, Long.MAX_VALUE));
+        assertEquals(expected, ChecksumUtil.sha256(file, 0));
+    }
+
+    @Test
+    public void testScanIsSortedAndRoundTrips() throws IOException {
+        Files.createDirectories(root.resolve("b/c"));
+        Files.write(root.resolve("b/c/z.txt"), "z".getBytes());
+        Files.write(root.resolve("b/a.txt"), "a".getBytes());
+        Files.write(root.resolve("a.txt"), "aa".getBytes());
+        Files.write(root.resolve("skip.sha256"), "x".getBytes());
+
+        ContentManifest manifest = ContentManifest.scan(root,
+                path -> path.getFileName().toString().endsWith(ChecksumUtil.CHECKSUM_EXTENSION));
+        List<String> paths = manifest.getEntries().stream()
+                .map(ContentManifest.Entry::getPath)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("a.txt", "b/a.txt", "b/c/z.txt"), paths);
+        assertEquals(4, manifest.getTotalSize());
+
+        Path file = Files.createTempFile("manifest", ".txt");
+        try {
+            manifest.write(file);
+            ContentManifest copy = ContentManifest.read(file);
+            assertEquals(manifest.getEntries().size(), copy.getEntries().size());
+            for (int i = 0; i < copy.getEntries().size(); i++) {
+                assertEquals(manifest.getEntries().get(i).getPath(), copy.getEntries().get(i).getPath());
+                assertEquals(manifest.getEntries().get(i).getSha256(), copy.getEntries().get(i).getSha256());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testChecksumFile() throws IOException {
+        Path file = Files.write(root.resolve("app.deb"), "package".getBytes());
+        Path checksumFile = ChecksumUtil.writeChecksumFile(file);
+        assertEquals("app.deb.sha256", checksumFile.getFileName().toString());
+        assertEquals(ChecksumUtil.sha256("package".getBytes()) + "  app.deb",
+                Files.readAllLines(checksumFile).get(0));
+    }
+}
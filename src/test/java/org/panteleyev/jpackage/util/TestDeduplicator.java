@@ -0,0 +1,53 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestDeduplicator {
+    @TempDir
+    Path root;
+
+    private Path write(String path, String content) throws IOException {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testDeduplicate() throws IOException {
+        Path first = write("lib/app/LICENSE", "license text");
+        Path second = write("lib/runtime/legal/LICENSE", "license text");
+        Path third = write("lib/content/LICENSE.txt", "license text");
+        Path sameSize = write("lib/app/NOTICE", "notice text!");
+        Path empty1 = write("lib/app/empty1", "");
+        Path empty2 = write("lib/app/empty2", "");
+
+        Deduplicator.Result result = Deduplicator.deduplicate(root);
+        assertEquals(6, result.getFiles());
+        assertEquals(2, result.getLinked());
+        assertEquals(24, result.getSavedBytes());
+
+        assertTrue(Files.isSameFile(first, second));
+        assertTrue(Files.isSameFile(first, third));
+        assertFalse(Files.isSameFile(first, sameSize));
+        assertFalse(Files.isSameFile(empty1, empty2));
+        assertEquals("license text", new String(Files.readAllBytes(second), UTF_8));
+
+        // Second pass finds nothing to link
+        result = Deduplicator.deduplicate(root);
+        assertEquals(0, result.getLinked());
+        assertEquals(0, result.getSavedBytes());
+    }
+}
@@ -0,0 +1,178 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestDeltaPackage {
+    @TempDir
+    Path root;
+
+    private static byte[] randomBytes(int size, long seed) {
+        byte[] bytes = new byte[size];
+        new Random(seed).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] modify(byte[] source) {
+        // Insert bytes in the middle and change the tail
+        byte[] result = new byte[source.length + 100];
+        System.arraycopy(source, 0, result, 0, source.length / 2);
+        System.arraycopy(source, source.length / 2, result, source.length / 2 + 100, source.length / 2);
+        result[result.length - 1] ^= 0x55;
+        return result;
+    }
+
+    private static void run(Path directory, String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).directory(directory.toFile()).inheritIO().start();
+        assertEquals(0, process.waitFor());
+    }
+
+    @Test
+    public void testBinaryDeltaRoundTrip() throws IOException {
+        byte[] oldBytes = randomBytes(200_000, 1);
+        byte[] newBytes = modify(oldBytes);
+
+        ByteArrayOutputStream patch = new ByteArrayOutputStream();
+        BinaryDelta.diff(ByteBuffer.wrap(oldBytes), ByteBuffer.wrap(newBytes), patch);
+        assertTrue(patch.size() < newBytes.length / 10);
+
+        Path oldFile = Files.write(root.resolve("old.bin"), oldBytes);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        BinaryDelta.patch(oldFile, new ByteArrayInputStream(patch.toByteArray()), result);
+        assertArrayEquals(newBytes, result.toByteArray());
+    }
+
+    @Test
+    public void testCreateAndApply() throws IOException {
+        Path oldImage = Files.createDirectories(root.resolve("old/lib/app"));
+        Path newImage = Files.createDirectories(root.resolve("new/lib/app"));
+        Files.createDirectories(root.resolve("old/lib/obsolete"));
+        Files.createDirectories(root.resolve("new/lib/added"));
+
+        byte[] large = randomBytes(100_000, 2);
+        Files.write(oldImage.resolve("large.jar"), large);
+        Files.write(newImage.resolve("large.jar"), modify(large));
+        Files.write(oldImage.resolve("same.jar"), "same".getBytes());
+        Files.write(newImage.resolve("same.jar"), "same".getBytes());
+        Files.write(oldImage.resolve("changed.cfg"), "old".getBytes());
+        Files.write(newImage.resolve("changed.cfg"), "new".getBytes());
+        Files.write(oldImage.resolve("deleted.jar"), "deleted".getBytes());
+        Files.write(root.resolve("old/lib/obsolete/file"), "obsolete".getBytes());
+        Files.write(root.resolve("new/lib/added/file"), "added".getBytes());
+
+        Path delta = root.resolve("delta.tar.gz");
+        DeltaPackage.Statistics statistics = DeltaPackage.create(root.resolve("old"), root.resolve("new"), delta,
+                10_000);
+        assertEquals(1, statistics.getAdded());
+        assertEquals(2, statistics.getChanged());
+        assertEquals(1, statistics.getPatched());
+        assertEquals(3, statistics.getDeleted());
+
+        DeltaPackage.apply(root.resolve("old"), delta);
+        assertFalse(Files.exists(root.resolve("old/lib/obsolete")));
+        assertFalse(Files.exists(oldImage.resolve("deleted.jar")));
+        assertEquals(ContentManifest.scan(root.resolve("new")).toMap().keySet(),
+                ContentManifest.scan(root.resolve("old")).toMap().keySet());
+
+        // Applying the same delta again must fail on base verification
+        assertThrows(IOException.class, () -> DeltaPackage.apply(root.resolve("old"), delta));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void testSymlinks() throws IOException {
+        Path oldImage = Files.createDirectories(root.resolve("old/lib"));
+        Path newImage = Files.createDirectories(root.resolve("new/lib"));
+        Files.createSymbolicLink(oldImage.resolve("current"), Paths.get("v1"));
+        Files.createSymbolicLink(newImage.resolve("current"), Paths.get("v2"));
+        Files.createSymbolicLink(oldImage.resolve("same"), Paths.get("target"));
+        Files.createSymbolicLink(newImage.resolve("same"), Paths.get("target"));
+        Files.createSymbolicLink(oldImage.resolve("removed"), Paths.get("target"));
+        Files.createSymbolicLink(newImage.resolve("added"), Paths.get("target"));
+        Files.write(oldImage.resolve("file"), "file".getBytes());
+        Files.createSymbolicLink(newImage.resolve("file"), Paths.get("current"));
+        Files.write(Files.createDirectories(oldImage.resolve("directory")).resolve("file"), "file".getBytes());
+        Files.createSymbolicLink(newImage.resolve("directory"), Paths.get("v2"));
+
+        ContentManifest manifest = ContentManifest.scan(root.resolve("new"));
+        assertEquals("v2", manifest.toMap().get("lib/current").getLinkTarget());
+        assertEquals(manifest.toMap().get("lib/same").getSha256(),
+                ContentManifest.parse(new String(manifest.toBytes())).toMap().get("lib/same").getSha256());
+
+        Path delta = root.resolve("delta.tar.gz");
+        DeltaPackage.Statistics statistics = DeltaPackage.create(root.resolve("old"), root.resolve("new"), delta, 0);
+        // Directory replaced by a link is deleted with its content and the link is added
+        assertEquals(2, statistics.getAdded());
+        assertEquals(2, statistics.getChanged());
+        assertEquals(3, statistics.getDeleted());
+
+        DeltaPackage.apply(root.resolve("old"), delta);
+        assertEquals(Paths.get("v2"), Files.readSymbolicLink(oldImage.resolve("current")));
+        assertEquals(Paths.get("current"), Files.readSymbolicLink(oldImage.resolve("file")));
+        assertEquals(Paths.get("v2"), Files.readSymbolicLink(oldImage.resolve("directory")));
+        assertFalse(Files.exists(oldImage.resolve("removed"), LinkOption.NOFOLLOW_LINKS));
+
+        // Symbolic link target is verified
+        Files.delete(oldImage.resolve("added"));
+        Files.createSymbolicLink(oldImage.resolve("added"), Paths.get("other"));
+        assertThrows(IOException.class, () -> DeltaPackage.verify(root.resolve("old"), manifest));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testExtractGnuTar() throws IOException, InterruptedException {
+        StringBuilder longName = new StringBuilder();
+        while (longName.length() < 150) {
+            longName.append("directory-").append(longName.length()).append('/');
+        }
+        Path image = Files.createDirectories(root.resolve("image").resolve(longName.toString()));
+        Files.write(image.resolve("long-file-name-exceeding-the-header-field.txt"), "long".getBytes());
+        Files.write(root.resolve("image/file"), "file".getBytes());
+        Files.createLink(root.resolve("image/link"), root.resolve("image/file"));
+
+        Path archive = root.resolve("image.tar.gz");
+        run(root.resolve("image"), "tar", "--format=gnu", "-czf", archive.toString(), ".");
+
+        Path extracted = root.resolve("extracted");
+        DeltaPackage.extract(archive, extracted);
+        assertEquals(ContentManifest.scan(root.resolve("image")).toMap().keySet(),
+                ContentManifest.scan(extracted).toMap().keySet());
+        assertArrayEquals("file".getBytes(), Files.readAllBytes(extracted.resolve("link")));
+        assertArrayEquals("long".getBytes(), Files.readAllBytes(extracted.resolve(longName.toString())
+                .resolve("long-file-name-exceeding-the-header-field.txt")));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    public void testExtractUnsupportedEntry() throws IOException, InterruptedException {
+        Path image = Files.createDirectories(root.resolve("image"));
+        run(image, "mkfifo", "pipe");
+        Path archive = root.resolve("image.tar");
+        run(image, "tar", "-cf", archive.toString(), "pipe");
+
+        IOException exception = assertThrows(IOException.class,
+                () -> DeltaPackage.extract(archive, root.resolve("extracted")));
+        assertTrue(exception.getMessage().contains("pipe"));
+    }
+}
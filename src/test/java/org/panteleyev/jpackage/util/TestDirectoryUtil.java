@@ -0,0 +1,71 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.panteleyev.jpackage.util.DirectoryUtil.removeDirectory;
+
+public class TestDirectoryUtil {
+    private static final int THREADS = 4;
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testRemoveMissing() {
+        removeDirectory(root.resolve("missing"));
+    }
+
+    @Test
+    public void testRemoveConcurrently() throws Exception {
+        Path dir = root.resolve("dir");
+        for (int i = 0; i < 20; i++) {
+            Path subdirectory = Files.createDirectories(dir.resolve("d" + i).resolve("nested"));
+            for (int j = 0; j < 20; j++) {
+                Files.write(subdirectory.resolve("f" + j), new byte[] { (byte) j });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    removeDirectory(dir);
+                    // Each call returns when the directory is removed
+                    assertFalse(Files.exists(dir));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(Files.exists(dir));
+    }
+
+    @Test
+    public void testRemoveFile() throws IOException {
+        Path file = Files.write(root.resolve("file"), new byte[] { 1 });
+        removeDirectory(file);
+        assertFalse(Files.exists(file));
+    }
+}
@@ -0,0 +1,143 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFlagTuning {
+    private static final Pattern STARTUP = Pattern.compile("Started");
+    private static final Pattern THROUGHPUT = Pattern.compile("ops/s: ([\\d.]+)");
+
+    private static FlagTuning.Candidate candidate(String options, long startup, double throughput, long rss) {
+        FlagTuning.Candidate candidate = new FlagTuning.Candidate(options.isEmpty() ?
+                Collections.emptyList() : Arrays.asList(options.split(" ")));
+        FlagTuning.Run run = new FlagTuning.Run(STARTUP, THROUGHPUT);
+        run.line(startup, "Started");
+        run.line(startup + 100, "ops/s: " + throughput);
+        run.complete(startup + 1000, 0, false, rss);
+        candidate.add(run);
+        return candidate;
+    }
+
+    @Test
+    public void testDefaultCandidates() {
+        List<List<String>> candidates = FlagTuning.getDefaultCandidates();
+        assertEquals(24, candidates.size());
+        assertEquals(Arrays.asList("-XX:+UseG1GC", "-XX:MaxRAMPercentage=25"), candidates.get(0));
+        assertEquals(Arrays.asList("-XX:+UseZGC", "-XX:MaxRAMPercentage=75", "-XX:TieredStopAtLevel=1"),
+                candidates.get(23));
+    }
+
+    @Test
+    public void testMerge() {
+        for (String option : Arrays.asList("-XX:+UseG1GC", "-XX:-UseParallelGC", "-Xmx512m", "-Xms64m",
+                "-XX:MaxRAMPercentage=50", "-XX:InitialRAMPercentage=10", "-XX:TieredStopAtLevel=1",
+                "-XX:-TieredCompilation")) {
+            assertTrue(FlagTuning.isTuned(option), option);
+        }
+        for (String option : Arrays.asList("-Djpackage.app-version=1.0", "-XX:+UseGCOverheadLimit",
+                "-XX:+UseStringDeduplication", "--module-path", "-Xss1m")) {
+            assertFalse(FlagTuning.isTuned(option), option);
+        }
+
+        assertEquals(Arrays.asList("-Djpackage.app-version=1.0", "-Dmode=fast", "-XX:+UseSerialGC", "-Xmx64m"),
+                FlagTuning.merge(Arrays.asList("-Djpackage.app-version=1.0", "-XX:+UseG1GC", "-Dmode=fast",
+                        "-Xmx1g"), Arrays.asList("-XX:+UseSerialGC", "-Xmx64m")));
+    }
+
+    @Test
+    public void testRun() {
+        FlagTuning.Run run = new FlagTuning.Run(STARTUP, Pattern.compile("request served"));
+        run.line(50, "Loading");
+        run.line(200, "Started in 0.2 s");
+        run.line(300, "Started again");
+        for (int i = 0; i < 30; i++) {
+            run.line(300 + i * 10, "request served");
+        }
+        run.complete(3200, 0, true, 1024);
+        assertEquals(200, run.getStartupMillis());
+        assertEquals(10.0, run.getThroughput(), 0.001);
+        assertFalse(run.isFailed());
+
+        // Without markers startup is time to exit
+        FlagTuning.Run exited = new FlagTuning.Run(null, null);
+        exited.complete(450, 0, false, 0);
+        assertEquals(450, exited.getStartupMillis());
+
+        FlagTuning.Run stopped = new FlagTuning.Run(null, null);
+        stopped.complete(30000, 0, true, 0);
+        assertEquals(-1, stopped.getStartupMillis());
+        assertFalse(stopped.isFailed());
+
+        FlagTuning.Run crashed = new FlagTuning.Run(null, null);
+        crashed.complete(100, 1, false, 0);
+        assertTrue(crashed.isFailed());
+
+        FlagTuning.Run noStartup = new FlagTuning.Run(STARTUP, null);
+        noStartup.complete(30000, 0, true, 0);
+        assertTrue(noStartup.isFailed());
+    }
+
+    @Test
+    public void testMedian() {
+        FlagTuning.Candidate candidate = new FlagTuning.Candidate(Collections.singletonList("-XX:+UseSerialGC"));
+        for (long startup : new long[]{300, 100, 900}) {
+            FlagTuning.Run run = new FlagTuning.Run(STARTUP, null);
+            run.line(startup, "Started");
+            run.complete(1000, 0, false, startup * 1024);
+            candidate.add(run);
+        }
+        assertEquals(300, candidate.getStartupMillis());
+        assertEquals(300 * 1024, candidate.getPeakRssBytes());
+    }
+
+    @Test
+    public void testRank() {
+        FlagTuning.Candidate failed = new FlagTuning.Candidate(Collections.singletonList("-XX:+UseZGC"));
+        FlagTuning.Run run = new FlagTuning.Run(null, null);
+        run.complete(100, 1, false, 0);
+        failed.add(run);
+
+        List<FlagTuning.Candidate> candidates = Arrays.asList(
+                candidate("", 400, 1000, 200),
+                failed,
+                candidate("-XX:+UseSerialGC -XX:TieredStopAtLevel=1", 200, 500, 100),
+                candidate("-XX:+UseParallelGC", 300, 2000, 300)
+        );
+
+        assertEquals(Arrays.asList("-XX:+UseSerialGC -XX:TieredStopAtLevel=1", "-XX:+UseParallelGC",
+                "(launcher options)", "-XX:+UseZGC"), names(FlagTuning.rank(candidates, FlagTuning.Objective.STARTUP)));
+        assertEquals(Arrays.asList("-XX:+UseParallelGC", "(launcher options)",
+                        "-XX:+UseSerialGC -XX:TieredStopAtLevel=1", "-XX:+UseZGC"),
+                names(FlagTuning.rank(candidates, FlagTuning.Objective.THROUGHPUT)));
+        assertEquals("-XX:+UseSerialGC -XX:TieredStopAtLevel=1",
+                FlagTuning.rank(candidates, FlagTuning.Objective.MEMORY).get(0).toString());
+
+        List<String> report = FlagTuning.toReport(FlagTuning.rank(candidates, FlagTuning.Objective.STARTUP),
+                FlagTuning.Objective.STARTUP);
+        assertEquals("Objective: startup", report.get(0));
+        assertEquals(6, report.size());
+        assertTrue(report.get(2).startsWith("   1      200 ms"), report.get(2));
+        assertTrue(report.get(5).endsWith("-XX:+UseZGC (exit code 1)"), report.get(5));
+    }
+
+    @Test
+    public void testPropertyValue() {
+        assertEquals("-XX:+UseSerialGC \"-Dname=a b\"",
+                FlagTuning.toPropertyValue(Arrays.asList("-XX:+UseSerialGC", "-Dname=a b")));
+    }
+
+    private static List<String> names(List<FlagTuning.Candidate> candidates) {
+        return candidates.stream().map(FlagTuning.Candidate::toString).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,117 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TestImageLayers {
+    private static final List<String> NAMES = Arrays.asList("dependencies", "app");
+
+    @TempDir
+    Path root;
+
+    private Path image(String name, String appContent) throws IOException {
+        Path image = root.resolve(name).resolve("Application");
+        Files.createDirectories(image.resolve("bin"));
+        Files.createDirectories(image.resolve("lib/app"));
+        Files.createDirectories(image.resolve("lib/runtime/lib"));
+        Files.write(image.resolve("bin/Application"), "launcher".getBytes(UTF_8));
+        Files.write(image.resolve("lib/runtime/lib/modules"), "modules".getBytes(UTF_8));
+        Files.write(image.resolve("lib/app/library.jar"), "library".getBytes(UTF_8));
+        Files.write(image.resolve("lib/app/main.jar"), appContent.getBytes(UTF_8));
+        return image;
+    }
+
+    private static List<ImageLayers.Layer> split(Path image) {
+        return ImageLayers.split(image, NAMES, path -> path.equals("lib/app/main.jar") ? "app" : "dependencies");
+    }
+
+    @Test
+    public void testSplit() throws IOException {
+        List<ImageLayers.Layer> layers = split(image("v1", "main 1"));
+        assertEquals(Arrays.asList("bin/Application", "lib/app/library.jar", "lib/runtime/lib/modules"),
+                layers.get(0).getPaths());
+        assertEquals(Collections.singletonList("lib/app/main.jar"), layers.get(1).getPaths());
+        assertEquals(6, layers.get(1).getSize());
+
+        // Dependency layer checksum does not depend on the application layer
+        List<ImageLayers.Layer> updated = split(image("v2", "main 2"));
+        assertEquals(layers.get(0).getSha256(), updated.get(0).getSha256());
+        assertNotEquals(layers.get(1).getSha256(), updated.get(1).getSha256());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ImageLayers.split(root.resolve("v1"), NAMES, path -> "unknown"));
+    }
+
+    @Test
+    public void testWriteArchive() throws IOException {
+        Path image = image("v1", "main 1");
+        List<ImageLayers.Layer> layers = split(image);
+        Path archive = root.resolve("dependencies.tar.gz");
+        ImageLayers.writeArchive(layers.get(0), archive);
+
+        List<String> names = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        try (TarArchive.Reader reader = new TarArchive.Reader(new GZIPInputStream(Files.newInputStream(archive)))) {
+            TarArchive.Entry entry;
+            while ((entry = reader.next()) != null) {
+                names.add(entry.getName());
+                times.add(entry.getMtime());
+            }
+        }
+        assertEquals(Arrays.asList(
+                "Application",
+                "Application/bin",
+                "Application/bin/Application",
+                "Application/lib",
+                "Application/lib/app",
+                "Application/lib/app/library.jar",
+                "Application/lib/runtime",
+                "Application/lib/runtime/lib",
+                "Application/lib/runtime/lib/modules"
+        ), names);
+        assertEquals(Collections.singleton(ImageLayers.MTIME), new HashSet<>(times));
+
+        // Archives are reproducible
+        Path copy = root.resolve("copy.tar.gz");
+        ImageLayers.writeArchive(split(image("v2", "main 2")).get(0), copy);
+        assertArrayEquals(Files.readAllBytes(archive), Files.readAllBytes(copy));
+
+        // Extracted layers restore the image
+        Path extracted = root.resolve("extracted");
+        DeltaPackage.extract(archive, extracted);
+        Path application = root.resolve("application.tar.gz");
+        ImageLayers.writeArchive(layers.get(1), application);
+        DeltaPackage.extract(application, extracted);
+        assertEquals(ContentManifest.scan(image).toMap().keySet(),
+                ContentManifest.scan(extracted.resolve("Application")).toMap().keySet());
+    }
+
+    @Test
+    public void testInvalidPrefix() throws IOException {
+        ImageLayers.Layer layer = split(image("v1", "main 1")).get(1);
+        for (String prefix : Arrays.asList("", "/opt/Application", "opt/")) {
+            try (TarArchive.Writer writer = new TarArchive.Writer(new ByteArrayOutputStream())) {
+                assertThrows(IllegalArgumentException.class, () -> ImageLayers.write(layer, prefix, writer));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestInputStaging {
+    @TempDir
+    Path root;
+
+    private void write(Path dir, String path) throws IOException {
+        Path file = dir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, path.getBytes(UTF_8));
+    }
+
+    @Test
+    public void testFilter() {
+        Predicate<String> filter = InputStaging.filter(Arrays.asList("*.jar", "native/**"),
+                Arrays.asList("**/*-sources.jar", "**/*-tests.jar"));
+        assertTrue(filter.test("app.jar"));
+        assertTrue(filter.test("native/linux/libfoo.so"));
+        assertFalse(filter.test("app-sources.jar"));
+        assertFalse(filter.test("native/app-tests.jar"));
+        assertFalse(filter.test("classes/Main.class"));
+
+        Predicate<String> all = InputStaging.filter(null, Collections.singletonList("*.txt"));
+        assertTrue(all.test("lib/a.jar"));
+        assertTrue(all.test("lib/readme.txt"));
+        assertFalse(all.test("readme.txt"));
+    }
+
+    @Test
+    public void testStage() throws IOException {
+        Path input = root.resolve("input");
+        write(input, "app.jar");
+        write(input, "lib/util.jar");
+        write(input, "app-sources.jar");
+        write(input, "classes/Main.class");
+        Path staging = root.resolve("staging");
+        write(staging, "stale.jar");
+
+        InputStaging.Result result = InputStaging.stage(input, staging,
+                InputStaging.filter(Collections.singletonList("**/*.jar"), Collections.singletonList("*-sources.jar")));
+        assertEquals(2, result.getFiles());
+        assertEquals(2, result.getExcluded());
+
+        assertTrue(Files.isSameFile(input.resolve("app.jar"), staging.resolve("app.jar")));
+        assertTrue(Files.isSameFile(input.resolve("lib/util.jar"), staging.resolve("lib/util.jar")));
+        assertFalse(Files.exists(staging.resolve("app-sources.jar")));
+        assertFalse(Files.exists(staging.resolve("classes")));
+        assertFalse(Files.exists(staging.resolve("stale.jar")));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    public void testSymlinks() throws IOException {
+        Path input = root.resolve("input");
+        write(root, "repository/lib.jar");
+        write(root, "repository/native/libfoo.so");
+        Files.createDirectories(input);
+        Files.createSymbolicLink(input.resolve("lib.jar"), Paths.get("../repository/lib.jar"));
+        Files.createSymbolicLink(input.resolve("native"), Paths.get("../repository/native"));
+        Files.createSymbolicLink(input.resolve("broken.jar"), Paths.get("missing.jar"));
+        Files.createDirectories(input.resolve("loop"));
+        Files.createSymbolicLink(input.resolve("loop/parent"), Paths.get(".."));
+
+        Path staging = root.resolve("staging");
+        InputStaging.Result result = InputStaging.stage(input, staging, InputStaging.filter(null, null));
+        assertEquals(2, result.getFiles());
+        assertEquals(Arrays.asList("broken.jar", "loop/parent"),
+                result.getSkipped().stream().sorted().collect(Collectors.toList()));
+
+        assertFalse(Files.isSymbolicLink(staging.resolve("lib.jar")));
+        assertTrue(Files.isSameFile(root.resolve("repository/lib.jar"), staging.resolve("lib.jar")));
+        assertEquals("repository/native/libfoo.so",
+                new String(Files.readAllBytes(staging.resolve("native/libfoo.so")), UTF_8));
+    }
+}
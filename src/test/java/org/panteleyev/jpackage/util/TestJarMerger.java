@@ -0,0 +1,150 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestJarMerger {
+    @TempDir
+    Path root;
+
+    // Entries are given as name, content pairs
+    private Path jar(String name, Manifest manifest, String... entries) throws IOException {
+        Path jar = root.resolve(name);
+        try (OutputStream out = Files.newOutputStream(jar);
+             JarOutputStream jarOut = manifest == null ? new JarOutputStream(out) : new JarOutputStream(out, manifest))
+        {
+            for (int i = 0; i < entries.length; i += 2) {
+                jarOut.putNextEntry(new JarEntry(entries[i]));
+                jarOut.write(entries[i + 1].getBytes(UTF_8));
+                jarOut.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String read(JarFile file, String name) throws IOException {
+        JarEntry entry = file.getJarEntry(name);
+        if (entry == null) return null;
+        try (InputStream in = file.getInputStream(entry)) {
+            byte[] buffer = new byte[(int) entry.getSize()];
+            int offset = 0;
+            while (offset < buffer.length) {
+                offset += in.read(buffer, offset, buffer.length - offset);
+            }
+            return new String(buffer, UTF_8);
+        }
+    }
+
+    @Test
+    public void testSkipReason() throws IOException {
+        assertNull(JarMerger.getSkipReason(jar("plain.jar", null, "a/A.class", "A")));
+        assertEquals("signed", JarMerger.getSkipReason(jar("signed.jar", null, "META-INF/KEY.SF", "")));
+        assertEquals("modular", JarMerger.getSkipReason(jar("modular.jar", null, "module-info.class", "")));
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Multi-Release"), "true");
+        assertEquals("multi-release", JarMerger.getSkipReason(jar("versioned.jar", manifest, "a/A.class", "A")));
+    }
+
+    @Test
+    public void testMerge() throws IOException {
+        List<Path> jars = Arrays.asList(
+                jar("a.jar", null,
+                        "a/A.class", "A",
+                        "shared/config.properties", "same",
+                        "META-INF/LICENSE", "license a",
+                        "META-INF/services/org.example.Service", "a.ServiceA"),
+                jar("b.jar", null,
+                        "b/B.class", "B",
+                        "shared/config.properties", "same",
+                        "META-INF/LICENSE", "license b",
+                        "META-INF/services/org.example.Service", "b.ServiceB\n"),
+                jar("c.jar", null,
+                        "c/C.class", "C",
+                        "c/config.properties", "c"),
+                jar("conflict.jar", null,
+                        "d/D.class", "D",
+                        "c/config.properties", "different"),
+                jar("signed.jar", null, "META-INF/KEY.SF", "")
+        );
+
+        JarMerger.Result result = JarMerger.merge(jars, Collections.emptyList(), root.resolve("merged"), 1);
+        assertEquals(Arrays.asList(jars.get(0), jars.get(1)), result.getSources());
+        assertEquals(Collections.singletonList(root.resolve("merged").resolve("merged-1.jar")),
+                result.getMergedJars());
+        assertEquals("conflict: c/config.properties with c.jar", result.getSkipped().get(jars.get(3)));
+        // Jar merged before the conflicting one is left separate as well
+        assertEquals("conflict: c/config.properties with conflict.jar", result.getSkipped().get(jars.get(2)));
+        assertEquals("signed", result.getSkipped().get(jars.get(4)));
+        assertEquals(1, result.getServices());
+
+        try (JarFile merged = new JarFile(result.getMergedJars().get(0).toFile())) {
+            assertEquals("A", read(merged, "a/A.class"));
+            assertEquals("B", read(merged, "b/B.class"));
+            assertEquals("same", read(merged, "shared/config.properties"));
+            assertEquals("a.ServiceA\nb.ServiceB\n\n", read(merged, "META-INF/services/org.example.Service"));
+            assertEquals("license a", read(merged, "META-INF/licenses/a.jar/LICENSE"));
+            assertEquals("license b", read(merged, "META-INF/licenses/b.jar/LICENSE"));
+            assertNull(read(merged, "META-INF/LICENSE"));
+            assertTrue(JarMerger.measureOpenNanos(result.getMergedJars()) > 0);
+        }
+    }
+
+    @Test
+    public void testGroups() throws IOException {
+        List<Path> jars = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            jars.add(jar("lib" + i + ".jar", null, "lib" + i + "/A.class", "A", "lib" + i + "/B.class", "B"));
+        }
+        JarMerger.Result result = JarMerger.merge(jars, Collections.emptyList(), root.resolve("merged"), 3);
+        assertEquals(3, result.getMergedJars().size());
+        assertEquals(jars, result.getSources());
+
+        // Single mergeable jar is left as is
+        result = JarMerger.merge(jars.subList(0, 1), Collections.emptyList(), root.resolve("single"), 1);
+        assertTrue(result.getMergedJars().isEmpty());
+        assertEquals("nothing to merge with", result.getSkipped().get(jars.get(0)));
+    }
+
+    @Test
+    public void testShadowing() throws IOException {
+        // Merged jar is placed differently on the classpath, so resources of kept jars must not be shadowed
+        List<Path> jars = Arrays.asList(
+                jar("a.jar", null, "a/A.class", "A", "x.properties", "a"),
+                jar("c.jar", null, "c/C.class", "C", "same.properties", "same"),
+                jar("d.jar", null, "d/D.class", "D")
+        );
+        Path kept = jar("b.jar", null, "b/B.class", "B", "x.properties", "b", "same.properties", "same");
+
+        JarMerger.Result result = JarMerger.merge(jars, Collections.singletonList(kept), root.resolve("merged"), 1);
+        assertEquals("conflict: x.properties with b.jar", result.getSkipped().get(jars.get(0)));
+        assertEquals(Arrays.asList(jars.get(1), jars.get(2)), result.getSources());
+        try (JarFile merged = new JarFile(result.getMergedJars().get(0).toFile())) {
+            assertNull(read(merged, "x.properties"));
+            assertEquals("same", read(merged, "same.properties"));
+        }
+    }
+}
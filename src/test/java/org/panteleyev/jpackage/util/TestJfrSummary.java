@@ -0,0 +1,104 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestJfrSummary {
+    private static final List<String> OUTPUT = Arrays.asList(
+            "jdk.ClassLoad {",
+            "  startTime = 07:33:15.951 (2026-10-19)",
+            "  duration = 0.170 ms",
+            "  loadedClass = org.example.Main (classLoader = app)",
+            "  eventThread = \"main\" (javaThreadId = 1)",
+            "}",
+            "",
+            "jdk.ClassLoad {",
+            "  startTime = 07:33:15.957 (2026-10-19)",
+            "  duration = 830 us",
+            "  loadedClass = org.example.Util (classLoader = app)",
+            "}",
+            "",
+            "jdk.GarbageCollection {",
+            "  startTime = 07:33:16.035 (2026-10-19)",
+            "  duration = 11.3 ms",
+            "  name = \"G1New\"",
+            "  sumOfPauses = 11.3 ms",
+            "  longestPause = 11.3 ms",
+            "}",
+            "",
+            "jdk.GarbageCollection {",
+            "  startTime = 07:33:16.168 (2026-10-19)",
+            "  sumOfPauses = 5.7 ms",
+            "  longestPause = 4.2 ms",
+            "}",
+            "",
+            "jdk.Compilation {",
+            "  startTime = 07:33:15.953 (2026-10-19)",
+            "  duration = 1.5 ms",
+            "  method = java.util.HashMap.resize()",
+            "}",
+            "",
+            "jdk.ExecutionSample {",
+            "  startTime = 07:33:16.034 (2026-10-19)",
+            "  sampledThread = \"main\" (javaThreadId = 1)",
+            "  stackTrace = [",
+            "    java.util.HashMap.resize() line: 700",
+            "    org.example.Main.main(String[]) line: 2",
+            "  ]",
+            "}",
+            "",
+            "jdk.ExecutionSample {",
+            "  stackTrace = [",
+            "    java.util.HashMap.resize() line: 710",
+            "  ]",
+            "}",
+            "",
+            "jdk.ExecutionSample {",
+            "  stackTrace = [",
+            "    org.example.Main.main(String[]) line: 3",
+            "  ]",
+            "}",
+            "",
+            "jdk.ClassLoadingStatistics {",
+            "  startTime = 07:33:40.912 (2026-10-19)",
+            "  loadedClassCount = 1713",
+            "  unloadedClassCount = 0",
+            "}"
+    );
+
+    @Test
+    public void testParse() {
+        JfrSummary summary = JfrSummary.parse(OUTPUT);
+        assertEquals(1713, summary.getLoadedClasses());
+        assertEquals(2, summary.getClassLoadEvents());
+        assertEquals(1.0, summary.getClassLoadMillis(), 1e-9);
+        assertEquals(2, summary.getCollections());
+        assertEquals(17.0, summary.getPauseMillis(), 1e-9);
+        assertEquals(11.3, summary.getMaxPauseMillis(), 1e-9);
+        assertEquals(1, summary.getCompilations());
+        assertEquals(1.5, summary.getCompilationMillis(), 1e-9);
+        assertEquals(3, summary.getSamples());
+
+        List<Map.Entry<String, Integer>> methods = summary.getHotMethods(10);
+        assertEquals(2, methods.size());
+        assertEquals("java.util.HashMap.resize()", methods.get(0).getKey());
+        assertEquals(2, methods.get(0).getValue());
+        assertEquals("org.example.Main.main(String[])", methods.get(1).getKey());
+
+        assertEquals("   66.7%  java.util.HashMap.resize()", summary.toReport(1).get(6));
+    }
+
+    @Test
+    public void testParseDuration() {
+        assertEquals(125, JfrSummary.parseDuration("125 ns"), 1e-9);
+        assertEquals(1_500_000_000, JfrSummary.parseDuration("1.50 s"), 1e-9);
+        assertEquals(0, JfrSummary.parseDuration("N/A"), 1e-9);
+    }
+}
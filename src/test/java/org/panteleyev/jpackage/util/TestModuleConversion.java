@@ -0,0 +1,142 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestModuleConversion {
+    @TempDir
+    Path root;
+
+    private Path jar(String name, Manifest manifest, String... entries) throws IOException {
+        Path jar = root.resolve(name);
+        try (OutputStream out = Files.newOutputStream(jar);
+             JarOutputStream jarOut = manifest == null ? new JarOutputStream(out) : new JarOutputStream(out, manifest))
+        {
+            for (String entry : entries) {
+                jarOut.putNextEntry(new JarEntry(entry));
+                jarOut.write(("content of " + entry).getBytes(UTF_8));
+                jarOut.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    @Test
+    public void testModuleName() throws IOException {
+        assertEquals("commons.lang3", ModuleConversion.deriveModuleName("commons-lang3-3.12.0.jar"));
+        assertEquals("foo.bar", ModuleConversion.deriveModuleName("foo-bar.jar"));
+        assertEquals("guava", ModuleConversion.deriveModuleName("guava-31.1-jre.jar"));
+        assertEquals("a.b", ModuleConversion.deriveModuleName("_a__b_.jar"));
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(new Attributes.Name("Automatic-Module-Name"), "org.example.lib");
+        assertEquals("org.example.lib", ModuleConversion.getModuleName(jar("lib-1.0.jar", manifest)));
+        assertEquals("lib", ModuleConversion.getModuleName(jar("lib-2.0.jar", null)));
+    }
+
+    @Test
+    public void testChecks() throws IOException {
+        Path plain = jar("plain.jar", null, "org/example/A.class", "org/example/config.xml");
+        assertFalse(ModuleConversion.isModular(plain));
+        assertFalse(ModuleConversion.isSigned(plain));
+        assertFalse(ModuleConversion.usesServiceLoader(plain));
+
+        assertTrue(ModuleConversion.isModular(jar("modular.jar", null, "module-info.class")));
+        assertTrue(ModuleConversion.isModular(jar("versioned.jar", null, "META-INF/versions/11/module-info.class")));
+        assertTrue(ModuleConversion.isSigned(jar("signed.jar", null, "META-INF/SIGNER.SF", "META-INF/SIGNER.RSA")));
+        assertTrue(ModuleConversion.usesServiceLoader(jar("loader.jar", null,
+                "org/example/java/util/ServiceLoader.class")));
+    }
+
+    @Test
+    public void testSplitPackages() throws IOException {
+        Path a = jar("a.jar", null, "org/example/a/A.class", "org/example/shared/A.class");
+        Path b = jar("b.jar", null, "org/example/b/B.class", "META-INF/versions/11/org/example/shared/B.class");
+        Path c = jar("c.jar", null, "org/example/c/C.class", "org/example/b/resource.txt");
+
+        assertEquals(Arrays.asList("org.example.b", "org.example.shared"),
+                new ArrayList<>(ModuleConversion.getPackages(b)));
+
+        Map<Path, String> split = ModuleConversion.getSplitPackages(Arrays.asList(a, b, c));
+        assertEquals(2, split.size());
+        assertEquals("org.example.shared with a.jar", split.get(b));
+        assertEquals("org.example.shared with b.jar", split.get(a));
+
+        Map<Path, String> warnings = ModuleConversion.parseSplitPackageWarnings(Arrays.asList(
+                "writing to out/a/module-info.java",
+                "Warning: split package: javax.xml.parsers jrt:/java.xml " + a
+        ));
+        assertEquals(Collections.singletonMap(a, "javax.xml.parsers with java.xml"), warnings);
+
+        Map<String, Path> dependencies = ModuleConversion.parseClassPathDependencies(Arrays.asList(
+                "a.jar -> " + b,
+                "a.jar -> java.base",
+                "c.jar -> java.base",
+                "c.jar -> not found"
+        ), Collections.singleton(b));
+        assertEquals(Collections.singletonMap("a.jar", b), dependencies);
+    }
+
+    @Test
+    public void testDescriptor() {
+        String source = String.join("\n",
+                "module org.example.a {",
+                "    requires org.example.b;",
+                "    requires transitive java.logging;",
+                "    requires static java.sql;",
+                "",
+                "    exports org.example.a;",
+                "}");
+        assertEquals(Arrays.asList("org.example.b", "java.logging", "java.sql"),
+                ModuleConversion.getRequires(source));
+        assertTrue(ModuleConversion.toOpenModule(source).startsWith("open module org.example.a {\n"));
+    }
+
+    @Test
+    public void testRemoveUnresolved() {
+        Map<String, List<String>> modules = new LinkedHashMap<>();
+        modules.put("a", Arrays.asList("b", "java.logging"));
+        modules.put("b", Collections.singletonList("c"));
+        modules.put("c", Collections.singletonList("missing"));
+        modules.put("d", Collections.singletonList("java.base"));
+        modules.put("e", Collections.singletonList("d"));
+
+        Map<String, String> removed = ModuleConversion.removeUnresolved(modules, name -> name.startsWith("java."));
+        assertEquals("missing", removed.get("c"));
+        assertEquals("c", removed.get("b"));
+        assertEquals("b", removed.get("a"));
+        assertEquals(3, removed.size());
+    }
+
+    @Test
+    public void testAddModuleInfo() throws IOException {
+        Path jar = jar("lib.jar", null, "org/example/A.class");
+        Path descriptor = Files.write(root.resolve(ModuleConversion.MODULE_INFO_CLASS), new byte[]{1, 2, 3});
+        ModuleConversion.addModuleInfo(jar, descriptor);
+        assertTrue(ModuleConversion.isModular(jar));
+        assertEquals(Collections.singleton("org.example"), ModuleConversion.getPackages(jar));
+    }
+}
@@ -0,0 +1,105 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.panteleyev.jpackage.util.NativeLibraries.LINUX;
+import static org.panteleyev.jpackage.util.NativeLibraries.MAC;
+import static org.panteleyev.jpackage.util.NativeLibraries.WINDOWS;
+
+public class TestNativeLibraries {
+    @TempDir
+    Path root;
+
+    @Test
+    public void testArch() {
+        assertEquals("x86_64", NativeLibraries.normalizeArch("amd64"));
+        assertEquals("aarch64", NativeLibraries.normalizeArch("aarch64"));
+        assertEquals("x86", NativeLibraries.normalizeArch("i386"));
+        assertEquals("sparcv9", NativeLibraries.normalizeArch("sparcv9"));
+    }
+
+    @Test
+    public void testMatches() {
+        for (String entry : Arrays.asList(
+                "com/sun/jna/linux-x86-64/libjnidispatch.so",
+                "org/sqlite/native/Linux/x86_64/libsqlitejdbc.so",
+                "META-INF/native/libnetty_transport_native_epoll_x86_64.so",
+                "META-INF/native/libnetty_tcnative_linux_x86_64.so",
+                "libglass.so",
+                "lib/libfoo.so.1"
+        )) {
+            assertTrue(NativeLibraries.matches(entry, LINUX, "x86_64"), entry);
+        }
+        for (String entry : Arrays.asList(
+                "com/sun/jna/linux-x86-64/",
+                "com/sun/jna/linux-aarch64/libjnidispatch.so",
+                "com/sun/jna/linux-x86/libjnidispatch.so",
+                "com/sun/jna/linux-arm/libjnidispatch.so",
+                "com/sun/jna/darwin-x86-64/libjnidispatch.jnilib",
+                "com/sun/jna/win32-x86-64/jnidispatch.dll",
+                "org/sqlite/native/Linux-Musl/x86_64/libsqlitejdbc.so",
+                "org/sqlite/native/Linux-Android/x86_64/libsqlitejdbc.so",
+                "META-INF/native/libnetty_tcnative_linux_aarch_64.so",
+                "org/example/Native.class"
+        )) {
+            assertFalse(NativeLibraries.matches(entry, LINUX, "x86_64"), entry);
+        }
+
+        assertTrue(NativeLibraries.matches("com/sun/jna/darwin-aarch64/libjnidispatch.jnilib", MAC, "aarch64"));
+        assertTrue(NativeLibraries.matches("org/sqlite/native/Mac/aarch64/libsqlitejdbc.dylib", MAC, "aarch64"));
+        assertTrue(NativeLibraries.matches("com/sun/jna/win32-x86-64/jnidispatch.dll", WINDOWS, "x86_64"));
+        assertFalse(NativeLibraries.matches("com/sun/jna/win32-x86/jnidispatch.dll", WINDOWS, "x86_64"));
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+        Path jar = root.resolve("jna.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            for (String entry : Arrays.asList("com/sun/jna/linux-x86-64/libjnidispatch.so",
+                    "com/sun/jna/linux-aarch64/libjnidispatch.so", "com/sun/jna/Native.class")) {
+                out.putNextEntry(new JarEntry(entry));
+                out.write(entry.getBytes(UTF_8));
+                out.closeEntry();
+            }
+        }
+
+        List<NativeLibraries.Library> libraries = NativeLibraries.find(jar, LINUX, "x86_64");
+        assertEquals(Collections.singletonList("com/sun/jna/linux-x86-64/libjnidispatch.so"),
+                libraries.stream().map(NativeLibraries.Library::getEntry).collect(Collectors.toList()));
+        Path file = NativeLibraries.extract(libraries.get(0), root.resolve("native"));
+        assertEquals(root.resolve("native").resolve("libjnidispatch.so"), file);
+        assertEquals("com/sun/jna/linux-x86-64/libjnidispatch.so", new String(Files.readAllBytes(file), UTF_8));
+    }
+
+    @Test
+    public void testSystemProperties() {
+        assertEquals("jnidispatch", NativeLibraries.getLibraryName("libjnidispatch.so"));
+        assertEquals("sqlitejdbc", NativeLibraries.getLibraryName("sqlitejdbc.dll"));
+        assertTrue(NativeLibraries.getSystemProperties(Collections.emptyList(), "$APPDIR/native").isEmpty());
+        assertEquals(Arrays.asList(
+                "-Djava.library.path=$APPDIR/native",
+                "-Djna.boot.library.path=$APPDIR/native",
+                "-Djna.nounpack=true",
+                "-Dorg.sqlite.lib.path=$APPDIR/native",
+                "-Dorg.sqlite.lib.name=libsqlitejdbc.so"
+        ), NativeLibraries.getSystemProperties(Arrays.asList("libjnidispatch.so", "libnetty_tcnative.so",
+                "libsqlitejdbc.so"), "$APPDIR/native"));
+    }
+}
@@ -0,0 +1,213 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestOciLayout {
+    private static final List<String> NAMES = Arrays.asList("runtime", "dependencies", "app");
+
+    @TempDir
+    Path root;
+
+    private Path image(String name, String appContent) throws IOException {
+        Path image = root.resolve(name).resolve("Application");
+        Files.createDirectories(image.resolve("bin"));
+        Files.createDirectories(image.resolve("lib/app"));
+        Files.createDirectories(image.resolve("lib/runtime/lib"));
+        Files.write(image.resolve("bin/Application"), "launcher".getBytes(UTF_8));
+        Files.write(image.resolve("lib/runtime/lib/modules"), "modules".getBytes(UTF_8));
+        Files.write(image.resolve("lib/app/library.jar"), "library".getBytes(UTF_8));
+        Files.write(image.resolve("lib/app/main.jar"), appContent.getBytes(UTF_8));
+        return image;
+    }
+
+    private static List<ImageLayers.Layer> split(Path image) {
+        return ImageLayers.split(image, NAMES, path -> {
+            if (!path.startsWith("lib/app/")) return "runtime";
+            return path.endsWith("main.jar") ? "app" : "dependencies";
+        });
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    private static Object readJson(Path file) throws IOException {
+        return JsonReader.parse(new String(Files.readAllBytes(file), UTF_8));
+    }
+
+    private static Object readBlob(Path layout, Object descriptor) throws IOException {
+        return readJson(OciLayout.blobPath(layout, (String) JsonReader.get(descriptor, "digest")));
+    }
+
+    @Test
+    public void testCompress() throws IOException {
+        byte[] data = new byte[OciLayout.CHUNK_SIZE * 3 + 12345];
+        Random random = new Random(1);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 1000 < 500 ? random.nextInt(256) : 'a' + i % 26);
+        }
+        Path source = Files.write(root.resolve("data"), data);
+
+        byte[] parallel = compress(source, 4);
+        assertArrayEquals(parallel, compress(source, 1));
+        assertArrayEquals(data, gunzip(Files.write(root.resolve("data.gz"), parallel)));
+
+        Path empty = Files.write(root.resolve("empty"), new byte[0]);
+        assertArrayEquals(new byte[0], gunzip(Files.write(root.resolve("empty.gz"), compress(empty, 2))));
+    }
+
+    private static byte[] compress(Path source, int threads) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            OciLayout.compress(source, out, executor, threads * 2);
+            return out.toByteArray();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testWrite() throws IOException {
+        Path layout = root.resolve("layout");
+        OciLayout.Config config = new OciLayout.Config()
+                .setEntrypoint(Collections.singletonList("/opt/Application/bin/Application"))
+                .setWorkingDirectory("/opt/Application")
+                .setTag("1.0")
+                .setArchitecture("amd64")
+                .setThreads(2);
+        OciLayout.Result first = OciLayout.write(layout, split(image("v1", "main 1")), config);
+
+        assertEquals("{\"imageLayoutVersion\":\"1.0.0\"}",
+                new String(Files.readAllBytes(layout.resolve(OciLayout.LAYOUT_FILE)), UTF_8));
+        Object index = readJson(layout.resolve(OciLayout.INDEX_FILE));
+        Object manifestDescriptor = ((List<?>) JsonReader.get(index, "manifests")).get(0);
+        assertEquals("1.0", JsonReader.get(manifestDescriptor, "annotations", OciLayout.REF_NAME));
+        Object manifest = readBlob(layout, manifestDescriptor);
+        Object config1 = readBlob(layout, JsonReader.get(manifest, "config"));
+        assertEquals("amd64", JsonReader.get(config1, "architecture"));
+        assertEquals("linux", JsonReader.get(config1, "os"));
+        assertEquals(Collections.singletonList("/opt/Application/bin/Application"),
+                JsonReader.get(config1, "config", "Entrypoint"));
+
+        List<?> layers = (List<?>) JsonReader.get(manifest, "layers");
+        List<?> diffIds = (List<?>) JsonReader.get(config1, "rootfs", "diff_ids");
+        assertEquals(3, layers.size());
+        for (int i = 0; i < layers.size(); i++) {
+            Path blob = OciLayout.blobPath(layout, (String) JsonReader.get(layers.get(i), "digest"));
+            assertEquals("sha256:" + ChecksumUtil.sha256(blob), JsonReader.get(layers.get(i), "digest"));
+            assertEquals(Files.size(blob), ((Number) JsonReader.get(layers.get(i), "size")).longValue());
+            assertEquals("sha256:" + ChecksumUtil.sha256(gunzip(blob)), diffIds.get(i));
+        }
+        Path blob = OciLayout.blobPath(layout, first.getLayers().get(2).getDigest());
+        DeltaPackage.extract(Files.copy(blob, root.resolve("app.tar.gz")), root.resolve("extracted"));
+        assertEquals("main 1", new String(Files.readAllBytes(
+                root.resolve("extracted/opt/Application/lib/app/main.jar")), UTF_8));
+
+        // Unchanged layers are reused, replaced layer is removed
+        OciLayout.Result second = OciLayout.write(layout, split(image("v2", "main 2")), config);
+        assertEquals(first.getLayers().subList(0, 2).stream().map(OciLayout.Descriptor::getDigest)
+                        .collect(Collectors.toList()),
+                second.getLayers().subList(0, 2).stream().map(OciLayout.Descriptor::getDigest)
+                        .collect(Collectors.toList()));
+        assertTrue(second.isReused(second.getLayers().get(0)));
+        assertFalse(second.isReused(second.getLayers().get(2)));
+        assertNotEquals(first.getLayers().get(2).getDigest(), second.getLayers().get(2).getDigest());
+        assertFalse(Files.exists(blob));
+
+        // Layers are reproducible
+        OciLayout.Result copy = OciLayout.write(root.resolve("copy"), split(image("v3", "main 2")),
+                config.setThreads(1));
+        assertEquals(second.getManifest().getDigest(), copy.getManifest().getDigest());
+    }
+
+    @Test
+    public void testRootPrefix() throws IOException {
+        Path layout = root.resolve("layout");
+        OciLayout.Config config = new OciLayout.Config().setPrefix("").setArchitecture("amd64");
+        OciLayout.Result result = OciLayout.write(layout, split(image("v1", "main 1")), config);
+
+        Path archive = Files.copy(OciLayout.blobPath(layout, result.getLayers().get(2).getDigest()),
+                root.resolve("app.tar.gz"));
+        try (TarArchive.Reader reader = new TarArchive.Reader(new GZIPInputStream(Files.newInputStream(archive)))) {
+            TarArchive.Entry entry;
+            while ((entry = reader.next()) != null) {
+                assertTrue(entry.getName().startsWith("Application"), entry.getName());
+            }
+        }
+        DeltaPackage.extract(archive, root.resolve("extracted"));
+        assertEquals("main 1", new String(Files.readAllBytes(
+                root.resolve("extracted/Application/lib/app/main.jar")), UTF_8));
+    }
+
+    @Test
+    public void testBase() throws IOException {
+        Path base = root.resolve("base");
+        OciLayout.Config config = new OciLayout.Config().setArchitecture("amd64");
+        OciLayout.Result baseResult = OciLayout.write(base, split(image("base-image", "base")), config);
+
+        Path layout = root.resolve("layout");
+        Path previous = root.resolve("previous");
+        OciLayout.Result previousResult = OciLayout.write(previous, split(image("v1", "main")), config);
+        OciLayout.Result result = OciLayout.write(layout, split(image("v1", "main")),
+                config.setBase(base).setPrevious(Collections.singletonList(previous)));
+
+        assertEquals(3, result.getBaseLayers());
+        assertEquals(6, result.getLayers().size());
+        assertEquals(baseResult.getLayers().get(0).getDigest(), result.getLayers().get(0).getDigest());
+        for (OciLayout.Descriptor layer : result.getLayers().subList(3, 6)) {
+            assertTrue(result.isReused(layer));
+        }
+        assertEquals(previousResult.getLayers().get(2).getDigest(), result.getLayers().get(5).getDigest());
+        for (OciLayout.Descriptor layer : result.getLayers()) {
+            assertTrue(Files.isRegularFile(OciLayout.blobPath(layout, layer.getDigest())));
+        }
+
+        Object manifest = readBlob(layout, ((List<?>) JsonReader.get(readJson(layout.resolve(OciLayout.INDEX_FILE)),
+                "manifests")).get(0));
+        Object config1 = readBlob(layout, JsonReader.get(manifest, "config"));
+        assertEquals(6, ((List<?>) JsonReader.get(config1, "rootfs", "diff_ids")).size());
+    }
+
+    @Test
+    public void testJsonReader() {
+        Object json = JsonReader.parse(" {\"a\": [1, 2.5, true, null, \"x\\\"\\u0041\\n\"], \"b\": {\"c\": {}}} ");
+        assertEquals(Arrays.asList(1L, 2.5, true, null, "x\"A\n"), JsonReader.get(json, "a"));
+        assertEquals(Collections.emptyMap(), JsonReader.get(json, "b", "c"));
+        assertEquals(null, JsonReader.get(json, "b", "d", "e"));
+        assertTrue(JsonReader.get(json, "b") instanceof Map);
+    }
+}
@@ -0,0 +1,44 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.condition.OS.LINUX;
+
+public class TestProcessSampler {
+    @Test
+    public void testParseStat() {
+        long[] fields = ProcessSampler.parseStat(
+                "1234 (java (main) x) S 1000 1234 1000 0 -1 4194560 20000 0 0 0 1500 250 0 0 20 0 30 0\n");
+        assertEquals(1000, fields[1]);
+        assertEquals(1500, fields[11]);
+        assertEquals(250, fields[12]);
+    }
+
+    @Test
+    public void testParseField() {
+        String status = "Name:\tjava\nVmPeak:\t  409600 kB\nVmRSS:\t  204800 kB\n";
+        assertEquals(204800, ProcessSampler.parseField(status, "VmRSS:"));
+        assertEquals(0, ProcessSampler.parseField(status, "VmSwap:"));
+
+        String io = "rchar: 100\nwchar: 200\nread_bytes: 4096\nwrite_bytes: 8192\n";
+        assertEquals(4096, ProcessSampler.parseField(io, "read_bytes:"));
+        assertEquals(8192, ProcessSampler.parseField(io, "write_bytes:"));
+    }
+
+    @Test
+    @EnabledOnOs(LINUX)
+    public void testSample() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "sleep 0.3").start();
+        ProcessSampler sampler = ProcessSampler.start(ProcessSampler.getPid(process), 50);
+        process.waitFor();
+        ProcessSampler.Usage usage = sampler.stop();
+        assertTrue(usage.getSamples() > 0);
+        assertTrue(usage.getProcesses() > 0);
+        assertTrue(usage.getPeakRssBytes() > 0);
+    }
+}
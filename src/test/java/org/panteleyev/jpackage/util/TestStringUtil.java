@@ -51,6 +51,16 @@ public class TestStringUtil {
         );
     }
 
+    private static List<Arguments> testJsonStringArguments() {
+        return Arrays.asList(
+                Arguments.of(null, "null"),
+                Arguments.of("", "\"\""),
+                Arguments.of("text", "\"text\""),
+                Arguments.of("a\"b\\c", "\"a\\\"b\\\\c\""),
+                Arguments.of("line\n\t\u0001", "\"line\\n\\t\\u0001\"")
+        );
+    }
+
     @ParameterizedTest
     @MethodSource("dataProvider")
     public void testEscape(String arg, String expected) {
@@ -62,4 +72,10 @@ public class TestStringUtil {
     public void testParseVersion(String versionString, int expected) {
         assertEquals(expected, StringUtil.parseVersion(versionString));
     }
+
+    @ParameterizedTest
+    @MethodSource("testJsonStringArguments")
+    public void testJsonString(String s, String expected) {
+        assertEquals(expected, StringUtil.jsonString(s));
+    }
 }
@@ -0,0 +1,99 @@
+// Copyright © 2026 Petr Panteleyev
+// SPDX-License-Identifier: BSD-2-Clause
+package org.panteleyev.jpackage.util;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTracer {
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String PARENT_ID = "00f067aa0ba902b7";
+
+    @TempDir
+    Path root;
+
+    @Test
+    public void testSpanHierarchy() {
+        Tracer tracer = new Tracer("test", null);
+        try (Tracer.Span parent = tracer.start("parent")) {
+            try (Tracer.Span child = tracer.start("child")) {
+                child.setAttribute("key", "value");
+            }
+        }
+
+        List<Tracer.Span> spans = tracer.getSpans();
+        assertEquals(2, spans.size());
+        assertEquals("child", spans.get(0).getName());
+        assertEquals(spans.get(1).getSpanId(), spans.get(0).getParentId());
+        assertNull(spans.get(1).getParentId());
+    }
+
+    @Test
+    public void testTraceParent() throws IOException {
+        Tracer tracer = new Tracer("test", "00-" + TRACE_ID + "-" + PARENT_ID + "-01");
+        try (Tracer.Span span = tracer.start("jpackage")) {
+            span.setAttribute("count", 3).setAttribute("flag", true);
+        }
+
+        assertEquals(TRACE_ID, tracer.getTraceId());
+        assertEquals(PARENT_ID, tracer.getSpans().get(0).getParentId());
+
+        Path file = root.resolve("trace/trace.json");
+        tracer.exportToFile(file);
+        String json = new String(Files.readAllBytes(file), UTF_8);
+        assertTrue(json.contains("\"traceId\":\"" + TRACE_ID + "\""));
+        assertTrue(json.contains("{\"key\":\"count\",\"value\":{\"intValue\":\"3\"}}"));
+        assertTrue(json.contains("{\"key\":\"flag\",\"value\":{\"boolValue\":true}}"));
+    }
+
+    @Test
+    public void testExportToCollector() throws IOException {
+        AtomicReference<String> received = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/traces", exchange -> {
+            try (InputStream in = exchange.getRequestBody()) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int count;
+                while ((count = in.read(buffer)) != -1) {
+                    body.write(buffer, 0, count);
+                }
+                received.set(new String(body.toByteArray(), UTF_8));
+            }
+            int code = received.get().contains("\"name\":\"fail\"") ? 500 : 200;
+            exchange.sendResponseHeaders(code, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String endpoint = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/traces";
+
+            Tracer tracer = new Tracer("test", null);
+            tracer.start("execute").close();
+            tracer.exportToEndpoint(endpoint, 5000);
+            assertTrue(received.get().contains("\"name\":\"execute\""));
+
+            Tracer failing = new Tracer("test", null);
+            failing.start("fail").close();
+            assertThrows(IOException.class, () -> failing.exportToEndpoint(endpoint, 5000));
+        } finally {
+            server.stop(0);
+        }
+    }
+}